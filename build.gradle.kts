@@ -41,6 +41,15 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// === Micro-benchmarks (test sources, not published) ===
+// Example: ./gradlew benchmark
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Compares the SWAR digit kernels with the per-character loops."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.infoyupay.validator.doi.SwarDigitsBenchmark")
+}
+
 // === Maven Central Publication (New Publisher API) ===
 publishing {
     publications {
@@ -0,0 +1,57 @@
+plugins {
+    `java-library`
+}
+
+group = "com.infoyupay.validator"
+version = "1.0.0"
+
+// === Java 11 Compatibility ===
+// Same baseline as the core library. Only JDK modules are used
+// (jdk.httpserver, java.net.http), so the sidecar stays dependency-free.
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+    modularity.inferModulePath.set(true)
+}
+
+// === Dependencies ===
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    api(project(":"))
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.5")
+    testImplementation("org.junit.jupiter:junit-jupiter-engine:5.10.5")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
+    testImplementation("org.assertj:assertj-core:3.27.6")
+}
+
+// TCP_NODELAY for the JDK HTTP server; it is a JVM-wide launch option, so
+// the sidecar leaves it to whoever starts the JVM.
+val nodelay = listOf("-Dsun.net.httpserver.nodelay=true")
+
+tasks.test {
+    useJUnitPlatform()
+    jvmArgs(nodelay)
+}
+
+// === Load test against localhost ===
+// Example: ./gradlew :server:loadTest --args="concurrency=16 seconds=30 batch=1000"
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the sidecar load-test harness against localhost."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.infoyupay.validator.doi.server.DoiLoadTest")
+    jvmArgs(nodelay)
+}
+
+// === Standalone sidecar ===
+tasks.register<JavaExec>("runServer") {
+    group = "application"
+    description = "Starts the DOI validation sidecar (args: port=8080 threads=N queue=1024)."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.infoyupay.validator.doi.server.DoiValidationServer")
+    jvmArgs(nodelay)
+}
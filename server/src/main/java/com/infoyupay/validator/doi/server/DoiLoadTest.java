@@ -0,0 +1,176 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi.server;
+
+import com.infoyupay.validator.doi.DoiType;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load-test harness for {@link DoiValidationServer} running against localhost.<br>
+ * <br>
+ * Arguments use the form {@code key=value}:<br>
+ * - {@code url}: base URL of a running sidecar; when absent, an embedded sidecar
+ * is started on a free localhost port.<br>
+ * - {@code mode}: {@code single}, {@code ndjson} (default) or {@code binary}.<br>
+ * - {@code concurrency}: client threads (default 8).<br>
+ * - {@code seconds}: test duration (default 10).<br>
+ * - {@code batch}: records per batch request (default 1000).<br>
+ * <br>
+ * Each client thread reuses one keep-alive connection through a shared
+ * {@link HttpClient}. At the end, request and record throughput and client-side
+ * latency percentiles are printed, followed by the server's own metrics.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiLoadTest {
+
+    private static final String[] SAMPLE_RUC = {"20607854247", "20-60785424-7", "20607854241", "10456789013"};
+    private static final String[] SAMPLE_DNI = {"45678901", "4567890", "45.678.901"};
+
+    /**
+     * Private constructor to prevent instantiation.<br>
+     * This class only exposes its entry point.
+     */
+    private DoiLoadTest() {
+        // entry point holder
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args {@code key=value} options, see the class documentation
+     * @throws Exception if the embedded sidecar cannot start or a request fails
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String mode = options.getOrDefault("mode", "ndjson");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        int batch = "single".equals(mode) ? 1 : Integer.parseInt(options.getOrDefault("batch", "1000"));
+
+        DoiValidationServer embedded = null;
+        String url = options.get("url");
+        if (url == null) {
+            embedded = DoiValidationServer.start(new InetSocketAddress("127.0.0.1", 0),
+                    Runtime.getRuntime().availableProcessors(), 1024);
+            url = "http://127.0.0.1:" + embedded.getAddress().getPort();
+        }
+
+        try {
+            var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = request(URI.create(url), mode, batch);
+            var histogram = new LatencyHistogram();
+            var requests = new LongAdder();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                var worker = new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            histogram.record(System.nanoTime() - start);
+                            if (response.statusCode() != 200) {
+                                throw new IllegalStateException("Unexpected status " + response.statusCode());
+                            }
+                            requests.increment();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, "doi-load-" + i);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) worker.join();
+
+            long total = requests.sum();
+            System.out.printf(Locale.ROOT, "mode=%s concurrency=%d batch=%d seconds=%d%n",
+                    mode, concurrency, batch, seconds);
+            System.out.printf(Locale.ROOT, "requests=%d (%.1f req/s), records=%d (%.1f rec/s)%n",
+                    total, total / (double) seconds, total * batch, total * batch / (double) seconds);
+            System.out.printf(Locale.ROOT, "latency us: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                    histogram.getPercentile(50) / 1e3, histogram.getPercentile(90) / 1e3,
+                    histogram.getPercentile(99) / 1e3, histogram.getPercentile(99.9) / 1e3,
+                    histogram.getMax() / 1e3);
+            var metrics = client.send(HttpRequest.newBuilder(URI.create(url + DoiValidationServer.METRICS_PATH)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            System.out.println("server metrics: " + metrics.body());
+        } finally {
+            if (embedded != null) embedded.close();
+        }
+    }
+
+    private static HttpRequest request(URI base, String mode, int batch) {
+        switch (mode) {
+            case "single":
+                return HttpRequest.newBuilder(base.resolve(DoiValidationServer.VALIDATE_PATH
+                        + "?type=RUC&number=20607854247")).GET().build();
+            case "ndjson": {
+                var body = new StringBuilder();
+                for (int i = 0; i < batch; i++) {
+                    boolean ruc = i % 2 == 0;
+                    String number = ruc ? SAMPLE_RUC[i % SAMPLE_RUC.length] : SAMPLE_DNI[i % SAMPLE_DNI.length];
+                    body.append("{\"type\":\"").append(ruc ? "RUC" : "DNI")
+                            .append("\",\"number\":\"").append(number).append("\"}\n");
+                }
+                return HttpRequest.newBuilder(base.resolve(DoiValidationServer.NDJSON_PATH))
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                        .build();
+            }
+            case "binary": {
+                var body = new ByteArrayOutputStream();
+                for (int i = 0; i < batch; i++) {
+                    boolean ruc = i % 2 == 0;
+                    String number = ruc ? SAMPLE_RUC[i % SAMPLE_RUC.length] : SAMPLE_DNI[i % SAMPLE_DNI.length];
+                    body.write((ruc ? DoiType.RUC : DoiType.DNI).ordinal());
+                    body.write(number.length());
+                    body.writeBytes(number.getBytes(StandardCharsets.ISO_8859_1));
+                }
+                return HttpRequest.newBuilder(base.resolve(DoiValidationServer.BINARY_PATH))
+                        .header("Content-Type", "application/octet-stream")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                        .build();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown mode '" + mode + "'");
+        }
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi.server;
+
+import com.infoyupay.validator.doi.DoiFailure;
+import com.infoyupay.validator.doi.DoiType;
+import com.infoyupay.validator.doi.UsageContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embeddable HTTP sidecar exposing DOI validation to non-JVM services.<br>
+ * <br>
+ * Built on the JDK's {@code com.sun.net.httpserver}; HTTP/1.1 keep-alive is
+ * handled by the JDK server as long as request bodies are fully read, which
+ * every endpoint does. Requests run on a bounded pool (fixed threads and a
+ * bounded queue); when both are full the accepting thread runs the request
+ * itself, which stops accepting new connections until capacity is available.<br>
+ * <br>
+ * Endpoints (the {@code type} is a {@link DoiType} name, or a context code when
+ * the {@code context} query parameter names a {@link UsageContext}):<br>
+ * - {@code GET /v1/validate?type=RUC&number=20607854247&strict=false} returns
+ * {@code {"valid":true}} or {@code {"valid":false,"failure":"CHECK_DIGIT_MISMATCH"}}
+ * (see {@link DoiFailure}).<br>
+ * - {@code POST /v1/validate/ndjson} reads one {@code {"type":"DNI","number":"..."}}
+ * object per line (an optional boolean {@code "strict"} member overrides the
+ * query parameter) and answers one result line per non-blank input line, in the
+ * same order. Malformed lines produce {@code {"error":"..."}}.<br>
+ * - {@code POST /v1/validate/binary} reads records of
+ * {@code [type ordinal: u8][length: u8][number: length ISO-8859-1 bytes]} and
+ * answers one byte per record: 0 when valid, otherwise 1 + {@link DoiFailure#ordinal()}.
+ * Unknown ordinals report {@link DoiFailure#MISSING_TYPE}; a body ending inside
+ * a record is answered with 400, or by dropping the connection if results were
+ * already streaming.<br>
+ * - {@code GET /v1/metrics} returns request and record counters, throughput and
+ * request latency percentiles.<br>
+ * <br>
+ * Single-record requests are validated inline instead of being coalesced on
+ * the server: validation costs far less than a queue hand-off, so batching is
+ * offered to clients through the batch endpoints. Batch results up to 64 KB
+ * are sent with a fixed length; larger ones are streamed chunked as they are
+ * produced, so memory per request stays bounded.<br>
+ * <br>
+ * The JDK server flushes response headers before the body, so without
+ * TCP_NODELAY the body of each keep-alive response waits for the client's
+ * delayed ACK (~40 ms). Enable it with the JVM option
+ * {@code -Dsun.net.httpserver.nodelay=true}, as the {@code runServer} and
+ * {@code loadTest} Gradle tasks do. The sidecar does not set it itself: the
+ * property applies to every {@code HttpServer} of the JVM.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiValidationServer implements AutoCloseable {
+
+    /**
+     * Single-record validation path.
+     */
+    public static final String VALIDATE_PATH = "/v1/validate";
+    /**
+     * NDJSON batch validation path.
+     */
+    public static final String NDJSON_PATH = "/v1/validate/ndjson";
+    /**
+     * Binary batch validation path.
+     */
+    public static final String BINARY_PATH = "/v1/validate/binary";
+    /**
+     * Metrics path.
+     */
+    public static final String METRICS_PATH = "/v1/metrics";
+
+    private static final DoiType[] TYPES = DoiType.values();
+
+    /**
+     * Batch results buffered before the response switches to chunked streaming.
+     */
+    private static final int RESPONSE_BUFFER = 1 << 16;
+
+    /**
+     * Handles one exchange and returns the number of validated records.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        long handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder records = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    private DoiValidationServer(HttpServer server, ThreadPoolExecutor executor) {
+        this.server = server;
+        this.executor = executor;
+        server.setExecutor(executor);
+        server.createContext(VALIDATE_PATH, timed(VALIDATE_PATH, "GET", this::single));
+        server.createContext(NDJSON_PATH, timed(NDJSON_PATH, "POST", this::ndjson));
+        server.createContext(BINARY_PATH, timed(BINARY_PATH, "POST", this::binary));
+        server.createContext(METRICS_PATH, timed(METRICS_PATH, "GET", this::metrics));
+    }
+
+    /**
+     * Creates and starts a sidecar.<br>
+     * Launch the JVM with {@code -Dsun.net.httpserver.nodelay=true} (see the
+     * class documentation) for low keep-alive latency.
+     *
+     * @param address       address to bind; port 0 picks a free port
+     * @param threads       number of request threads
+     * @param queueCapacity maximum number of requests waiting for a thread
+     * @return the running server
+     * @throws IOException              if the address cannot be bound
+     * @throws IllegalArgumentException if {@code threads} or {@code queueCapacity} is not positive
+     */
+    public static DoiValidationServer start(InetSocketAddress address, int threads, int queueCapacity)
+            throws IOException {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("threads and queueCapacity must be positive.");
+        }
+        var counter = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    var thread = new Thread(task, "doi-sidecar-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        var sidecar = new DoiValidationServer(HttpServer.create(address, 0), executor);
+        sidecar.server.start();
+        return sidecar;
+    }
+
+    /**
+     * Returns the bound address, useful when started on port 0.
+     *
+     * @return the listening address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Returns the number of handled requests.
+     *
+     * @return request count
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of validated records across all endpoints.
+     *
+     * @return record count
+     */
+    public long getRecords() {
+        return records.sum();
+    }
+
+    /**
+     * Returns the request latency histogram.
+     *
+     * @return live histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Stops accepting requests and shuts the request pool down.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private HttpHandler timed(String path, String method, Endpoint endpoint) {
+        return exchange -> {
+            long start = System.nanoTime();
+            boolean abort = false;
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    sendText(exchange, 404, "Not found");
+                } else if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    sendText(exchange, 405, "Method not allowed");
+                } else {
+                    records.add(endpoint.handle(exchange));
+                }
+            } catch (IllegalArgumentException e) {
+                if (exchange.getResponseCode() == -1) {
+                    sendText(exchange, 400, e.getMessage());
+                } else {
+                    // A 200 is already streaming: leave the exchange open so the
+                    // JDK server drops the connection without the final chunk,
+                    // and the client sees a broken response instead of a short one.
+                    abort = true;
+                    throw new IOException(e.getMessage(), e);
+                }
+            } finally {
+                if (!abort) exchange.close();
+                requests.increment();
+                latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private long single(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        boolean strict = Boolean.parseBoolean(query.get("strict"));
+        var out = new StringBuilder();
+        appendResult(out, check(query.get("type"), context(query), query.get("number"), strict));
+        send(exchange, "application/json", out.toString().getBytes(StandardCharsets.UTF_8));
+        return 1;
+    }
+
+    private long ndjson(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        boolean defaultStrict = Boolean.parseBoolean(query.get("strict"));
+        UsageContext context = context(query);
+
+        long count = 0;
+        var members = new String[3];
+        var out = new StringBuilder(64);
+        var response = new ResponseStream(exchange, "application/x-ndjson");
+        var writer = new BufferedWriter(new OutputStreamWriter(response, StandardCharsets.UTF_8));
+        try (var reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                out.setLength(0);
+                try {
+                    members[0] = members[1] = members[2] = null;
+                    FlatJson.parse(line, (key, value) -> {
+                        if (key.equals("type")) members[0] = value;
+                        else if (key.equals("number")) members[1] = value;
+                        else if (key.equals("strict")) members[2] = value;
+                    });
+                    boolean strict = members[2] == null ? defaultStrict : Boolean.parseBoolean(members[2]);
+                    appendResult(out, check(members[0], context, members[1], strict));
+                    count++;
+                } catch (IllegalArgumentException e) {
+                    out.append("{\"error\":");
+                    FlatJson.quote(out, String.valueOf(e.getMessage()));
+                    out.append('}');
+                }
+                writer.append(out).append('\n');
+            }
+        }
+        writer.flush();
+        response.finish();
+        return count;
+    }
+
+    private long binary(HttpExchange exchange) throws IOException {
+        boolean strict = Boolean.parseBoolean(query(exchange).get("strict"));
+
+        long count = 0;
+        var number = new byte[255];
+        var out = new ResponseStream(exchange, "application/octet-stream");
+        try (var in = new BufferedInputStream(exchange.getRequestBody())) {
+            int ordinal;
+            while ((ordinal = in.read()) != -1) {
+                int length = in.read();
+                if (length == -1 || in.readNBytes(number, 0, length) != length) {
+                    throw new IllegalArgumentException(String.format(
+                            "Record %d is truncated: the body ends inside it.", count + 1));
+                }
+                DoiType type = ordinal < TYPES.length ? TYPES[ordinal] : null;
+                DoiFailure failure = DoiFailure.of(type,
+                        new String(number, 0, length, StandardCharsets.ISO_8859_1), strict);
+                out.write(failure == null ? 0 : 1 + failure.ordinal());
+                count++;
+            }
+        }
+        out.finish();
+        return count;
+    }
+
+    private long metrics(HttpExchange exchange) throws IOException {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long recordCount = records.sum();
+        var json = String.format(Locale.ROOT,
+                "{\"uptimeSeconds\":%.3f,\"requests\":%d,\"records\":%d,\"recordsPerSecond\":%.1f,"
+                        + "\"latencyMicros\":{\"p50\":%.1f,\"p90\":%.1f,\"p99\":%.1f,\"p999\":%.1f,\"max\":%.1f}}",
+                seconds, requests.sum(), recordCount, recordCount / Math.max(seconds, 1e-9),
+                latency.getPercentile(50) / 1e3, latency.getPercentile(90) / 1e3,
+                latency.getPercentile(99) / 1e3, latency.getPercentile(99.9) / 1e3,
+                latency.getMax() / 1e3);
+        send(exchange, "application/json", json.getBytes(StandardCharsets.UTF_8));
+        return 0;
+    }
+
+    private static void appendResult(StringBuilder out, DoiFailure failure) {
+        if (failure == null) {
+            out.append("{\"valid\":true}");
+        } else {
+            out.append("{\"valid\":false,\"failure\":\"").append(failure.name()).append("\"}");
+        }
+    }
+
+    /**
+     * Validates a number whose type is a context code or a {@link DoiType} name. A context
+     * code shared by several types (e.g. FV-3800 {@code "01"} for DNI and TIN) is valid if
+     * any of them accepts the number; otherwise the failure of the first one is reported.
+     */
+    private static DoiFailure check(String type, UsageContext context, String number, boolean strict) {
+        if (type == null) return DoiFailure.MISSING_TYPE;
+        DoiFailure first = null;
+        for (DoiType candidate : resolveTypes(type, context)) {
+            DoiFailure failure = DoiFailure.of(candidate, number, strict);
+            if (failure == null) return null;
+            if (first == null) first = failure;
+        }
+        return first;
+    }
+
+    private static List<DoiType> resolveTypes(String type, UsageContext context) {
+        List<DoiType> resolved;
+        if (context != null) {
+            resolved = context.decodeAll(type);
+        } else {
+            try {
+                resolved = List.of(DoiType.valueOf(type.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                resolved = List.of();
+            }
+        }
+        if (resolved.isEmpty()) throw new IllegalArgumentException("Unknown DOI type '" + type + "'");
+        return resolved;
+    }
+
+    private static UsageContext context(Map<String, String> query) {
+        String context = query.get("context");
+        if (context == null) return null;
+        try {
+            return UsageContext.valueOf(context.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown usage context '" + context + "'");
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return parameters;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, "text/plain; charset=utf-8", String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        send(exchange, 200, contentType, body);
+    }
+
+    /**
+     * Sends a fixed-length response. Batch results are small (one byte or one
+     * short line per record), and a known length lets the whole response leave
+     * in one write instead of a separate chunked terminator, which would
+     * otherwise stall on delayed ACKs of keep-alive connections. Batches larger
+     * than {@link #RESPONSE_BUFFER} are streamed by {@link ResponseStream}.
+     */
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        send(exchange, status, contentType, body, body.length);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body, int length)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        if (length > 0) exchange.getResponseBody().write(body, 0, length);
+    }
+
+    /**
+     * Batch response body with bounded memory.<br>
+     * Results are buffered up to {@link #RESPONSE_BUFFER} bytes: batches that fit
+     * leave as one fixed-length response (see {@link #send(HttpExchange, int, String, byte[])}),
+     * larger ones commit a 200 and stream the rest chunked as it is produced.
+     */
+    private static final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final String contentType;
+        private final byte[] buffer = new byte[RESPONSE_BUFFER];
+        private int size;
+        private OutputStream body;
+
+        ResponseStream(HttpExchange exchange, String contentType) {
+            this.exchange = exchange;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (body == null && size == buffer.length) commit();
+            if (body != null) {
+                body.write(b);
+            } else {
+                buffer[size++] = (byte) b;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (body == null && length > buffer.length - size) commit();
+            if (body != null) {
+                body.write(bytes, offset, length);
+            } else {
+                System.arraycopy(bytes, offset, buffer, size, length);
+                size += length;
+            }
+        }
+
+        /**
+         * Sends the buffered results, as the whole response if nothing was streamed yet.
+         */
+        void finish() throws IOException {
+            if (body == null) {
+                send(exchange, 200, contentType, buffer, size);
+            } else {
+                body.flush();
+            }
+        }
+
+        private void commit() throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, 0);
+            body = exchange.getResponseBody();
+            body.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Starts a standalone sidecar.<br>
+     * Arguments use the form {@code key=value}: {@code host} (default 127.0.0.1),
+     * {@code port} (default 8080), {@code threads} (default: available processors)
+     * and {@code queue} (default 1024).
+     *
+     * @param args command line arguments
+     * @throws IOException if the address cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        var address = new InetSocketAddress(options.getOrDefault("host", "127.0.0.1"),
+                Integer.parseInt(options.getOrDefault("port", "8080")));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int queue = Integer.parseInt(options.getOrDefault("queue", "1024"));
+
+        var sidecar = start(address, threads, queue);
+        Runtime.getRuntime().addShutdownHook(new Thread(sidecar::close, "doi-sidecar-shutdown"));
+        System.out.printf("DOI validation sidecar listening on %s (%d threads, queue %d)%n",
+                sidecar.getAddress(), threads, queue);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi.server;
+
+/**
+ * Minimal reader for flat JSON objects, as found in NDJSON batch lines.<br>
+ * <br>
+ * Only objects whose values are strings, numbers, {@code true}, {@code false}
+ * or {@code null} are supported; nested objects and arrays are rejected. This
+ * keeps the sidecar free of JSON dependencies for its single, fixed request shape.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+final class FlatJson {
+
+    /**
+     * Receives the members of the parsed object.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        /**
+         * Called once per member.
+         *
+         * @param key   member name
+         * @param value unescaped string, number text, {@code "true"}, {@code "false"},
+         *              or {@code null} for JSON null
+         */
+        void member(String key, String value);
+    }
+
+    private final CharSequence text;
+    private int position;
+
+    private FlatJson(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a flat JSON object.
+     *
+     * @param text    the JSON text
+     * @param visitor receives each member
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    static void parse(CharSequence text, Visitor visitor) {
+        new FlatJson(text).object(visitor);
+    }
+
+    /**
+     * Appends {@code value} as a JSON string literal.
+     *
+     * @param out   destination
+     * @param value the value to quote
+     */
+    static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private void object(Visitor visitor) {
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                visitor.member(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') break;
+                if (c != ',') throw error("expected ',' or '}'");
+            }
+        }
+        skipWhitespace();
+        if (position != text.length()) throw error("unexpected trailing content");
+    }
+
+    private String value() {
+        char c = peek();
+        if (c == '"') return string();
+        if (c == '{' || c == '[') throw error("nested values are not supported");
+        int start = position;
+        while (position < text.length() && "\t\r\n ,}".indexOf(text.charAt(position)) < 0) {
+            position++;
+        }
+        String literal = text.subSequence(start, position).toString();
+        if (literal.equals("null")) return null;
+        if (literal.equals("true") || literal.equals("false")) return literal;
+        if (literal.isEmpty() || !literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+            throw error("invalid value '" + literal + "'");
+        }
+        return literal;
+    }
+
+    private String string() {
+        expect('"');
+        var out = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') return out.toString();
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append(escaped);
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) throw error("truncated unicode escape");
+                    try {
+                        out.append((char) Integer.parseInt(text.subSequence(position, position + 4).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && " \t\r\n".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) throw error("unexpected end of input");
+        return text.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) throw error("expected '" + expected + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("Invalid JSON at %d: %s", position, message));
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+/**
+ * Embeddable HTTP sidecar built on {@code com.sun.net.httpserver}.<br>
+ * <br>
+ * Endpoints:
+ * <ul>
+ *  <li>{@code GET /v1/validate}: single record validation</li>
+ *  <li>{@code POST /v1/validate/ndjson}: newline-delimited JSON batches</li>
+ *  <li>{@code POST /v1/validate/binary}: length-prefixed binary batches</li>
+ *  <li>{@code GET /v1/metrics}: throughput and latency percentiles</li>
+ * </ul>
+ * See {@link com.infoyupay.validator.doi.server.DoiValidationServer} for the
+ * request and response formats, and {@link com.infoyupay.validator.doi.server.DoiLoadTest}
+ * for the localhost load-test harness.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+package com.infoyupay.validator.doi.server;
@@ -0,0 +1,24 @@
+/**
+ * Optional HTTP sidecar for <strong>pe.validator.doi</strong>.
+ * <br>
+ * Exposes the same DOI rules implemented by {@link com.infoyupay.validator.doi.DoiType}
+ * and {@link com.infoyupay.validator.doi.RUCUtils} to non-JVM services over HTTP,
+ * so they do not need to re-implement (and drift from) them.
+ *
+ * <br><br>
+ * This module only depends on JDK modules:
+ * <ul>
+ *     <li>{@code jdk.httpserver} for the embedded server.</li>
+ *     <li>{@code java.net.http} for the localhost load-test harness.</li>
+ * </ul>
+ *
+ * @author David Vidal
+ * @since 1.0.0
+ */
+module pe.validator.doi.server {
+    requires transitive pe.validator.doi;
+    requires jdk.httpserver;
+    requires java.net.http;
+
+    exports com.infoyupay.validator.doi.server;
+}
@@ -0,0 +1,207 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi.server;
+
+import com.infoyupay.validator.doi.DoiFailure;
+import com.infoyupay.validator.doi.DoiType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * End-to-end tests of the HTTP sidecar endpoints against localhost.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiValidationServerTest {
+
+    private static DoiValidationServer server;
+    private static HttpClient client;
+    private static URI base;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = DoiValidationServer.start(new InetSocketAddress("127.0.0.1", 0), 2, 16);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+    }
+
+    /**
+     * Single-record validation by type name and by context code.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @DisplayName("GET /v1/validate: valid and invalid single records")
+    void testSingle() throws Exception {
+        assertThat(get("/v1/validate?type=RUC&number=20607854247").body()).isEqualTo("{\"valid\":true}");
+        assertThat(get("/v1/validate?type=6&context=PLE&number=20-60785424-1").body())
+                .isEqualTo("{\"valid\":false,\"failure\":\"CHECK_DIGIT_MISMATCH\"}");
+        assertThat(get("/v1/validate?type=XYZ&number=1").statusCode()).isEqualTo(400);
+        assertThat(get("/v1/validate/unknown").statusCode()).isEqualTo(404);
+    }
+
+    /**
+     * FV-3800 uses "01" for both DNI and TIN: a foreign TIN is valid under that code,
+     * and a number valid for neither reports the failure of DNI, the first declared.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @DisplayName("context codes shared by several types accept any of them")
+    void testSharedContextCode() throws Exception {
+        assertThat(get("/v1/validate?type=01&context=FV_3800&number=GB123456789").body())
+                .isEqualTo("{\"valid\":true}");
+        assertThat(get("/v1/validate?type=01&context=FV_3800&number=45678901").body())
+                .isEqualTo("{\"valid\":true}");
+        assertThat(get("/v1/validate?type=01&context=FV_3800&number=12-3456789&strict=true").body())
+                .isEqualTo("{\"valid\":false,\"failure\":\"INVALID_CHARACTER\"}");
+
+        var body = "{\"type\":\"01\",\"number\":\"GB123456789\"}\n{\"type\":\"06\",\"number\":\"GB123456789\"}\n";
+        var response = client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.NDJSON_PATH + "?context=FV_3800"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.body().split("\n")).containsExactly("{\"valid\":true}",
+                "{\"valid\":false,\"failure\":\"TOO_SHORT\"}");
+    }
+
+    /**
+     * NDJSON batches answer one line per input line, in order.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @DisplayName("POST /v1/validate/ndjson: one result line per input line")
+    void testNdjson() throws Exception {
+        var body = "{\"type\":\"DNI\",\"number\":\"45678901\"}\n"
+                + "{\"type\":\"DNI\",\"number\":\"45.678.901\",\"strict\":true}\n"
+                + "not json\n"
+                + "{\"type\":\"RUC\",\"number\":\"20-60785424-7\"}\n";
+        var response = client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.NDJSON_PATH))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+
+        var lines = response.body().split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("{\"valid\":true}");
+        assertThat(lines[1]).isEqualTo("{\"valid\":false,\"failure\":\"INVALID_CHARACTER\"}");
+        assertThat(lines[2]).startsWith("{\"error\":");
+        assertThat(lines[3]).isEqualTo("{\"valid\":true}");
+    }
+
+    /**
+     * Binary batches answer one status byte per record.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @DisplayName("POST /v1/validate/binary: one status byte per record")
+    void testBinary() throws Exception {
+        var request = new byte[]{
+                (byte) DoiType.DNI.ordinal(), 8, '4', '5', '6', '7', '8', '9', '0', '1',
+                (byte) DoiType.DNI.ordinal(), 3, '4', '5', '6',
+                (byte) 200, 1, '1'
+        };
+        var response = client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.BINARY_PATH))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request)).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.body()).containsExactly(0,
+                1 + DoiFailure.TOO_SHORT.ordinal(),
+                1 + DoiFailure.MISSING_TYPE.ordinal());
+        assertThat(get(DoiValidationServer.METRICS_PATH).body()).contains("\"latencyMicros\"");
+    }
+
+    /**
+     * A body ending inside a record is rejected instead of answering fewer
+     * status bytes than records.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @DisplayName("POST /v1/validate/binary: truncated record answers 400")
+    void testBinaryTruncated() throws Exception {
+        var missingNumber = new byte[]{(byte) DoiType.DNI.ordinal(), 3, '4', '5', '6', (byte) DoiType.DNI.ordinal(), 8, '4'};
+        var missingLength = new byte[]{(byte) DoiType.DNI.ordinal(), 3, '4', '5', '6', (byte) DoiType.DNI.ordinal()};
+        for (byte[] request : new byte[][]{missingNumber, missingLength}) {
+            var response = client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.BINARY_PATH))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(request)).build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(400);
+            assertThat(response.body()).contains("Record 2 is truncated");
+        }
+    }
+
+    /**
+     * Batches whose results exceed the response buffer are streamed chunked
+     * and still answer every record; a truncated record found after the
+     * response started drops the connection instead of ending it cleanly.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    @DisplayName("Large batches: chunked streaming, broken response on late truncation")
+    void testLargeBatches() throws Exception {
+        var body = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) body.append("{\"type\":\"DNI\",\"number\":\"45678901\"}\n");
+        var ndjson = client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.NDJSON_PATH))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(ndjson.statusCode()).isEqualTo(200);
+        assertThat(ndjson.headers().firstValue("Content-Length")).isEmpty();
+        assertThat(ndjson.body().split("\n")).hasSize(20_000).containsOnly("{\"valid\":true}");
+
+        var records = new ByteArrayOutputStream();
+        for (int i = 0; i < 100_000; i++) {
+            records.write(DoiType.DNI.ordinal());
+            records.write(8);
+            records.writeBytes("45678901".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        var complete = records.toByteArray();
+        var binary = client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.BINARY_PATH))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(complete)).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(binary.body()).hasSize(100_000).containsOnly(0);
+
+        var truncated = Arrays.copyOf(complete, complete.length - 3);
+        assertThatThrownBy(() -> client.send(HttpRequest.newBuilder(base.resolve(DoiValidationServer.BINARY_PATH))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(truncated)).build(), HttpResponse.BodyHandlers.ofByteArray()))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1 +1,4 @@
 rootProject.name = "pe.validator.doi"
+
+// Optional HTTP sidecar exposing the validators to non-JVM services.
+include("server")
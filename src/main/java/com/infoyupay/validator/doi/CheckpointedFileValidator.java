@@ -0,0 +1,393 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * Incremental revalidation of append-only report files through a checkpoint sidecar.<br>
+ * <br>
+ * A full pass of {@link ReportFileValidator} over a file that only grows repeats
+ * work already done. This class stores, next to each pass, a small checkpoint
+ * with:<br>
+ * - the byte offset just after the last complete line (ending in {@code '\n'})
+ * and the number of lines before it;<br>
+ * - CRC-32C hashes of the first and of the last {@value #HASH_WINDOW} bytes
+ * before that offset, plus the file layout, charset and validation mode;<br>
+ * - the rolled-up {@link ReportFileValidator.Summary} counters.<br>
+ * <br>
+ * The next call validates only the bytes appended after the offset and merges
+ * their counters into the stored ones. A trailing line without {@code '\n'}
+ * is left for the next call, since it may still be being written. The
+ * checkpoint is discarded and the whole file is scanned again when the file
+ * is shorter than the offset (truncated), when either hash differs
+ * (rewritten), or when the configuration or the checkpoint itself does not
+ * match. Rewrites that keep both hashed windows intact are not detected.
+ * Line numbers reported to the listener are always absolute.<br>
+ * <br>
+ * Offsets are counted at {@code '\n'} bytes, which is correct for
+ * ISO-8859-1, UTF-8 and other ASCII-compatible charsets; files whose lines end
+ * with a lone {@code '\r'} are not supported. The checkpoint is replaced
+ * atomically when the file system allows it, so an interrupted run leaves the
+ * previous checkpoint intact.<br>
+ * <br>
+ * Instances are immutable and may be shared, but concurrent calls must not use
+ * the same checkpoint file.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class CheckpointedFileValidator {
+
+    /**
+     * Number of bytes covered by each of the head and tail hashes.
+     */
+    public static final int HASH_WINDOW = 4096;
+
+    private static final String VERSION = "1";
+
+    /**
+     * How a call scanned the file.
+     */
+    public enum Scan {
+        /**
+         * The whole file was validated: no usable checkpoint existed, or the
+         * file was truncated, rewritten or validated with another configuration.
+         */
+        FULL,
+        /**
+         * Only the bytes appended since the checkpoint were validated.
+         */
+        INCREMENTAL
+    }
+
+    /**
+     * Outcome of a checkpointed validation.
+     */
+    public static final class Result {
+        private final Scan scan;
+        private final long startOffset;
+        private final long endOffset;
+        private final ReportFileValidator.Summary summary;
+
+        private Result(Scan scan, long startOffset, long endOffset, ReportFileValidator.Summary summary) {
+            this.scan = scan;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.summary = summary;
+        }
+
+        /**
+         * Returns how the file was scanned.
+         *
+         * @return scan kind
+         */
+        public Scan getScan() {
+            return scan;
+        }
+
+        /**
+         * Returns the byte offset where this call started reading.
+         *
+         * @return 0 for a full scan; the checkpoint offset otherwise
+         */
+        public long getStartOffset() {
+            return startOffset;
+        }
+
+        /**
+         * Returns the byte offset just after the last complete line validated, as stored in the new checkpoint.
+         *
+         * @return end offset
+         */
+        public long getEndOffset() {
+            return endOffset;
+        }
+
+        /**
+         * Returns the number of bytes read by this call.
+         *
+         * @return scanned bytes
+         */
+        public long getBytesScanned() {
+            return endOffset - startOffset;
+        }
+
+        /**
+         * Returns the counters of the whole file up to {@link #getEndOffset()},
+         * including those carried over from the checkpoint.
+         *
+         * @return cumulative counters
+         */
+        public ReportFileValidator.Summary getSummary() {
+            return summary;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result[scan=%s, start=%d, end=%d, summary=%s]", scan, startOffset, endOffset, summary);
+        }
+    }
+
+    private final ReportFileValidator validator;
+
+    /**
+     * Creates a checkpointed validator.
+     *
+     * @param validator validator defining the file layout; must not be null
+     * @throws NullPointerException if {@code validator} is null
+     */
+    public CheckpointedFileValidator(ReportFileValidator validator) {
+        this.validator = Objects.requireNonNull(validator, "validator must not be null to validate incrementally.");
+    }
+
+    /**
+     * Validates the part of {@code file} not covered by {@code checkpoint} and updates the checkpoint.
+     *
+     * @param file       append-only report file; must not be null
+     * @param checkpoint sidecar file, created if absent; must not be null
+     * @param charset    file encoding; must be ASCII-compatible and not null
+     * @param listener   receives rejected records of the scanned part, with
+     *                   absolute line numbers; may be {@code null}
+     * @return the scan kind, offsets and cumulative counters
+     * @throws IOException if the file cannot be read or the checkpoint cannot be written
+     */
+    public Result validate(Path file, Path checkpoint, Charset charset,
+                           ReportFileValidator.Listener listener) throws IOException {
+        Objects.requireNonNull(file, "file must not be null to validate incrementally.");
+        Objects.requireNonNull(checkpoint, "checkpoint must not be null to validate incrementally.");
+        Objects.requireNonNull(charset, "charset must not be null to validate incrementally.");
+        String layout = validator.layout() + ',' + charset.name();
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Checkpoint previous = Checkpoint.read(checkpoint, layout);
+            if (previous != null && !previous.matches(channel, size)) previous = null;
+
+            long start = previous == null ? 0 : previous.offset;
+            long end = lastLineEnd(channel, start, size);
+            long lines = previous == null ? 0 : previous.lines;
+            ReportFileValidator.Summary summary = previous == null
+                    ? ReportFileValidator.Summary.of(0, 0, new long[ReportFileValidator.Reason.values().length])
+                    : previous.summary;
+
+            if (end > start) {
+                var in = new LineCountingInputStream(Channels.newInputStream(channel.position(start)), end - start);
+                ReportFileValidator.Listener shifted = listener == null ? null
+                        : (line, column, reason, value) -> listener.onError(lines + line, column, reason, value);
+                summary.combine(validator.validate(new InputStreamReader(in, charset), shifted));
+                var next = new Checkpoint(layout, end, lines + in.newlines,
+                        hash(channel, 0, Math.min(HASH_WINDOW, end)),
+                        hash(channel, Math.max(0, end - HASH_WINDOW), end), summary);
+                next.write(checkpoint);
+            }
+            return new Result(previous == null ? Scan.FULL : Scan.INCREMENTAL, start, end, summary);
+        }
+    }
+
+    /**
+     * Offset just after the last {@code '\n'} in {@code [from, size)}, or {@code from} if there is none.
+     */
+    private static long lastLineEnd(FileChannel channel, long from, long size) throws IOException {
+        var buffer = ByteBuffer.allocate(HASH_WINDOW);
+        long limit = size;
+        while (limit > from) {
+            long position = Math.max(from, limit - HASH_WINDOW);
+            buffer.clear().limit((int) (limit - position));
+            readFully(channel, buffer, position);
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            limit = position;
+        }
+        return from;
+    }
+
+    private static long hash(FileChannel channel, long from, long to) throws IOException {
+        var buffer = ByteBuffer.allocate((int) (to - from));
+        readFully(channel, buffer, from);
+        var crc = new CRC32C();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new IOException("Unexpected end of file while validating incrementally.");
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Persisted state of a previous pass.
+     */
+    private static final class Checkpoint {
+        private final String layout;
+        private final long offset;
+        private final long lines;
+        private final long headHash;
+        private final long tailHash;
+        private final ReportFileValidator.Summary summary;
+
+        Checkpoint(String layout, long offset, long lines, long headHash, long tailHash,
+                   ReportFileValidator.Summary summary) {
+            this.layout = layout;
+            this.offset = offset;
+            this.lines = lines;
+            this.headHash = headHash;
+            this.tailHash = tailHash;
+            this.summary = summary;
+        }
+
+        /**
+         * Reads a checkpoint; {@code null} if it is absent, unreadable or written for another configuration.
+         */
+        static Checkpoint read(Path path, String layout) throws IOException {
+            if (!Files.isRegularFile(path)) return null;
+            var properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (!VERSION.equals(properties.getProperty("version"))
+                    || !layout.equals(properties.getProperty("layout"))) {
+                return null;
+            }
+            try {
+                var reasons = ReportFileValidator.Reason.values();
+                long[] errors = new long[reasons.length];
+                for (int i = 0; i < reasons.length; i++) {
+                    errors[i] = number(properties, "errors." + reasons[i].name());
+                }
+                var summary = ReportFileValidator.Summary.of(number(properties, "records"),
+                        number(properties, "skipped"), errors);
+                return new Checkpoint(layout, number(properties, "offset"), number(properties, "lines"),
+                        Long.parseLong(properties.getProperty("headHash"), 16),
+                        Long.parseLong(properties.getProperty("tailHash"), 16), summary);
+            } catch (NumberFormatException | NullPointerException e) {
+                return null;
+            }
+        }
+
+        private static long number(Properties properties, String key) {
+            long value = Long.parseLong(properties.getProperty(key));
+            if (value < 0) throw new NumberFormatException(key + " must not be negative");
+            return value;
+        }
+
+        /**
+         * Whether the file still starts with the bytes this checkpoint covered.
+         */
+        boolean matches(FileChannel channel, long size) throws IOException {
+            return size >= offset
+                    && hash(channel, 0, Math.min(HASH_WINDOW, offset)) == headHash
+                    && hash(channel, Math.max(0, offset - HASH_WINDOW), offset) == tailHash;
+        }
+
+        /**
+         * Writes the checkpoint to a sibling temporary file and moves it into place.
+         */
+        void write(Path path) throws IOException {
+            Path absolute = path.toAbsolutePath();
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    var properties = new Properties();
+                    properties.setProperty("version", VERSION);
+                    properties.setProperty("layout", layout);
+                    properties.setProperty("offset", Long.toString(offset));
+                    properties.setProperty("lines", Long.toString(lines));
+                    properties.setProperty("headHash", Long.toHexString(headHash));
+                    properties.setProperty("tailHash", Long.toHexString(tailHash));
+                    properties.setProperty("records", Long.toString(summary.getRecords()));
+                    properties.setProperty("skipped", Long.toString(summary.getSkipped()));
+                    for (ReportFileValidator.Reason reason : ReportFileValidator.Reason.values()) {
+                        properties.setProperty("errors." + reason.name(), Long.toString(summary.getErrors(reason)));
+                    }
+                    properties.store(writer, "DOI validation checkpoint");
+                }
+                try {
+                    Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Reads at most {@code limit} bytes and counts the {@code '\n'} bytes read.
+     */
+    private static final class LineCountingInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+        private long newlines;
+
+        LineCountingInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) return -1;
+            int b = in.read();
+            if (b < 0) return -1;
+            remaining--;
+            if (b == '\n') newlines++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) return -1;
+            int read = in.read(b, off, (int) Math.min(len, remaining));
+            if (read < 0) return -1;
+            remaining -= read;
+            for (int i = off; i < off + read; i++) {
+                if (b[i] == '\n') newlines++;
+            }
+            return read;
+        }
+    }
+}
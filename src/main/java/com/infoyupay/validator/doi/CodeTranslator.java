@@ -0,0 +1,318 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.util.Objects;
+
+/**
+ * Translates DOI type codes from one {@link UsageContext} code space to another,
+ * e.g. PLE {@code "6"} to PLAME {@code "06"} for RUC.<br>
+ * <br>
+ * One translator exists per (source, target) pair and {@link DoiCatalog}, built
+ * with the catalog from the codes of its rules into a direct-indexed table over
+ * the 110 one and two-digit codes; obtain the one of the catalog currently
+ * published with {@link #of(UsageContext, UsageContext)}. A translator keeps
+ * the codes of its catalog, so bulk jobs get one consistent table even if a new
+ * catalog is published meanwhile. Translating a single code or a whole column
+ * is an array lookup per record, without hashing or allocation: the returned
+ * strings are the codes held by the catalog rules.<br>
+ * <br>
+ * Results use three sentinels:<br>
+ * - {@code null} / {@link #UNKNOWN_KEY}: the code does not exist in the source context.<br>
+ * - {@link #UNSUITABLE} / {@link #UNSUITABLE_KEY}: the DOI type exists but the
+ * target context does not accept it.<br>
+ * - {@link #AMBIGUOUS} / {@link #AMBIGUOUS_KEY}: the source code is shared by
+ * several DOI types (see {@link UsageContext#decodeAll(CharSequence)}) that the
+ * target context tells apart, so the record alone does not say which target code
+ * applies.<br>
+ * <br>
+ * A shared source code is still translated when every type sharing it has the
+ * same target code, or none is accepted by the target: PLE {@code "0"} stays
+ * {@code "0"} within PLE, while FV-3800 {@code "01"} (DNI or TIN) is ambiguous
+ * towards PLAME, which accepts DNI as {@code "01"} but not TIN.<br>
+ * <br>
+ * Columns can also be dictionary-encoded as code keys, one byte per record,
+ * see {@link #keyOf(CharSequence)} and {@link #codeOf(int)}. Catalog codes
+ * other than one or two digits have no key and translate to {@link #UNKNOWN_KEY}.<br>
+ * <br>
+ * Instances are immutable and thread-safe.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class CodeTranslator {
+
+    /**
+     * Translation result for DOI types the target context does not accept.
+     */
+    public static final String UNSUITABLE = "";
+    /**
+     * Key of a code that does not exist in the source context, or that is not
+     * a one or two-digit code.
+     */
+    public static final int UNKNOWN_KEY = -1;
+    /**
+     * Key translation result for DOI types the target context does not accept.
+     */
+    public static final int UNSUITABLE_KEY = -2;
+    /**
+     * Translation result for source codes shared by DOI types with different
+     * target codes.
+     */
+    public static final String AMBIGUOUS = "?";
+    /**
+     * Key translation result for source codes shared by DOI types with different
+     * target codes.
+     */
+    public static final int AMBIGUOUS_KEY = -3;
+
+    private final UsageContext source;
+    private final UsageContext target;
+    /**
+     * Target code for each source code key.
+     */
+    private final String[] codes;
+    /**
+     * Target code key for each source code key.
+     */
+    private final byte[] keys;
+
+    /**
+     * Builds the table of one context pair; called by {@link DoiCatalog} when it is created.
+     */
+    CodeTranslator(DoiCatalog catalog, UsageContext source, UsageContext target) {
+        this.source = source;
+        this.target = target;
+        this.codes = new String[UsageContext.CodeTable.SIZE];
+        this.keys = new byte[UsageContext.CodeTable.SIZE];
+        for (int key = 0; key < codes.length; key++) {
+            String code = translate(catalog.candidates(source, codeOf(key)), target);
+            codes[key] = code;
+            if (code == null) {
+                keys[key] = UNKNOWN_KEY;
+            } else if (code == UNSUITABLE) {
+                keys[key] = UNSUITABLE_KEY;
+            } else if (code == AMBIGUOUS) {
+                keys[key] = AMBIGUOUS_KEY;
+            } else {
+                keys[key] = (byte) UsageContext.CodeTable.key(code);
+            }
+        }
+    }
+
+    /**
+     * Resolves the target code of the DOI types sharing one source code.
+     */
+    private static String translate(DoiRule[] candidates, UsageContext target) {
+        String code = null;
+        for (DoiRule rule : candidates) {
+            String id = rule.isSuitableFor(target) ? rule.getId(target) : UNSUITABLE;
+            if (code == null) {
+                code = id;
+            } else if (!code.equals(id)) {
+                return AMBIGUOUS;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Returns the translator between two contexts for the catalog currently published.
+     *
+     * @param source context of the input codes
+     * @param target context of the output codes
+     * @return the shared translator of {@link DoiCatalog#current()}
+     * @throws NullPointerException if a context is null
+     */
+    public static CodeTranslator of(UsageContext source, UsageContext target) {
+        return of(DoiCatalog.current(), source, target);
+    }
+
+    /**
+     * Returns the translator between two contexts for a given catalog.
+     *
+     * @param catalog catalog whose codes are translated
+     * @param source  context of the input codes
+     * @param target  context of the output codes
+     * @return the shared translator of {@code catalog}
+     * @throws NullPointerException if an argument is null
+     */
+    public static CodeTranslator of(DoiCatalog catalog, UsageContext source, UsageContext target) {
+        Objects.requireNonNull(catalog, "catalog must not be null to translate codes.");
+        Objects.requireNonNull(source, "source context must not be null to translate codes.");
+        Objects.requireNonNull(target, "target context must not be null to translate codes.");
+        return catalog.translator(source, target);
+    }
+
+    /**
+     * Returns the context of the input codes.
+     *
+     * @return the source context
+     */
+    public UsageContext getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the context of the output codes.
+     *
+     * @return the target context
+     */
+    public UsageContext getTarget() {
+        return target;
+    }
+
+    /**
+     * Translates a single code.
+     *
+     * @param code source context code; may be {@code null}
+     * @return the target code, {@link #UNSUITABLE} if the target does not accept
+     * the DOI type, {@link #AMBIGUOUS} if the code is shared by types the target
+     * tells apart, or {@code null} if the code is unknown in the source context
+     */
+    public String translate(CharSequence code) {
+        int key = keyOf(code);
+        return key < 0 ? null : codes[key];
+    }
+
+    /**
+     * Translates a single code given as ASCII bytes, e.g. a field of a report line.
+     *
+     * @param bytes  buffer holding the code
+     * @param offset start of the code
+     * @param length length of the code
+     * @return the target code, {@link #UNSUITABLE}, {@link #AMBIGUOUS}, or {@code null} if unknown
+     * @throws IndexOutOfBoundsException if the range is outside {@code bytes}
+     */
+    public String translate(byte[] bytes, int offset, int length) {
+        int key = keyOf(bytes, offset, length);
+        return key < 0 ? null : codes[key];
+    }
+
+    /**
+     * Translates a code key.
+     *
+     * @param key source code key, see {@link #keyOf(CharSequence)}
+     * @return the target code key, {@link #UNSUITABLE_KEY}, {@link #AMBIGUOUS_KEY}
+     * or {@link #UNKNOWN_KEY}
+     */
+    public int translateKey(int key) {
+        return key < 0 || key >= keys.length ? UNKNOWN_KEY : keys[key];
+    }
+
+    /**
+     * Translates a column of codes.
+     *
+     * @param source source codes; null entries are unknown codes
+     * @param target receives the target codes, {@link #UNSUITABLE}, {@link #AMBIGUOUS} or {@code null};
+     *               may be the same array as {@code source}
+     * @param from   first index, inclusive
+     * @param to     last index, exclusive
+     * @return number of codes translated to a target code
+     * @throws IndexOutOfBoundsException if the range is outside either array
+     */
+    public int translate(String[] source, String[] target, int from, int to) {
+        Objects.checkFromToIndex(from, to, source.length);
+        Objects.checkFromToIndex(from, to, target.length);
+        int translated = 0;
+        for (int i = from; i < to; i++) {
+            int key = keyOf(source[i]);
+            target[i] = key < 0 ? null : codes[key];
+            if (key >= 0 && keys[key] >= 0) translated++;
+        }
+        return translated;
+    }
+
+    /**
+     * Translates a dictionary-encoded column of code keys, one byte per record.
+     *
+     * @param source source code keys
+     * @param target receives the target code keys, {@link #UNSUITABLE_KEY},
+     *               {@link #AMBIGUOUS_KEY} or {@link #UNKNOWN_KEY}; may be the same
+     *               array as {@code source}
+     * @param from   first index, inclusive
+     * @param to     last index, exclusive
+     * @return number of keys translated to a target code key
+     * @throws IndexOutOfBoundsException if the range is outside either array
+     */
+    public int translateKeys(byte[] source, byte[] target, int from, int to) {
+        Objects.checkFromToIndex(from, to, source.length);
+        Objects.checkFromToIndex(from, to, target.length);
+        int translated = 0;
+        for (int i = from; i < to; i++) {
+            int key = source[i];
+            byte result = key < 0 || key >= keys.length ? UNKNOWN_KEY : keys[key];
+            target[i] = result;
+            if (result >= 0) translated++;
+        }
+        return translated;
+    }
+
+    /**
+     * Returns the key of a one or two-digit code: {@code "0"}–{@code "9"} map to
+     * 0–9 and {@code "00"}–{@code "99"} to 10–109. Keys fit in a byte.
+     *
+     * @param code the code; may be {@code null}
+     * @return the key, or {@link #UNKNOWN_KEY} for any other code
+     */
+    public static int keyOf(CharSequence code) {
+        return code == null ? UNKNOWN_KEY : UsageContext.CodeTable.key(code);
+    }
+
+    /**
+     * Returns the key of a one or two-digit code given as ASCII bytes.
+     *
+     * @param bytes  buffer holding the code
+     * @param offset start of the code
+     * @param length length of the code
+     * @return the key, or {@link #UNKNOWN_KEY} for any other code
+     * @throws IndexOutOfBoundsException if the range is outside {@code bytes}
+     */
+    public static int keyOf(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0 || length > 2) return UNKNOWN_KEY;
+        int first = bytes[offset] - '0';
+        if (first < 0 || first > 9) return UNKNOWN_KEY;
+        if (length == 1) return first;
+        int second = bytes[offset + 1] - '0';
+        if (second < 0 || second > 9) return UNKNOWN_KEY;
+        return 10 + first * 10 + second;
+    }
+
+    /**
+     * Returns the code of a key, the inverse of {@link #keyOf(CharSequence)}.
+     *
+     * @param key code key, from 0 to 109
+     * @return the code
+     * @throws IllegalArgumentException if {@code key} is out of range
+     */
+    public static String codeOf(int key) {
+        if (key < 0 || key >= UsageContext.CodeTable.SIZE) {
+            throw new IllegalArgumentException(String.format("Invalid code key %d.", key));
+        }
+        return key < 10 ? String.valueOf(key) : String.format("%02d", key - 10);
+    }
+
+    @Override
+    public String toString() {
+        return "CodeTranslator[" + source + " -> " + target + "]";
+    }
+}
@@ -0,0 +1,588 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Registry of known DNIs as a bitmap over the whole 8-digit space.<br>
+ * <br>
+ * A DNI is its packed key (see {@link DoiKeys}), a number below
+ * {@link #CAPACITY}, so one bit per possible DNI indexes the registry
+ * directly: 12.5 MB of native memory for any number of DNIs, with
+ * membership in a single load instead of hashing. Per-block counts kept in
+ * a Fenwick tree answer {@link #rank(long)} and {@link #count(long, long)}
+ * in a few hundred operations.<br>
+ * <br>
+ * Reads never lock. Updates are serialized by a writer lock and published
+ * through a version counter, a sequence lock: a reader that overlaps an update
+ * retries once it is done, so {@link #contains(long)}, {@link #rank(long)} and
+ * the counts see every update, including a whole {@link #addAll(long[], int, int)}
+ * batch, either entirely or not at all. {@link #forEach(LongConsumer)} cannot
+ * retry an action and only sees each word before or after an update.<br>
+ * <br>
+ * {@link #write(Path)} stores the bitmap and its counts as they are in
+ * memory; {@link #map(Path)} maps such a file read-only instead of parsing it,
+ * and {@link #map(Path, boolean)} can map it privately for updates that copy
+ * pages only when they are modified.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DniRegistry {
+
+    /**
+     * Number of possible DNIs: keys range from 0 to {@code CAPACITY - 1}.
+     */
+    public static final long CAPACITY = 100_000_000L;
+
+    private static final long MAGIC = 0x3147_4552_494E_44L; // "DNIREG1" read as little-endian
+    private static final int HEADER_BYTES = 4 * Long.BYTES;
+    private static final int WORDS = (int) ((CAPACITY + 63) >>> 6);
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCKS = (WORDS + (1 << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT;
+    private static final int BATCH = 4096;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Counters of a streaming build.
+     */
+    public static final class Summary {
+        private long records;
+        private long invalid;
+        private long added;
+
+        /**
+         * Returns the number of records read.
+         *
+         * @return record count
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Returns the number of records rejected by validation.
+         *
+         * @return invalid record count
+         */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        /**
+         * Returns the number of DNIs that were not registered yet.
+         *
+         * @return added DNI count
+         */
+        public long getAdded() {
+            return added;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary[records=" + records + ", invalid=" + invalid + ", added=" + added + "]";
+        }
+    }
+
+    private final ByteBuffer bits;
+    private final ByteBuffer tree;
+    private final Object writeLock = new Object();
+    /**
+     * Odd while an update is in flight.
+     */
+    private volatile int version;
+
+    /**
+     * Creates an empty registry in native memory.
+     */
+    public DniRegistry() {
+        this(ByteBuffer.allocateDirect(WORDS * Long.BYTES + Long.BYTES - 1).alignedSlice(Long.BYTES),
+                ByteBuffer.allocateDirect((BLOCKS + 1) * Integer.BYTES + Integer.BYTES - 1).alignedSlice(Integer.BYTES));
+    }
+
+    private DniRegistry(ByteBuffer bits, ByteBuffer tree) {
+        this.bits = bits;
+        this.tree = tree;
+    }
+
+    /**
+     * Returns the number of registered DNIs.
+     *
+     * @return the size
+     */
+    public int size() {
+        while (true) {
+            int start = beginRead();
+            int size = prefix(BLOCKS);
+            if (validate(start)) return size;
+        }
+    }
+
+    /**
+     * Indicates whether no DNI is registered.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the memory taken by the bitmap and its counts.
+     *
+     * @return size in bytes
+     */
+    public long sizeInBytes() {
+        return (long) WORDS * Long.BYTES + (BLOCKS + 1L) * Integer.BYTES;
+    }
+
+    /**
+     * Indicates whether a DNI is registered. Never blocks.
+     *
+     * @param key packed DNI key
+     * @return {@code true} if registered; {@code false} for keys outside the DNI space
+     */
+    public boolean contains(long key) {
+        if (key < 0 || key >= CAPACITY) return false;
+        int index = (int) (key >>> 6);
+        while (true) {
+            int start = beginRead();
+            boolean found = (word(index) & 1L << key) != 0;
+            if (validate(start)) return found;
+        }
+    }
+
+    /**
+     * Indicates whether a raw DNI number is valid and registered.
+     *
+     * @param number raw DNI number; may be {@code null}
+     * @param strict whether sanitization should be disabled
+     * @return {@code true} if {@link DoiType#DNI} validates the number and it is registered
+     */
+    public boolean contains(String number, boolean strict) {
+        return contains(pack(number, strict));
+    }
+
+    /**
+     * Registers a DNI.
+     *
+     * @param key packed DNI key
+     * @return {@code true} if it was not registered yet
+     * @throws IllegalArgumentException if {@code key} is outside the DNI space
+     */
+    public boolean add(long key) {
+        checkKey(key);
+        synchronized (writeLock) {
+            beginWrite();
+            try {
+                return change((int) (key >>> 6), 1L << key, true) != 0;
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    /**
+     * Unregisters a DNI.
+     *
+     * @param key packed DNI key
+     * @return {@code true} if it was registered
+     */
+    public boolean remove(long key) {
+        if (key < 0 || key >= CAPACITY) return false;
+        synchronized (writeLock) {
+            beginWrite();
+            try {
+                return change((int) (key >>> 6), 1L << key, false) != 0;
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    /**
+     * Registers a range of DNIs, updating each word of the bitmap once per
+     * run of keys that fall in it; sorted keys need one update per word.<br>
+     * All keys are checked before any is registered, and readers see the
+     * whole range registered or none of it.
+     *
+     * @param keys packed DNI keys
+     * @param from first index, inclusive
+     * @param to   last index, exclusive
+     * @return number of DNIs that were not registered yet
+     * @throws IllegalArgumentException if a key is outside the DNI space
+     */
+    public int addAll(long[] keys, int from, int to) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        for (int i = from; i < to; i++) checkKey(keys[i]);
+        return update(keys, from, to, true);
+    }
+
+    /**
+     * Unregisters a range of DNIs, updating each word of the bitmap once per
+     * run of keys that fall in it. Keys outside the DNI space are ignored.<br>
+     * Readers see the whole range unregistered or none of it.
+     *
+     * @param keys packed DNI keys
+     * @param from first index, inclusive
+     * @param to   last index, exclusive
+     * @return number of DNIs that were registered
+     */
+    public int removeAll(long[] keys, int from, int to) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        synchronized (writeLock) {
+            beginWrite();
+            try {
+                int removed = 0;
+                for (int i = from; i < to; ) {
+                    if (keys[i] < 0 || keys[i] >= CAPACITY) {
+                        i++;
+                        continue;
+                    }
+                    int end = runEnd(keys, i, to);
+                    removed += apply(keys, i, end, false);
+                    i = end;
+                }
+                return removed;
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    /**
+     * Registers the DNIs of a line-oriented source in one streaming pass, such
+     * as a file opened with {@link java.nio.file.Files#newBufferedReader(Path)}.
+     * Each line is validated as a {@link DoiType#DNI}; rejected lines are counted.
+     * Valid DNIs are registered in batches, each seen by readers as a whole.
+     * The reader is not closed.
+     *
+     * @param input  one raw DNI number per line
+     * @param strict whether sanitization should be disabled
+     * @return counters of the source
+     * @throws IOException if reading fails
+     */
+    public Summary addAll(Reader input, boolean strict) throws IOException {
+        Objects.requireNonNull(input, "input must not be null to build a DNI registry.");
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input
+                : new BufferedReader(input, 1 << 16);
+        var summary = new Summary();
+        var batch = new long[BATCH];
+        int size = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            summary.records++;
+            long key = pack(line, strict);
+            if (key < 0) {
+                summary.invalid++;
+                continue;
+            }
+            batch[size++] = key;
+            if (size == batch.length) {
+                summary.added += update(batch, 0, size, true);
+                size = 0;
+            }
+        }
+        summary.added += update(batch, 0, size, true);
+        return summary;
+    }
+
+    /**
+     * Returns the number of registered DNIs below a key.
+     *
+     * @param key packed DNI key; values outside the DNI space are clamped
+     * @return count of registered keys smaller than {@code key}
+     */
+    public int rank(long key) {
+        if (key <= 0) return 0;
+        if (key >= CAPACITY) return size();
+        while (true) {
+            int start = beginRead();
+            int rank = rankOf(key);
+            if (validate(start)) return rank;
+        }
+    }
+
+    /**
+     * Returns the number of registered DNIs in a key range.
+     *
+     * @param fromKey first key, inclusive
+     * @param toKey   last key, exclusive
+     * @return count of registered keys in {@code [fromKey, toKey)}
+     */
+    public int count(long fromKey, long toKey) {
+        if (fromKey >= toKey || toKey <= 0) return 0;
+        while (true) {
+            int start = beginRead();
+            int count = (toKey >= CAPACITY ? prefix(BLOCKS) : rankOf(toKey)) - (fromKey <= 0 ? 0 : rankOf(fromKey));
+            if (validate(start)) return count;
+        }
+    }
+
+    /**
+     * Passes every registered DNI to an action, in ascending order.
+     *
+     * @param action receives packed DNI keys
+     */
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action, "action must not be null to iterate a DNI registry.");
+        for (int i = 0; i < WORDS; i++) {
+            long word = word(i);
+            while (word != 0) {
+                action.accept(((long) i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Writes the registry to a file that {@link #map(Path)} can load.<br>
+     * The layout is a header followed by the bitmap words and the block
+     * counts, little-endian, exactly as held in memory. Updates wait until the
+     * file is written.
+     *
+     * @param file target file; replaced if it exists
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null to write a DNI registry.");
+        synchronized (writeLock) {
+            writeTo(file);
+        }
+    }
+
+    private void writeTo(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(MAGIC).putLong(CAPACITY).putLong(WORDS).putLong(BLOCKS).flip();
+            var words = bits.duplicate().position(0).limit(WORDS * Long.BYTES);
+            var counts = tree.duplicate().position(0).limit((BLOCKS + 1) * Integer.BYTES);
+            for (ByteBuffer section : new ByteBuffer[]{header, words, counts}) {
+                while (section.hasRemaining()) channel.write(section);
+            }
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #write(Path)} into memory, read-only.<br>
+     * Only the header is read eagerly, and the file only needs to be readable.
+     * Updates of the returned registry throw {@link UnsupportedOperationException}.
+     *
+     * @param file source file
+     * @return the mapped registry
+     * @throws IOException if the file cannot be mapped or is not a DNI registry file
+     */
+    public static DniRegistry map(Path file) throws IOException {
+        return map(file, false);
+    }
+
+    /**
+     * Maps a file written by {@link #write(Path)} into memory.<br>
+     * Only the header is read eagerly. An updatable mapping is private: updates
+     * of the returned registry stay in memory and never reach the file, although
+     * the file must be writable to be mapped this way. A read-only mapping only
+     * needs a readable file and rejects updates.
+     *
+     * @param file      source file
+     * @param updatable whether the registry may be updated in memory
+     * @return the mapped registry
+     * @throws IOException if the file cannot be mapped or is not a DNI registry file
+     */
+    public static DniRegistry map(Path file, boolean updatable) throws IOException {
+        Objects.requireNonNull(file, "file must not be null to map a DNI registry.");
+        long expected = HEADER_BYTES + (long) WORDS * Long.BYTES + (BLOCKS + 1L) * Integer.BYTES;
+        ByteBuffer mapped;
+        try (var channel = updatable ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(String.format("%s is not a DNI registry file.", file));
+            }
+            if (channel.size() != expected) {
+                throw new IOException(String.format("%s is truncated or has trailing data.", file));
+            }
+            mapped = channel.map(updatable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY,
+                    0, expected).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (mapped.getLong(0) != MAGIC || mapped.getLong(8) != CAPACITY
+                || mapped.getLong(16) != WORDS || mapped.getLong(24) != BLOCKS) {
+            throw new IOException(String.format("%s is not a DNI registry file.", file));
+        }
+        int treeStart = HEADER_BYTES + WORDS * Long.BYTES;
+        return new DniRegistry(mapped.duplicate().position(HEADER_BYTES).limit(treeStart).slice(),
+                mapped.duplicate().position(treeStart).slice());
+    }
+
+    @Override
+    public String toString() {
+        return "DniRegistry[size=" + size() + "]";
+    }
+
+    /**
+     * Applies a run of in-range keys as one update seen by readers as a whole.
+     */
+    private int update(long[] keys, int from, int to, boolean set) {
+        if (from == to) return 0;
+        synchronized (writeLock) {
+            beginWrite();
+            try {
+                return apply(keys, from, to, set);
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    /**
+     * Applies a run of in-range keys, one word change per group of consecutive keys in the same word.
+     * Callers hold the writer lock.
+     */
+    private int apply(long[] keys, int from, int to, boolean set) {
+        int changed = 0;
+        for (int i = from; i < to; ) {
+            int index = (int) (keys[i] >>> 6);
+            long mask = 0;
+            for (; i < to && keys[i] >>> 6 == index; i++) mask |= 1L << keys[i];
+            changed += change(index, mask, set);
+        }
+        return changed;
+    }
+
+    /**
+     * Sets or clears the bits of a word and adjusts its block count. Callers hold the writer lock.
+     *
+     * @return number of bits that changed
+     */
+    private int change(int index, long mask, boolean set) {
+        long old = (long) LONGS.getAcquire(bits, index << 3);
+        long updated = set ? old | mask : old & ~mask;
+        if (updated == old) return 0;
+        LONGS.setRelease(bits, index << 3, updated);
+        int delta = Long.bitCount(old ^ updated);
+        adjust(index >>> BLOCK_SHIFT, set ? delta : -delta);
+        return delta;
+    }
+
+    /**
+     * Counts the registered keys below an in-range key, without checking for concurrent updates.
+     */
+    private int rankOf(long key) {
+        int index = (int) (key >>> 6);
+        int block = index >>> BLOCK_SHIFT;
+        int rank = prefix(block);
+        for (int i = block << BLOCK_SHIFT; i < index; i++) rank += Long.bitCount(word(i));
+        return rank + Long.bitCount(word(index) & (1L << key) - 1);
+    }
+
+    /**
+     * Waits until no update is in flight and returns the version to {@link #validate(int)} against.
+     */
+    private int beginRead() {
+        int start;
+        while (((start = version) & 1) != 0) Thread.onSpinWait();
+        return start;
+    }
+
+    /**
+     * Indicates whether no update started since {@link #beginRead()} returned {@code start}.
+     */
+    private boolean validate(int start) {
+        VarHandle.loadLoadFence();
+        return version == start;
+    }
+
+    /**
+     * Marks an update in flight. Callers hold the writer lock.
+     *
+     * @throws UnsupportedOperationException if the registry is mapped read-only
+     */
+    private void beginWrite() {
+        if (bits.isReadOnly()) {
+            throw new UnsupportedOperationException("A DNI registry mapped read-only cannot be updated.");
+        }
+        version++;
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Publishes an update started with {@link #beginWrite()}.
+     */
+    private void endWrite() {
+        version++;
+    }
+
+    /**
+     * Returns the end of the run of in-range keys starting at {@code from}.
+     */
+    private static int runEnd(long[] keys, int from, int to) {
+        int i = from;
+        while (i < to && keys[i] >= 0 && keys[i] < CAPACITY) i++;
+        return i;
+    }
+
+    private long word(int index) {
+        return (long) LONGS.getAcquire(bits, index << 3);
+    }
+
+    /**
+     * Adds {@code delta} to the count of a block in the Fenwick tree.
+     */
+    private void adjust(int block, int delta) {
+        for (int i = block + 1; i <= BLOCKS; i += i & -i) {
+            INTS.setRelease(tree, i << 2, (int) INTS.getAcquire(tree, i << 2) + delta);
+        }
+    }
+
+    /**
+     * Sums the counts of the first {@code blocks} blocks.
+     */
+    private int prefix(int blocks) {
+        int sum = 0;
+        for (int i = blocks; i > 0; i -= i & -i) {
+            sum += (int) INTS.getAcquire(tree, i << 2);
+        }
+        return sum;
+    }
+
+    private static long pack(String number, boolean strict) {
+        if (!DoiType.DNI.validateNumber(number, strict)) return DoiKeys.NO_KEY;
+        return DoiKeys.parseDigits(strict ? number : DoiType.DNI.sanitize(number));
+    }
+
+    private static void checkKey(long key) {
+        if (key < 0 || key >= CAPACITY) {
+            throw new IllegalArgumentException(String.format("Key %d is not an 8-digit DNI.", key));
+        }
+    }
+}
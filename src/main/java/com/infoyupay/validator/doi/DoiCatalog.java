@@ -0,0 +1,602 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Versioned, immutable catalog of DOI type rules that can be replaced at runtime.<br>
+ * <br>
+ * SUNAT revises the identity-document tables and their codes every few years.
+ * The {@link DoiType} enum hardcodes the current tables; a catalog carries the
+ * same data as {@link DoiRule}s, so a service can pick up a new table from a
+ * file or resource without a library release. Loading compiles the catalog into
+ * direct-indexed code tables per {@link UsageContext}, the {@link CodeTranslator}s
+ * between contexts and allocation-free structural matchers.<br>
+ * <br>
+ * The process-wide catalog is read with {@link #current()} and replaced with
+ * {@link #publish(DoiCatalog)}. Catalogs are immutable snapshots published
+ * through a single atomic reference: readers never block, and a validation
+ * that took a snapshot keeps using it in full even if a new catalog is
+ * published meanwhile. Until something is published, {@link #current()}
+ * returns {@link #builtIn()}, built from the enum.<br>
+ * <br>
+ * The published catalog is read on every call by {@link DoiType#getId(UsageContext)},
+ * {@link DoiType#isSuitableFor(UsageContext)}, {@link DoiType#validateNumber(String, boolean)},
+ * {@link UsageContext#decode(CharSequence)}, {@link UsageContext#decodeAll(CharSequence)}
+ * and {@link CodeTranslator#of(UsageContext, UsageContext)}, and so by the components
+ * built on them, such as {@link ReportFileValidator}. {@link NdjsonDoiScanner} and
+ * {@link DoiFieldEncoder} take the codes of the catalog current when they are created.
+ * Components with kernels specialised for the built-in DNI and RUC structure
+ * ({@link SwarDigits}, {@link DoiPipeline}, {@link IncrementalValidator},
+ * {@link DniRegistry} and the number checks of {@link DoiFieldEncoder}) keep
+ * validating numbers with the built-in rules.<br>
+ * <br>
+ * Catalog files use the {@link Properties} format, read as UTF-8:<br>
+ * <pre>
+ * version=2025.1
+ * types=DNI,RUC
+ * DNI.shortName=DNI
+ * DNI.code.PLE=1
+ * DNI.code.PLAME=01
+ * DNI.length=8
+ * DNI.charset=digits
+ * RUC.shortName=RUC
+ * RUC.code.PLE=6
+ * RUC.length=11
+ * RUC.charset=digits
+ * RUC.prefixes=10,15,16,17,20
+ * RUC.checkDigit=mod11
+ * </pre>
+ * {@code types} lists the rules in declaration order; when several rules share
+ * a code in one context, {@link #decode(UsageContext, CharSequence)} returns the
+ * first declared and {@link #decodeAll(UsageContext, CharSequence)} all of them. Per rule, {@code code.<CONTEXT>}
+ * uses {@link UsageContext} names and an absent code means the context does not
+ * accept the type; {@code length} is {@code N} or {@code MIN-MAX};
+ * {@code charset} is {@code digits} or {@code alnum}; {@code prefixes},
+ * {@code checkDigit} ({@code mod11} or {@code none}), {@code regex} (an extra
+ * pattern the value must match), {@code foreign} and {@code nonDomiciled} are
+ * optional. Unknown keys are rejected. {@link #store(Writer)} writes this format.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiCatalog {
+
+    private static final DoiRule[] NO_RULES = new DoiRule[0];
+    private static final DoiType[] NO_TYPES = new DoiType[0];
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_]+");
+    private static final DoiCatalog BUILT_IN = builtInCatalog();
+    private static final AtomicReference<DoiCatalog> CURRENT = new AtomicReference<>(BUILT_IN);
+
+    private final String version;
+    private final List<DoiRule> rules;
+    private final Map<String, DoiRule> byName;
+    private final DoiRule[] byType;
+    /**
+     * Decoding table per context, indexed like {@link UsageContext#decode(CharSequence)}.
+     */
+    private final DoiRule[][] byCode;
+    /**
+     * Every rule per code slot and context, in declaration order.
+     */
+    private final DoiRule[][][] allByCode;
+    /**
+     * The built-in types of {@link #allByCode}, as {@link UsageContext#decodeAll(CharSequence)} returns them.
+     */
+    private final DoiType[][][] typesByCode;
+    private final CodeTranslator[][] translators;
+    private final List<List<DoiRule>> suitable;
+
+    private DoiCatalog(String version, List<DoiRule> rules) {
+        this.version = version;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.byName = new HashMap<>();
+        this.byType = new DoiRule[DoiType.values().length];
+        this.byCode = new DoiRule[UsageContext.values().length][UsageContext.CodeTable.SIZE];
+        this.allByCode = new DoiRule[UsageContext.values().length][UsageContext.CodeTable.SIZE][];
+        this.typesByCode = new DoiType[UsageContext.values().length][UsageContext.CodeTable.SIZE][];
+        this.suitable = new ArrayList<>();
+        for (DoiRule rule : rules) {
+            byName.put(rule.getName(), rule);
+            if (rule.getType() != null) byType[rule.getType().ordinal()] = rule;
+        }
+        for (UsageContext context : UsageContext.values()) {
+            List<DoiRule> accepted = new ArrayList<>();
+            DoiRule[][] all = allByCode[context.ordinal()];
+            Arrays.fill(all, NO_RULES);
+            for (DoiRule rule : rules) {
+                if (!rule.isSuitableFor(context)) continue;
+                accepted.add(rule);
+                int key = UsageContext.CodeTable.key(rule.getId(context));
+                if (key < 0) continue;
+                if (byCode[context.ordinal()][key] == null) byCode[context.ordinal()][key] = rule;
+                all[key] = Arrays.copyOf(all[key], all[key].length + 1);
+                all[key][all[key].length - 1] = rule;
+            }
+            suitable.add(Collections.unmodifiableList(accepted));
+            for (int key = 0; key < all.length; key++) {
+                typesByCode[context.ordinal()][key] = typesOf(all[key]);
+            }
+        }
+        UsageContext[] contexts = UsageContext.values();
+        this.translators = new CodeTranslator[contexts.length][contexts.length];
+        for (UsageContext source : contexts) {
+            for (UsageContext target : contexts) {
+                translators[source.ordinal()][target.ordinal()] = new CodeTranslator(this, source, target);
+            }
+        }
+    }
+
+    /**
+     * Returns the catalog built from the {@link DoiType} enum.
+     *
+     * @return the built-in catalog
+     */
+    public static DoiCatalog builtIn() {
+        return BUILT_IN;
+    }
+
+    /**
+     * Returns the catalog currently published. Never blocks.
+     *
+     * @return the current catalog; {@link #builtIn()} until another one is published
+     */
+    public static DoiCatalog current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Atomically replaces the current catalog.
+     *
+     * @param catalog the new catalog; must not be null
+     * @return the catalog previously published
+     * @throws NullPointerException if {@code catalog} is null
+     */
+    public static DoiCatalog publish(DoiCatalog catalog) {
+        Objects.requireNonNull(catalog, "catalog must not be null to be published.");
+        return CURRENT.getAndSet(catalog);
+    }
+
+    /**
+     * Atomically replaces the current catalog only if it is still {@code expected},
+     * e.g. so that concurrent reloaders do not overwrite a newer catalog.
+     *
+     * @param expected the catalog the caller observed
+     * @param catalog  the new catalog; must not be null
+     * @return {@code true} if the catalog was published
+     * @throws NullPointerException if {@code catalog} is null
+     */
+    public static boolean publish(DoiCatalog expected, DoiCatalog catalog) {
+        Objects.requireNonNull(catalog, "catalog must not be null to be published.");
+        return CURRENT.compareAndSet(expected, catalog);
+    }
+
+    /**
+     * Publishes the built-in catalog again.
+     *
+     * @return the catalog previously published
+     */
+    public static DoiCatalog reset() {
+        return publish(BUILT_IN);
+    }
+
+    /**
+     * Loads a catalog file. The catalog is not published.
+     *
+     * @param path catalog file, in UTF-8
+     * @return the loaded catalog
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the catalog is malformed
+     */
+    public static DoiCatalog load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Loads a catalog from a stream, e.g. {@code getResourceAsStream(...)}.
+     * The stream is not closed and the catalog is not published.
+     *
+     * @param in catalog content, in UTF-8
+     * @return the loaded catalog
+     * @throws IOException              if the stream cannot be read
+     * @throws IllegalArgumentException if the catalog is malformed
+     */
+    public static DoiCatalog load(InputStream in) throws IOException {
+        return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Loads a catalog from a reader. The reader is not closed and the catalog is not published.
+     *
+     * @param reader catalog content
+     * @return the loaded catalog
+     * @throws IOException              if the reader fails
+     * @throws IllegalArgumentException if the catalog is malformed
+     */
+    public static DoiCatalog load(Reader reader) throws IOException {
+        var properties = new Properties();
+        properties.load(reader);
+        return compile(properties);
+    }
+
+    /**
+     * Returns the version declared by the catalog.
+     *
+     * @return the version
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the rules in declaration order.
+     *
+     * @return an unmodifiable list of rules
+     */
+    public List<DoiRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the rule with the given catalog name.
+     *
+     * @param name rule name, e.g. {@code "RUC"}
+     * @return the rule, or {@code null} if the catalog has none
+     */
+    public DoiRule getRule(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Returns the rule of a built-in DOI type.
+     *
+     * @param type the DOI type
+     * @return the rule, or {@code null} if the catalog does not include the type
+     */
+    public DoiRule getRule(DoiType type) {
+        return type == null ? null : byType[type.ordinal()];
+    }
+
+    /**
+     * Returns the rules accepted by a usage context, in declaration order.
+     *
+     * @param context the usage context
+     * @return an unmodifiable list of rules
+     */
+    public List<DoiRule> listSuitable(UsageContext context) {
+        return suitable.get(context.ordinal());
+    }
+
+    /**
+     * Decodes a type code of a usage context into the first declared rule using it.
+     *
+     * @param context the usage context
+     * @param code    the context code; may be {@code null}
+     * @return the matching rule, or {@code null} if the code is unknown in this context
+     */
+    public DoiRule decode(UsageContext context, CharSequence code) {
+        if (code == null) return null;
+        int key = UsageContext.CodeTable.key(code);
+        if (key >= 0) return byCode[context.ordinal()][key];
+        for (DoiRule rule : suitable.get(context.ordinal())) {
+            if (rule.getId(context).contentEquals(code)) return rule;
+        }
+        return null;
+    }
+
+    /**
+     * Decodes a type code of a usage context into every rule that uses it, in
+     * declaration order. A record carrying a shared code is valid if its number
+     * passes any of the returned rules.
+     *
+     * @param context the usage context
+     * @param code    the context code; may be {@code null}
+     * @return an unmodifiable list of the matching rules, empty if the code is unknown in this context
+     */
+    public List<DoiRule> decodeAll(UsageContext context, CharSequence code) {
+        return List.of(candidates(context, code));
+    }
+
+    /**
+     * Like {@link #decodeAll(UsageContext, CharSequence)}, but returns the shared table
+     * entry for one and two-digit codes. The array must not be modified.
+     */
+    DoiRule[] candidates(UsageContext context, CharSequence code) {
+        if (code == null) return NO_RULES;
+        int key = UsageContext.CodeTable.key(code);
+        if (key >= 0) return allByCode[context.ordinal()][key];
+        List<DoiRule> matching = new ArrayList<>();
+        for (DoiRule rule : suitable.get(context.ordinal())) {
+            if (rule.getId(context).contentEquals(code)) matching.add(rule);
+        }
+        return matching.toArray(NO_RULES);
+    }
+
+    /**
+     * Like {@link #candidates(UsageContext, CharSequence)}, but returns the built-in
+     * types of the matching rules, skipping rules for types unknown to this library version.
+     */
+    DoiType[] types(UsageContext context, CharSequence code) {
+        if (code == null) return NO_TYPES;
+        int key = UsageContext.CodeTable.key(code);
+        if (key >= 0) return typesByCode[context.ordinal()][key];
+        return typesOf(candidates(context, code));
+    }
+
+    /**
+     * Returns the translator between two contexts built from this catalog's codes.
+     */
+    CodeTranslator translator(UsageContext source, UsageContext target) {
+        return translators[source.ordinal()][target.ordinal()];
+    }
+
+    private static DoiType[] typesOf(DoiRule[] rules) {
+        int count = 0;
+        for (DoiRule rule : rules) if (rule.getType() != null) count++;
+        if (count == 0) return NO_TYPES;
+        var types = new DoiType[count];
+        count = 0;
+        for (DoiRule rule : rules) if (rule.getType() != null) types[count++] = rule.getType();
+        return types;
+    }
+
+    /**
+     * Validates a number against the catalog rule of a built-in DOI type.
+     *
+     * @param type   the DOI type
+     * @param number raw DOI number
+     * @param strict whether sanitization should be disabled
+     * @return {@code true} if structurally valid; {@code false} if the catalog
+     * does not include the type
+     */
+    public boolean validateNumber(DoiType type, String number, boolean strict) {
+        DoiRule rule = getRule(type);
+        return rule != null && rule.validateNumber(number, strict);
+    }
+
+    /**
+     * Writes the catalog in the file format read by {@link #load(Reader)}.
+     *
+     * @param writer destination; not closed
+     * @throws IOException if writing fails
+     */
+    public void store(Writer writer) throws IOException {
+        var sb = new StringBuilder();
+        sb.append("# DOI rules catalog\n");
+        line(sb, "version", version);
+        var names = new StringBuilder();
+        for (DoiRule rule : rules) {
+            if (names.length() > 0) names.append(',');
+            names.append(rule.getName());
+        }
+        line(sb, "types", names.toString());
+        for (DoiRule rule : rules) {
+            String p = rule.getName() + '.';
+            sb.append('\n');
+            line(sb, p + "shortName", rule.getShortName());
+            for (UsageContext context : UsageContext.values()) {
+                if (rule.isSuitableFor(context)) line(sb, p + "code." + context.name(), rule.getId(context));
+            }
+            line(sb, p + "length", rule.getMinLength() == rule.getMaxLength()
+                    ? String.valueOf(rule.getMinLength()) : rule.getMinLength() + "-" + rule.getMaxLength());
+            line(sb, p + "charset", rule.isNumeric() ? "digits" : "alnum");
+            if (rule.prefixes() != null) {
+                var prefixes = new StringBuilder();
+                for (int prefix = 0; prefix < 100; prefix++) {
+                    if (!rule.prefixes()[prefix]) continue;
+                    if (prefixes.length() > 0) prefixes.append(',');
+                    prefixes.append(prefix / 10).append(prefix % 10);
+                }
+                line(sb, p + "prefixes", prefixes.toString());
+            }
+            if (rule.hasCheckDigit()) line(sb, p + "checkDigit", "mod11");
+            if (rule.pattern() != null) line(sb, p + "regex", rule.getRegex());
+            if (rule.isForeign()) line(sb, p + "foreign", "true");
+            if (rule.isAcceptedForNonDomiciled()) line(sb, p + "nonDomiciled", "true");
+        }
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    @Override
+    public String toString() {
+        return "DoiCatalog[version=" + version + ", rules=" + rules + "]";
+    }
+
+    private static DoiCatalog builtInCatalog() {
+        List<DoiRule> rules = new ArrayList<>();
+        for (DoiType type : DoiType.values()) {
+            rules.add(DoiRule.of(type));
+        }
+        return new DoiCatalog("built-in", rules);
+    }
+
+    private static DoiCatalog compile(Properties properties) {
+        Set<String> used = new HashSet<>();
+        String version = required(properties, used, "version");
+        String types = required(properties, used, "types");
+
+        List<DoiRule> rules = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (String raw : types.split(",")) {
+            String name = raw.trim();
+            if (!NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException(String.format("Invalid DOI rule name '%s' in catalog.", name));
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException(String.format("Duplicate DOI rule '%s' in catalog.", name));
+            }
+            rules.add(compileRule(properties, used, name));
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            if (!used.contains(key)) {
+                throw new IllegalArgumentException(String.format("Unknown catalog key '%s'.", key));
+            }
+        }
+        return new DoiCatalog(version, rules);
+    }
+
+    private static DoiRule compileRule(Properties properties, Set<String> used, String name) {
+        String p = name + '.';
+        String shortName = optional(properties, used, p + "shortName", name);
+
+        var ids = new String[UsageContext.values().length];
+        for (UsageContext context : UsageContext.values()) {
+            ids[context.ordinal()] = optional(properties, used, p + "code." + context.name(), "");
+        }
+
+        String length = required(properties, used, p + "length");
+        int minLength;
+        int maxLength;
+        try {
+            int dash = length.indexOf('-');
+            minLength = Integer.parseInt(dash < 0 ? length : length.substring(0, dash).trim());
+            maxLength = dash < 0 ? minLength : Integer.parseInt(length.substring(dash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid length '%s' for DOI rule %s.", length, name), e);
+        }
+        if (minLength < 1 || maxLength < minLength) {
+            throw new IllegalArgumentException(String.format("Invalid length '%s' for DOI rule %s.", length, name));
+        }
+
+        String charset = required(properties, used, p + "charset");
+        boolean numeric;
+        if ("digits".equals(charset)) {
+            numeric = true;
+        } else if ("alnum".equals(charset)) {
+            numeric = false;
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid charset '%s' for DOI rule %s: expected digits or alnum.", charset, name));
+        }
+
+        boolean[] prefixes = null;
+        String prefixList = optional(properties, used, p + "prefixes", "");
+        if (!prefixList.isEmpty()) {
+            if (!numeric || minLength < 2) {
+                throw new IllegalArgumentException(String.format(
+                        "DOI rule %s declares prefixes but is not numeric with at least 2 digits.", name));
+            }
+            prefixes = new boolean[100];
+            for (String raw : prefixList.split(",")) {
+                String prefix = raw.trim();
+                if (prefix.length() != 2 || DoiKeys.parseDigits(prefix) == DoiKeys.NO_KEY) {
+                    throw new IllegalArgumentException(String.format(
+                            "Invalid prefix '%s' for DOI rule %s: expected two digits.", prefix, name));
+                }
+                prefixes[(int) DoiKeys.parseDigits(prefix)] = true;
+            }
+        }
+
+        String algorithm = optional(properties, used, p + "checkDigit", "none");
+        boolean checkDigit;
+        if ("mod11".equals(algorithm)) {
+            if (!numeric || minLength != 11 || maxLength != 11) {
+                throw new IllegalArgumentException(String.format(
+                        "DOI rule %s uses the mod11 check digit but is not numeric with exactly 11 digits.", name));
+            }
+            checkDigit = true;
+        } else if ("none".equals(algorithm)) {
+            checkDigit = false;
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid checkDigit '%s' for DOI rule %s: expected mod11 or none.", algorithm, name));
+        }
+
+        Pattern pattern = null;
+        String regex = optional(properties, used, p + "regex", "");
+        if (!regex.isEmpty()) {
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException(String.format("Invalid regex for DOI rule %s.", name), e);
+            }
+        }
+
+        boolean foreign = flag(properties, used, p + "foreign");
+        boolean nonDomiciled = flag(properties, used, p + "nonDomiciled");
+        return new DoiRule(name, shortName, ids, minLength, maxLength, numeric, prefixes, checkDigit,
+                pattern, foreign, nonDomiciled);
+    }
+
+    private static String required(Properties properties, Set<String> used, String key) {
+        String value = optional(properties, used, key, "");
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Missing catalog key '%s'.", key));
+        }
+        return value;
+    }
+
+    private static String optional(Properties properties, Set<String> used, String key, String defaultValue) {
+        used.add(key);
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    private static boolean flag(Properties properties, Set<String> used, String key) {
+        String value = optional(properties, used, key, "false");
+        if ("true".equals(value)) return true;
+        if ("false".equals(value)) return false;
+        throw new IllegalArgumentException(String.format("Invalid boolean '%s' for catalog key '%s'.", value, key));
+    }
+
+    /**
+     * Appends a {@code key=value} line, escaping the value as {@link Properties#load(Reader)} expects.
+     */
+    private static void line(StringBuilder sb, String key, String value) {
+        sb.append(key).append('=');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c < 0x20 || c > 0x7e || i == 0 && c == ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('\n');
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Collector} implementations for DOI validation statistics.<br>
+ * <br>
+ * Counting collectors accumulate into primitive {@code long[]} arrays indexed
+ * by {@link DoiType#ordinal()} or {@link DoiFailure#ordinal()}. Each stream
+ * segment owns its array, so {@code stream.parallel()} pipelines scale without
+ * synchronized maps or boxing; the combiner only adds a dozen longs, and the
+ * result map is built once at the end.<br>
+ * <br>
+ * Example:
+ * <pre>{@code
+ * Map<DoiFailure, Long> failures = entities.parallelStream()
+ *         .collect(DoiCollectors.countingByFailure(Entity::getDoiType, Entity::getDoiNumber, false));
+ * }</pre>
+ * <br>
+ * This class is a pure utility holder and is not intended to be instantiated or extended.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiCollectors {
+
+    /**
+     * Private constructor to prevent instantiation.<br>
+     * This class only exposes static utility methods.
+     */
+    private DoiCollectors() {
+        // utility class
+    }
+
+    /**
+     * Counts elements by DOI type.<br>
+     * As with {@link Collectors#groupingBy(Function)}, only types with at least
+     * one element appear in the result.
+     *
+     * @param typeOf extracts the DOI type of an element; must not return null
+     * @param <T>    element type
+     * @return a collector producing an {@link EnumMap} of counts
+     */
+    public static <T> Collector<T, ?, Map<DoiType, Long>> countingByType(
+            Function<? super T, DoiType> typeOf) {
+        Objects.requireNonNull(typeOf, "typeOf must not be null to count by DOI type.");
+        return Collector.of(
+                () -> new long[DoiType.values().length],
+                (counts, element) -> counts[Objects.requireNonNull(typeOf.apply(element),
+                        "element cannot be mapped to a null DOI type").ordinal()]++,
+                DoiCollectors::add,
+                counts -> toMap(counts, DoiType.class, DoiType.values()),
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Counts invalid elements by failure reason (see {@link DoiFailure#of}).<br>
+     * Valid elements are not part of the result; only reasons with at least one
+     * element appear in it.
+     *
+     * @param typeOf   extracts the DOI type of an element; may return null
+     * @param numberOf extracts the raw DOI number of an element
+     * @param strict   whether sanitization should be disabled
+     * @param <T>      element type
+     * @return a collector producing an {@link EnumMap} of failure counts
+     */
+    public static <T> Collector<T, ?, Map<DoiFailure, Long>> countingByFailure(
+            Function<? super T, DoiType> typeOf, Function<? super T, String> numberOf, boolean strict) {
+        Objects.requireNonNull(typeOf, "typeOf must not be null to count by failure.");
+        Objects.requireNonNull(numberOf, "numberOf must not be null to count by failure.");
+        return Collector.of(
+                () -> new long[DoiFailure.values().length],
+                (counts, element) -> {
+                    DoiFailure failure = DoiFailure.of(typeOf.apply(element), numberOf.apply(element), strict);
+                    if (failure != null) counts[failure.ordinal()]++;
+                },
+                DoiCollectors::add,
+                counts -> toMap(counts, DoiFailure.class, DoiFailure.values()),
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Partitions elements into valid ({@code true}) and invalid ({@code false})
+     * according to {@link DoiType#validateNumber(String, boolean)}.<br>
+     * Elements without DOI type are invalid. Both keys are always present.
+     *
+     * @param typeOf   extracts the DOI type of an element; may return null
+     * @param numberOf extracts the raw DOI number of an element
+     * @param strict   whether sanitization should be disabled
+     * @param <T>      element type
+     * @return a partitioning collector
+     */
+    public static <T> Collector<T, ?, Map<Boolean, List<T>>> partitioningByValidity(
+            Function<? super T, DoiType> typeOf, Function<? super T, String> numberOf, boolean strict) {
+        Objects.requireNonNull(typeOf, "typeOf must not be null to partition by validity.");
+        Objects.requireNonNull(numberOf, "numberOf must not be null to partition by validity.");
+        return Collectors.partitioningBy(element -> {
+            DoiType type = typeOf.apply(element);
+            return type != null && type.validateNumber(numberOf.apply(element), strict);
+        });
+    }
+
+    /**
+     * Collects valid/invalid counts per DOI type and failure counts in a single pass.
+     *
+     * @param typeOf   extracts the DOI type of an element; may return null
+     * @param numberOf extracts the raw DOI number of an element
+     * @param strict   whether sanitization should be disabled
+     * @param <T>      element type
+     * @return a collector producing {@link DoiStatistics}
+     */
+    public static <T> Collector<T, DoiStatistics, DoiStatistics> summarizing(
+            Function<? super T, DoiType> typeOf, Function<? super T, String> numberOf, boolean strict) {
+        Objects.requireNonNull(typeOf, "typeOf must not be null to summarize DOI validation.");
+        Objects.requireNonNull(numberOf, "numberOf must not be null to summarize DOI validation.");
+        return Collector.of(
+                DoiStatistics::new,
+                (statistics, element) -> statistics.accept(typeOf.apply(element), numberOf.apply(element), strict),
+                DoiStatistics::combine,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    private static long[] add(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> toMap(long[] counts, Class<E> keyType, E[] keys) {
+        var map = new EnumMap<E, Long>(keyType);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) map.put(keys[i], counts[i]);
+        }
+        return map;
+    }
+}
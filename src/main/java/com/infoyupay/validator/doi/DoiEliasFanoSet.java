@@ -0,0 +1,527 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable, compressed sorted set of packed DOI keys (see {@link DoiKeys})
+ * using the Elias-Fano encoding.<br>
+ * <br>
+ * For {@code n} keys spanning a universe of {@code u} values (from the
+ * smallest to the largest key), every key is split into {@code l = floor(log2(u / n))}
+ * low bits, stored verbatim in a packed array, and its high bits, stored in
+ * unary in a bit vector of about {@code 2n} bits. A set costs roughly
+ * {@code 2 + log2(u / n)} bits per key: the RUCs of a dense prefix range take
+ * one or two bytes each instead of the 8 of a {@code long[]} or the ~60 of a
+ * {@code String}.<br>
+ * <br>
+ * Operations:<br>
+ * - {@link #contains(long)} and {@link #rank(long)}: one sampled select over the
+ * high bits plus a scan of the keys sharing the same high bits.<br>
+ * - {@link #select(int)}: the {@code i}-th smallest key, through a sampled select.<br>
+ * - {@link #iterator()} and {@link #forEach(LongConsumer)}: ascending order,
+ * without decoding from scratch for each key.<br>
+ * <br>
+ * Sets are built once, from ascending keys, with {@link #of(long[], int, int)}
+ * or a streaming {@link Builder} (e.g. fed by {@link DoiExternalSorter}), and
+ * can be written with {@link #write(Path)} to a little-endian file that
+ * {@link #map(Path)} maps back without reading it into the heap.<br>
+ * <br>
+ * Instances are immutable and safe to share between threads.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiEliasFanoSet {
+
+    private static final long MAGIC = 0x3146_4549_4F44L; // "DOIEF1" read as little-endian
+    private static final int HEADER_LONGS = 9;
+    private static final int SAMPLE_SHIFT = 8;
+    private static final int SAMPLE_MASK = (1 << SAMPLE_SHIFT) - 1;
+
+    private final int size;
+    private final int lowBits;
+    private final long lowMask;
+    private final long base;
+    private final long last;
+    private final long upperLength;
+    private final LongBuffer low;
+    private final LongBuffer upper;
+    private final LongBuffer ones;
+    private final LongBuffer zeros;
+
+    private DoiEliasFanoSet(int size, int lowBits, long base, long last, long upperLength,
+                            LongBuffer low, LongBuffer upper, LongBuffer ones, LongBuffer zeros) {
+        this.size = size;
+        this.lowBits = lowBits;
+        this.lowMask = lowBits == 0 ? 0 : -1L >>> (64 - lowBits);
+        this.base = base;
+        this.last = last;
+        this.upperLength = upperLength;
+        this.low = low;
+        this.upper = upper;
+        this.ones = ones;
+        this.zeros = zeros;
+    }
+
+    /**
+     * Streaming construction of a {@link DoiEliasFanoSet} from ascending keys.<br>
+     * <br>
+     * Elias-Fano needs the number of keys and their range up front; the keys
+     * themselves are consumed one at a time, so a set can be built from a sorted
+     * file without holding it as a {@code long[]}.
+     */
+    public static final class Builder implements LongConsumer {
+        private final int size;
+        private final int lowBits;
+        private final long base;
+        private final long last;
+        private final long upperLength;
+        private final long[] low;
+        private final long[] upper;
+        private final long[] ones;
+        private int count;
+        private long previous = -1;
+        private boolean built;
+
+        /**
+         * Creates a builder for exactly {@code size} keys within {@code [minKey, maxKey]}.
+         *
+         * @param size   number of keys that will be added
+         * @param minKey smallest key; ignored when {@code size} is 0
+         * @param maxKey largest key; ignored when {@code size} is 0
+         * @throws IllegalArgumentException if {@code size} is negative, a bound
+         *                                  is negative or the bounds are reversed
+         */
+        public Builder(int size, long minKey, long maxKey) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Key count must not be negative.");
+            }
+            if (size > 0 && (minKey < 0 || maxKey < minKey)) {
+                throw new IllegalArgumentException(String.format("Invalid key range [%d, %d].", minKey, maxKey));
+            }
+            this.size = size;
+            this.base = size == 0 ? 0 : minKey;
+            this.last = size == 0 ? -1 : maxKey;
+            this.lowBits = lowBitsFor(size, base, last);
+            this.upperLength = upperLengthFor(size, lowBits, base, last);
+            long[] lengths = sectionLengths(size, lowBits, upperLength);
+            this.low = new long[Math.toIntExact(lengths[0])];
+            this.upper = new long[Math.toIntExact(lengths[1])];
+            this.ones = new long[Math.toIntExact(lengths[2])];
+        }
+
+        /**
+         * Adds the next key.
+         *
+         * @param key key greater than the previous one and within the declared range
+         * @throws IllegalArgumentException if the key is out of order or out of range
+         * @throws IllegalStateException    if all declared keys were already added
+         */
+        @Override
+        public void accept(long key) {
+            if (built || count == size) {
+                throw new IllegalStateException(String.format("All %d declared keys were already added.", size));
+            }
+            if (key <= previous || key < base || key > last) {
+                throw new IllegalArgumentException(String.format(
+                        "Key %d is not ascending within [%d, %d].", key, base, last));
+            }
+            previous = key;
+            long offset = key - base;
+            if (lowBits > 0) {
+                long bit = (long) count * lowBits;
+                int word = (int) (bit >>> 6);
+                int shift = (int) (bit & 63);
+                long value = offset & (-1L >>> (64 - lowBits));
+                low[word] |= value << shift;
+                if (shift + lowBits > 64) low[word + 1] |= value >>> (64 - shift);
+            }
+            long position = (offset >>> lowBits) + count;
+            upper[(int) (position >>> 6)] |= 1L << position;
+            if ((count & SAMPLE_MASK) == 0) ones[count >>> SAMPLE_SHIFT] = position;
+            count++;
+        }
+
+        /**
+         * Builds the set.
+         *
+         * @return the immutable set
+         * @throws IllegalStateException if fewer keys than declared were added, or already built
+         */
+        public DoiEliasFanoSet build() {
+            if (built) throw new IllegalStateException("The set was already built.");
+            if (count != size) {
+                throw new IllegalStateException(String.format("Only %d of %d declared keys were added.", count, size));
+            }
+            built = true;
+            long zeroCount = upperLength - size;
+            long[] zeros = new long[Math.toIntExact(sectionLengths(size, lowBits, upperLength)[3])];
+            long seen = 0;
+            for (int w = 0; w < upper.length && seen < zeroCount; w++) {
+                long word = ~upper[w];
+                if (w == upper.length - 1 && (upperLength & 63) != 0) word &= -1L >>> (64 - (upperLength & 63));
+                int c = Long.bitCount(word);
+                long next = (seen + SAMPLE_MASK) & ~(long) SAMPLE_MASK;
+                while (next < seen + c) {
+                    zeros[(int) (next >>> SAMPLE_SHIFT)] = ((long) w << 6) + selectInWord(word, (int) (next - seen));
+                    next += SAMPLE_MASK + 1;
+                }
+                seen += c;
+            }
+            return new DoiEliasFanoSet(size, lowBits, base, last, upperLength,
+                    LongBuffer.wrap(low), LongBuffer.wrap(upper), LongBuffer.wrap(ones), LongBuffer.wrap(zeros));
+        }
+    }
+
+    /**
+     * Builds a set from ascending keys.
+     *
+     * @param keys source array
+     * @param from first index, inclusive
+     * @param to   last index, exclusive
+     * @return the immutable set
+     * @throws IllegalArgumentException if the keys are negative or not strictly ascending
+     */
+    public static DoiEliasFanoSet of(long[] keys, int from, int to) {
+        Objects.requireNonNull(keys, "keys must not be null to build an Elias-Fano set.");
+        Objects.checkFromToIndex(from, to, keys.length);
+        var builder = to == from ? new Builder(0, 0, 0) : new Builder(to - from, keys[from], keys[to - 1]);
+        for (int i = from; i < to; i++) builder.accept(keys[i]);
+        return builder.build();
+    }
+
+    /**
+     * Builds a set from ascending keys.
+     *
+     * @param keys strictly ascending, non-negative keys
+     * @return the immutable set
+     * @throws IllegalArgumentException if the keys are negative or not strictly ascending
+     */
+    public static DoiEliasFanoSet of(long... keys) {
+        return of(keys, 0, keys.length);
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return key count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether the set has no keys.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the size of the encoded set, including the select samples.
+     *
+     * @return size in bytes
+     */
+    public long sizeInBytes() {
+        return 8L * (low.capacity() + upper.capacity() + ones.capacity() + zeros.capacity());
+    }
+
+    /**
+     * Indicates whether the set holds the key.
+     *
+     * @param key packed key
+     * @return {@code true} if present
+     */
+    public boolean contains(long key) {
+        if (key < base || key > last) return false;
+        long offset = key - base;
+        long high = offset >>> lowBits;
+        long target = offset & lowMask;
+        long position = bucketStart(high);
+        int index = (int) (position - high);
+        while (bit(position)) {
+            long value = lowAt(index);
+            if (value >= target) return value == target;
+            position++;
+            index++;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of keys smaller than {@code key}.
+     *
+     * @param key packed key
+     * @return rank, from 0 to {@link #size()}
+     */
+    public int rank(long key) {
+        if (key <= base) return 0;
+        if (key > last) return size;
+        long offset = key - base;
+        long high = offset >>> lowBits;
+        long target = offset & lowMask;
+        long position = bucketStart(high);
+        int index = (int) (position - high);
+        while (bit(position) && lowAt(index) < target) {
+            position++;
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the {@code index}-th smallest key.
+     *
+     * @param index position, from 0 to {@link #size()} - 1
+     * @return the key
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public long select(int index) {
+        Objects.checkIndex(index, size);
+        long position = selectOne(index);
+        return base + (((position - index) << lowBits) | lowAt(index));
+    }
+
+    /**
+     * Returns an iterator over the keys in ascending order.
+     *
+     * @return primitive iterator
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int index;
+            private int word = -1;
+            private long bits;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public long nextLong() {
+                if (index >= size) throw new NoSuchElementException();
+                while (bits == 0) bits = upper.get(++word);
+                long position = ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long key = base + (((position - index) << lowBits) | lowAt(index));
+                index++;
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Passes every key to {@code action}, in ascending order.
+     *
+     * @param action key consumer
+     */
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action, "action must not be null to iterate keys.");
+        var iterator = iterator();
+        while (iterator.hasNext()) action.accept(iterator.nextLong());
+    }
+
+    /**
+     * Writes the set to a file that {@link #map(Path)} can map.
+     *
+     * @param file destination, created or replaced
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null to write an Elias-Fano set.");
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC).putLong(size).putLong(lowBits).putLong(base).putLong(last)
+                    .putLong(low.capacity()).putLong(upper.capacity())
+                    .putLong(ones.capacity()).putLong(zeros.capacity());
+            for (LongBuffer section : new LongBuffer[]{low, upper, ones, zeros}) {
+                for (int i = 0; i < section.capacity(); i++) {
+                    if (!buffer.hasRemaining()) drain(buffer, channel);
+                    buffer.putLong(section.get(i));
+                }
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #write(Path)} read-only into memory.<br>
+     * The keys stay in the page cache; only the header is read eagerly.
+     *
+     * @param file source file
+     * @return the mapped set
+     * @throws IOException if the file cannot be mapped or is not a valid set file
+     */
+    public static DoiEliasFanoSet map(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null to map an Elias-Fano set.");
+        ByteBuffer mapped;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < 8L * HEADER_LONGS || length > Integer.MAX_VALUE) {
+                throw new IOException(String.format("%s is not an Elias-Fano set file.", file));
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        long[] header = new long[HEADER_LONGS];
+        for (int i = 0; i < HEADER_LONGS; i++) header[i] = mapped.getLong(8 * i);
+        int size = (int) header[1];
+        int lowBits = (int) header[2];
+        long base = header[3];
+        long last = header[4];
+        if (header[0] != MAGIC || header[1] < 0 || header[1] > Integer.MAX_VALUE || lowBits < 0 || lowBits > 62
+                || (size > 0 && (base < 0 || last < base))) {
+            throw new IOException(String.format("%s is not an Elias-Fano set file.", file));
+        }
+        if (size == 0) {
+            base = 0;
+            last = -1;
+        }
+        long upperLength = upperLengthFor(size, lowBits, base, last);
+        long[] lengths = sectionLengths(size, lowBits, upperLength);
+        long total = HEADER_LONGS;
+        for (int i = 0; i < lengths.length; i++) {
+            if (header[5 + i] != lengths[i] || lowBitsFor(size, base, last) != lowBits) {
+                throw new IOException(String.format("%s has an inconsistent Elias-Fano header.", file));
+            }
+            total += lengths[i];
+        }
+        if (mapped.capacity() != 8 * total) {
+            throw new IOException(String.format("%s is truncated or has trailing data.", file));
+        }
+        var sections = new LongBuffer[lengths.length];
+        int position = 8 * HEADER_LONGS;
+        for (int i = 0; i < lengths.length; i++) {
+            int bytes = (int) (8 * lengths[i]);
+            sections[i] = mapped.duplicate().position(position).limit(position + bytes).slice()
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            position += bytes;
+        }
+        return new DoiEliasFanoSet(size, lowBits, base, last, upperLength,
+                sections[0], sections[1], sections[2], sections[3]);
+    }
+
+    /**
+     * Number of low bits per key: {@code floor(log2(universe / size))}, or 0 for dense sets.
+     */
+    private static int lowBitsFor(int size, long base, long last) {
+        long universe = last - base + 1;
+        return size == 0 || universe <= size ? 0 : 63 - Long.numberOfLeadingZeros(universe / size);
+    }
+
+    /**
+     * Length in bits of the unary high part: one bit per key plus one terminating zero per bucket.
+     */
+    private static long upperLengthFor(int size, int lowBits, long base, long last) {
+        return size == 0 ? 0 : size + ((last - base) >>> lowBits) + 1;
+    }
+
+    /**
+     * Lengths in longs of the low bits (plus one padding word), upper bits, one samples and zero samples.
+     */
+    private static long[] sectionLengths(int size, int lowBits, long upperLength) {
+        return new long[]{
+                ((long) size * lowBits + 63) / 64 + 1,
+                (upperLength + 63) / 64,
+                ((long) size + SAMPLE_MASK) >>> SAMPLE_SHIFT,
+                (upperLength - size + SAMPLE_MASK) >>> SAMPLE_SHIFT
+        };
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private boolean bit(long position) {
+        return position < upperLength && (upper.get((int) (position >>> 6)) & (1L << position)) != 0;
+    }
+
+    private long lowAt(int index) {
+        if (lowBits == 0) return 0;
+        long bit = (long) index * lowBits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = low.get(word) >>> shift;
+        if (shift + lowBits > 64) value |= low.get(word + 1) << (64 - shift);
+        return value & lowMask;
+    }
+
+    /**
+     * Position of the first key with high bits {@code high}: one past the
+     * {@code (high - 1)}-th zero of the upper bits.
+     */
+    private long bucketStart(long high) {
+        return high == 0 ? 0 : selectZero(high - 1) + 1;
+    }
+
+    private long selectOne(int rank) {
+        long position = ones.get(rank >>> SAMPLE_SHIFT);
+        int remaining = rank & SAMPLE_MASK;
+        int word = (int) (position >>> 6);
+        long bits = upper.get(word) & (-1L << position);
+        while (true) {
+            int c = Long.bitCount(bits);
+            if (remaining < c) return ((long) word << 6) + selectInWord(bits, remaining);
+            remaining -= c;
+            bits = upper.get(++word);
+        }
+    }
+
+    private long selectZero(long rank) {
+        long position = zeros.get((int) (rank >>> SAMPLE_SHIFT));
+        int remaining = (int) (rank & SAMPLE_MASK);
+        int word = (int) (position >>> 6);
+        long bits = ~upper.get(word) & (-1L << position);
+        while (true) {
+            int c = Long.bitCount(bits);
+            if (remaining < c) return ((long) word << 6) + selectInWord(bits, remaining);
+            remaining -= c;
+            bits = ~upper.get(++word);
+        }
+    }
+
+    /**
+     * Bit position of the {@code rank}-th set bit of {@code word}; {@code rank} is below its bit count.
+     */
+    static int selectInWord(long word, int rank) {
+        int shift = 0;
+        for (int c; (c = Long.bitCount(word & 0xFFFFL)) <= rank; word >>>= 16, shift += 16) rank -= c;
+        for (int i = 0; i < rank; i++) word &= word - 1;
+        return shift + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,553 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+/**
+ * External merge sort producing the sorted, unique, valid DNI or RUC numbers of
+ * inputs larger than the heap.<br>
+ * <br>
+ * Each record is sanitized (unless {@code strict}) and validated through
+ * {@link DoiType#validateNumber(String, boolean)}, then packed into a numeric key
+ * (see {@link DoiKeys}). Keys are collected in fixed-size runs; each full run is
+ * LSD radix-sorted with 11-bit digits (only as many passes as the key width
+ * needs), deduplicated and spilled to a temporary file as delta-encoded varints,
+ * usually 1-2 bytes per key. The runs are then merged with a k-way heap that drops
+ * duplicates, in several passes if there are more than {@link #MAX_FAN_IN} runs.
+ * Input that fits in a single run is never spilled.<br>
+ * <br>
+ * Configuration:<br>
+ * - {@code memoryKeys}: total number of keys held in memory. Every sorting
+ * thread owns a run buffer and an equally sized radix scratch buffer, so runs
+ * hold {@code memoryKeys / (2 * parallelism)} keys and the sorter uses about
+ * {@code 8 * memoryKeys} bytes of heap.<br>
+ * - {@code tempDir}: directory for run files, or {@code null} for the system default.<br>
+ * - {@code parallelism}: number of threads sorting and spilling runs while the
+ * caller keeps reading the input.<br>
+ * <br>
+ * Only numeric DOI types ({@link DoiType#isNumeric()}: DNI and RUC) can be packed.
+ * Instances are immutable and can run several sorts concurrently.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiExternalSorter {
+
+    /**
+     * Maximum number of runs merged at once.
+     */
+    public static final int MAX_FAN_IN = 64;
+
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int IO_BUFFER = 1 << 16;
+
+    /**
+     * Counters of a finished sort.
+     */
+    public static final class Summary {
+        private long records;
+        private long invalid;
+        private long unique;
+        private int runs;
+
+        /**
+         * Returns the number of records read.
+         *
+         * @return record count
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Returns the number of records rejected by validation.
+         *
+         * @return invalid record count
+         */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        /**
+         * Returns the number of unique valid keys written to the output.
+         *
+         * @return unique key count
+         */
+        public long getUnique() {
+            return unique;
+        }
+
+        /**
+         * Returns the number of runs spilled to temporary files; 0 when the input fit in memory.
+         *
+         * @return spilled run count
+         */
+        public int getRuns() {
+            return runs;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary[records=" + records + ", invalid=" + invalid + ", unique=" + unique
+                    + ", runs=" + runs + "]";
+        }
+    }
+
+    /**
+     * Receives the sorted unique keys.
+     */
+    @FunctionalInterface
+    private interface KeySink {
+        void accept(long key) throws IOException;
+    }
+
+    /**
+     * Opens spilled run files for writing.
+     */
+    @FunctionalInterface
+    interface RunOpener {
+        OutputStream open(Path run) throws IOException;
+    }
+
+    private final DoiType type;
+    private final boolean strict;
+    private final int runKeys;
+    private final Path tempDir;
+    private final int parallelism;
+    private final RunOpener opener;
+
+    /**
+     * Creates a sorter.
+     *
+     * @param type        numeric DOI type of the records
+     * @param strict      whether sanitization should be disabled
+     * @param memoryKeys  total number of keys held in memory
+     * @param tempDir     directory for run files; {@code null} for the system default
+     * @param parallelism number of sorting threads, at least 1
+     * @throws IllegalArgumentException if {@code type} is not numeric, {@code parallelism}
+     *                                  is below 1 or runs would hold fewer than 1024 keys
+     */
+    public DoiExternalSorter(DoiType type, boolean strict, int memoryKeys, Path tempDir, int parallelism) {
+        this(type, strict, memoryKeys, tempDir, parallelism, Files::newOutputStream);
+    }
+
+    /**
+     * Creates a sorter writing its runs through {@code opener}.
+     */
+    DoiExternalSorter(DoiType type, boolean strict, int memoryKeys, Path tempDir, int parallelism,
+                      RunOpener opener) {
+        this.type = Objects.requireNonNull(type, "type must not be null to sort DOI numbers.");
+        if (!type.isNumeric()) {
+            throw new IllegalArgumentException(String.format("DOI type %s cannot be packed into numeric keys.", type));
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        if (memoryKeys / (2 * parallelism) < 1024) {
+            throw new IllegalArgumentException(String.format(
+                    "Memory budget of %d keys is too small for %d sorting threads.", memoryKeys, parallelism));
+        }
+        this.strict = strict;
+        this.runKeys = memoryKeys / (2 * parallelism);
+        this.tempDir = tempDir;
+        this.parallelism = parallelism;
+        this.opener = opener;
+    }
+
+    /**
+     * Sorts the numbers of a text input, one per line, into a text file, one zero-padded number per line.
+     *
+     * @param input  raw numbers, one per line; not closed
+     * @param output destination file, created or replaced
+     * @return the sort counters
+     * @throws IOException if reading, spilling or writing fails
+     */
+    public Summary sort(Reader input, Path output) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            return sort(input, writer);
+        }
+    }
+
+    /**
+     * Sorts the numbers of a text input, one per line, into a writer, one zero-padded number per line.
+     *
+     * @param input  raw numbers, one per line; not closed
+     * @param output destination; flushed, not closed
+     * @return the sort counters
+     * @throws IOException if reading, spilling or writing fails
+     */
+    public Summary sort(Reader input, Writer output) throws IOException {
+        int width = type.getMaxLength();
+        var line = new char[width + 1];
+        line[width] = '\n';
+        Summary summary = run(lines(input), key -> {
+            long value = key;
+            for (int i = width - 1; i >= 0; i--) {
+                line[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            output.write(line);
+        });
+        output.flush();
+        return summary;
+    }
+
+    /**
+     * Sorts the numbers of a text input, one per line, streaming the packed keys in ascending order.
+     *
+     * @param input  raw numbers, one per line; not closed
+     * @param output receives each unique key once, in ascending order
+     * @return the sort counters
+     * @throws IOException if reading or spilling fails
+     */
+    public Summary sort(Reader input, LongConsumer output) throws IOException {
+        return run(lines(input), output::accept);
+    }
+
+    /**
+     * Sorts raw numbers, streaming the packed keys in ascending order.
+     *
+     * @param input  raw numbers; {@code null} elements count as invalid
+     * @param output receives each unique key once, in ascending order
+     * @return the sort counters
+     * @throws IOException if spilling fails
+     */
+    public Summary sort(Iterator<String> input, LongConsumer output) throws IOException {
+        return run(input, output::accept);
+    }
+
+    private Summary run(Iterator<String> input, KeySink sink) throws IOException {
+        Objects.requireNonNull(input, "input must not be null to sort DOI numbers.");
+        var summary = new Summary();
+        var runs = new ArrayList<Path>();
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, r -> {
+            var thread = new Thread(r, "doi-sort");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        BlockingQueue<long[][]> free = new ArrayBlockingQueue<>(parallelism);
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+            long[][] buffer = new long[][]{new long[runKeys], new long[runKeys]};
+            for (int i = 1; i < parallelism; i++) free.add(new long[][]{new long[runKeys], new long[runKeys]});
+            int size = 0;
+            try {
+                while (input.hasNext()) {
+                    String raw = input.next();
+                    summary.records++;
+                    long key = pack(raw);
+                    if (key == DoiKeys.NO_KEY) {
+                        summary.invalid++;
+                        continue;
+                    }
+                    if (size == runKeys) {
+                        Path run = newRun(runs);
+                        if (executor == null) {
+                            spill(buffer, size, run);
+                        } else {
+                            long[][] full = buffer;
+                            int count = size;
+                            pending.add(executor.submit(() -> {
+                                try {
+                                    spill(full, count, run);
+                                } finally {
+                                    free.add(full);
+                                }
+                                return null;
+                            }));
+                            buffer = free.take();
+                            checkSpills(pending);
+                        }
+                        size = 0;
+                    }
+                    buffer[0][size++] = key;
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (runs.isEmpty()) {
+                int unique = sortUnique(buffer[0], buffer[1], size);
+                for (int i = 0; i < unique; i++) sink.accept(buffer[0][i]);
+                summary.unique = unique;
+                return summary;
+            }
+            if (size > 0) spill(buffer, size, newRun(runs));
+            buffer = null;
+            for (Future<?> future : pending) future.get();
+            summary.runs = runs.size();
+            summary.unique = merge(runs, sink);
+            return summary;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sorting DOI numbers.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } finally {
+            if (executor != null) executor.shutdownNow();
+            for (Path run : runs) Files.deleteIfExists(run);
+        }
+    }
+
+    /**
+     * Sanitizes, validates and packs a raw number.
+     */
+    private long pack(String raw) {
+        if (raw == null) return DoiKeys.NO_KEY;
+        String value = strict ? raw : type.sanitize(raw);
+        return type.validateNumber(value, true) ? DoiKeys.parseDigits(value) : DoiKeys.NO_KEY;
+    }
+
+    private Path newRun(List<Path> runs) throws IOException {
+        Path run = tempDir == null ? Files.createTempFile("doi-sort-", ".run")
+                : Files.createTempFile(tempDir, "doi-sort-", ".run");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Rethrows the failure of any finished spill so a full disk stops the input loop at once,
+     * and forgets the spills that succeeded.
+     */
+    private static void checkSpills(List<Future<?>> pending) throws InterruptedException, ExecutionException {
+        for (Iterator<Future<?>> it = pending.iterator(); it.hasNext(); ) {
+            Future<?> future = it.next();
+            if (future.isDone()) {
+                future.get();
+                it.remove();
+            }
+        }
+    }
+
+    private void spill(long[][] buffer, int size, Path run) throws IOException {
+        int unique = sortUnique(buffer[0], buffer[1], size);
+        try (var out = new RunWriter(opener.open(run))) {
+            for (int i = 0; i < unique; i++) out.write(buffer[0][i]);
+        }
+    }
+
+    /**
+     * Radix-sorts {@code keys[0, size)} ascending and removes duplicates in place.
+     *
+     * @param keys    non-negative keys
+     * @param scratch buffer at least {@code size} long
+     * @param size    number of keys
+     * @return number of unique keys, now at the start of {@code keys}
+     */
+    static int sortUnique(long[] keys, long[] scratch, int size) {
+        long max = 0;
+        for (int i = 0; i < size; i++) max |= keys[i];
+        int bits = 64 - Long.numberOfLeadingZeros(max);
+
+        long[] src = keys;
+        long[] dst = scratch;
+        int[] offsets = new int[RADIX];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(offsets, 0);
+            for (int i = 0; i < size; i++) offsets[(int) (src[i] >>> shift) & (RADIX - 1)]++;
+            int sum = 0;
+            boolean single = false;
+            for (int d = 0; d < RADIX; d++) {
+                int count = offsets[d];
+                if (count == size) single = true;
+                offsets[d] = sum;
+                sum += count;
+            }
+            if (single) continue;
+            for (int i = 0; i < size; i++) dst[offsets[(int) (src[i] >>> shift) & (RADIX - 1)]++] = src[i];
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != keys) System.arraycopy(src, 0, keys, 0, size);
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || keys[i] != keys[unique - 1]) keys[unique++] = keys[i];
+        }
+        return unique;
+    }
+
+    /**
+     * Merges the runs, at most {@link #MAX_FAN_IN} at a time, streaming unique keys to {@code sink}.
+     *
+     * @return number of unique keys written
+     */
+    private long merge(List<Path> runs, KeySink sink) throws IOException {
+        List<Path> level = new ArrayList<>(runs);
+        while (level.size() > MAX_FAN_IN) {
+            List<Path> next = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += MAX_FAN_IN) {
+                List<Path> group = level.subList(from, Math.min(from + MAX_FAN_IN, level.size()));
+                Path merged = newRun(runs);
+                try (var out = new RunWriter(opener.open(merged))) {
+                    mergeGroup(group, out::write);
+                }
+                for (Path run : group) Files.deleteIfExists(run);
+                next.add(merged);
+            }
+            level = next;
+        }
+        return mergeGroup(level, sink);
+    }
+
+    /**
+     * K-way merge through a binary min-heap of run readers.
+     */
+    private static long mergeGroup(List<Path> group, KeySink sink) throws IOException {
+        var readers = new RunReader[group.size()];
+        try {
+            int[] heap = new int[readers.length];
+            int size = 0;
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(Files.newInputStream(group.get(i)));
+                if (readers[i].advance()) heap[size++] = i;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) siftDown(heap, size, i, readers);
+
+            long last = DoiKeys.NO_KEY;
+            long written = 0;
+            while (size > 0) {
+                RunReader top = readers[heap[0]];
+                if (top.current != last) {
+                    last = top.current;
+                    sink.accept(last);
+                    written++;
+                }
+                if (!top.advance()) heap[0] = heap[--size];
+                siftDown(heap, size, 0, readers);
+            }
+            return written;
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int index, RunReader[] readers) {
+        int item = heap[index];
+        long value = size > 0 ? readers[item].current : 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && readers[heap[child + 1]].current < readers[heap[child]].current) child++;
+            if (readers[heap[child]].current >= value) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+
+    private static Iterator<String> lines(Reader input) {
+        Objects.requireNonNull(input, "input must not be null to sort DOI numbers.");
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input
+                : new BufferedReader(input, IO_BUFFER);
+        return reader.lines().iterator();
+    }
+
+    /**
+     * Writes ascending unique keys as unsigned LEB128 deltas.
+     */
+    private static final class RunWriter implements AutoCloseable {
+        private final OutputStream out;
+        private long previous;
+
+        RunWriter(OutputStream out) {
+            this.out = new BufferedOutputStream(out, IO_BUFFER);
+        }
+
+        void write(long key) throws IOException {
+            long delta = key - previous;
+            previous = key;
+            while ((delta & ~0x7FL) != 0) {
+                out.write((int) (delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.write((int) delta);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a run written by {@link RunWriter}.
+     */
+    private static final class RunReader implements AutoCloseable {
+        private final InputStream in;
+        long current;
+
+        RunReader(InputStream in) {
+            this.in = new BufferedInputStream(in, IO_BUFFER);
+        }
+
+        boolean advance() throws IOException {
+            long delta = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (shift == 0) return false;
+                    throw new IOException("Truncated DOI sort run.");
+                }
+                delta |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+            }
+            current += delta;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+/**
+ * Reason why a DOI number fails structural validation.<br>
+ * <br>
+ * {@link #of(DoiType, String, boolean)} explains a negative result of
+ * {@link DoiType#validateNumber(String, boolean)}: it returns {@code null}
+ * exactly when the number is valid, and the first failing rule otherwise.
+ * Valid values only pay for the regular validation; the classification runs
+ * only on rejected ones.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public enum DoiFailure {
+    /**
+     * No DOI type was provided.
+     */
+    MISSING_TYPE,
+    /**
+     * The number is null, blank, or empty after sanitization.
+     */
+    BLANK,
+    /**
+     * The number contains characters not accepted by the DOI type.
+     */
+    INVALID_CHARACTER,
+    /**
+     * The number is shorter than the minimum length of the DOI type.
+     */
+    TOO_SHORT,
+    /**
+     * The number is longer than the maximum length of the DOI type (strict mode only).
+     */
+    TOO_LONG,
+    /**
+     * The RUC prefix is not one of 10, 15, 16, 17 or 20.
+     */
+    INVALID_PREFIX,
+    /**
+     * The RUC check digit does not match the modulo-11 computation.
+     */
+    CHECK_DIGIT_MISMATCH;
+
+    /**
+     * Classifies the structural validation of a DOI number.
+     *
+     * @param type   the DOI type; may be {@code null}
+     * @param number the raw DOI number; may be {@code null}
+     * @param strict whether sanitization should be disabled
+     * @return {@code null} if {@code type.validateNumber(number, strict)} is
+     * {@code true}; otherwise the reason of the failure
+     */
+    public static DoiFailure of(DoiType type, String number, boolean strict) {
+        if (type == null) return MISSING_TYPE;
+        if (type.validateNumber(number, strict)) return null;
+        if (number == null || number.isBlank()) return BLANK;
+
+        String value = strict ? number : type.sanitize(number);
+        int length = value.length();
+        if (length == 0) return BLANK;
+        for (int i = 0; i < length; i++) {
+            if (!type.accepts(value.charAt(i))) return INVALID_CHARACTER;
+        }
+        if (length > type.getMaxLength()) return TOO_LONG;
+        if (length < type.getMinLength()) return TOO_SHORT;
+        if (type == DoiType.RUC) {
+            int prefix = (value.charAt(0) - '0') * 10 + value.charAt(1) - '0';
+            if (!RUCUtils.isValidPrefix(prefix)) return INVALID_PREFIX;
+            return CHECK_DIGIT_MISMATCH;
+        }
+        // Unreachable for ASCII input: every structural rule above passed.
+        return INVALID_CHARACTER;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes the DOI fields of export rows for a {@link UsageContext}: the type
+ * code, a separator and the sanitized number, e.g. {@code 6|20607854247} for
+ * PLE.<br>
+ * <br>
+ * A single call does the work of {@link DoiType#isSuitableFor(UsageContext)},
+ * {@link DoiType#sanitize(String)}, {@link DoiType#validateNumber(String, boolean)}
+ * and {@link DoiType#getId(UsageContext)}: the number is scanned once from the
+ * right to find the characters sanitization keeps, once more to validate
+ * them, and then copied straight into the output, without building the
+ * sanitized {@code String} or concatenating the field.<br>
+ * <br>
+ * Problems are reported through a {@link Status} instead of exceptions, and
+ * nothing is written unless the status is {@link Status#WRITTEN}, so rejected
+ * rows can be logged and skipped while an export keeps streaming. Type codes
+ * come from the {@link DoiCatalog} current when the encoder is created, while
+ * numbers are checked with the built-in rules. The result agrees with
+ * {@code validateNumber} under the built-in catalog except that written numbers are always
+ * ASCII: a RUC typed with non-ASCII decimal digits is
+ * {@link Status#INVALID_NUMBER}.<br>
+ * <br>
+ * Instances are immutable and may be shared between threads; the output
+ * buffers are owned by the callers.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiFieldEncoder {
+
+    /**
+     * Outcome of an encoding call.
+     */
+    public enum Status {
+        /**
+         * The field was written.
+         */
+        WRITTEN,
+        /**
+         * No DOI type was provided.
+         */
+        MISSING_TYPE,
+        /**
+         * The DOI type has no code in the usage context.
+         */
+        UNSUITABLE_TYPE,
+        /**
+         * The number fails structural validation; {@link DoiFailure#of(DoiType, String, boolean)}
+         * tells why.
+         */
+        INVALID_NUMBER,
+        /**
+         * The destination buffer has not enough room for the field.
+         */
+        BUFFER_OVERFLOW
+    }
+
+    private final UsageContext context;
+    private final char separator;
+    private final boolean strict;
+    private final String[] codes = new String[DoiType.values().length];
+    private final byte[][] codeBytes = new byte[DoiType.values().length][];
+
+    /**
+     * Creates an encoder.
+     *
+     * @param context   usage context whose type codes are written
+     * @param separator character between the code and the number; must be ASCII
+     * @param strict    whether sanitization should be disabled
+     * @throws NullPointerException     if {@code context} is null
+     * @throws IllegalArgumentException if {@code separator} is not ASCII
+     */
+    public DoiFieldEncoder(UsageContext context, char separator, boolean strict) {
+        this.context = Objects.requireNonNull(context, "context must not be null to encode DOI fields.");
+        if (separator > 127) {
+            throw new IllegalArgumentException(String.format("Separator U+%04X is not ASCII.", (int) separator));
+        }
+        this.separator = separator;
+        this.strict = strict;
+        for (DoiType type : DoiType.values()) {
+            String code = type.getId(context);
+            if (code.isBlank()) continue;
+            codes[type.ordinal()] = code;
+            codeBytes[type.ordinal()] = code.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Returns the usage context whose codes are written.
+     *
+     * @return the usage context
+     */
+    public UsageContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the separator written between the code and the number.
+     *
+     * @return the separator
+     */
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Indicates whether sanitization is disabled.
+     *
+     * @return {@code true} for strict validation
+     */
+    public boolean isStrict() {
+        return strict;
+    }
+
+    /**
+     * Validates a DOI without writing it.
+     *
+     * @param type   DOI type; may be {@code null}
+     * @param number raw DOI number; may be {@code null}
+     * @return {@link Status#WRITTEN} if {@code encode} would write the field, or the reason why not
+     */
+    public Status check(DoiType type, CharSequence number) {
+        if (type == null) return Status.MISSING_TYPE;
+        if (codes[type.ordinal()] == null) return Status.UNSUITABLE_TYPE;
+        return scan(type, number) < 0 ? Status.INVALID_NUMBER : Status.WRITTEN;
+    }
+
+    /**
+     * Appends {@code code}, separator and sanitized number to a builder.
+     *
+     * @param type   DOI type; may be {@code null}
+     * @param number raw DOI number; may be {@code null}
+     * @param out    destination
+     * @return {@link Status#WRITTEN}, or the reason why nothing was appended
+     */
+    public Status encode(DoiType type, CharSequence number, StringBuilder out) {
+        try {
+            return encode(type, number, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw IOException.", e);
+        }
+    }
+
+    /**
+     * Appends {@code code}, separator and sanitized number to any character
+     * destination, such as a {@link java.io.Writer}.<br>
+     * Numbers that are a contiguous region of the input are appended with
+     * {@link Appendable#append(CharSequence, int, int)}; the others character
+     * by character.
+     *
+     * @param type   DOI type; may be {@code null}
+     * @param number raw DOI number; may be {@code null}
+     * @param out    destination
+     * @return {@link Status#WRITTEN}, or the reason why nothing was appended
+     * @throws IOException if the destination fails
+     */
+    public Status encode(DoiType type, CharSequence number, Appendable out) throws IOException {
+        Objects.requireNonNull(out, "out must not be null to encode DOI fields.");
+        if (type == null) return Status.MISSING_TYPE;
+        String code = codes[type.ordinal()];
+        if (code == null) return Status.UNSUITABLE_TYPE;
+        long span = scan(type, number);
+        if (span < 0) return Status.INVALID_NUMBER;
+
+        int from = from(span);
+        int end = end(span);
+        out.append(code).append(separator);
+        if (isContiguous(span)) {
+            out.append(number, from, end);
+        } else {
+            boolean digits = type.isNumeric();
+            for (int i = from; i < end; i++) {
+                char c = number.charAt(i);
+                if (SanitizationUtils.keeps(c, digits)) out.append(c);
+            }
+        }
+        return Status.WRITTEN;
+    }
+
+    /**
+     * Writes {@code code}, separator and sanitized number as ASCII bytes at the
+     * buffer position, advancing it.
+     *
+     * @param type   DOI type; may be {@code null}
+     * @param number raw DOI number; may be {@code null}
+     * @param out    destination; heap or direct
+     * @return {@link Status#WRITTEN}, or the reason why nothing was written;
+     * {@link Status#BUFFER_OVERFLOW} leaves the buffer untouched so the caller
+     * can flush it and retry
+     */
+    public Status encode(DoiType type, CharSequence number, ByteBuffer out) {
+        Objects.requireNonNull(out, "out must not be null to encode DOI fields.");
+        if (type == null) return Status.MISSING_TYPE;
+        byte[] code = codeBytes[type.ordinal()];
+        if (code == null) return Status.UNSUITABLE_TYPE;
+        long span = scan(type, number);
+        if (span < 0) return Status.INVALID_NUMBER;
+
+        int from = from(span);
+        int end = end(span);
+        boolean digits = type.isNumeric();
+        int kept = end - from;
+        if (!isContiguous(span)) {
+            kept = 0;
+            for (int i = from; i < end; i++) {
+                if (SanitizationUtils.keeps(number.charAt(i), digits)) kept++;
+            }
+        }
+        if (out.remaining() < code.length + 1 + kept) return Status.BUFFER_OVERFLOW;
+        out.put(code).put((byte) separator);
+        for (int i = from; i < end; i++) {
+            char c = number.charAt(i);
+            if (kept == end - from || SanitizationUtils.keeps(c, digits)) out.put((byte) c);
+        }
+        return Status.WRITTEN;
+    }
+
+    /**
+     * Locates and validates the characters kept by sanitization.
+     *
+     * @return the span packed by {@link #span(int, int, boolean)}, or -1 if the number is invalid
+     */
+    private long scan(DoiType type, CharSequence number) {
+        if (number == null) return -1;
+        int length = number.length();
+        int maxLength = type.getMaxLength();
+        boolean digits = type.isNumeric();
+
+        int from;
+        int kept;
+        if (strict) {
+            if (length > maxLength) return -1;
+            from = 0;
+            kept = length;
+        } else {
+            // Sanitization keeps the rightmost maxLength characters of the class.
+            from = length;
+            kept = 0;
+            for (int i = length - 1; i >= 0 && kept < maxLength; i--) {
+                if (SanitizationUtils.keeps(number.charAt(i), digits)) {
+                    if (kept++ == 0) length = i + 1;
+                    from = i;
+                }
+            }
+        }
+        if (kept == 0 || kept < type.getMinLength()) return -1;
+
+        boolean ruc = type == DoiType.RUC;
+        int sum = 0;
+        for (int i = from, n = 0; i < length; i++) {
+            char c = number.charAt(i);
+            if (!strict && !SanitizationUtils.keeps(c, digits)) continue;
+            if (!type.accepts(c)) return -1;
+            if (ruc) {
+                if (n == 1 && !RUCUtils.isValidPrefix((number.charAt(from) - '0') * 10 + c - '0')) return -1;
+                if (n < 10) sum += (c - '0') * RUCUtils.weightAt(n);
+                else if (RUCUtils.checkDigitOf(sum) != c) return -1;
+            }
+            n++;
+        }
+        return span(from, length, length - from == kept);
+    }
+
+    /**
+     * Packs the input range {@code [from, end)} of the kept characters, and
+     * whether they are all of the range, into a non-negative long.
+     */
+    private static long span(int from, int end, boolean contiguous) {
+        return (long) from << 32 | (long) end << 1 | (contiguous ? 1 : 0);
+    }
+
+    private static int from(long span) {
+        return (int) (span >>> 32);
+    }
+
+    private static int end(long span) {
+        return (int) (span >>> 1 & Integer.MAX_VALUE);
+    }
+
+    private static boolean isContiguous(long span) {
+        return (span & 1) != 0;
+    }
+}
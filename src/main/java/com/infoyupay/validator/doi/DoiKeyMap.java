@@ -0,0 +1,334 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * Open-addressing hash map from packed DOI keys (see {@link DoiKeys}) to {@code long} values.<br>
+ * <br>
+ * The primitive counterpart of {@code HashMap<String, Long>} for joins and
+ * counts over tens of millions of RUCs or DNIs: keys and values are stored
+ * unboxed in two parallel power-of-two tables with linear probing, on the heap
+ * or, with {@code offHeap}, in native memory. Values can be row numbers,
+ * offsets, counters or other packed keys.<br>
+ * <br>
+ * Keys must be non-negative: {@link DoiKeys#NO_KEY} marks empty slots. The map
+ * is insert-only; use {@link #clear()} to reuse it.<br>
+ * <br>
+ * By default instances are not thread-safe. With {@code concurrent}, the map
+ * runs in read-mostly mode: writers are serialized on the instance while
+ * lookups and iteration never block. A value is always written before its key
+ * is published, so a reader that finds a key sees its value.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiKeyMap {
+
+    /**
+     * Receives one entry of the map without boxing.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs the action for one entry.
+         *
+         * @param key   packed DOI key
+         * @param value value mapped to the key
+         */
+        void accept(long key, long value);
+    }
+
+    private final boolean offHeap;
+    private final boolean concurrent;
+    private final int maxCapacity;
+    private volatile Table table;
+    private volatile int size;
+
+    /**
+     * Creates an empty heap map for single-threaded use.
+     */
+    public DoiKeyMap() {
+        this(0, false, false);
+    }
+
+    /**
+     * Creates an empty heap map for single-threaded use, sized for {@code expectedSize} keys.
+     *
+     * @param expectedSize number of keys expected, used to avoid growth
+     */
+    public DoiKeyMap(int expectedSize) {
+        this(expectedSize, false, false);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param expectedSize number of keys expected, used to avoid growth
+     * @param offHeap      whether to store the tables in native memory
+     * @param concurrent   whether to allow lock-free reads concurrent with writes
+     * @throws IllegalArgumentException if {@code expectedSize} is negative or too large
+     */
+    public DoiKeyMap(int expectedSize, boolean offHeap, boolean concurrent) {
+        this(expectedSize, offHeap, concurrent, LongSlots.maxCapacity(offHeap));
+    }
+
+    /**
+     * Creates an empty map with a lower capacity limit, so tests can reach it.
+     *
+     * @param expectedSize number of keys expected, used to avoid growth
+     * @param offHeap      whether to store the tables in native memory
+     * @param concurrent   whether to allow lock-free reads concurrent with writes
+     * @param maxCapacity  largest number of slots, a power of two
+     */
+    DoiKeyMap(int expectedSize, boolean offHeap, boolean concurrent, int maxCapacity) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative.");
+        }
+        this.offHeap = offHeap;
+        this.concurrent = concurrent;
+        this.maxCapacity = maxCapacity;
+        this.table = new Table(LongSlots.capacityFor(expectedSize, maxCapacity), offHeap);
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether the map has no keys.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Indicates whether the map contains a key. Never blocks.
+     *
+     * @param key packed DOI key
+     * @return {@code true} if present; {@code false} for negative keys
+     */
+    public boolean containsKey(long key) {
+        if (key < 0) return false;
+        Table t = table;
+        return t.slotOf(key) >= 0;
+    }
+
+    /**
+     * Returns the value mapped to a key. Never blocks.
+     *
+     * @param key          packed DOI key
+     * @param defaultValue value returned when the key is absent
+     * @return the mapped value, or {@code defaultValue}
+     */
+    public long get(long key, long defaultValue) {
+        if (key < 0) return defaultValue;
+        Table t = table;
+        int slot = t.slotOf(key);
+        return slot < 0 ? defaultValue : t.values.get(slot);
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   packed DOI key; must not be negative
+     * @param value value to map
+     * @return {@code true} if the key was not present
+     * @throws IllegalArgumentException if {@code key} is negative, or the map is full; the map is then unchanged
+     */
+    public boolean put(long key, long value) {
+        DoiKeySet.checkKey(key);
+        if (!concurrent) return insert(key, value);
+        synchronized (this) {
+            return insert(key, value);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of a key, treating an absent key as 0.
+     * Useful for counting occurrences.
+     *
+     * @param key   packed DOI key; must not be negative
+     * @param delta amount to add
+     * @return the value after the addition
+     * @throws IllegalArgumentException if {@code key} is negative, or the map is full; the map is then unchanged
+     */
+    public long addTo(long key, long delta) {
+        DoiKeySet.checkKey(key);
+        if (!concurrent) return upsert(key, delta);
+        synchronized (this) {
+            return upsert(key, delta);
+        }
+    }
+
+    /**
+     * Maps a range of keys to the values at the same positions, growing the
+     * tables at most once. Later duplicates replace earlier ones.
+     *
+     * @param keys   array of packed DOI keys
+     * @param values array of values, parallel to {@code keys}
+     * @param from   first index, inclusive
+     * @param to     last index, exclusive
+     * @return number of keys that were not present
+     * @throws IllegalArgumentException if a key is negative or the map is full; entries before it remain added
+     */
+    public int putAll(long[] keys, long[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        Objects.checkFromToIndex(from, to, values.length);
+        if (!concurrent) return insertAll(keys, values, from, to);
+        synchronized (this) {
+            return insertAll(keys, values, from, to);
+        }
+    }
+
+    /**
+     * Removes every entry. The capacity is kept.
+     */
+    public void clear() {
+        if (!concurrent) {
+            table.keys.fill(DoiKeys.NO_KEY);
+            size = 0;
+            return;
+        }
+        synchronized (this) {
+            table = new Table(table.keys.capacity, offHeap);
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs an action for every entry, in table order, without boxing.<br>
+     * In concurrent mode, entries added during the traversal may or may not be visited.
+     *
+     * @param action action for each entry
+     */
+    public void forEach(EntryConsumer action) {
+        Table t = table;
+        for (int i = 0; i < t.keys.capacity; i++) {
+            long key = t.keys.get(i);
+            if (key != DoiKeys.NO_KEY) action.accept(key, t.values.get(i));
+        }
+    }
+
+    /**
+     * Returns an iterator over the keys, in table order. Use
+     * {@link PrimitiveIterator.OfLong#nextLong()} to avoid boxing.
+     *
+     * @return a key iterator
+     */
+    public PrimitiveIterator.OfLong keys() {
+        return new DoiKeySet.SlotIterator(table.keys);
+    }
+
+    @Override
+    public String toString() {
+        return "DoiKeyMap[size=" + size + ", capacity=" + table.keys.capacity
+                + (offHeap ? ", offHeap" : "") + (concurrent ? ", concurrent" : "") + "]";
+    }
+
+    private int insertAll(long[] keys, long[] values, int from, int to) {
+        ensureCapacity(Math.min((long) size + (to - from), LongSlots.maxSize(maxCapacity)));
+        int added = 0;
+        for (int i = from; i < to; i++) {
+            DoiKeySet.checkKey(keys[i]);
+            if (insert(keys[i], values[i])) added++;
+        }
+        return added;
+    }
+
+    private long upsert(long key, long delta) {
+        Table t = table;
+        int slot = t.slotOf(key);
+        if (slot >= 0) {
+            long value = t.values.get(slot) + delta;
+            t.values.set(slot, value);
+            return value;
+        }
+        insert(key, delta);
+        return delta;
+    }
+
+    private boolean insert(long key, long value) {
+        Table t = table;
+        LongSlots keys = t.keys;
+        int i = keys.indexOf(key);
+        for (long slot; (slot = keys.get(i)) != DoiKeys.NO_KEY; i = (i + 1) & keys.mask) {
+            if (slot == key) {
+                t.values.set(i, value);
+                return false;
+            }
+        }
+        if (size + 1 > keys.threshold()) {
+            // Grow before storing, so a full table throws without changing the map.
+            ensureCapacity(size + 1L);
+            return insert(key, value);
+        }
+        t.values.set(i, value);
+        keys.set(i, key);
+        size++;
+        return true;
+    }
+
+    private void ensureCapacity(long expected) {
+        Table t = table;
+        if (expected <= t.keys.threshold()) return;
+        Table grown = new Table(LongSlots.capacityFor(expected, maxCapacity), offHeap);
+        for (int i = 0; i < t.keys.capacity; i++) {
+            long key = t.keys.get(i);
+            if (key == DoiKeys.NO_KEY) continue;
+            int j = grown.keys.indexOf(key);
+            while (grown.keys.get(j) != DoiKeys.NO_KEY) j = (j + 1) & grown.keys.mask;
+            grown.values.set(j, t.values.get(i));
+            grown.keys.set(j, key);
+        }
+        table = grown;
+    }
+
+    /**
+     * Parallel key and value slots, published together.
+     */
+    private static final class Table {
+        final LongSlots keys;
+        final LongSlots values;
+
+        Table(int capacity, boolean offHeap) {
+            this.keys = LongSlots.allocate(capacity, offHeap, DoiKeys.NO_KEY);
+            this.values = LongSlots.allocate(capacity, offHeap, 0L);
+        }
+
+        int slotOf(long key) {
+            for (int i = keys.indexOf(key); ; i = (i + 1) & keys.mask) {
+                long slot = keys.get(i);
+                if (slot == key) return i;
+                if (slot == DoiKeys.NO_KEY) return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash set of packed DOI keys (see {@link DoiKeys}).<br>
+ * <br>
+ * Keys are stored unboxed in a power-of-two table with linear probing, so a
+ * set of tens of millions of RUCs or DNIs costs about 11 bytes per key instead
+ * of the ~100 bytes of a {@code HashSet<String>}, and the GC sees one array
+ * instead of millions of objects. With {@code offHeap} the table lives in a
+ * direct buffer outside the Java heap.<br>
+ * <br>
+ * Keys must be non-negative: {@link DoiKeys#NO_KEY} marks empty slots. The set
+ * is insert-only; use {@link #clear()} to reuse it.<br>
+ * <br>
+ * By default instances are not thread-safe. With {@code concurrent}, the set
+ * runs in read-mostly mode: writers are serialized on the instance while
+ * {@link #contains(long)}, iteration and {@link #size()} never block. A key
+ * added before a read started is always found; growth publishes a new table
+ * atomically.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiKeySet {
+
+    private final boolean offHeap;
+    private final boolean concurrent;
+    private final int maxCapacity;
+    private volatile LongSlots keys;
+    private volatile int size;
+
+    /**
+     * Creates an empty heap set for single-threaded use.
+     */
+    public DoiKeySet() {
+        this(0, false, false);
+    }
+
+    /**
+     * Creates an empty heap set for single-threaded use, sized for {@code expectedSize} keys.
+     *
+     * @param expectedSize number of keys expected, used to avoid growth
+     */
+    public DoiKeySet(int expectedSize) {
+        this(expectedSize, false, false);
+    }
+
+    /**
+     * Creates an empty set.
+     *
+     * @param expectedSize number of keys expected, used to avoid growth
+     * @param offHeap      whether to store the table in native memory
+     * @param concurrent   whether to allow lock-free reads concurrent with writes
+     * @throws IllegalArgumentException if {@code expectedSize} is negative or too large
+     */
+    public DoiKeySet(int expectedSize, boolean offHeap, boolean concurrent) {
+        this(expectedSize, offHeap, concurrent, LongSlots.maxCapacity(offHeap));
+    }
+
+    /**
+     * Creates an empty set with a lower capacity limit, so tests can reach it.
+     *
+     * @param expectedSize number of keys expected, used to avoid growth
+     * @param offHeap      whether to store the table in native memory
+     * @param concurrent   whether to allow lock-free reads concurrent with writes
+     * @param maxCapacity  largest number of slots, a power of two
+     */
+    DoiKeySet(int expectedSize, boolean offHeap, boolean concurrent, int maxCapacity) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative.");
+        }
+        this.offHeap = offHeap;
+        this.concurrent = concurrent;
+        this.maxCapacity = maxCapacity;
+        this.keys = LongSlots.allocate(LongSlots.capacityFor(expectedSize, maxCapacity), offHeap, DoiKeys.NO_KEY);
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether the set has no keys.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Indicates whether the set contains a key. Never blocks.
+     *
+     * @param key packed DOI key
+     * @return {@code true} if present; {@code false} for negative keys
+     */
+    public boolean contains(long key) {
+        if (key < 0) return false;
+        LongSlots table = keys;
+        for (int i = table.indexOf(key); ; i = (i + 1) & table.mask) {
+            long slot = table.get(i);
+            if (slot == key) return true;
+            if (slot == DoiKeys.NO_KEY) return false;
+        }
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key packed DOI key; must not be negative
+     * @return {@code true} if the key was not present
+     * @throws IllegalArgumentException if {@code key} is negative, or the set is full; the set is then unchanged
+     */
+    public boolean add(long key) {
+        checkKey(key);
+        if (!concurrent) return insert(key);
+        synchronized (this) {
+            return insert(key);
+        }
+    }
+
+    /**
+     * Adds a range of keys, growing the table at most once.<br>
+     * In concurrent mode the lock is taken once for the whole range; readers
+     * may observe a prefix of the range while it is being added.
+     *
+     * @param source array of packed DOI keys
+     * @param from   first index, inclusive
+     * @param to     last index, exclusive
+     * @return number of keys that were not present
+     * @throws IllegalArgumentException if a key is negative or the set is full; keys before it remain added
+     */
+    public int addAll(long[] source, int from, int to) {
+        Objects.checkFromToIndex(from, to, source.length);
+        if (!concurrent) return insertAll(source, from, to);
+        synchronized (this) {
+            return insertAll(source, from, to);
+        }
+    }
+
+    /**
+     * Removes every key. The capacity is kept.
+     */
+    public void clear() {
+        if (!concurrent) {
+            keys.fill(DoiKeys.NO_KEY);
+            size = 0;
+            return;
+        }
+        synchronized (this) {
+            // readers keep probing the old table until the empty one is published
+            keys = LongSlots.allocate(keys.capacity, offHeap, DoiKeys.NO_KEY);
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs an action for every key, in table order, without boxing.<br>
+     * In concurrent mode, keys added during the traversal may or may not be visited.
+     *
+     * @param action action for each key
+     */
+    public void forEach(LongConsumer action) {
+        LongSlots table = keys;
+        for (int i = 0; i < table.capacity; i++) {
+            long key = table.get(i);
+            if (key != DoiKeys.NO_KEY) action.accept(key);
+        }
+    }
+
+    /**
+     * Returns an iterator over the keys, in table order. Use
+     * {@link PrimitiveIterator.OfLong#nextLong()} to avoid boxing.
+     *
+     * @return a key iterator
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new SlotIterator(keys);
+    }
+
+    /**
+     * Copies the keys into a new array, in table order.
+     *
+     * @return the keys
+     */
+    public long[] toArray() {
+        LongSlots table = keys;
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < table.capacity && n < result.length; i++) {
+            long key = table.get(i);
+            if (key != DoiKeys.NO_KEY) result[n++] = key;
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    @Override
+    public String toString() {
+        return "DoiKeySet[size=" + size + ", capacity=" + keys.capacity
+                + (offHeap ? ", offHeap" : "") + (concurrent ? ", concurrent" : "") + "]";
+    }
+
+    static void checkKey(long key) {
+        if (key < 0) {
+            throw new IllegalArgumentException(String.format("Packed DOI key must not be negative: %d.", key));
+        }
+    }
+
+    private int insertAll(long[] source, int from, int to) {
+        ensureCapacity(Math.min((long) size + (to - from), LongSlots.maxSize(maxCapacity)));
+        int added = 0;
+        for (int i = from; i < to; i++) {
+            checkKey(source[i]);
+            if (insert(source[i])) added++;
+        }
+        return added;
+    }
+
+    private boolean insert(long key) {
+        LongSlots table = keys;
+        int i = table.indexOf(key);
+        for (long slot; (slot = table.get(i)) != DoiKeys.NO_KEY; i = (i + 1) & table.mask) {
+            if (slot == key) return false;
+        }
+        if (size + 1 > table.threshold()) {
+            // Grow before storing, so a full table throws without changing the set.
+            ensureCapacity(size + 1L);
+            return insert(key);
+        }
+        table.set(i, key);
+        size++;
+        return true;
+    }
+
+    private void ensureCapacity(long expected) {
+        LongSlots table = keys;
+        if (expected <= table.threshold()) return;
+        LongSlots grown = LongSlots.allocate(LongSlots.capacityFor(expected, maxCapacity), offHeap, DoiKeys.NO_KEY);
+        for (int i = 0; i < table.capacity; i++) {
+            long key = table.get(i);
+            if (key == DoiKeys.NO_KEY) continue;
+            int j = grown.indexOf(key);
+            while (grown.get(j) != DoiKeys.NO_KEY) j = (j + 1) & grown.mask;
+            grown.set(j, key);
+        }
+        keys = grown;
+    }
+
+    /**
+     * Weakly consistent iterator over the non-empty slots of a table.
+     */
+    static final class SlotIterator implements PrimitiveIterator.OfLong {
+        private final LongSlots table;
+        private int index = -1;
+        private long next;
+
+        SlotIterator(LongSlots table) {
+            this.table = table;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < table.capacity;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            while (++index < table.capacity) {
+                next = table.get(index);
+                if (next != DoiKeys.NO_KEY) return;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+/**
+ * Utility class for converting numeric DOI values (DNI, RUC) to and from
+ * packed {@code long} keys.<br>
+ * <br>
+ * A DNI (8 digits) or RUC (11 digits) is stored as its numeric value. The
+ * width is implied by the DOI type, so leading zeros are restored by
+ * {@link #format(long, int)}. Packed keys are compact, cheap to compare and
+ * hash, and allow arithmetic on individual digits without rebuilding strings.<br>
+ * <br>
+ * This class is a pure utility holder and is not intended to be instantiated or extended.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiKeys {
+
+    /**
+     * Value returned by parsing methods when the input cannot be packed.
+     */
+    public static final long NO_KEY = -1L;
+
+    /**
+     * Powers of ten from 10^0 to 10^18.
+     */
+    static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L,
+            1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L
+    };
+
+    /**
+     * Private constructor to prevent instantiation.<br>
+     * This class only exposes static utility methods.
+     */
+    private DoiKeys() {
+        // utility class
+    }
+
+    /**
+     * Packs a string of ASCII decimal digits (strict mode, no sanitization)
+     * into its numeric value.
+     *
+     * @param digits the digits to pack; may be {@code null}
+     * @return the numeric value, or {@link #NO_KEY} if the value is null, empty,
+     * longer than 18 characters or contains anything other than ASCII digits
+     */
+    public static long parseDigits(CharSequence digits) {
+        if (digits == null) return NO_KEY;
+        int length = digits.length();
+        if (length == 0 || length > 18) return NO_KEY;
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int d = digits.charAt(i) - '0';
+            if (d < 0 || d > 9) return NO_KEY;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Formats a packed numeric value as a zero-padded string of the given width.
+     *
+     * @param value the packed value; must not be negative
+     * @param width number of digits of the result, from 1 to 18
+     * @return the zero-padded digits
+     * @throws IllegalArgumentException if {@code value} is negative or does not fit in {@code width} digits
+     */
+    public static String format(long value, int width) {
+        if (width < 1 || width > 18) {
+            throw new IllegalArgumentException("Packed DOI width must be between 1 and 18 digits.");
+        }
+        if (value < 0 || value >= POW10[width]) {
+            throw new IllegalArgumentException(
+                    String.format("Packed value %d does not fit in %d digits.", value, width));
+        }
+        var chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the decimal digit at {@code position} (0 = leftmost) of a value
+     * formatted with {@code width} digits.
+     *
+     * @param value    packed value
+     * @param width    number of digits of the formatted value
+     * @param position zero-based position from the left
+     * @return the digit, from 0 to 9
+     */
+    static int digitAt(long value, int width, int position) {
+        return (int) (value / POW10[width - 1 - position] % 10);
+    }
+}
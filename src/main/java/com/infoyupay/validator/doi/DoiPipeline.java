@@ -0,0 +1,721 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-threaded parse, sanitize, validate and sink pipeline over pre-allocated
+ * ring buffers.<br>
+ * <br>
+ * Each {@link Stage} runs on its own thread: {@link Stage#PARSE} on the thread
+ * calling {@link #run(Parser, Sink)}, the others on dedicated threads. Records
+ * live in a single ring of reusable {@link Record}s; every stage owns a cursor
+ * with the last sequence it finished, and consumes up to the cursor of the
+ * stage before it, so each pair of neighbouring stages forms a
+ * single-producer/single-consumer queue with no locks. The parser reuses a
+ * record only after the sink has released it.<br>
+ * <br>
+ * Stages take every available record up to {@code batchSize} and publish their
+ * cursor once per batch. When a stage finds nothing to do it idles with the
+ * configured {@link WaitStrategy}. The sanitize and validate stages use the
+ * buffer forms of {@link DoiType#sanitize(String)} and
+ * {@link DoiType#validateNumber(String, boolean)} (with {@link RUCUtils} rules
+ * for RUC), with the same results under the built-in {@link DoiCatalog}, so steady-state operation allocates
+ * nothing beyond what the parser and the sink allocate.<br>
+ * <br>
+ * Records, processed counts, batches and idle rounds are counted per stage and
+ * can be read while running. An exception in any stage stops the pipeline and
+ * is rethrown by {@link #run(Parser, Sink)}.<br>
+ * <br>
+ * An instance owns its ring and runs one pipeline at a time; {@code run} calls
+ * on the same instance are serialized.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiPipeline {
+
+    /**
+     * Pipeline stages, in processing order.
+     */
+    public enum Stage {
+        /**
+         * Fills records from the input, through the {@link Parser}.
+         */
+        PARSE,
+        /**
+         * Sanitizes the number, unless the pipeline is strict.
+         */
+        SANITIZE,
+        /**
+         * Validates the number and packs numeric keys.
+         */
+        VALIDATE,
+        /**
+         * Hands records to the {@link Sink}.
+         */
+        SINK
+    }
+
+    /**
+     * How a stage waits when the previous stage has nothing new.
+     */
+    public enum WaitStrategy {
+        /**
+         * Spins with {@link Thread#onSpinWait()}: lowest latency, one busy core per stage.
+         */
+        BUSY_SPIN {
+            @Override
+            void idle(int round) {
+                Thread.onSpinWait();
+            }
+        },
+        /**
+         * Spins briefly, then yields the processor.
+         */
+        YIELD {
+            @Override
+            void idle(int round) {
+                if (round < SPIN_ROUNDS) Thread.onSpinWait();
+                else Thread.yield();
+            }
+        },
+        /**
+         * Spins, yields, then parks for short periods: least CPU while idle.
+         */
+        PARK {
+            @Override
+            void idle(int round) {
+                if (round < SPIN_ROUNDS) Thread.onSpinWait();
+                else if (round < 2 * SPIN_ROUNDS) Thread.yield();
+                else LockSupport.parkNanos(PARK_NANOS);
+            }
+        };
+
+        private static final int SPIN_ROUNDS = 100;
+        private static final long PARK_NANOS = 50_000;
+
+        /**
+         * Waits once; {@code round} counts the consecutive idle rounds, from 1.
+         */
+        abstract void idle(int round);
+    }
+
+    /**
+     * Fills records from the input.
+     */
+    @FunctionalInterface
+    public interface Parser {
+        /**
+         * Fills the next record, which arrives reset: no type, an empty number and tag 0.
+         *
+         * @param record reusable record to fill
+         * @return {@code false} when the input is exhausted; the record is then discarded
+         * @throws IOException if reading the input fails
+         */
+        boolean next(Record record) throws IOException;
+    }
+
+    /**
+     * Receives validated records in input order.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * Consumes a record. The record is reused after this call returns, so
+         * it must not be retained.
+         *
+         * @param record validated record
+         * @throws IOException if writing fails
+         */
+        void accept(Record record) throws IOException;
+
+        /**
+         * Called after each batch, e.g. to flush a writer.
+         *
+         * @throws IOException if writing fails
+         */
+        default void endOfBatch() throws IOException {
+            // nothing to flush by default
+        }
+    }
+
+    /**
+     * Reusable, mutable record travelling through the pipeline.
+     */
+    public static final class Record {
+        private DoiType type;
+        private char[] raw = new char[32];
+        private int rawLength;
+        private char[] clean = new char[32];
+        private int cleanLength;
+        private boolean valid;
+        private long key = DoiKeys.NO_KEY;
+        private long sequence;
+        private long tag;
+        private final Chars number = new Chars(false);
+        private final Chars sanitized = new Chars(true);
+
+        private Record() {
+        }
+
+        /**
+         * Returns the DOI type.
+         *
+         * @return the type; {@code null} when the parser could not determine it
+         */
+        public DoiType getType() {
+            return type;
+        }
+
+        /**
+         * Sets the DOI type.
+         *
+         * @param type the type; {@code null} makes the record invalid
+         */
+        public void setType(DoiType type) {
+            this.type = type;
+        }
+
+        /**
+         * Replaces the raw number.
+         *
+         * @param value raw characters; {@code null} clears the number
+         */
+        public void setNumber(CharSequence value) {
+            rawLength = 0;
+            if (value == null) return;
+            int length = value.length();
+            ensureRaw(length);
+            for (int i = 0; i < length; i++) raw[i] = value.charAt(i);
+            rawLength = length;
+        }
+
+        /**
+         * Replaces the raw number with a range of characters.
+         *
+         * @param chars  source characters
+         * @param offset first character
+         * @param length number of characters
+         */
+        public void setNumber(char[] chars, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, chars.length);
+            ensureRaw(length);
+            System.arraycopy(chars, offset, raw, 0, length);
+            rawLength = length;
+        }
+
+        /**
+         * Appends one character to the raw number.
+         *
+         * @param c raw character
+         */
+        public void appendNumber(char c) {
+            ensureRaw(rawLength + 1);
+            raw[rawLength++] = c;
+        }
+
+        /**
+         * Returns a view of the raw number, valid until the record is reused.
+         *
+         * @return raw characters
+         */
+        public CharSequence getNumber() {
+            return number;
+        }
+
+        /**
+         * Returns a view of the sanitized number (the raw one in strict mode),
+         * valid until the record is reused.
+         *
+         * @return sanitized characters
+         */
+        public CharSequence getSanitized() {
+            return sanitized;
+        }
+
+        /**
+         * Indicates whether the number passed validation.
+         *
+         * @return {@code true} if valid
+         */
+        public boolean isValid() {
+            return valid;
+        }
+
+        /**
+         * Returns the packed key of a valid DNI or RUC (see {@link DoiKeys}).
+         *
+         * @return the key, or {@link DoiKeys#NO_KEY} for invalid or non-numeric records
+         */
+        public long getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the 0-based position of the record in the input.
+         *
+         * @return sequence number
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the caller-defined tag, e.g. a line number or row id.
+         *
+         * @return the tag
+         */
+        public long getTag() {
+            return tag;
+        }
+
+        /**
+         * Sets the caller-defined tag.
+         *
+         * @param tag the tag
+         */
+        public void setTag(long tag) {
+            this.tag = tag;
+        }
+
+        private void reset(long sequence) {
+            this.sequence = sequence;
+            type = null;
+            rawLength = 0;
+            cleanLength = 0;
+            valid = false;
+            key = DoiKeys.NO_KEY;
+            tag = 0;
+        }
+
+        private void ensureRaw(int capacity) {
+            if (capacity > raw.length) raw = Arrays.copyOf(raw, Math.max(capacity, raw.length << 1));
+        }
+
+        private void sanitize(boolean strict) {
+            if (clean.length < rawLength) clean = new char[Math.max(rawLength, clean.length << 1)];
+            if (type == null) {
+                cleanLength = 0;
+            } else if (strict) {
+                System.arraycopy(raw, 0, clean, 0, rawLength);
+                cleanLength = rawLength;
+            } else {
+                cleanLength = SanitizationUtils.sanitize(raw, rawLength, clean, type.getMaxLength(), type.isNumeric());
+            }
+        }
+
+        private void validate() {
+            if (type == null) {
+                valid = false;
+            } else if (type == DoiType.RUC) {
+                valid = RUCUtils.matchesRUC(sanitized);
+            } else {
+                valid = type.matchesStructure(sanitized);
+            }
+            key = valid && type.isNumeric() ? DoiKeys.parseDigits(sanitized) : DoiKeys.NO_KEY;
+        }
+
+        @Override
+        public String toString() {
+            return "Record[" + sequence + ", " + type + ", '" + number + "', valid=" + valid + "]";
+        }
+
+        /**
+         * Allocation-free view over the raw or clean buffer.
+         */
+        private final class Chars implements CharSequence {
+            private final boolean clean;
+
+            Chars(boolean clean) {
+                this.clean = clean;
+            }
+
+            @Override
+            public int length() {
+                return clean ? cleanLength : rawLength;
+            }
+
+            @Override
+            public char charAt(int index) {
+                Objects.checkIndex(index, length());
+                return clean ? Record.this.clean[index] : raw[index];
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return toString().subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                return clean ? new String(Record.this.clean, 0, cleanLength) : new String(raw, 0, rawLength);
+            }
+        }
+    }
+
+    /**
+     * Counters of a finished run.
+     */
+    public static final class Summary {
+        private final long records;
+        private final long valid;
+        private final long elapsedNanos;
+        private final long[] batches;
+        private final long[] waits;
+
+        private Summary(long records, long valid, long elapsedNanos, long[] batches, long[] waits) {
+            this.records = records;
+            this.valid = valid;
+            this.elapsedNanos = elapsedNanos;
+            this.batches = batches;
+            this.waits = waits;
+        }
+
+        /**
+         * Returns the number of records processed.
+         *
+         * @return record count
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Returns the number of valid records.
+         *
+         * @return valid record count
+         */
+        public long getValid() {
+            return valid;
+        }
+
+        /**
+         * Returns the number of invalid records.
+         *
+         * @return invalid record count
+         */
+        public long getInvalid() {
+            return records - valid;
+        }
+
+        /**
+         * Returns the wall-clock duration of the run.
+         *
+         * @return elapsed nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the number of batches a stage published.
+         *
+         * @param stage pipeline stage
+         * @return batch count
+         */
+        public long getBatches(Stage stage) {
+            return batches[stage.ordinal()];
+        }
+
+        /**
+         * Returns the number of idle rounds of a stage.
+         *
+         * @param stage pipeline stage
+         * @return idle round count
+         */
+        public long getWaits(Stage stage) {
+            return waits[stage.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Summary[records=%d, valid=%d, elapsedNanos=%d, batches=%s, waits=%s]",
+                    records, valid, elapsedNanos, Arrays.toString(batches), Arrays.toString(waits));
+        }
+    }
+
+    /**
+     * Keeps the cursor on its own cache line.
+     */
+    @SuppressWarnings("unused")
+    private static class CursorPadding {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    /**
+     * Last sequence a stage finished, with its counters. Single writer: the stage thread.
+     */
+    @SuppressWarnings("unused")
+    private static final class Cursor extends CursorValue {
+        long q1, q2, q3, q4, q5, q6, q7;
+    }
+
+    private static class CursorValue extends CursorPadding {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(CursorValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private long value = -1;
+        volatile long batches;
+        volatile long waits;
+        volatile long valid;
+
+        long get() {
+            return (long) VALUE.getAcquire(this);
+        }
+
+        void set(long sequence) {
+            VALUE.setRelease(this, sequence);
+        }
+    }
+
+    private final Record[] ring;
+    private final int mask;
+    private final int batchSize;
+    private final WaitStrategy waitStrategy;
+    private final boolean strict;
+    private final Cursor[] cursors = new Cursor[Stage.values().length];
+    private volatile long end;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param ringSize     number of records in flight, rounded up to a power of two
+     * @param batchSize    maximum records a stage handles before publishing its progress
+     * @param waitStrategy how idle stages wait; must not be null
+     * @param strict       whether sanitization should be disabled
+     * @throws IllegalArgumentException if {@code ringSize} is not within 2 to 2^20,
+     *                                  or {@code batchSize} is not within 1 to {@code ringSize}
+     */
+    public DoiPipeline(int ringSize, int batchSize, WaitStrategy waitStrategy, boolean strict) {
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy must not be null to run a pipeline.");
+        if (ringSize < 2 || ringSize > 1 << 20) {
+            throw new IllegalArgumentException(String.format("Ring size %d is not within 2 and 2^20.", ringSize));
+        }
+        int capacity = Integer.highestOneBit(ringSize - 1) << 1;
+        if (batchSize < 1 || batchSize > capacity) {
+            throw new IllegalArgumentException(String.format("Batch size %d is not within 1 and %d.", batchSize, capacity));
+        }
+        this.ring = new Record[capacity];
+        for (int i = 0; i < capacity; i++) ring[i] = new Record();
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.strict = strict;
+        for (int i = 0; i < cursors.length; i++) cursors[i] = new Cursor();
+    }
+
+    /**
+     * Returns the number of records a stage has finished, in the current or last run.
+     *
+     * @param stage pipeline stage
+     * @return processed records
+     */
+    public long getProcessed(Stage stage) {
+        return cursors[stage.ordinal()].get() + 1;
+    }
+
+    /**
+     * Returns the number of batches a stage has published, in the current or last run.
+     *
+     * @param stage pipeline stage
+     * @return batch count
+     */
+    public long getBatches(Stage stage) {
+        return cursors[stage.ordinal()].batches;
+    }
+
+    /**
+     * Returns the number of idle rounds of a stage, in the current or last run.
+     *
+     * @param stage pipeline stage
+     * @return idle round count
+     */
+    public long getWaits(Stage stage) {
+        return cursors[stage.ordinal()].waits;
+    }
+
+    /**
+     * Runs the pipeline until the parser is exhausted and the sink has consumed every record.
+     *
+     * @param parser fills records; called on the current thread
+     * @param sink   consumes records in input order; called on a pipeline thread
+     * @return counters of the run
+     * @throws IOException if the parser or the sink fails
+     */
+    public synchronized Summary run(Parser parser, Sink sink) throws IOException {
+        Objects.requireNonNull(parser, "parser must not be null to run a pipeline.");
+        Objects.requireNonNull(sink, "sink must not be null to run a pipeline.");
+        for (Cursor cursor : cursors) {
+            cursor.set(-1);
+            cursor.batches = 0;
+            cursor.waits = 0;
+            cursor.valid = 0;
+        }
+        end = Long.MAX_VALUE;
+        failure.set(null);
+        long start = System.nanoTime();
+
+        var threads = new Thread[]{
+                worker(Stage.SANITIZE, record -> record.sanitize(strict), null),
+                worker(Stage.VALIDATE, Record::validate, null),
+                worker(Stage.SINK, sink::accept, sink)
+        };
+        for (Thread thread : threads) thread.start();
+        try {
+            parse(parser);
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e);
+        }
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    fail(e);
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) throw (IOException) error;
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+        if (error != null) throw new IOException("DOI pipeline interrupted.", error);
+
+        long[] batches = new long[cursors.length];
+        long[] waits = new long[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            batches[i] = cursors[i].batches;
+            waits[i] = cursors[i].waits;
+        }
+        return new Summary(getProcessed(Stage.SINK), cursors[Stage.VALIDATE.ordinal()].valid,
+                System.nanoTime() - start, batches, waits);
+    }
+
+    private void parse(Parser parser) throws IOException {
+        Cursor own = cursors[Stage.PARSE.ordinal()];
+        Cursor sink = cursors[Stage.SINK.ordinal()];
+        long next = 0;
+        int round = 0;
+        long batches = 0;
+        long waits = 0;
+        while (failure.get() == null) {
+            long limit = Math.min(sink.get() + ring.length, next + batchSize - 1);
+            if (limit < next) {
+                waitStrategy.idle(++round);
+                own.waits = ++waits;
+                continue;
+            }
+            round = 0;
+            long sequence = next;
+            boolean more = true;
+            for (; sequence <= limit; sequence++) {
+                Record record = ring[(int) sequence & mask];
+                record.reset(sequence);
+                if (!parser.next(record)) {
+                    more = false;
+                    break;
+                }
+            }
+            if (sequence > next) {
+                own.set(sequence - 1);
+                own.batches = ++batches;
+            }
+            next = sequence;
+            if (!more) {
+                end = next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Per-record work of a downstream stage.
+     */
+    @FunctionalInterface
+    private interface Step {
+        void apply(Record record) throws IOException;
+    }
+
+    private Thread worker(Stage stage, Step step, Sink sink) {
+        Cursor own = cursors[stage.ordinal()];
+        Cursor upstream = cursors[stage.ordinal() - 1];
+        boolean validating = stage == Stage.VALIDATE;
+        var thread = new Thread(() -> {
+            long next = 0;
+            int round = 0;
+            long batches = 0;
+            long waits = 0;
+            long valid = 0;
+            try {
+                while (failure.get() == null) {
+                    long available = upstream.get();
+                    if (available < next) {
+                        if (next == end) break;
+                        waitStrategy.idle(++round);
+                        own.waits = ++waits;
+                        continue;
+                    }
+                    round = 0;
+                    long limit = Math.min(available, next + batchSize - 1);
+                    for (long sequence = next; sequence <= limit; sequence++) {
+                        Record record = ring[(int) sequence & mask];
+                        step.apply(record);
+                        if (validating && record.valid) valid++;
+                    }
+                    if (validating) own.valid = valid;
+                    own.set(limit);
+                    own.batches = ++batches;
+                    next = limit + 1;
+                    if (sink != null) sink.endOfBatch();
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }, "doi-pipeline-" + stage.name().toLowerCase(Locale.ROOT));
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void fail(Throwable e) {
+        failure.compareAndSet(null, e);
+    }
+}
@@ -0,0 +1,652 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Bulk reconciliation join of two large inputs on packed DOI keys.<br>
+ * <br>
+ * Typical use: a person dataset keyed by DNI against a company dataset keyed
+ * by RUC. Map the DNI side with {@link RUCUtils#deriveRUC10(long)} (or the RUC
+ * side with {@link RUCUtils#extractDNI(long)}) through
+ * {@link Cursor#mapKeys(LongUnaryOperator)}, then join. Each entry is a packed
+ * key plus a {@code long} reference chosen by the caller (row number, file
+ * offset, surrogate id), so nothing is boxed.<br>
+ * <br>
+ * Results are streamed to a {@link Listener}: matched pairs (every left/right
+ * combination of a shared key), left-only entries and right-only entries.
+ * Entries whose key is {@link DoiKeys#NO_KEY}, e.g. a RUC that is not a RUC-10,
+ * are reported as unmatched.<br>
+ * <br>
+ * Strategies:<br>
+ * - {@link Strategy#HASH}: builds the right input in a {@link DoiKeyMap} and
+ * streams the left input against it. When the right input exceeds the memory
+ * budget, both inputs are partitioned by key hash into temporary files and
+ * each partition is joined in turn (grace hash join), recursively if needed.
+ * Inputs need no order.<br>
+ * - {@link Strategy#SORT_MERGE}: both inputs must be sorted by key; they are
+ * merged in one pass and only the right-side duplicates of the current key
+ * are buffered.<br>
+ * <br>
+ * Memory is bounded by {@code memoryEntries}, the number of right-side entries
+ * held at once (about 40 bytes each for {@code HASH}, 8 for {@code SORT_MERGE}).
+ * The duplicates of a single key must fit in the budget.<br>
+ * <br>
+ * Instances are immutable and can run several joins concurrently.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiReconciler {
+
+    /**
+     * Join algorithm.
+     */
+    public enum Strategy {
+        /**
+         * In-memory hash join, partitioned to disk when the right input exceeds the budget.
+         */
+        HASH,
+        /**
+         * Streaming merge of inputs sorted by key.
+         */
+        SORT_MERGE
+    }
+
+    /**
+     * Pull cursor over {@code (key, ref)} entries.
+     */
+    public interface Cursor {
+        /**
+         * Advances to the next entry.
+         *
+         * @return {@code false} when the input is exhausted
+         * @throws IOException if the underlying input fails
+         */
+        boolean next() throws IOException;
+
+        /**
+         * Returns the packed key of the current entry.
+         *
+         * @return the key, or {@link DoiKeys#NO_KEY} if the entry has none
+         */
+        long key();
+
+        /**
+         * Returns the caller's reference of the current entry.
+         *
+         * @return the reference
+         */
+        long ref();
+
+        /**
+         * Returns a cursor whose keys are transformed on the fly, e.g. with
+         * {@link RUCUtils#deriveRUC10(long)}.
+         *
+         * @param mapping key transformation; may return {@link DoiKeys#NO_KEY}
+         * @return the mapped cursor
+         */
+        default Cursor mapKeys(LongUnaryOperator mapping) {
+            Objects.requireNonNull(mapping, "mapping must not be null to map cursor keys.");
+            Cursor source = this;
+            return new Cursor() {
+                private long key;
+
+                @Override
+                public boolean next() throws IOException {
+                    if (!source.next()) return false;
+                    key = source.key() < 0 ? DoiKeys.NO_KEY : mapping.applyAsLong(source.key());
+                    return true;
+                }
+
+                @Override
+                public long key() {
+                    return key;
+                }
+
+                @Override
+                public long ref() {
+                    return source.ref();
+                }
+            };
+        }
+
+        /**
+         * Returns a cursor over parallel arrays.
+         *
+         * @param keys packed keys
+         * @param refs references; must have the same length as {@code keys}
+         * @return the cursor
+         * @throws IllegalArgumentException if the lengths differ
+         */
+        static Cursor of(long[] keys, long[] refs) {
+            if (keys.length != refs.length) {
+                throw new IllegalArgumentException("keys and refs must have the same length.");
+            }
+            return new Cursor() {
+                private int index = -1;
+
+                @Override
+                public boolean next() {
+                    return ++index < keys.length;
+                }
+
+                @Override
+                public long key() {
+                    return keys[index];
+                }
+
+                @Override
+                public long ref() {
+                    return refs[index];
+                }
+            };
+        }
+
+        /**
+         * Returns a cursor over keys whose reference is their array index.
+         *
+         * @param keys packed keys
+         * @return the cursor
+         */
+        static Cursor of(long[] keys) {
+            return new Cursor() {
+                private int index = -1;
+
+                @Override
+                public boolean next() {
+                    return ++index < keys.length;
+                }
+
+                @Override
+                public long key() {
+                    return keys[index];
+                }
+
+                @Override
+                public long ref() {
+                    return index;
+                }
+            };
+        }
+    }
+
+    /**
+     * Receives the join results. Methods default to no-op.
+     */
+    public interface Listener {
+        /**
+         * Called for each pair of entries sharing a key.
+         *
+         * @param key      the shared key
+         * @param leftRef  reference of the left entry
+         * @param rightRef reference of the right entry
+         */
+        default void matched(long key, long leftRef, long rightRef) {
+        }
+
+        /**
+         * Called for each left entry without a right counterpart.
+         *
+         * @param key     key of the entry
+         * @param leftRef reference of the entry
+         */
+        default void leftOnly(long key, long leftRef) {
+        }
+
+        /**
+         * Called for each right entry without a left counterpart.
+         *
+         * @param key      key of the entry
+         * @param rightRef reference of the entry
+         */
+        default void rightOnly(long key, long rightRef) {
+        }
+    }
+
+    /**
+     * Counters of a finished join.
+     */
+    public static final class Summary {
+        private long matched;
+        private long leftOnly;
+        private long rightOnly;
+        private int partitions;
+
+        /**
+         * Returns the number of matched pairs.
+         *
+         * @return matched pairs
+         */
+        public long getMatched() {
+            return matched;
+        }
+
+        /**
+         * Returns the number of left entries without a match.
+         *
+         * @return left-only entries
+         */
+        public long getLeftOnly() {
+            return leftOnly;
+        }
+
+        /**
+         * Returns the number of right entries without a match.
+         *
+         * @return right-only entries
+         */
+        public long getRightOnly() {
+            return rightOnly;
+        }
+
+        /**
+         * Returns how many spilled partitions were joined; 0 when the join ran in memory.
+         *
+         * @return number of partitions
+         */
+        public int getPartitions() {
+            return partitions;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary[matched=" + matched + ", leftOnly=" + leftOnly + ", rightOnly=" + rightOnly
+                    + ", partitions=" + partitions + "]";
+        }
+    }
+
+    /**
+     * Partitions created per level when spilling.
+     */
+    private static final int FANOUT_BITS = 4;
+    private static final int FANOUT = 1 << FANOUT_BITS;
+    private static final int MAX_DEPTH = 15;
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private final Strategy strategy;
+    private final int memoryEntries;
+    private final Path tempDir;
+
+    /**
+     * Creates a reconciler.
+     *
+     * @param strategy      join algorithm
+     * @param memoryEntries maximum right-side entries held in memory, at least 1024
+     * @param tempDir       directory for partition files; {@code null} for the system default
+     * @throws IllegalArgumentException if {@code memoryEntries} is below 1024
+     */
+    public DoiReconciler(Strategy strategy, int memoryEntries, Path tempDir) {
+        this.strategy = Objects.requireNonNull(strategy, "strategy must not be null to reconcile.");
+        if (memoryEntries < 1024) {
+            throw new IllegalArgumentException(String.format(
+                    "Memory budget must hold at least 1024 entries, got %d.", memoryEntries));
+        }
+        this.memoryEntries = memoryEntries;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Joins two inputs on their keys.
+     *
+     * @param left     left input
+     * @param right    right input
+     * @param listener receives matched and unmatched entries
+     * @return the join counters
+     * @throws IOException           if an input or a partition file fails
+     * @throws IllegalStateException if a {@code SORT_MERGE} input is not sorted, or the
+     *                               duplicates of a single key exceed the memory budget
+     */
+    public Summary join(Cursor left, Cursor right, Listener listener) throws IOException {
+        Objects.requireNonNull(left, "left cursor must not be null to reconcile.");
+        Objects.requireNonNull(right, "right cursor must not be null to reconcile.");
+        Objects.requireNonNull(listener, "listener must not be null to reconcile.");
+        var summary = new Summary();
+        var counting = new Listener() {
+            @Override
+            public void matched(long key, long leftRef, long rightRef) {
+                summary.matched++;
+                listener.matched(key, leftRef, rightRef);
+            }
+
+            @Override
+            public void leftOnly(long key, long leftRef) {
+                summary.leftOnly++;
+                listener.leftOnly(key, leftRef);
+            }
+
+            @Override
+            public void rightOnly(long key, long rightRef) {
+                summary.rightOnly++;
+                listener.rightOnly(key, rightRef);
+            }
+        };
+        if (strategy == Strategy.HASH) {
+            hashJoin(left, right, counting, summary, 0);
+        } else {
+            mergeJoin(left, right, counting);
+        }
+        return summary;
+    }
+
+    private void hashJoin(Cursor left, Cursor right, Listener listener, Summary summary, int depth)
+            throws IOException {
+        var buffer = new Entries(Math.min(memoryEntries, 1024));
+        while (right.next()) {
+            if (right.key() < 0) {
+                listener.rightOnly(right.key(), right.ref());
+            } else if (buffer.size < memoryEntries) {
+                buffer.add(right.key(), right.ref());
+            } else {
+                partition(left, right, buffer, listener, summary, depth);
+                return;
+            }
+        }
+        joinInMemory(left, buffer, listener);
+    }
+
+    private void joinInMemory(Cursor left, Entries right, Listener listener) throws IOException {
+        int count = right.size;
+        var heads = new DoiKeyMap(count);
+        int[] chain = new int[count];
+        for (int i = 0; i < count; i++) {
+            chain[i] = (int) heads.get(right.keys[i], -1);
+            heads.put(right.keys[i], i);
+        }
+        long[] matched = new long[(count + 63) >>> 6];
+        while (left.next()) {
+            long key = left.key();
+            int i = key < 0 ? -1 : (int) heads.get(key, -1);
+            if (i < 0) {
+                listener.leftOnly(key, left.ref());
+                continue;
+            }
+            for (; i >= 0; i = chain[i]) {
+                listener.matched(key, left.ref(), right.refs[i]);
+                matched[i >>> 6] |= 1L << i;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if ((matched[i >>> 6] & 1L << i) == 0) listener.rightOnly(right.keys[i], right.refs[i]);
+        }
+    }
+
+    /**
+     * Spills both inputs into {@link #FANOUT} partition files by key hash and
+     * joins each pair of partitions. Each level reseeds the hash (see {@link #partitionOf(long, int)}).
+     */
+    private void partition(Cursor left, Cursor right, Entries buffered, Listener listener, Summary summary,
+                           int depth) throws IOException {
+        if (depth >= MAX_DEPTH) {
+            throw new IllegalStateException(String.format(
+                    "Duplicates of a single key exceed the memory budget of %d entries.", memoryEntries));
+        }
+        var rightFiles = new Path[FANOUT];
+        var leftFiles = new Path[FANOUT];
+        try {
+            var rightOut = open(rightFiles);
+            try {
+                for (int i = 0; i < buffered.size; i++) {
+                    write(rightOut, buffered.keys[i], buffered.refs[i], depth);
+                }
+                do {
+                    if (right.key() < 0) listener.rightOnly(right.key(), right.ref());
+                    else write(rightOut, right.key(), right.ref(), depth);
+                } while (right.next());
+            } finally {
+                close(rightOut);
+            }
+            buffered.release();
+
+            var leftOut = open(leftFiles);
+            try {
+                while (left.next()) {
+                    if (left.key() < 0) listener.leftOnly(left.key(), left.ref());
+                    else write(leftOut, left.key(), left.ref(), depth);
+                }
+            } finally {
+                close(leftOut);
+            }
+
+            for (int p = 0; p < FANOUT; p++) {
+                summary.partitions++;
+                try (var leftIn = new SpillCursor(leftFiles[p]); var rightIn = new SpillCursor(rightFiles[p])) {
+                    hashJoin(leftIn, rightIn, listener, summary, depth + 1);
+                }
+                Files.deleteIfExists(leftFiles[p]);
+                Files.deleteIfExists(rightFiles[p]);
+            }
+        } finally {
+            for (int p = 0; p < FANOUT; p++) {
+                if (leftFiles[p] != null) Files.deleteIfExists(leftFiles[p]);
+                if (rightFiles[p] != null) Files.deleteIfExists(rightFiles[p]);
+            }
+        }
+    }
+
+    private DataOutputStream[] open(Path[] files) throws IOException {
+        var out = new DataOutputStream[files.length];
+        for (int p = 0; p < files.length; p++) {
+            files[p] = tempDir == null ? Files.createTempFile("doi-join-", ".bin")
+                    : Files.createTempFile(tempDir, "doi-join-", ".bin");
+            out[p] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[p]), 1 << 14));
+        }
+        return out;
+    }
+
+    private static void close(DataOutputStream[] out) throws IOException {
+        IOException failure = null;
+        for (DataOutputStream stream : out) {
+            if (stream == null) continue;
+            try {
+                stream.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static void write(DataOutputStream[] out, long key, long ref, int depth) throws IOException {
+        int p = partitionOf(key, depth);
+        out[p].writeLong(key);
+        out[p].writeLong(ref);
+    }
+
+    /**
+     * Partition of a key at a spill level.<br>
+     * The in-memory table ({@link DoiKeyMap}) takes its slot from the top bits
+     * of {@code key * PHI}. Partitioning on those bits too would give every key
+     * of a partition the same leading slot bits, crowding one region of the
+     * table and making linear probing quadratic. The partition therefore comes
+     * from a separate 64-bit finalizer (MurmurHash3's fmix64), seeded per level
+     * so that each level splits the keys of the previous one.
+     *
+     * @param key   packed key
+     * @param depth spill level, from 0
+     * @return partition index, from 0 to {@link #FANOUT} - 1
+     */
+    static int partitionOf(long key, int depth) {
+        long h = key + (depth + 1) * PHI;
+        h = (h ^ h >>> 33) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ h >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ h >>> 33) & (FANOUT - 1);
+    }
+
+    private void mergeJoin(Cursor left, Cursor right, Listener listener) throws IOException {
+        var run = new Entries(16);
+        var l = new SortedSide(left, "left", listener, true);
+        var r = new SortedSide(right, "right", listener, false);
+        boolean hasLeft = l.advance();
+        boolean hasRight = r.advance();
+        while (hasLeft && hasRight) {
+            long lk = l.cursor.key();
+            long rk = r.cursor.key();
+            if (lk < rk) {
+                listener.leftOnly(lk, l.cursor.ref());
+                hasLeft = l.advance();
+            } else if (lk > rk) {
+                listener.rightOnly(rk, r.cursor.ref());
+                hasRight = r.advance();
+            } else {
+                run.size = 0;
+                do {
+                    if (run.size == memoryEntries) {
+                        throw new IllegalStateException(String.format(
+                                "Duplicates of key %d exceed the memory budget of %d entries.", rk, memoryEntries));
+                    }
+                    run.add(rk, r.cursor.ref());
+                    hasRight = r.advance();
+                } while (hasRight && r.cursor.key() == rk);
+                do {
+                    for (int i = 0; i < run.size; i++) listener.matched(lk, l.cursor.ref(), run.refs[i]);
+                    hasLeft = l.advance();
+                } while (hasLeft && l.cursor.key() == lk);
+            }
+        }
+        while (hasLeft) {
+            listener.leftOnly(l.cursor.key(), l.cursor.ref());
+            hasLeft = l.advance();
+        }
+        while (hasRight) {
+            listener.rightOnly(r.cursor.key(), r.cursor.ref());
+            hasRight = r.advance();
+        }
+    }
+
+    /**
+     * One side of a merge join: reports entries without a key as unmatched and
+     * checks that the remaining keys are sorted.
+     */
+    private static final class SortedSide {
+        final Cursor cursor;
+        private final String name;
+        private final Listener listener;
+        private final boolean left;
+        private long last = Long.MIN_VALUE;
+        private long position = -1;
+
+        SortedSide(Cursor cursor, String name, Listener listener, boolean left) {
+            this.cursor = cursor;
+            this.name = name;
+            this.listener = listener;
+            this.left = left;
+        }
+
+        boolean advance() throws IOException {
+            while (cursor.next()) {
+                position++;
+                long key = cursor.key();
+                if (key < 0) {
+                    if (left) listener.leftOnly(key, cursor.ref());
+                    else listener.rightOnly(key, cursor.ref());
+                    continue;
+                }
+                if (key < last) {
+                    throw new IllegalStateException(String.format(
+                            "The %s input is not sorted by key at entry %d (%d after %d).", name, position, key, last));
+                }
+                last = key;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Growable parallel arrays of keys and references.
+     */
+    private static final class Entries {
+        long[] keys;
+        long[] refs;
+        int size;
+
+        Entries(int capacity) {
+            keys = new long[capacity];
+            refs = new long[capacity];
+        }
+
+        void add(long key, long ref) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                refs = Arrays.copyOf(refs, size << 1);
+            }
+            keys[size] = key;
+            refs[size++] = ref;
+        }
+
+        void release() {
+            keys = new long[0];
+            refs = new long[0];
+            size = 0;
+        }
+    }
+
+    /**
+     * Cursor over a partition file of {@code (key, ref)} pairs.
+     */
+    private static final class SpillCursor implements Cursor, AutoCloseable {
+        private final DataInputStream in;
+        private long key;
+        private long ref;
+
+        SpillCursor(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 14));
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            ref = in.readLong();
+            return true;
+        }
+
+        @Override
+        public long key() {
+            return key;
+        }
+
+        @Override
+        public long ref() {
+            return ref;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.util.regex.Pattern;
+
+/**
+ * Compiled structural rules of one DOI type within a {@link DoiCatalog}.<br>
+ * <br>
+ * A rule carries the same data the {@link DoiType} constants hardcode: the
+ * code of the type in each {@link UsageContext}, the length range, the
+ * character class, and for RUC-like types the admissible two-digit prefixes
+ * and the SUNAT modulo-11 check digit. Catalog files may add an extra regex
+ * that the value must also match.<br>
+ * <br>
+ * Validation follows the enum: ASCII digits or ASCII alphanumerics within the
+ * length range. It runs in a single pass without allocation unless an extra
+ * regex is present.<br>
+ * <br>
+ * Rules are immutable and thread-safe.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiRule {
+
+    private final String name;
+    private final String shortName;
+    private final DoiType type;
+    private final String[] ids;
+    private final int minLength;
+    private final int maxLength;
+    private final boolean numeric;
+    private final boolean[] prefixes;
+    private final boolean checkDigit;
+    private final Pattern pattern;
+    private final String regex;
+    private final boolean foreign;
+    private final boolean acceptedForNonDomiciled;
+
+    /**
+     * Creates a rule; arguments are validated by the catalog loader.
+     */
+    DoiRule(String name, String shortName, String[] ids, int minLength, int maxLength, boolean numeric,
+            boolean[] prefixes, boolean checkDigit, Pattern pattern,
+            boolean foreign, boolean acceptedForNonDomiciled) {
+        this.name = name;
+        this.shortName = shortName;
+        this.type = typeNamed(name);
+        this.ids = ids;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.numeric = numeric;
+        this.prefixes = prefixes;
+        this.checkDigit = checkDigit;
+        this.pattern = pattern;
+        this.regex = pattern != null ? pattern.pattern() : structuralRegex();
+        this.foreign = foreign;
+        this.acceptedForNonDomiciled = acceptedForNonDomiciled;
+    }
+
+    /**
+     * Creates the rule equivalent to a built-in DOI type.<br>
+     * The enum regexes are fully expressed by the length range, the character
+     * class and, for RUC, the prefixes and check digit, so no pattern is compiled.
+     *
+     * @param type the DOI type
+     * @return the equivalent rule
+     */
+    static DoiRule of(DoiType type) {
+        var ids = new String[UsageContext.values().length];
+        for (UsageContext context : UsageContext.values()) {
+            ids[context.ordinal()] = type.builtInId(context);
+        }
+        boolean ruc = type == DoiType.RUC;
+        boolean[] prefixes = null;
+        if (ruc) {
+            prefixes = new boolean[100];
+            for (int prefix = 0; prefix < 100; prefix++) {
+                prefixes[prefix] = RUCUtils.isValidPrefix(prefix);
+            }
+        }
+        return new DoiRule(type.name(), type.getShortName(), ids, type.getMinLength(), type.getMaxLength(),
+                type.isNumeric(), prefixes, ruc, null,
+                type.isForeign(), type.isAcceptedForNonDomiciled());
+    }
+
+    /**
+     * Writes the length range, character class and prefixes as a regex in the
+     * style of {@link DoiType#getRegex()}.
+     */
+    private String structuralRegex() {
+        var sb = new StringBuilder();
+        int min = minLength;
+        int max = maxLength;
+        if (prefixes != null) {
+            sb.append('(');
+            for (int prefix = 0; prefix < 100; prefix++) {
+                if (!prefixes[prefix]) continue;
+                if (sb.length() > 1) sb.append('|');
+                sb.append('(').append(prefix / 10).append(prefix % 10).append(')');
+            }
+            sb.append(')');
+            min -= 2;
+            max -= 2;
+        }
+        sb.append(numeric ? "\\d" : "\\p{Alnum}").append('{').append(min);
+        if (max != min) sb.append(',').append(max);
+        return sb.append('}').toString();
+    }
+
+    private static DoiType typeNamed(String name) {
+        for (DoiType candidate : DoiType.values()) {
+            if (candidate.name().equals(name)) return candidate;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the catalog name of the rule, e.g. {@code "RUC"}.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the short display name, e.g. {@code "CEX"}.
+     *
+     * @return the short name
+     */
+    public String getShortName() {
+        return shortName;
+    }
+
+    /**
+     * Returns the built-in DOI type with the same name.
+     *
+     * @return the DOI type, or {@code null} for types unknown to this library version
+     */
+    public DoiType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the code of this type in a usage context.
+     *
+     * @param context the usage context
+     * @return the code, or an empty string if the context does not accept the type
+     */
+    public String getId(UsageContext context) {
+        return ids[context.ordinal()];
+    }
+
+    /**
+     * Determines whether a usage context accepts this type.
+     *
+     * @param context the usage context
+     * @return {@code true} if the type has a code in {@code context}
+     */
+    public boolean isSuitableFor(UsageContext context) {
+        return !ids[context.ordinal()].isEmpty();
+    }
+
+    /**
+     * Returns the minimum length of a valid value.
+     *
+     * @return the minimum length
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * Returns the maximum length of a valid value, also kept by {@link #sanitize(String)}.
+     *
+     * @return the maximum length
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Indicates whether values are made of digits only.
+     *
+     * @return {@code true} for numeric types
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Indicates whether the last digit is a SUNAT modulo-11 check digit.
+     *
+     * @return {@code true} for RUC-like types
+     */
+    public boolean hasCheckDigit() {
+        return checkDigit;
+    }
+
+    /**
+     * Returns the regex describing valid values: the extra regex of the catalog
+     * entry when present, otherwise the length range, character class and
+     * prefixes written as a regex (identical to {@link DoiType#getRegex()} for
+     * built-in rules).
+     *
+     * @return the regex
+     */
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * Indicates whether the document is inherently issued to foreigners.
+     *
+     * @return the foreign flag
+     * @see DoiType#isForeign()
+     */
+    public boolean isForeign() {
+        return foreign;
+    }
+
+    /**
+     * Indicates whether the type identifies non-domiciled subjects.
+     *
+     * @return the non-domiciled flag
+     * @see DoiType#isAcceptedForNonDomiciled()
+     */
+    public boolean isAcceptedForNonDomiciled() {
+        return acceptedForNonDomiciled;
+    }
+
+    /**
+     * Returns the admissible two-digit prefix table.
+     *
+     * @return prefix flags indexed by prefix, or {@code null} if any prefix is accepted
+     */
+    boolean[] prefixes() {
+        return prefixes;
+    }
+
+    /**
+     * Returns the extra pattern values must match.
+     *
+     * @return the pattern, or {@code null} if the structural rules suffice
+     */
+    Pattern pattern() {
+        return pattern;
+    }
+
+    /**
+     * Sanitizes a raw value as {@link DoiType#sanitize(String)} does: keeps digits
+     * (numeric types) or letters and digits, retaining the rightmost
+     * {@link #getMaxLength()} characters.
+     *
+     * @param rawNumber raw DOI value; may be {@code null}
+     * @return sanitized value; never {@code null}
+     */
+    public String sanitize(String rawNumber) {
+        return numeric ? SanitizationUtils.digits(rawNumber, maxLength) : SanitizationUtils.alnum(rawNumber, maxLength);
+    }
+
+    /**
+     * Validates the structure of a DOI number.
+     *
+     * @param number raw DOI number
+     * @param strict whether sanitization should be disabled
+     * @return {@code true} if structurally valid
+     * @see DoiType#validateNumber(String, boolean)
+     */
+    public boolean validateNumber(String number, boolean strict) {
+        if (number == null || number.isBlank()) return false;
+        String input = strict ? number : sanitize(number);
+        int length = input.length();
+        if (length < minLength || length > maxLength) return false;
+
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (checkDigit && i < 10) sum += (c - '0') * RUCUtils.weightAt(i);
+            } else if (numeric || !(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')) {
+                return false;
+            }
+        }
+        if (prefixes != null && !prefixes[(input.charAt(0) - '0') * 10 + input.charAt(1) - '0']) return false;
+        if (checkDigit && RUCUtils.checkDigitOf(sum) != input.charAt(10)) return false;
+        return pattern == null || pattern.matcher(input).matches();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bounded-memory summary of the most frequent shapes of rejected DOI numbers.<br>
+ * <br>
+ * A rejected value is reduced to a shape signature: its character classes
+ * with run lengths, where {@code N} stands for digits, {@code A} for letters,
+ * a space for any whitespace, ASCII punctuation is kept as is and anything else
+ * becomes {@code ?}. A run length is written only when above 1, so
+ * {@code "20-123.456.789-1"} becomes {@code "N2-N3.N3.N3-N"},
+ * {@code "DNI 4567890"} becomes {@code "A3 N7"} and a twelve-digit RUC becomes
+ * {@code "N12"}. Together with the DOI type and the {@link DoiFailure} reason,
+ * the signature identifies an entry.<br>
+ * <br>
+ * Entries are counted with the Space-Saving algorithm: at most {@code capacity}
+ * shapes are tracked, and a new shape replaces the least frequent one, inheriting
+ * its count as the error bound. Every shape seen more than
+ * {@code total / capacity} times is guaranteed to be tracked, and each reported
+ * count overestimates the true count by at most {@link Shape#getError()}.
+ * Shapes are indexed by a 64-bit fingerprint of their runs in a primitive
+ * open-addressing table and kept in a min-heap by count. Recording a tracked
+ * shape hashes the runs, probes the table and restores the heap in
+ * O(log capacity) steps without allocating; a new shape evicts the heap
+ * minimum in O(log capacity) and only then materializes its signature.<br>
+ * <br>
+ * Instances are thread-safe. Workers can keep one sketch each and
+ * {@link #merge(DoiShapeSketch)} them, which preserves the same guarantees over
+ * the combined stream.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiShapeSketch {
+
+    /**
+     * Default number of tracked shapes.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Maximum number of runs kept in a signature; longer shapes end with {@code ~}.
+     */
+    public static final int MAX_RUNS = 16;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final Comparator<Shape> BY_COUNT = Comparator.comparingLong(Shape::getCount).reversed();
+
+    /**
+     * A tracked shape with its estimated count.
+     */
+    public static final class Shape {
+        private final long key;
+        private final String signature;
+        private final DoiType type;
+        private final DoiFailure failure;
+        private long count;
+        private long error;
+
+        private Shape(long key, String signature, DoiType type, DoiFailure failure, long count, long error) {
+            this.key = key;
+            this.signature = signature;
+            this.type = type;
+            this.failure = failure;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * Returns the shape signature, e.g. {@code "N2-N3.N3.N3-N"}.
+         *
+         * @return the signature
+         */
+        public String getSignature() {
+            return signature;
+        }
+
+        /**
+         * Returns the DOI type the value was validated against.
+         *
+         * @return the DOI type; {@code null} for {@link DoiFailure#MISSING_TYPE}
+         */
+        public DoiType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the rejection reason.
+         *
+         * @return the failure
+         */
+        public DoiFailure getFailure() {
+            return failure;
+        }
+
+        /**
+         * Returns the estimated number of occurrences; never below the true count.
+         *
+         * @return estimated count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the maximum overestimation of {@link #getCount()}.
+         *
+         * @return error bound; 0 when the count is exact
+         */
+        public long getError() {
+            return error;
+        }
+
+        private Shape copy() {
+            return new Shape(key, signature, type, failure, count, error);
+        }
+
+        @Override
+        public String toString() {
+            return "Shape[" + type + " " + failure + " '" + signature + "' count=" + count
+                    + (error > 0 ? " error=" + error : "") + "]";
+        }
+    }
+
+    /**
+     * Largest supported capacity, so the fingerprint index stays a power-of-two array.
+     */
+    static final int MAX_CAPACITY = 1 << 28;
+
+    private final int capacity;
+    /**
+     * Open-addressing index from fingerprint to entry, with linear probing;
+     * {@code slotEntries} holds -1 in empty slots.
+     */
+    private final long[] slotKeys;
+    private final int[] slotEntries;
+    private final int shift;
+    /**
+     * Tracked entries {@code 0..size-1}.
+     */
+    private final Shape[] entries;
+    /**
+     * Min-heap of entry ids by count, and the heap position of each entry.
+     */
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int size;
+    private long total;
+
+    /**
+     * Creates a sketch tracking {@link #DEFAULT_CAPACITY} shapes.
+     */
+    public DoiShapeSketch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a sketch.
+     *
+     * @param capacity maximum number of tracked shapes
+     * @throws IllegalArgumentException if {@code capacity} is below 1 or above 2<sup>28</sup>
+     */
+    public DoiShapeSketch(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(String.format(
+                    "Sketch capacity must be between 1 and %d.", MAX_CAPACITY));
+        }
+        this.capacity = capacity;
+        int slots = Integer.highestOneBit(capacity) << 2;
+        this.slotKeys = new long[slots];
+        this.slotEntries = new int[slots];
+        Arrays.fill(slotEntries, -1);
+        this.shift = 64 - Integer.numberOfTrailingZeros(slots);
+        this.entries = new Shape[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+    }
+
+    /**
+     * Returns the maximum number of tracked shapes.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Validates a number and records its shape when it is rejected.
+     *
+     * @param type   the DOI type; may be {@code null}
+     * @param number the raw DOI number; may be {@code null}
+     * @param strict whether sanitization should be disabled
+     * @return {@code null} if the number is valid; otherwise the recorded failure,
+     * as {@link DoiFailure#of(DoiType, String, boolean)}
+     */
+    public DoiFailure record(DoiType type, String number, boolean strict) {
+        DoiFailure failure = DoiFailure.of(type, number, strict);
+        if (failure != null) add(type, number, failure);
+        return failure;
+    }
+
+    /**
+     * Records a rejected number whose failure is already known.
+     *
+     * @param type    the DOI type; may be {@code null}
+     * @param number  the raw rejected number; {@code null} is recorded as an empty shape
+     * @param failure the rejection reason
+     */
+    public void add(DoiType type, CharSequence number, DoiFailure failure) {
+        Objects.requireNonNull(failure, "failure must not be null to record a rejected shape.");
+        long key = fingerprint(number, type, failure);
+        synchronized (this) {
+            total++;
+            int entry = find(key);
+            if (entry >= 0) {
+                entries[entry].count++;
+                siftDown(heapIndex[entry]);
+                return;
+            }
+            if (size < capacity) {
+                entry = size++;
+                entries[entry] = new Shape(key, signature(number), type, failure, 1, 0);
+                index(key, entry);
+                heap[entry] = entry;
+                heapIndex[entry] = entry;
+                siftUp(entry);
+                return;
+            }
+            entry = heap[0];
+            long min = entries[entry].count;
+            unindex(entries[entry].key);
+            entries[entry] = new Shape(key, signature(number), type, failure, min + 1, min);
+            index(key, entry);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the total number of rejections recorded, including merged sketches.
+     *
+     * @return rejection count
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns a snapshot of the most frequent shapes, by descending count.
+     *
+     * @param k maximum number of shapes returned
+     * @return independent copies of up to {@code k} tracked shapes
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<Shape> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative.");
+        }
+        var result = new ArrayList<Shape>();
+        synchronized (this) {
+            for (int i = 0; i < size; i++) result.add(entries[i].copy());
+        }
+        result.sort(BY_COUNT.thenComparing(Shape::getSignature));
+        return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+    }
+
+    /**
+     * Adds the counts of another sketch to this one.<br>
+     * Shapes tracked by only one side are charged the other side's minimum
+     * count as additional error, so counts remain upper bounds of the combined stream.
+     *
+     * @param other sketch to merge; left unchanged
+     * @throws IllegalArgumentException if {@code other} is this sketch
+     */
+    public void merge(DoiShapeSketch other) {
+        Objects.requireNonNull(other, "other must not be null to merge sketches.");
+        if (other == this) {
+            throw new IllegalArgumentException("A sketch cannot be merged into itself.");
+        }
+        Shape[] incoming;
+        long incomingTotal;
+        long incomingMin;
+        synchronized (other) {
+            incoming = new Shape[other.size];
+            for (int i = 0; i < incoming.length; i++) incoming[i] = other.entries[i].copy();
+            incomingTotal = other.total;
+            incomingMin = other.size >= other.capacity ? other.entries[other.heap[0]].count : 0;
+        }
+
+        synchronized (this) {
+            long ownMin = size >= capacity ? entries[heap[0]].count : 0;
+            var matched = new boolean[size];
+            var merged = new ArrayList<Shape>(size + incoming.length);
+            for (Shape shape : incoming) {
+                int entry = find(shape.key);
+                if (entry >= 0) {
+                    matched[entry] = true;
+                    entries[entry].count += shape.count;
+                    entries[entry].error += shape.error;
+                } else {
+                    shape.count += ownMin;
+                    shape.error += ownMin;
+                    merged.add(shape);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                Shape shape = entries[i];
+                if (!matched[i]) {
+                    shape.count += incomingMin;
+                    shape.error += incomingMin;
+                }
+                merged.add(shape);
+            }
+            total += incomingTotal;
+            if (merged.size() > capacity) merged.sort(BY_COUNT);
+
+            Arrays.fill(slotEntries, -1);
+            size = Math.min(merged.size(), capacity);
+            for (int i = 0; i < size; i++) {
+                entries[i] = merged.get(i);
+                index(entries[i].key, i);
+                heap[i] = i;
+                heapIndex[i] = i;
+            }
+            Arrays.fill(entries, size, capacity, null);
+            for (int i = size / 2 - 1; i >= 0; i--) siftDown(i);
+        }
+    }
+
+    /**
+     * Forgets every shape and resets the total.
+     */
+    public synchronized void clear() {
+        Arrays.fill(slotEntries, -1);
+        Arrays.fill(entries, null);
+        size = 0;
+        total = 0;
+    }
+
+    /**
+     * Computes the shape signature of a value.
+     *
+     * @param number raw value; may be {@code null}
+     * @return the signature; empty for {@code null} or empty values
+     */
+    public static String signature(CharSequence number) {
+        var out = new StringBuilder();
+        if (number == null) return "";
+        int runs = 0;
+        int length = number.length();
+        for (int i = 0; i < length; ) {
+            char kind = classOf(number.charAt(i));
+            int end = i + 1;
+            while (end < length && classOf(number.charAt(end)) == kind) end++;
+            if (runs++ == MAX_RUNS) {
+                out.append('~');
+                break;
+            }
+            out.append(kind);
+            if (end - i > 1) out.append(end - i);
+            i = end;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Hashes the runs of {@link #signature(CharSequence)}, the type and the failure without allocating.
+     */
+    static long fingerprint(CharSequence number, DoiType type, DoiFailure failure) {
+        long hash = FNV_OFFSET;
+        hash = (hash ^ (type == null ? 0xFF : type.ordinal())) * FNV_PRIME;
+        hash = (hash ^ failure.ordinal()) * FNV_PRIME;
+        if (number == null) return hash;
+        int runs = 0;
+        int length = number.length();
+        for (int i = 0; i < length; ) {
+            char kind = classOf(number.charAt(i));
+            int end = i + 1;
+            while (end < length && classOf(number.charAt(end)) == kind) end++;
+            if (runs++ == MAX_RUNS) {
+                hash = (hash ^ '~') * FNV_PRIME;
+                break;
+            }
+            hash = (hash ^ kind) * FNV_PRIME;
+            hash = (hash ^ (end - i)) * FNV_PRIME;
+            i = end;
+        }
+        return hash;
+    }
+
+    private static char classOf(char c) {
+        if (c >= '0' && c <= '9') return 'N';
+        if (Character.isLetter(c)) return 'A';
+        if (Character.isWhitespace(c)) return ' ';
+        if (c > ' ' && c < 0x7F && c != '~' && c != '?') return c;
+        return '?';
+    }
+
+    private int slot(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    /**
+     * Returns the entry tracking {@code key}, or -1.
+     */
+    private int find(long key) {
+        int mask = slotEntries.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int entry = slotEntries[i];
+            if (entry < 0) return -1;
+            if (slotKeys[i] == key) return entry;
+        }
+    }
+
+    private void index(long key, int entry) {
+        int mask = slotEntries.length - 1;
+        int i = slot(key);
+        while (slotEntries[i] >= 0) i = (i + 1) & mask;
+        slotKeys[i] = key;
+        slotEntries[i] = entry;
+    }
+
+    /**
+     * Removes a tracked key, shifting back the entries of its probe run so that lookups need no tombstones.
+     */
+    private void unindex(long key) {
+        int mask = slotEntries.length - 1;
+        int hole = slot(key);
+        while (slotKeys[hole] != key || slotEntries[hole] < 0) hole = (hole + 1) & mask;
+        for (int i = (hole + 1) & mask; slotEntries[i] >= 0; i = (i + 1) & mask) {
+            int home = slot(slotKeys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slotKeys[hole] = slotKeys[i];
+                slotEntries[hole] = slotEntries[i];
+                hole = i;
+            }
+        }
+        slotEntries[hole] = -1;
+    }
+
+    private void siftUp(int position) {
+        int entry = heap[position];
+        long count = entries[entry].count;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (entries[heap[parent]].count <= count) break;
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(entry, position);
+    }
+
+    private void siftDown(int position) {
+        int entry = heap[position];
+        long count = entries[entry].count;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && entries[heap[child + 1]].count < entries[heap[child]].count) child++;
+            if (entries[heap[child]].count >= count) break;
+            move(heap[child], position);
+            position = child;
+        }
+        move(entry, position);
+    }
+
+    private void move(int entry, int position) {
+        heap[position] = entry;
+        heapIndex[entry] = position;
+    }
+}
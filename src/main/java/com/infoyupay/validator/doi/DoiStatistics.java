@@ -0,0 +1,179 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Mutable container of DOI validation counters, in the spirit of
+ * {@link java.util.IntSummaryStatistics}.<br>
+ * <br>
+ * Counters are kept in primitive arrays indexed by {@link DoiType#ordinal()}
+ * and {@link DoiFailure#ordinal()}, so recording a value does not box or
+ * allocate and two partial results are merged with {@link #combine(DoiStatistics)}
+ * by adding arrays. This makes it suitable as the accumulator of parallel
+ * streams (see {@link DoiCollectors#summarizing}) or as a per-worker counter
+ * merged at the end of a batch.<br>
+ * <br>
+ * This class is not thread-safe: use one instance per thread and combine them.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class DoiStatistics {
+
+    private final long[] valid = new long[DoiType.values().length];
+    private final long[] invalid = new long[DoiType.values().length];
+    private final long[] failures = new long[DoiFailure.values().length];
+
+    /**
+     * Records the result of validating one value.
+     *
+     * @param type    the DOI type of the value; may be {@code null} only when
+     *                {@code failure} is {@link DoiFailure#MISSING_TYPE}
+     * @param failure the failure reason, or {@code null} if the value is valid
+     * @throws NullPointerException if {@code type} is null and the failure is not {@code MISSING_TYPE}
+     */
+    public void record(DoiType type, DoiFailure failure) {
+        if (failure == DoiFailure.MISSING_TYPE) {
+            failures[failure.ordinal()]++;
+            return;
+        }
+        Objects.requireNonNull(type, "type must not be null to record a validation result.");
+        if (failure == null) {
+            valid[type.ordinal()]++;
+        } else {
+            invalid[type.ordinal()]++;
+            failures[failure.ordinal()]++;
+        }
+    }
+
+    /**
+     * Validates a value through {@link DoiFailure#of(DoiType, String, boolean)}
+     * and records the result.
+     *
+     * @param type   the DOI type; may be {@code null}
+     * @param number the raw DOI number; may be {@code null}
+     * @param strict whether sanitization should be disabled
+     * @return {@code true} if the value is valid
+     */
+    public boolean accept(DoiType type, String number, boolean strict) {
+        DoiFailure failure = DoiFailure.of(type, number, strict);
+        record(type, failure);
+        return failure == null;
+    }
+
+    /**
+     * Adds the counters of another instance into this one.
+     *
+     * @param other counters to merge; must not be null
+     * @return this instance
+     */
+    public DoiStatistics combine(DoiStatistics other) {
+        for (int i = 0; i < valid.length; i++) {
+            valid[i] += other.valid[i];
+            invalid[i] += other.invalid[i];
+        }
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] += other.failures[i];
+        }
+        return this;
+    }
+
+    /**
+     * Returns the total number of recorded values.
+     *
+     * @return recorded values
+     */
+    public long getCount() {
+        return getValid() + getInvalid();
+    }
+
+    /**
+     * Returns the number of valid values.
+     *
+     * @return valid values
+     */
+    public long getValid() {
+        return sum(valid);
+    }
+
+    /**
+     * Returns the number of invalid values, including those without DOI type.
+     *
+     * @return invalid values
+     */
+    public long getInvalid() {
+        return sum(invalid) + failures[DoiFailure.MISSING_TYPE.ordinal()];
+    }
+
+    /**
+     * Returns the number of recorded values of the given type.
+     *
+     * @param type DOI type; must not be null
+     * @return recorded values of {@code type}
+     */
+    public long getCount(DoiType type) {
+        return valid[type.ordinal()] + invalid[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of valid values of the given type.
+     *
+     * @param type DOI type; must not be null
+     * @return valid values of {@code type}
+     */
+    public long getValid(DoiType type) {
+        return valid[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of invalid values of the given type.
+     *
+     * @param type DOI type; must not be null
+     * @return invalid values of {@code type}
+     */
+    public long getInvalid(DoiType type) {
+        return invalid[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of values rejected for the given reason.
+     *
+     * @param failure failure reason; must not be null
+     * @return values rejected for {@code failure}
+     */
+    public long getFailures(DoiFailure failure) {
+        return failures[failure.ordinal()];
+    }
+
+    private static long sum(long[] counters) {
+        long total = 0;
+        for (long count : counters) total += count;
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DoiStatistics[count=%d, valid=%d, invalid=%d, failures=%s]",
+                getCount(), getValid(), getInvalid(), Arrays.toString(failures));
+    }
+}
@@ -34,7 +34,13 @@ import java.util.Objects;
  * invalid characters and applies SUNAT-compliant truncation rules.<br>
  * <br>
  * This enum centralizes DOI semantics to ensure consistent validation and
- * transformation across all Peruvian tax, payroll, and accounting systems.
+ * transformation across all Peruvian tax, payroll, and accounting systems.<br>
+ * <br>
+ * The constants hold the built-in tables. Context codes ({@link #getId(UsageContext)},
+ * {@link #isSuitableFor(UsageContext)}) and {@link #validateNumber(String, boolean)}
+ * follow the catalog published through {@link DoiCatalog#publish(DoiCatalog)}, so a
+ * revised SUNAT table takes effect without a release; while the built-in catalog is
+ * current they use the constants directly.
  *
  * @author David Vidal
  * @version 1.0
@@ -49,7 +55,7 @@ public enum DoiType {
      * characters up to 15 positions.
      */
     OTHERS("OTR", "", "0", "", "", "\\p{Alnum}{1,15}",
-            false, false) {
+            1, 15, false, false, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -64,7 +70,7 @@ public enum DoiType {
      * digits. Sanitization keeps digits and truncates to 8 if necessary.
      */
     DNI("DNI", "01", "1", "0", "01", "\\d{8}",
-            false, false) {
+            8, 8, true, false, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.digits(rawNumber, 8);
@@ -78,7 +84,7 @@ public enum DoiType {
      * PLAME and AFPNet. Sanitization keeps alphanumeric characters up to 15.
      */
     PNP("PNP", "02", "0", "2", "", "\\p{Alnum}{1,15}",
-            false, false) {
+            1, 15, false, false, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -92,7 +98,7 @@ public enum DoiType {
      * SUNAT subsystems except where RUC is mandatory. Alphanumeric, up to 12 characters.
      */
     CE("CEX", "04", "4", "1", "04", "\\p{Alnum}{1,12}",
-            true, false) {
+            1, 12, false, true, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 12);
@@ -109,7 +115,7 @@ public enum DoiType {
      * Sanitization keeps only digits up to 11. Validation uses {@link RUCUtils}.
      */
     RUC("RUC", "06", "6", "", "06", "((10)|(15)|(16)|(17)|(20))\\d{9}",
-            false, false) {
+            11, 11, true, false, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.digits(rawNumber, 11);
@@ -122,7 +128,7 @@ public enum DoiType {
          * validation to {@link com.infoyupay.validator.doi.RUCUtils}.
          */
         @Override
-        public boolean validateNumber(String number, boolean strict) {
+        boolean validateBuiltIn(String number, boolean strict) {
             if (number == null || number.isBlank()) return false;
             return RUCUtils.isRUCValid(number, strict);
         }
@@ -135,7 +141,7 @@ public enum DoiType {
      * Sanitization removes invalid characters and truncates from the left if needed.
      */
     PASSPORT("PAS", "07", "7", "4", "07", "\\p{Alnum}{1,12}",
-            true, false) {
+            1, 12, false, true, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 12);
@@ -150,7 +156,7 @@ public enum DoiType {
      * Alphanumeric, up to 15 characters.
      */
     REFUGEE("REF", "09", "0", "9", "", "\\p{Alnum}{1,15}",
-            true, false) {
+            1, 15, false, true, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -164,7 +170,7 @@ public enum DoiType {
      * non-RUC identifiers are allowed. Alphanumeric, up to 15 characters.
      */
     DIPLOMATIC("CDI", "22", "0", "7", "", "\\p{Alnum}{1,15}",
-            true, false) {
+            1, 15, false, true, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -178,7 +184,7 @@ public enum DoiType {
      * regularization program. Alphanumeric, up to 15 characters.
      */
     PTP("PTP", "23", "0", "6", "", "\\p{Alnum}{1,15}",
-            true, false) {
+            1, 15, false, true, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -193,7 +199,7 @@ public enum DoiType {
      * Alphanumeric, up to 15 characters.
      */
     ID("ID", "24", "0", "8", "02", "\\p{Alnum}{1,15}",
-            true, true) {
+            1, 15, false, true, true) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -207,7 +213,7 @@ public enum DoiType {
      * AFPNet (code 10). Alphanumeric, maximum 15 characters.
      */
     ID_PTP("C. PTP", "26", "0", "10", "", "\\p{Alnum}{1,15}",
-            true, false) {
+            1, 15, false, true, false) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -223,7 +229,7 @@ public enum DoiType {
      * Alphanumeric, up to 15 characters.
      */
     TIN("TIN", "", "0", "", "01", "\\p{Alnum}{1,15}",
-            true, true) {
+            1, 15, false, true, true) {
         @Override
         public String sanitize(String rawNumber) {
             return SanitizationUtils.alnum(rawNumber, 15);
@@ -236,6 +242,9 @@ public enum DoiType {
     private final String afpId;
     private final String fv3800Id;
     private final String regex;
+    private final int minLength;
+    private final int maxLength;
+    private final boolean numeric;
     private final boolean foreign;
     private final boolean acceptedForNonDomiciled;
 
@@ -275,12 +284,17 @@ public enum DoiType {
      * @param afpId                   identifier for AFPNet pension reporting
      * @param fv3800Id                identifier used in FV-3800 declarations
      * @param regex                   strict validation regex defining valid DOI structure
+     * @param minLength               minimum number of characters accepted by {@code regex}
+     * @param maxLength               maximum number of characters accepted by {@code regex},
+     *                                also used as the sanitization truncation length
+     * @param numeric                 whether only decimal digits are accepted (otherwise alphanumeric)
      * @param foreign                 whether this DOI type corresponds to a foreign-issued document
      * @param acceptedForNonDomiciled whether SUNAT accepts this DOI type for
      *                                non-domiciled subject declarations
      */
     DoiType(String shortName, String plameId, String pleId,
             String afpId, String fv3800Id, String regex,
+            int minLength, int maxLength, boolean numeric,
             boolean foreign, boolean acceptedForNonDomiciled) {
         this.shortName = shortName;
         this.plameId = plameId;
@@ -288,6 +302,9 @@ public enum DoiType {
         this.afpId = afpId;
         this.fv3800Id = fv3800Id;
         this.regex = regex;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.numeric = numeric;
         this.foreign = foreign;
         this.acceptedForNonDomiciled = acceptedForNonDomiciled;
     }
@@ -308,7 +325,7 @@ public enum DoiType {
      * @return PLAME identifier, or an empty string when not applicable
      */
     public String getPlameId() {
-        return plameId;
+        return getId(UsageContext.PLAME);
     }
 
     /**
@@ -318,7 +335,7 @@ public enum DoiType {
      * @return PLE identifier, or an empty string when not applicable
      */
     public String getPleId() {
-        return pleId;
+        return getId(UsageContext.PLE);
     }
 
     /**
@@ -327,7 +344,7 @@ public enum DoiType {
      * @return AFPNet identifier, or an empty string when not applicable
      */
     public String getAfpId() {
-        return afpId;
+        return getId(UsageContext.AFP_NET);
     }
 
     /**
@@ -337,7 +354,7 @@ public enum DoiType {
      * @return FV3800 identifier, or an empty string when not applicable
      */
     public String getFv3800Id() {
-        return fv3800Id;
+        return getId(UsageContext.FV_3800);
     }
 
     /**
@@ -350,6 +367,37 @@ public enum DoiType {
         return regex;
     }
 
+    /**
+     * Returns the minimum number of characters a sanitized or strict value of
+     * this DOI type must have to match {@link #getRegex()}.
+     *
+     * @return minimum accepted length
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * Returns the maximum number of characters a value of this DOI type may have.<br>
+     * This is also the length kept by {@link #sanitize(String)}, which retains
+     * the rightmost characters when the input is longer.
+     *
+     * @return maximum accepted length
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Indicates whether this DOI type only accepts decimal digits (DNI, RUC).<br>
+     * Non-numeric types accept alphanumeric characters.
+     *
+     * @return {@code true} for digit-only types; {@code false} for alphanumeric ones
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
     /**
      * Indicates whether this DOI type corresponds to a document inherently issued
      * to foreign individuals.<br>
@@ -406,17 +454,63 @@ public enum DoiType {
      * Validates the DOI number structure using this type’s regex.<br>
      * If {@code strict} is {@code false}, the value is sanitized before matching.<br>
      * <br>
+     * The regex of every type is a length range over ASCII digits or ASCII
+     * alphanumerics, so it is evaluated directly from {@link #getMinLength()},
+     * {@link #getMaxLength()} and {@link #isNumeric()} instead of through
+     * {@link String#matches(String)}, which would compile the pattern on every
+     * call. Validating a clean value does not allocate.<br>
+     * <br>
      * Structural validation does <strong>not</strong> imply that the document
-     * exists or is valid in SUNAT’s registry; it only checks format correctness.
+     * exists or is valid in SUNAT’s registry; it only checks format correctness.<br>
+     * <br>
+     * When a catalog other than {@link DoiCatalog#builtIn()} is published, the
+     * number is validated against its rule for this type instead (see
+     * {@link DoiCatalog#validateNumber(DoiType, String, boolean)}).
      *
      * @param number raw DOI number
      * @param strict whether sanitization should be disabled
      * @return {@code true} if structurally valid
      */
     public boolean validateNumber(String number, boolean strict) {
+        DoiCatalog catalog = DoiCatalog.current();
+        if (catalog != DoiCatalog.builtIn()) return catalog.validateNumber(this, number, strict);
+        return validateBuiltIn(number, strict);
+    }
+
+    /**
+     * Validates against the built-in rules of this constant.
+     */
+    boolean validateBuiltIn(String number, boolean strict) {
         if (number == null || number.isBlank()) return false;
         String input = strict ? number : sanitize(number);
-        return input.matches(this.regex);
+        return matchesStructure(input);
+    }
+
+    /**
+     * Evaluates this type's regex: length within bounds and every character accepted.
+     *
+     * @param input value to check, already sanitized when applicable
+     * @return {@code true} if {@code input} matches {@link #getRegex()}
+     */
+    boolean matchesStructure(CharSequence input) {
+        int length = input.length();
+        if (length < minLength || length > maxLength) return false;
+        for (int i = 0; i < length; i++) {
+            if (!accepts(input.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the character class of this type's regex ({@code \d} or
+     * {@code \p{Alnum}}, both ASCII-only) accepts {@code c}.
+     *
+     * @param c character to test
+     * @return {@code true} for ASCII digits, and for ASCII letters in alphanumeric types
+     */
+    boolean accepts(char c) {
+        if (c >= '0' && c <= '9') return true;
+        return !numeric && (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z');
     }
 
     /**
@@ -447,17 +541,45 @@ public enum DoiType {
      */
     public boolean isSuitableFor(UsageContext context) {
         Objects.requireNonNull(context, "context must not be null to determine type suitability.");
+        return !getId(context).isBlank();
+    }
+
+    /**
+     * Returns the identifier this DOI type uses in the specified SUNAT
+     * reporting context, i.e. one of {@link #getPleId()}, {@link #getPlameId()},
+     * {@link #getAfpId()} or {@link #getFv3800Id()}.<br>
+     * <br>
+     * The identifier comes from the catalog currently published; a catalog
+     * without a rule for this type accepts it in no context.
+     *
+     * @param context the SUNAT reporting context; must not be null
+     * @return the context identifier, or an empty string when not applicable
+     * @throws NullPointerException     if {@code context} is null
+     * @throws IllegalArgumentException if the context is not recognized
+     */
+    public String getId(UsageContext context) {
+        Objects.requireNonNull(context, "context must not be null to determine type identifier.");
+        DoiCatalog catalog = DoiCatalog.current();
+        if (catalog == DoiCatalog.builtIn()) return builtInId(context);
+        DoiRule rule = catalog.getRule(this);
+        return rule == null ? "" : rule.getId(context);
+    }
+
+    /**
+     * Returns the identifier of the built-in tables, used to build {@link DoiCatalog#builtIn()}.
+     */
+    String builtInId(UsageContext context) {
         switch (context) {
             case PLE:
-                return !pleId.isBlank();
+                return pleId;
             case PLAME:
-                return !plameId.isBlank();
+                return plameId;
             case AFP_NET:
-                return !afpId.isBlank();
+                return afpId;
             case FV_3800:
-                return !fv3800Id.isBlank();
+                return fv3800Id;
         }
         throw new IllegalArgumentException(String
-                .format("Invalid context to determine %s suitability of type %s", context, name()));
+                .format("Invalid context to determine %s identifier of type %s", context, name()));
     }
 }
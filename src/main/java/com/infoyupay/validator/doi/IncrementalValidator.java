@@ -0,0 +1,383 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Per-keystroke validation state for a single DOI input field.<br>
+ * <br>
+ * Instead of re-running {@link DoiType#sanitize(String)} and
+ * {@link DoiType#validateNumber(String, boolean)} over the whole text after every
+ * keystroke, an instance consumes the edits one at a time and keeps running
+ * aggregates: raw length, sanitized length, number of characters rejected by
+ * the type's regex and, for RUC, the weighted modulo-11 sum of the first 10 digits.<br>
+ * <br>
+ * Typing at the end ({@link #append(char)}) and backspace ({@link #backspace()})
+ * update the state in O(1). Edits in the middle of the text
+ * ({@link #insert(int, char)}, {@link #delete(int)}) shift the positional RUC
+ * weights, so they recompute the aggregates over the field content, which is
+ * bounded by the field length.<br>
+ * <br>
+ * {@link #isValid()} always agrees with {@code type.validateNumber(text(), strict)}
+ * for ASCII input under the built-in {@link DoiCatalog}, while {@link #status()} explains why the current text is not
+ * valid yet, e.g. "need N more digits", "prefix invalid" or "expected check digit is X".<br>
+ * <br>
+ * Instances are mutable and not thread-safe; keep one per input field and use
+ * it from the UI thread.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class IncrementalValidator {
+
+    /**
+     * Value returned by {@link #expectedCheckDigit()} when no check digit can be computed.
+     */
+    public static final char NO_CHECK_DIGIT = '\0';
+
+    /**
+     * Validation status of the current field content.
+     */
+    public enum Status {
+        /**
+         * Nothing to validate yet.
+         */
+        EMPTY,
+        /**
+         * More characters are required; see {@link #missingCharacters()}.
+         */
+        INCOMPLETE,
+        /**
+         * The value contains characters not accepted by the DOI type.
+         */
+        INVALID_CHARACTER,
+        /**
+         * The RUC prefix cannot become one of 10, 15, 16, 17 or 20.
+         */
+        INVALID_PREFIX,
+        /**
+         * The RUC is complete but its last digit differs from
+         * {@link #expectedCheckDigit()}.
+         */
+        CHECK_DIGIT_MISMATCH,
+        /**
+         * Strict mode only: the value exceeds the maximum length of the DOI type.
+         */
+        TOO_LONG,
+        /**
+         * The value is structurally valid.
+         */
+        VALID
+    }
+
+    private final DoiType type;
+    private final boolean strict;
+    private final boolean ruc;
+
+    private char[] raw = new char[16];
+    private char[] clean = new char[16];
+    private int length;
+    private int cleanLength;
+    private int rejected;
+    private int rucSum;
+
+    private boolean dirty = true;
+    private Status status;
+    private int missing;
+    private char expected;
+
+    /**
+     * Creates an empty incremental validator.
+     *
+     * @param type   DOI type the field holds; must not be null
+     * @param strict whether sanitization should be disabled, as in
+     *               {@link DoiType#validateNumber(String, boolean)}
+     * @throws NullPointerException if {@code type} is null
+     */
+    public IncrementalValidator(DoiType type, boolean strict) {
+        this.type = Objects.requireNonNull(type, "type must not be null to validate incrementally.");
+        this.strict = strict;
+        this.ruc = type == DoiType.RUC;
+    }
+
+    /**
+     * Returns the DOI type validated by this instance.
+     *
+     * @return the DOI type
+     */
+    public DoiType getType() {
+        return type;
+    }
+
+    /**
+     * Indicates whether sanitization is disabled.
+     *
+     * @return {@code true} for strict validation
+     */
+    public boolean isStrict() {
+        return strict;
+    }
+
+    /**
+     * Returns the number of raw characters in the field.
+     *
+     * @return raw length
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the raw field content.
+     *
+     * @return the text as typed; never {@code null}
+     */
+    public String text() {
+        return new String(raw, 0, length);
+    }
+
+    /**
+     * Consumes a character typed at the end of the field. O(1).
+     *
+     * @param c the typed character
+     */
+    public void append(char c) {
+        ensureCapacity(length + 1);
+        raw[length++] = c;
+        push(c);
+        dirty = true;
+    }
+
+    /**
+     * Removes the last character of the field (backspace at the end). O(1).
+     *
+     * @return {@code true} if a character was removed; {@code false} if the field was empty
+     */
+    public boolean backspace() {
+        if (length == 0) return false;
+        pop(raw[--length]);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Inserts a character at the given position.<br>
+     * Inserting at {@link #length()} is equivalent to {@link #append(char)}.
+     *
+     * @param index insertion position, from 0 to {@link #length()}
+     * @param c     the typed character
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public void insert(int index, char c) {
+        Objects.checkIndex(index, length + 1);
+        if (index == length) {
+            append(c);
+            return;
+        }
+        ensureCapacity(length + 1);
+        System.arraycopy(raw, index, raw, index + 1, length - index);
+        raw[index] = c;
+        length++;
+        rebuild();
+    }
+
+    /**
+     * Removes the character at the given position (delete key, or backspace
+     * with the caret inside the text).<br>
+     * Deleting the last character is equivalent to {@link #backspace()}.
+     *
+     * @param index position of the removed character, from 0 to {@link #length()} - 1
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public void delete(int index) {
+        Objects.checkIndex(index, length);
+        if (index == length - 1) {
+            backspace();
+            return;
+        }
+        System.arraycopy(raw, index + 1, raw, index, length - index - 1);
+        length--;
+        rebuild();
+    }
+
+    /**
+     * Replaces the whole field content, e.g. after a paste or when loading an entity.
+     *
+     * @param text new content; {@code null} clears the field
+     */
+    public void set(CharSequence text) {
+        clear();
+        if (text == null) return;
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Empties the field.
+     */
+    public void clear() {
+        length = 0;
+        cleanLength = 0;
+        rejected = 0;
+        rucSum = 0;
+        dirty = true;
+    }
+
+    /**
+     * Returns the validation status of the current content.
+     *
+     * @return current status; never {@code null}
+     */
+    public Status status() {
+        evaluate();
+        return status;
+    }
+
+    /**
+     * Indicates whether the current content is structurally valid.<br>
+     * Equivalent to {@code getType().validateNumber(text(), isStrict())}.
+     *
+     * @return {@code true} if valid
+     */
+    public boolean isValid() {
+        return status() == Status.VALID;
+    }
+
+    /**
+     * Returns how many characters are still required when the status is
+     * {@link Status#INCOMPLETE}.
+     *
+     * @return missing characters, or 0 when the status is not {@code INCOMPLETE}
+     */
+    public int missingCharacters() {
+        evaluate();
+        return missing;
+    }
+
+    /**
+     * Returns the RUC check digit expected for the first 10 digits entered.
+     *
+     * @return the expected check digit, or {@link #NO_CHECK_DIGIT} when the type
+     * is not RUC, fewer than 10 digits are available, or the content has invalid characters
+     */
+    public char expectedCheckDigit() {
+        evaluate();
+        return expected;
+    }
+
+    /**
+     * Whether {@link DoiType#sanitize(String)} keeps the character.
+     */
+    private boolean kept(char c) {
+        return type.isNumeric() ? Character.isDigit(c) : Character.isLetterOrDigit(c);
+    }
+
+    private void push(char c) {
+        if (!kept(c)) return;
+        if (!type.accepts(c)) rejected++;
+        else if (ruc && cleanLength < 10) rucSum += (c - '0') * RUCUtils.weightAt(cleanLength);
+        clean[cleanLength++] = c;
+    }
+
+    private void pop(char c) {
+        if (!kept(c)) return;
+        cleanLength--;
+        if (!type.accepts(c)) rejected--;
+        else if (ruc && cleanLength < 10) rucSum -= (c - '0') * RUCUtils.weightAt(cleanLength);
+    }
+
+    private void rebuild() {
+        cleanLength = 0;
+        rejected = 0;
+        rucSum = 0;
+        for (int i = 0; i < length; i++) {
+            push(raw[i]);
+        }
+        dirty = true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > raw.length) {
+            int newCapacity = Math.max(capacity, raw.length << 1);
+            raw = Arrays.copyOf(raw, newCapacity);
+            clean = Arrays.copyOf(clean, newCapacity);
+        }
+    }
+
+    private void evaluate() {
+        if (!dirty) return;
+        dirty = false;
+        missing = 0;
+        expected = NO_CHECK_DIGIT;
+
+        if (strict) {
+            if (length == 0) {
+                status = Status.EMPTY;
+            } else if (cleanLength != length || rejected > 0) {
+                status = Status.INVALID_CHARACTER;
+            } else {
+                status = evaluate(0, cleanLength, rucSum);
+            }
+            return;
+        }
+
+        if (cleanLength == 0) {
+            status = Status.EMPTY;
+        } else if (cleanLength <= type.getMaxLength()) {
+            status = rejected > 0 ? Status.INVALID_CHARACTER : evaluate(0, cleanLength, rucSum);
+        } else {
+            // Sanitization keeps the rightmost characters: weights shift, so
+            // recompute over the retained tail (bounded by the max length).
+            int from = cleanLength - type.getMaxLength();
+            int sum = 0;
+            for (int i = from; i < cleanLength; i++) {
+                char c = clean[i];
+                if (!type.accepts(c)) {
+                    status = Status.INVALID_CHARACTER;
+                    return;
+                }
+                if (ruc && i - from < 10) sum += (c - '0') * RUCUtils.weightAt(i - from);
+            }
+            status = evaluate(from, type.getMaxLength(), sum);
+        }
+    }
+
+    private Status evaluate(int from, int count, int sum) {
+        if (count > type.getMaxLength()) return Status.TOO_LONG;
+        if (ruc) {
+            int first = clean[from] - '0';
+            if (first != 1 && first != 2) return Status.INVALID_PREFIX;
+            if (count >= 2 && !RUCUtils.isValidPrefix(first * 10 + clean[from + 1] - '0')) {
+                return Status.INVALID_PREFIX;
+            }
+            if (count >= 10) expected = RUCUtils.checkDigitOf(sum);
+        }
+        if (count < type.getMinLength()) {
+            missing = type.getMinLength() - count;
+            return Status.INCOMPLETE;
+        }
+        if (ruc && clean[from + 10] != expected) return Status.CHECK_DIGIT_MISMATCH;
+        return Status.VALID;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity array of {@code long} slots backing the open-addressing
+ * structures {@link DoiKeySet} and {@link DoiKeyMap}.<br>
+ * <br>
+ * The capacity is a power of two. Slots live either in a heap {@code long[]}
+ * or in an 8-byte aligned direct {@link ByteBuffer} (off-heap). Reads use
+ * acquire and writes use release semantics, so a slot published by a writer
+ * is seen complete by lock-free readers; on x86 both compile to plain moves.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+abstract class LongSlots {
+
+    /**
+     * Largest heap capacity: {@code long[]} length must fit in an int.
+     */
+    static final int MAX_HEAP_CAPACITY = 1 << 30;
+    /**
+     * Largest off-heap capacity: a direct buffer holds at most 2^31 - 1 bytes.
+     */
+    static final int MAX_OFF_HEAP_CAPACITY = 1 << 27;
+
+    /**
+     * Fibonacci hashing multiplier (2^64 divided by the golden ratio).
+     */
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    final int capacity;
+    final int mask;
+    private final int shift;
+
+    private LongSlots(int capacity) {
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Allocates slots filled with {@code initial}.
+     *
+     * @param capacity power-of-two number of slots
+     * @param offHeap  whether to allocate a direct buffer instead of a {@code long[]}
+     * @param initial  initial value of every slot
+     * @return the slots
+     */
+    static LongSlots allocate(int capacity, boolean offHeap, long initial) {
+        LongSlots slots = offHeap ? new Direct(capacity) : new Heap(capacity);
+        slots.fill(initial);
+        return slots;
+    }
+
+    /**
+     * Returns the largest capacity of heap or off-heap slots.
+     *
+     * @param offHeap whether the slots live off-heap
+     * @return {@link #MAX_OFF_HEAP_CAPACITY} or {@link #MAX_HEAP_CAPACITY}
+     */
+    static int maxCapacity(boolean offHeap) {
+        return offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_HEAP_CAPACITY;
+    }
+
+    /**
+     * Returns the smallest power-of-two capacity keeping {@code size} entries
+     * under the 3/4 load factor.
+     *
+     * @param size        expected number of entries
+     * @param maxCapacity largest allowed capacity, a power of two
+     * @return the capacity
+     * @throws IllegalArgumentException if {@code size} exceeds the allowed capacity
+     */
+    static int capacityFor(long size, int maxCapacity) {
+        long needed = Math.max(16, size + size / 3);
+        if (needed > maxCapacity) {
+            throw new IllegalArgumentException(
+                    String.format("Cannot hold %d keys: the capacity is limited to %d slots.", size, maxCapacity));
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Largest number of entries the slots can hold under the load factor.
+     *
+     * @param maxCapacity largest allowed capacity, a power of two
+     * @return the maximum size
+     */
+    static long maxSize(int maxCapacity) {
+        return maxCapacity - (maxCapacity >>> 2);
+    }
+
+    /**
+     * Maximum number of entries before the slots must grow (3/4 of the capacity).
+     *
+     * @return the resize threshold
+     */
+    int threshold() {
+        return capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Home slot of a key. Packed DOIs are dense and evenly spread, so a single
+     * multiply-shift is enough to scatter consecutive keys.
+     *
+     * @param key packed key
+     * @return slot index
+     */
+    int indexOf(long key) {
+        return (int) ((key * PHI) >>> shift);
+    }
+
+    abstract long get(int index);
+
+    abstract void set(int index, long value);
+
+    abstract void fill(long value);
+
+    /**
+     * Slots on the Java heap.
+     */
+    private static final class Heap extends LongSlots {
+        private static final VarHandle ARRAY = MethodHandles.arrayElementVarHandle(long[].class);
+        private final long[] array;
+
+        Heap(int capacity) {
+            super(capacity);
+            this.array = new long[capacity];
+        }
+
+        @Override
+        long get(int index) {
+            return (long) ARRAY.getAcquire(array, index);
+        }
+
+        @Override
+        void set(int index, long value) {
+            ARRAY.setRelease(array, index, value);
+        }
+
+        @Override
+        void fill(long value) {
+            Arrays.fill(array, value);
+        }
+    }
+
+    /**
+     * Slots in native memory, released when the owning structure is garbage-collected.
+     */
+    private static final class Direct extends LongSlots {
+        private static final VarHandle BUFFER =
+                MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+        private final ByteBuffer buffer;
+
+        Direct(int capacity) {
+            super(capacity);
+            this.buffer = ByteBuffer.allocateDirect(capacity * Long.BYTES + Long.BYTES - 1).alignedSlice(Long.BYTES);
+        }
+
+        @Override
+        long get(int index) {
+            return (long) BUFFER.getAcquire(buffer, index << 3);
+        }
+
+        @Override
+        void set(int index, long value) {
+            BUFFER.setRelease(buffer, index << 3, value);
+        }
+
+        @Override
+        void fill(long value) {
+            for (int i = 0; i < capacity; i++) {
+                BUFFER.set(buffer, i << 3, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,606 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming validator of the DOI fields of newline-delimited JSON, working
+ * directly on the bytes.<br>
+ * <br>
+ * Each line must hold one JSON object. The scanner walks the object once,
+ * locating the configured type and number keys among its top-level members
+ * (nested objects and arrays are skipped) and recording where their values
+ * start and end, without building strings or a document tree. Values may be
+ * JSON strings or bare tokens such as numbers; {@code null} counts as absent.
+ * Then:<br>
+ * - the type value is decoded as a code of the {@link UsageContext} through a
+ * {@link DoiCatalog} into every rule using it (see
+ * {@link DoiCatalog#decodeAll(UsageContext, CharSequence)});<br>
+ * - the number is sanitized (unless strict) and validated against the decoded
+ * {@link DoiRule}s from the bytes, with the same result as
+ * {@link DoiRule#validateNumber(String, boolean)}, and packed into a key
+ * (see {@link DoiKeys}) for numeric types. A code shared by several rules
+ * (PLE {@code "0"}, FV-3800 {@code "01"} for DNI and TIN) is valid if any of
+ * them accepts the number.<br>
+ * <br>
+ * A scanner is bound to the catalog snapshot it was created with, whose code
+ * tables it caches. To follow a catalog published later with
+ * {@link DoiCatalog#publish(DoiCatalog)}, create a new scanner from
+ * {@link DoiCatalog#current()}; scanners are cheap to build.<br>
+ * <br>
+ * Values with escape sequences or non-ASCII bytes are decoded into a
+ * {@code String} and validated through the regular path; the ASCII values of
+ * typical feeds are handled without allocating.<br>
+ * <br>
+ * Every non-blank line gets a {@link Verdict}, reported to a {@link Listener}
+ * with its 1-based line number and counted in a {@link Summary}. Instances
+ * are immutable and may be shared between threads.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class NdjsonDoiScanner {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Outcome of a line.
+     */
+    public enum Verdict {
+        /**
+         * The number is valid for the decoded type.
+         */
+        VALID,
+        /**
+         * The number does not pass structural validation.
+         */
+        INVALID_NUMBER,
+        /**
+         * The type value is not a code of the usage context in the catalog.
+         */
+        UNKNOWN_TYPE,
+        /**
+         * The type or the number key is absent or {@code null}.
+         */
+        MISSING_FIELD,
+        /**
+         * The line is not a JSON object.
+         */
+        MALFORMED
+    }
+
+    /**
+     * Receives the verdict of every non-blank line.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called once per non-blank line, in order.
+         *
+         * @param line    1-based line number, counting blank lines
+         * @param start   index of the first byte of the line in the scanned buffer
+         * @param end     index just past the last byte of the line, excluding the line break
+         * @param verdict outcome of the line
+         * @param rule    decoded rule; {@code null} unless the type was decoded. For codes
+         *                shared by several rules, the first one accepting the number, or
+         *                the first declared if none does
+         * @param key     packed key of a valid numeric number, or {@link DoiKeys#NO_KEY}
+         */
+        void onLine(long line, int start, int end, Verdict verdict, DoiRule rule, long key);
+    }
+
+    /**
+     * Counters of scanned lines; can be carried across several {@code scan} calls of one stream.
+     */
+    public static final class Summary {
+        private long lines;
+        private final long[] verdicts = new long[Verdict.values().length];
+
+        /**
+         * Creates empty counters, starting at line 1.
+         */
+        public Summary() {
+            // empty counters
+        }
+
+        /**
+         * Returns the number of lines read, including blank ones.
+         *
+         * @return line count
+         */
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * Returns the number of lines with the given verdict.
+         *
+         * @param verdict line outcome
+         * @return line count
+         */
+        public long getCount(Verdict verdict) {
+            return verdicts[verdict.ordinal()];
+        }
+
+        /**
+         * Returns the number of valid lines.
+         *
+         * @return valid line count
+         */
+        public long getValid() {
+            return verdicts[Verdict.VALID.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Summary[lines=%d, verdicts=%s]", lines, Arrays.toString(verdicts));
+        }
+    }
+
+    private final byte[] typeKey;
+    private final byte[] numberKey;
+    private final String typeKeyText;
+    private final String numberKeyText;
+    private final UsageContext context;
+    private final DoiCatalog catalog;
+    private final DoiRule[][] byCode = new DoiRule[UsageContext.CodeTable.SIZE][];
+    private final boolean strict;
+    private final int scratchSize;
+
+    /**
+     * Creates a scanner.
+     *
+     * @param typeKey   name of the member holding the type code, e.g. {@code "tipoDoc"}
+     * @param numberKey name of the member holding the number, e.g. {@code "numDoc"}
+     * @param context   usage context whose codes the type values use
+     * @param catalog   catalog decoding codes into rules, e.g. {@link DoiCatalog#current()};
+     *                  the scanner keeps using it after another catalog is published
+     * @param strict    whether sanitization should be disabled
+     * @throws IllegalArgumentException if both keys are equal
+     */
+    public NdjsonDoiScanner(String typeKey, String numberKey, UsageContext context, DoiCatalog catalog,
+                            boolean strict) {
+        this.typeKeyText = Objects.requireNonNull(typeKey, "typeKey must not be null to scan NDJSON.");
+        this.numberKeyText = Objects.requireNonNull(numberKey, "numberKey must not be null to scan NDJSON.");
+        this.context = Objects.requireNonNull(context, "context must not be null to scan NDJSON.");
+        this.catalog = Objects.requireNonNull(catalog, "catalog must not be null to scan NDJSON.");
+        if (typeKey.equals(numberKey)) {
+            throw new IllegalArgumentException(String.format("Type and number keys are both '%s'.", typeKey));
+        }
+        this.typeKey = typeKey.getBytes(StandardCharsets.UTF_8);
+        this.numberKey = numberKey.getBytes(StandardCharsets.UTF_8);
+        this.strict = strict;
+        int maxLength = 0;
+        for (int key = 0; key < byCode.length; key++) {
+            byCode[key] = catalog.candidates(context, CodeTranslator.codeOf(key));
+        }
+        for (DoiRule rule : catalog.getRules()) maxLength = Math.max(maxLength, rule.getMaxLength());
+        this.scratchSize = maxLength;
+    }
+
+    /**
+     * Scans a whole NDJSON input held in an array.
+     *
+     * @param bytes    UTF-8 input
+     * @param offset   first byte
+     * @param length   number of bytes
+     * @param listener receives verdicts; may be {@code null}
+     * @return counters of the input
+     */
+    public Summary scan(byte[] bytes, int offset, int length, Listener listener) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        var summary = new Summary();
+        scan(ByteBuffer.wrap(bytes, offset, length), true, summary, listener);
+        return summary;
+    }
+
+    /**
+     * Scans the complete lines between the buffer position and limit, in place.<br>
+     * The position advances past the last line break, so a caller can refill
+     * the buffer after the unconsumed partial line and call again.
+     *
+     * @param buffer   UTF-8 input; heap or direct
+     * @param last     whether this is the end of the input, so a trailing line without line break is scanned too
+     * @param summary  counters to update; line numbers continue from {@link Summary#getLines()}
+     * @param listener receives verdicts; may be {@code null}
+     * @return number of lines scanned, including blank ones
+     */
+    public int scan(ByteBuffer buffer, boolean last, Summary summary, Listener listener) {
+        Objects.requireNonNull(buffer, "buffer must not be null to scan NDJSON.");
+        Objects.requireNonNull(summary, "summary must not be null to scan NDJSON.");
+        var state = new State(scratchSize);
+        int limit = buffer.limit();
+        int start = buffer.position();
+        int lines = 0;
+        for (int i = start; i < limit; i++) {
+            if (buffer.get(i) != '\n') continue;
+            line(buffer, start, i, state, summary, listener);
+            lines++;
+            start = i + 1;
+        }
+        if (last && start < limit) {
+            line(buffer, start, limit, state, summary, listener);
+            lines++;
+            start = limit;
+        }
+        buffer.position(start);
+        return lines;
+    }
+
+    /**
+     * Scans an NDJSON stream to its end. The stream is not closed.
+     *
+     * @param in       UTF-8 input
+     * @param listener receives verdicts; {@code start} and {@code end} refer to an internal buffer
+     * @return counters of the stream
+     * @throws IOException if reading fails
+     */
+    public Summary scan(InputStream in, Listener listener) throws IOException {
+        Objects.requireNonNull(in, "in must not be null to scan NDJSON.");
+        var summary = new Summary();
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (true) {
+            int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+            if (read < 0) {
+                buffer.flip();
+                scan(buffer, true, summary, listener);
+                return summary;
+            }
+            buffer.position(buffer.position() + read);
+            buffer.flip();
+            scan(buffer, false, summary, listener);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+    }
+
+    /**
+     * Per-call positions of the located values and scratch space.
+     */
+    private static final class State {
+        final byte[] scratch;
+        int typeStart;
+        int typeEnd;
+        int typeFlags;
+        int numberStart;
+        int numberEnd;
+        int numberFlags;
+        int keyStart;
+        int keyEnd;
+        int keyFlags;
+        int position;
+
+        State(int scratchSize) {
+            this.scratch = new byte[scratchSize];
+        }
+    }
+
+    /**
+     * Value flags: located, quoted, needs decoding (escapes or non-ASCII bytes).
+     */
+    private static final int FOUND = 1;
+    private static final int QUOTED = 2;
+    private static final int DECODE = 4;
+
+    private void line(ByteBuffer b, int start, int end, State s, Summary summary, Listener listener) {
+        long line = ++summary.lines;
+        int p = skipWhitespace(b, start, end);
+        if (p == end) return;
+
+        Verdict verdict;
+        DoiRule rule = null;
+        long key = DoiKeys.NO_KEY;
+        DoiRule[] candidates;
+        if (!locate(b, p, end, s)) {
+            verdict = Verdict.MALFORMED;
+        } else if ((s.typeFlags & FOUND) == 0 || (s.numberFlags & FOUND) == 0) {
+            verdict = Verdict.MISSING_FIELD;
+        } else if ((candidates = decodeType(b, s)).length == 0) {
+            verdict = Verdict.UNKNOWN_TYPE;
+        } else {
+            verdict = Verdict.INVALID_NUMBER;
+            rule = candidates[0];
+            for (DoiRule candidate : candidates) {
+                long packed = validate(b, s, candidate);
+                if (packed != INVALID) {
+                    verdict = Verdict.VALID;
+                    rule = candidate;
+                    key = packed;
+                    break;
+                }
+            }
+        }
+        summary.verdicts[verdict.ordinal()]++;
+        if (listener != null) listener.onLine(line, start, end, verdict, rule, key);
+    }
+
+    /**
+     * Walks the top-level members of the object at {@code p}, recording the type and number values.
+     *
+     * @return {@code false} if the line is not a single JSON object
+     */
+    private boolean locate(ByteBuffer b, int p, int end, State s) {
+        s.typeFlags = 0;
+        s.numberFlags = 0;
+        if (b.get(p++) != '{') return false;
+        p = skipWhitespace(b, p, end);
+        if (p < end && b.get(p) == '}') return skipWhitespace(b, p + 1, end) == end;
+        while (true) {
+            if (p >= end || b.get(p) != '"') return false;
+            if (!string(b, p, end, s)) return false;
+            int keyStart = s.keyStart;
+            int keyEnd = s.keyEnd;
+            int keyFlags = s.keyFlags;
+            p = skipWhitespace(b, s.position, end);
+            if (p >= end || b.get(p) != ':') return false;
+            p = skipWhitespace(b, p + 1, end);
+            if (p >= end) return false;
+
+            byte c = b.get(p);
+            int valueStart;
+            int valueEnd;
+            int valueFlags;
+            if (c == '"') {
+                if (!string(b, p, end, s)) return false;
+                valueStart = s.keyStart;
+                valueEnd = s.keyEnd;
+                valueFlags = FOUND | QUOTED | s.keyFlags;
+                p = s.position;
+            } else if (c == '{' || c == '[') {
+                p = skipNested(b, p, end, s);
+                if (p < 0) return false;
+                valueStart = valueEnd = -1;
+                valueFlags = 0;
+            } else {
+                valueStart = p;
+                while (p < end && !isDelimiter(b.get(p))) p++;
+                valueEnd = p;
+                if (valueEnd == valueStart) return false;
+                boolean isNull = valueEnd - valueStart == 4 && b.get(valueStart) == 'n'
+                        && b.get(valueStart + 1) == 'u' && b.get(valueStart + 2) == 'l' && b.get(valueStart + 3) == 'l';
+                valueFlags = isNull ? 0 : FOUND;
+            }
+
+            if (keyEquals(b, keyStart, keyEnd, keyFlags, typeKey, typeKeyText)) {
+                s.typeStart = valueStart;
+                s.typeEnd = valueEnd;
+                s.typeFlags = valueFlags;
+            } else if (keyEquals(b, keyStart, keyEnd, keyFlags, numberKey, numberKeyText)) {
+                s.numberStart = valueStart;
+                s.numberEnd = valueEnd;
+                s.numberFlags = valueFlags;
+            }
+
+            p = skipWhitespace(b, p, end);
+            if (p >= end) return false;
+            c = b.get(p);
+            if (c == '}') return skipWhitespace(b, p + 1, end) == end;
+            if (c != ',') return false;
+            p = skipWhitespace(b, p + 1, end);
+        }
+    }
+
+    /**
+     * Scans the string starting at the quote {@code p}; stores its content range
+     * and flags in the {@code key*} fields and the index past the closing quote in {@code position}.
+     */
+    private static boolean string(ByteBuffer b, int p, int end, State s) {
+        int flags = 0;
+        int i = p + 1;
+        while (true) {
+            if (i >= end) return false;
+            byte c = b.get(i);
+            if (c == '"') break;
+            if (c == '\\') {
+                flags = DECODE;
+                i += 2;
+            } else {
+                if (c < 0) flags = DECODE;
+                i++;
+            }
+        }
+        s.keyStart = p + 1;
+        s.keyEnd = i;
+        s.keyFlags = flags;
+        s.position = i + 1;
+        return true;
+    }
+
+    /**
+     * Skips a nested object or array starting at {@code p}.
+     *
+     * @return index past its closing bracket, or -1 if unbalanced
+     */
+    private static int skipNested(ByteBuffer b, int p, int end, State s) {
+        int depth = 0;
+        while (p < end) {
+            byte c = b.get(p);
+            if (c == '"') {
+                if (!string(b, p, end, s)) return -1;
+                p = s.position;
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) return p + 1;
+            }
+            p++;
+        }
+        return -1;
+    }
+
+    private static boolean keyEquals(ByteBuffer b, int start, int end, int flags, byte[] key, String keyText) {
+        if ((flags & DECODE) != 0) return keyText.equals(decode(b, start, end, true));
+        if (end - start != key.length) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (b.get(start + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private DoiRule[] decodeType(ByteBuffer b, State s) {
+        int start = s.typeStart;
+        int length = s.typeEnd - start;
+        if ((s.typeFlags & DECODE) == 0 && length >= 1 && length <= 2) {
+            int first = b.get(start) - '0';
+            int second = length == 2 ? b.get(start + 1) - '0' : 0;
+            if (first >= 0 && first <= 9 && second >= 0 && second <= 9) {
+                return byCode[length == 1 ? first : 10 + first * 10 + second];
+            }
+        }
+        return catalog.candidates(context, decode(b, start, s.typeEnd, (s.typeFlags & QUOTED) != 0));
+    }
+
+    /**
+     * Marker returned by {@link #validate} for invalid numbers; packed keys are never negative.
+     */
+    private static final long INVALID = -2;
+
+    /**
+     * Validates the number value against {@code rule}.
+     *
+     * @return the packed key of a valid numeric value, {@link DoiKeys#NO_KEY}
+     * for a valid non-numeric value, or {@link #INVALID}
+     */
+    private long validate(ByteBuffer b, State s, DoiRule rule) {
+        int start = s.numberStart;
+        int end = s.numberEnd;
+        Pattern pattern = rule.pattern();
+        if ((s.numberFlags & DECODE) != 0 || pattern != null) {
+            String number = decode(b, start, end, (s.numberFlags & QUOTED) != 0);
+            if (!rule.validateNumber(number, strict)) return INVALID;
+            return rule.isNumeric() ? DoiKeys.parseDigits(strict ? number : rule.sanitize(number)) : DoiKeys.NO_KEY;
+        }
+
+        // ASCII without escapes: sanitize into the scratch buffer, keeping the rightmost maxLength.
+        byte[] value = s.scratch;
+        int maxLength = rule.getMaxLength();
+        int length = 0;
+        if (strict) {
+            if (end - start > maxLength) return INVALID;
+            for (int i = start; i < end; i++) value[length++] = b.get(i);
+        } else {
+            int from = maxLength;
+            for (int i = end - 1; i >= start && length < maxLength; i--) {
+                byte c = b.get(i);
+                if (c >= '0' && c <= '9' || !rule.isNumeric() && (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')) {
+                    value[--from] = c;
+                    length++;
+                }
+            }
+            System.arraycopy(value, from, value, 0, length);
+        }
+        if (length == 0 || length < rule.getMinLength()) return INVALID;
+
+        boolean checkDigit = rule.hasCheckDigit();
+        long key = 0;
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            byte c = value[i];
+            if (c >= '0' && c <= '9') {
+                key = key * 10 + (c - '0');
+                if (checkDigit && i < 10) sum += (c - '0') * RUCUtils.weightAt(i);
+            } else if (rule.isNumeric() || !(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')) {
+                return INVALID;
+            }
+        }
+        boolean[] prefixes = rule.prefixes();
+        if (prefixes != null && !prefixes[(value[0] - '0') * 10 + value[1] - '0']) return INVALID;
+        if (checkDigit && RUCUtils.checkDigitOf(sum) != value[10]) return INVALID;
+        return rule.isNumeric() && length <= 18 ? key : DoiKeys.NO_KEY;
+    }
+
+    /**
+     * Decodes a value into a {@code String}, resolving JSON escapes in quoted values.
+     */
+    private static String decode(ByteBuffer b, int start, int end, boolean quoted) {
+        var bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = b.get(start + i);
+        String raw = new String(bytes, StandardCharsets.UTF_8);
+        if (!quoted || raw.indexOf('\\') < 0) return raw;
+
+        var out = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 >= raw.length()) {
+                out.append(c);
+                continue;
+            }
+            char e = raw.charAt(++i);
+            switch (e) {
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 < raw.length()) {
+                        try {
+                            out.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException ignored) {
+                            // keep the sequence verbatim
+                        }
+                    }
+                    out.append('\\').append(e);
+                    break;
+                default:
+                    out.append(e);
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static int skipWhitespace(ByteBuffer b, int p, int end) {
+        while (p < end) {
+            byte c = b.get(p);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') break;
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean isDelimiter(byte c) {
+        return c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+}
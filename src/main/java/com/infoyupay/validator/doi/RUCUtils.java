@@ -32,6 +32,7 @@ import java.util.Objects;
  * This class provides helpers for:<br>
  * - Computing the check digit (strict or sanitized).<br>
  * - Validating full RUC numbers.<br>
+ * - Deriving a natural person's RUC from their DNI, and back.<br>
  * - Handling sanitized versus non-sanitized input according to SUNAT norms.<br>
  * <br>
  * All methods are null-safe where applicable, and sanitization rules follow the same
@@ -107,6 +108,35 @@ public final class RUCUtils {
             sum += (c - '0') * --x;
         }
 
+        return checkDigitOf(sum);
+    }
+
+    /**
+     * Returns the SUNAT positional weight applied to the digit at {@code index}
+     * (0–9) when computing the check digit.<br>
+     * <br>
+     * Same arithmetic sequence used by {@link #computeCheckDigit(String)}:
+     * 5, 4, 3, 2 for indexes 0–3 and 7, 6, 5, 4, 3, 2 for indexes 4–9.
+     *
+     * @param index zero-based digit position, from 0 to 9
+     * @return positional weight
+     */
+    static int weightAt(int index) {
+        return index < 4 ? 5 - index : 11 - index;
+    }
+
+    /**
+     * Converts a weighted sum of the first 10 RUC digits into its check digit.<br>
+     * <br>
+     * Rules:<br>
+     * - If 11 - (sum % 11) = 11 → check digit = '1'<br>
+     * - If 11 - (sum % 11) = 10 → check digit = '0'<br>
+     * - Otherwise → that value as a digit<br>
+     *
+     * @param sum weighted sum of the first 10 digits
+     * @return the check digit as a character
+     */
+    static char checkDigitOf(int sum) {
         int residue = sum % 11;
         int check = 11 - residue;
 
@@ -127,13 +157,30 @@ public final class RUCUtils {
      * @return {@code true} if valid, {@code false} otherwise
      */
     public static boolean isRUCValid(String ruc) {
-        if (ruc == null || ruc.length() != 11) return false;
-        if (!ruc.chars().allMatch(Character::isDigit)) return false;
+        return ruc != null && matchesRUC(ruc);
+    }
 
-        int prefix = Integer.parseInt(ruc.substring(0, 2));
+    /**
+     * Same rules as {@link #isRUCValid(String)} over any character sequence, so
+     * reusable buffers can be validated without creating a {@code String}.
+     *
+     * @param ruc the RUC characters; must not be null
+     * @return {@code true} if valid, {@code false} otherwise
+     */
+    static boolean matchesRUC(CharSequence ruc) {
+        if (ruc.length() != 11) return false;
+        for (int i = 0; i < 11; i++) {
+            if (!Character.isDigit(ruc.charAt(i))) return false;
+        }
+
+        int prefix = Character.digit(ruc.charAt(0), 10) * 10 + Character.digit(ruc.charAt(1), 10);
         if (!isValidPrefix(prefix)) return false;
 
-        return computeCheckDigit(ruc) == ruc.charAt(10);
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += (ruc.charAt(i) - '0') * weightAt(i);
+        }
+        return checkDigitOf(sum) == ruc.charAt(10);
     }
 
     /**
@@ -154,6 +201,43 @@ public final class RUCUtils {
         return isRUCValid(value);
     }
 
+    /**
+     * Derives the RUC of a natural person from their DNI: prefix {@code 10},
+     * the 8 DNI digits and the modulo-11 check digit.<br>
+     * <br>
+     * Works on packed values (see {@link DoiKeys}) and does not allocate.
+     *
+     * @param dni packed DNI, from 0 to 99,999,999
+     * @return the packed RUC-10, or {@link DoiKeys#NO_KEY} if {@code dni} is out of range
+     */
+    public static long deriveRUC10(long dni) {
+        if (dni < 0 || dni >= DoiKeys.POW10[8]) return DoiKeys.NO_KEY;
+        // prefix "10" contributes 1 * 5 + 0 * 4
+        int sum = 5;
+        long rest = dni;
+        for (int i = 9; i >= 2; i--) {
+            sum += (int) (rest % 10) * weightAt(i);
+            rest /= 10;
+        }
+        long base = 10 * DoiKeys.POW10[8] + dni;
+        return base * 10 + (checkDigitOf(sum) - '0');
+    }
+
+    /**
+     * Extracts the DNI embedded in a natural person's RUC ({@code 10} + DNI + check digit).<br>
+     * <br>
+     * Works on packed values (see {@link DoiKeys}) and does not allocate.
+     *
+     * @param ruc packed RUC
+     * @return the packed DNI, or {@link DoiKeys#NO_KEY} if {@code ruc} does not
+     * start with {@code 10} or its check digit is wrong
+     */
+    public static long extractDNI(long ruc) {
+        if (ruc / DoiKeys.POW10[9] != 10) return DoiKeys.NO_KEY;
+        long dni = ruc / 10 % DoiKeys.POW10[8];
+        return deriveRUC10(dni) == ruc ? dni : DoiKeys.NO_KEY;
+    }
+
     /**
      * Valid prefix values according to SUNAT:<br>
      * - 10 → Natural person<br>
@@ -165,7 +249,7 @@ public final class RUCUtils {
      * @param prefix two-digit numeric prefix
      * @return {@code true} if prefix is valid
      */
-    private static boolean isValidPrefix(int prefix) {
+    static boolean isValidPrefix(int prefix) {
         return prefix == 10 || prefix == 15 || prefix == 16
                 || prefix == 17 || prefix == 20;
     }
@@ -0,0 +1,365 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Streaming validator for the DOI fields of PLE, PLAME, AFPNet and FV-3800
+ * text files.<br>
+ * <br>
+ * These files are delimited text (usually with {@code '|'}), one record per
+ * line. Each record carries the DOI type expressed with the context's own
+ * code (see {@link DoiType#getId(UsageContext)}) in one field and the DOI number
+ * in another. For every record, this validator:<br>
+ * - Decodes the type code through {@link UsageContext#decodeAll(CharSequence)}.<br>
+ * - Validates the number with {@link DoiType#validateNumber(String, boolean)}.
+ * A code shared by several types (PLE {@code "0"}, FV-3800 {@code "01"} for DNI
+ * and TIN) accepts the number if any of them does.<br>
+ * <br>
+ * The input is read once through a fixed-size buffer and only the two
+ * configured fields are retained, so memory use does not depend on the file
+ * size. Errors are reported to a {@link Listener} with their 1-based line and
+ * column (the character position where the offending field starts).<br>
+ * <br>
+ * Records whose type and number fields are both empty are counted as skipped
+ * instead of failing, since several PLE books leave the counterparty blank.<br>
+ * <br>
+ * Instances are immutable and may be shared; each call to {@code validate}
+ * uses its own buffers.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class ReportFileValidator {
+
+    /**
+     * Reason why a record was rejected.
+     */
+    public enum Reason {
+        /**
+         * The line ends before the type or number field.
+         */
+        MISSING_FIELD,
+        /**
+         * The type code is not defined in the usage context.
+         */
+        UNKNOWN_TYPE_CODE,
+        /**
+         * The DOI number does not pass structural validation for any DOI type
+         * the code names.
+         */
+        INVALID_NUMBER
+    }
+
+    /**
+     * Receives rejected records as they are found.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called once per rejected record.
+         *
+         * @param line   1-based line number
+         * @param column 1-based character position where the offending field starts
+         * @param reason why the record was rejected
+         * @param value  content of the offending field (empty for {@link Reason#MISSING_FIELD})
+         */
+        void onError(long line, int column, Reason reason, String value);
+    }
+
+    /**
+     * Counters collected during a validation pass.
+     */
+    public static final class Summary {
+        private long records;
+        private long skipped;
+        private final long[] errors = new long[Reason.values().length];
+
+        /**
+         * Returns the number of records read, including skipped and rejected ones.
+         *
+         * @return record count
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Returns the number of records with empty type and number fields.
+         *
+         * @return skipped record count
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Returns the number of rejected records.
+         *
+         * @return total error count
+         */
+        public long getErrors() {
+            long total = 0;
+            for (long count : errors) total += count;
+            return total;
+        }
+
+        /**
+         * Returns the number of records rejected for the given reason.
+         *
+         * @param reason rejection reason; must not be null
+         * @return error count for {@code reason}
+         */
+        public long getErrors(Reason reason) {
+            return errors[reason.ordinal()];
+        }
+
+        /**
+         * Returns the number of records that passed validation.
+         *
+         * @return valid record count
+         */
+        public long getValid() {
+            return records - skipped - getErrors();
+        }
+
+        /**
+         * Adds the counters of another pass into this one.
+         *
+         * @param other counters to merge; must not be null
+         * @return this instance
+         */
+        public Summary combine(Summary other) {
+            records += other.records;
+            skipped += other.skipped;
+            for (int i = 0; i < errors.length; i++) {
+                errors[i] += other.errors[i];
+            }
+            return this;
+        }
+
+        /**
+         * Restores counters persisted elsewhere, e.g. in a checkpoint.
+         */
+        static Summary of(long records, long skipped, long[] errors) {
+            var summary = new Summary();
+            summary.records = records;
+            summary.skipped = skipped;
+            System.arraycopy(errors, 0, summary.errors, 0, summary.errors.length);
+            return summary;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Summary[records=%d, valid=%d, skipped=%d, errors=%s]",
+                    records, getValid(), skipped, Arrays.toString(errors));
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final UsageContext context;
+    private final char separator;
+    private final int typeField;
+    private final int numberField;
+    private final boolean strict;
+
+    /**
+     * Creates a validator for the given file layout.
+     *
+     * @param context     usage context defining the code space of the type field; must not be null
+     * @param separator   field separator, usually {@code '|'}
+     * @param typeField   0-based index of the DOI type code field
+     * @param numberField 0-based index of the DOI number field
+     * @param strict      whether sanitization should be disabled when validating numbers
+     * @throws NullPointerException     if {@code context} is null
+     * @throws IllegalArgumentException if a field index is negative or both indexes are equal
+     */
+    public ReportFileValidator(UsageContext context, char separator,
+                               int typeField, int numberField, boolean strict) {
+        this.context = Objects.requireNonNull(context, "context must not be null to validate report files.");
+        if (typeField < 0 || numberField < 0 || typeField == numberField) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid field layout: type field %d, number field %d.", typeField, numberField));
+        }
+        this.separator = separator;
+        this.typeField = typeField;
+        this.numberField = numberField;
+        this.strict = strict;
+    }
+
+    /**
+     * Describes the file layout and validation mode, so that results computed
+     * with a different configuration are not mixed (see {@link CheckpointedFileValidator}).
+     *
+     * @return layout description
+     */
+    String layout() {
+        return context.name() + ',' + (int) separator + ',' + typeField + ',' + numberField + ',' + strict;
+    }
+
+    /**
+     * Validates a file in a single pass.
+     *
+     * @param file     the file to read; must not be null
+     * @param charset  file encoding (SUNAT text files are usually ISO-8859-1); must not be null
+     * @param listener receives rejected records; may be {@code null} to only collect counters
+     * @return counters of the pass
+     * @throws IOException if the file cannot be read
+     */
+    public Summary validate(Path file, Charset charset, Listener listener) throws IOException {
+        Objects.requireNonNull(charset, "charset must not be null to validate report files.");
+        try (var reader = new InputStreamReader(Files.newInputStream(file), charset)) {
+            return validate(reader, listener);
+        }
+    }
+
+    /**
+     * Validates the records read from {@code reader} in a single pass.<br>
+     * The reader is consumed but not closed.
+     *
+     * @param reader   record source; must not be null
+     * @param listener receives rejected records; may be {@code null} to only collect counters
+     * @return counters of the pass
+     * @throws IOException if reading fails
+     */
+    public Summary validate(Reader reader, Listener listener) throws IOException {
+        Objects.requireNonNull(reader, "reader must not be null to validate report files.");
+        var summary = new Summary();
+        var buffer = new char[BUFFER_SIZE];
+        var type = new FieldBuffer();
+        var number = new FieldBuffer();
+
+        long line = 1;
+        int column = 0;
+        int field = 0;
+        boolean pendingCr = false;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n' || c == '\r') {
+                    if (c == '\n' && pendingCr) {
+                        pendingCr = false;
+                        continue;
+                    }
+                    pendingCr = c == '\r';
+                    if (column > 0) endRecord(summary, listener, line, column, field, type, number);
+                    line++;
+                    column = 0;
+                    field = 0;
+                    type.reset();
+                    number.reset();
+                    continue;
+                }
+                pendingCr = false;
+                column++;
+                if (c == separator) {
+                    field++;
+                    if (field == typeField) type.start = column + 1;
+                    if (field == numberField) number.start = column + 1;
+                } else if (field == typeField) {
+                    type.append(c);
+                } else if (field == numberField) {
+                    number.append(c);
+                }
+            }
+        }
+        if (column > 0) endRecord(summary, listener, line, column, field, type, number);
+        return summary;
+    }
+
+    private void endRecord(Summary summary, Listener listener, long line, int lineLength,
+                           int lastField, FieldBuffer type, FieldBuffer number) {
+        summary.records++;
+        if (lastField < Math.max(typeField, numberField)) {
+            reject(summary, listener, line, lineLength + 1, Reason.MISSING_FIELD, "");
+            return;
+        }
+        if (type.length == 0 && number.length == 0) {
+            summary.skipped++;
+            return;
+        }
+
+        DoiType[] candidates = context.candidates(type);
+        if (candidates.length == 0) {
+            reject(summary, listener, line, type.start, Reason.UNKNOWN_TYPE_CODE, type.toString());
+            return;
+        }
+        var value = number.toString();
+        for (DoiType candidate : candidates) {
+            if (candidate.validateNumber(value, strict)) return;
+        }
+        reject(summary, listener, line, number.start, Reason.INVALID_NUMBER, value);
+    }
+
+    private static void reject(Summary summary, Listener listener, long line, int column,
+                               Reason reason, String value) {
+        summary.errors[reason.ordinal()]++;
+        if (listener != null) listener.onError(line, column, reason, value);
+    }
+
+    /**
+     * Reusable holder for the content of one field of the current record.
+     */
+    private static final class FieldBuffer implements CharSequence {
+        private char[] chars = new char[32];
+        private int length;
+        private int start = 1;
+
+        void append(char c) {
+            if (length == chars.length) chars = Arrays.copyOf(chars, length << 1);
+            chars[length++] = c;
+        }
+
+        void reset() {
+            length = 0;
+            start = 1;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(chars, from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+}
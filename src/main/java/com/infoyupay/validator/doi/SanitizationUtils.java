@@ -33,6 +33,12 @@ package com.infoyupay.validator.doi;
  * string. No normalization or case transformation is performed; sanitization only
  * filters invalid characters and applies optional truncation.<br>
  * <br>
+ * Characters below 256 (ASCII and Latin-1, the vast majority of real input) are
+ * classified through a lookup table built from {@link Character} at class
+ * initialization; only other characters go through the full Unicode lookup.
+ * When a value is already clean (nothing to strip or truncate), the original
+ * {@code String} instance is returned without allocating.<br>
+ * <br>
  * This class is a pure utility holder and is not intended to be instantiated or extended.
  *
  * @author David Vidal
@@ -40,6 +46,22 @@ package com.infoyupay.validator.doi;
  */
 public final class SanitizationUtils {
 
+    private static final byte DIGIT = 1;
+    private static final byte ALNUM = 2;
+
+    /**
+     * Classification of chars 0-255: {@link #DIGIT} when {@link Character#isDigit(char)}
+     * and {@link #ALNUM} when {@link Character#isLetterOrDigit(char)}.
+     */
+    private static final byte[] LATIN1 = new byte[256];
+
+    static {
+        for (char c = 0; c < LATIN1.length; c++) {
+            if (Character.isDigit(c)) LATIN1[c] |= DIGIT;
+            if (Character.isLetterOrDigit(c)) LATIN1[c] |= ALNUM;
+        }
+    }
+
     /**
      * Private constructor to prevent instantiation.<br>
      * This class contains only static utility methods and should not be instantiated.
@@ -57,30 +79,15 @@ public final class SanitizationUtils {
      * This behavior is consistent with Peruvian regulatory data formats where exceeding
      * values must retain the rightmost segment (e.g., SUNAT field constraints).<br>
      * <br>
-     * If {@code rawNumber} is {@code null}, an empty string is returned.
+     * If {@code rawNumber} is {@code null}, an empty string is returned. If nothing
+     * needs to be removed or truncated, {@code rawNumber} itself is returned.
      *
      * @param rawNumber the original value to sanitize; may be {@code null}
      * @param maxLength the maximum allowed length, or a non-positive value to disable truncation
      * @return the sanitized alphanumeric string; never {@code null}
      */
     public static String alnum(String rawNumber, int maxLength) {
-        if (rawNumber == null) {
-            return "";
-        }
-
-        var builder = new StringBuilder(rawNumber.length());
-
-        for (int i = 0; i < rawNumber.length(); i++) {
-            char c = rawNumber.charAt(i);
-            if (Character.isLetterOrDigit(c)) {
-                builder.append(c);
-            }
-        }
-
-        int length = builder.length();
-        return maxLength > 0 && length > maxLength
-                ? builder.substring(length - maxLength)
-                : builder.toString();
+        return sanitize(rawNumber, maxLength, ALNUM);
     }
 
     /**
@@ -92,30 +99,91 @@ public final class SanitizationUtils {
      * This matches the behavior expected in scenarios where numeric identifiers must
      * retain their rightmost digits when exceeding allowed lengths.<br>
      * <br>
-     * If {@code rawNumber} is {@code null}, an empty string is returned.
+     * If {@code rawNumber} is {@code null}, an empty string is returned. If nothing
+     * needs to be removed or truncated, {@code rawNumber} itself is returned.
      *
      * @param rawNumber the original value to sanitize; may be {@code null}
      * @param maxLength the maximum allowed length, or a non-positive value to disable truncation
      * @return the sanitized numeric string; never {@code null}
      */
     public static String digits(String rawNumber, int maxLength) {
+        return sanitize(rawNumber, maxLength, DIGIT);
+    }
+
+    /**
+     * Keeps the characters of the given class, then the rightmost {@code maxLength}.<br>
+     * A first pass counts kept characters so clean values are returned as is and
+     * dirty ones are copied once into an exactly sized array.
+     */
+    private static String sanitize(String rawNumber, int maxLength, byte mask) {
         if (rawNumber == null) {
             return "";
         }
 
-        var builder = new StringBuilder(rawNumber.length());
+        int length = rawNumber.length();
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            if (keeps(rawNumber.charAt(i), mask)) kept++;
+        }
+
+        boolean truncate = maxLength > 0 && kept > maxLength;
+        if (kept == length && !truncate) {
+            return rawNumber;
+        }
+        if (kept == 0) {
+            return "";
+        }
 
-        for (int i = 0; i < rawNumber.length(); i++) {
+        int skip = truncate ? kept - maxLength : 0;
+        var chars = new char[kept - skip];
+        for (int i = 0, n = 0; n < chars.length; i++) {
             char c = rawNumber.charAt(i);
-            if (Character.isDigit(c)) {
-                builder.append(c);
+            if (keeps(c, mask)) {
+                if (skip > 0) skip--;
+                else chars[n++] = c;
             }
         }
+        return new String(chars);
+    }
+
+    /**
+     * Buffer form of {@link #digits(String, int)} and {@link #alnum(String, int)}:
+     * writes the kept characters of {@code src[0, length)}, truncated to the
+     * rightmost {@code maxLength}, at the start of {@code dst}.
+     *
+     * @param src       raw characters
+     * @param length    number of raw characters
+     * @param dst       destination, at least {@code min(length, maxLength)} long
+     * @param maxLength the maximum allowed length, or a non-positive value to disable truncation
+     * @param digits    {@code true} to keep digits only, {@code false} to keep letters and digits
+     * @return number of characters written to {@code dst}
+     */
+    static int sanitize(char[] src, int length, char[] dst, int maxLength, boolean digits) {
+        byte mask = digits ? DIGIT : ALNUM;
+        int kept = 0;
+        for (int i = length - 1; i >= 0 && (maxLength <= 0 || kept < maxLength); i--) {
+            if (keeps(src[i], mask)) kept++;
+        }
+        for (int i = length - 1, n = kept; n > 0; i--) {
+            char c = src[i];
+            if (keeps(c, mask)) dst[--n] = c;
+        }
+        return kept;
+    }
+
+    /**
+     * Whether {@link #digits(String, int)} or {@link #alnum(String, int)} keeps {@code c}.
+     *
+     * @param c      character to test
+     * @param digits {@code true} for digits only, {@code false} for letters and digits
+     * @return {@code true} if the character survives sanitization
+     */
+    static boolean keeps(char c, boolean digits) {
+        return keeps(c, digits ? DIGIT : ALNUM);
+    }
 
-        int length = builder.length();
-        return maxLength > 0 && length > maxLength
-                ? builder.substring(length - maxLength)
-                : builder.toString();
+    private static boolean keeps(char c, byte mask) {
+        if (c < 256) return (LATIN1[c] & mask) != 0;
+        return mask == DIGIT ? Character.isDigit(c) : Character.isLetterOrDigit(c);
     }
 }
-
@@ -0,0 +1,227 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * SWAR (SIMD within a register) kernels for fixed-width DNI and RUC fields
+ * encoded as ASCII bytes.<br>
+ * <br>
+ * A DNI is exactly 8 ASCII digits, i.e. one {@code long}. A RUC is read as two
+ * overlapping {@code long}s (bytes 0–7 and 3–10). Each word is checked for
+ * "all digits" with a few bitwise operations, converted to its numeric value
+ * with three multiply-shift steps instead of eight multiply-adds, and the RUC
+ * weighted sum of the first 8 digits is a single multiplication per 4 digits.<br>
+ * <br>
+ * Words are loaded little-endian with {@link VarHandle} views, so the kernels
+ * are portable Java 11 with no intrinsics and read {@code byte[]}, heap and
+ * direct {@link ByteBuffer}s at any offset. Results are packed keys compatible
+ * with {@link DoiKeys}. Unlike {@link DoiType#sanitize(String)}, nothing is
+ * sanitized: fields must hold exactly the digits.<br>
+ * <br>
+ * This class is a pure utility holder and is not intended to be instantiated or extended.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class SwarDigits {
+
+    /**
+     * Width in bytes of a DNI field.
+     */
+    public static final int DNI_WIDTH = 8;
+    /**
+     * Width in bytes of a RUC field.
+     */
+    public static final int RUC_WIDTH = 11;
+
+    private static final VarHandle ARRAY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long LOW_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+    private static final long ALL_THREES = 0x3333333333333333L;
+    private static final long ADD_SIX = 0x0606060606060606L;
+    private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+
+    /**
+     * RUC weights of digits 0, 2, 4 and 6 (5, 3, 7, 5), reversed in 16-bit lanes.
+     */
+    private static final long EVEN_WEIGHTS = 5L << 48 | 3L << 32 | 7L << 16 | 5L;
+    /**
+     * RUC weights of digits 1, 3, 5 and 7 (4, 2, 6, 4), reversed in 16-bit lanes.
+     */
+    private static final long ODD_WEIGHTS = 4L << 48 | 2L << 32 | 6L << 16 | 4L;
+    /**
+     * Bytes 3–7 of the second RUC word replaced by {@code '0'}, keeping digits 8–10.
+     */
+    private static final long TAIL_MASK = 0xFFFFFF0000000000L;
+    private static final long TAIL_ZEROS = 0x0000003030303030L;
+
+    /**
+     * Private constructor to prevent instantiation.<br>
+     * This class only exposes static utility methods.
+     */
+    private SwarDigits() {
+        // utility class
+    }
+
+    /**
+     * Packs the 8-digit DNI at {@code offset}.
+     *
+     * @param bytes  source bytes
+     * @param offset start of the field
+     * @return the numeric value, or {@link DoiKeys#NO_KEY} if any byte is not an ASCII digit
+     * @throws IndexOutOfBoundsException if fewer than 8 bytes are available
+     */
+    public static long parseDni(byte[] bytes, int offset) {
+        Objects.checkFromIndexSize(offset, DNI_WIDTH, bytes.length);
+        long word = (long) ARRAY.get(bytes, offset);
+        return isEightDigits(word) ? eightDigits(word) : DoiKeys.NO_KEY;
+    }
+
+    /**
+     * Packs the 8-digit DNI at absolute {@code index}; the buffer position is not changed.
+     *
+     * @param buffer source buffer, heap or direct
+     * @param index  start of the field
+     * @return the numeric value, or {@link DoiKeys#NO_KEY} if any byte is not an ASCII digit
+     * @throws IndexOutOfBoundsException if fewer than 8 bytes are available
+     */
+    public static long parseDni(ByteBuffer buffer, int index) {
+        Objects.checkFromIndexSize(index, DNI_WIDTH, buffer.limit());
+        long word = (long) BUFFER.get(buffer, index);
+        return isEightDigits(word) ? eightDigits(word) : DoiKeys.NO_KEY;
+    }
+
+    /**
+     * Packs the 11-digit RUC at {@code offset}. Only the digits are checked; see
+     * {@link #isRUCValid(byte[], int)} for prefix and check digit.
+     *
+     * @param bytes  source bytes
+     * @param offset start of the field
+     * @return the numeric value, or {@link DoiKeys#NO_KEY} if any byte is not an ASCII digit
+     * @throws IndexOutOfBoundsException if fewer than 11 bytes are available
+     */
+    public static long parseRuc(byte[] bytes, int offset) {
+        Objects.checkFromIndexSize(offset, RUC_WIDTH, bytes.length);
+        return ruc((long) ARRAY.get(bytes, offset), (long) ARRAY.get(bytes, offset + 3));
+    }
+
+    /**
+     * Packs the 11-digit RUC at absolute {@code index}; the buffer position is not changed.
+     *
+     * @param buffer source buffer, heap or direct
+     * @param index  start of the field
+     * @return the numeric value, or {@link DoiKeys#NO_KEY} if any byte is not an ASCII digit
+     * @throws IndexOutOfBoundsException if fewer than 11 bytes are available
+     */
+    public static long parseRuc(ByteBuffer buffer, int index) {
+        Objects.checkFromIndexSize(index, RUC_WIDTH, buffer.limit());
+        return ruc((long) BUFFER.get(buffer, index), (long) BUFFER.get(buffer, index + 3));
+    }
+
+    /**
+     * Validates the 11-digit RUC at {@code offset}: digits, prefix and check digit,
+     * as {@link RUCUtils#isRUCValid(String)} does for ASCII input.
+     *
+     * @param bytes  source bytes
+     * @param offset start of the field
+     * @return {@code true} if the field holds a valid RUC
+     * @throws IndexOutOfBoundsException if fewer than 11 bytes are available
+     */
+    public static boolean isRUCValid(byte[] bytes, int offset) {
+        Objects.checkFromIndexSize(offset, RUC_WIDTH, bytes.length);
+        return isRUCValid((long) ARRAY.get(bytes, offset), (long) ARRAY.get(bytes, offset + 3));
+    }
+
+    /**
+     * Validates the 11-digit RUC at absolute {@code index}; the buffer position is not changed.
+     *
+     * @param buffer source buffer, heap or direct
+     * @param index  start of the field
+     * @return {@code true} if the field holds a valid RUC
+     * @throws IndexOutOfBoundsException if fewer than 11 bytes are available
+     */
+    public static boolean isRUCValid(ByteBuffer buffer, int index) {
+        Objects.checkFromIndexSize(index, RUC_WIDTH, buffer.limit());
+        return isRUCValid((long) BUFFER.get(buffer, index), (long) BUFFER.get(buffer, index + 3));
+    }
+
+    /**
+     * Whether all 8 bytes of a little-endian word are ASCII digits: every high
+     * nibble is 3, also after adding 6 (which carries out of bytes above {@code '9'}).
+     *
+     * @param word 8 bytes, first byte in the lowest bits
+     * @return {@code true} if all bytes are {@code '0'}–{@code '9'}
+     */
+    static boolean isEightDigits(long word) {
+        return ((word & HIGH_NIBBLES) | (((word + ADD_SIX) & HIGH_NIBBLES) >>> 4)) == ALL_THREES;
+    }
+
+    /**
+     * Converts 8 ASCII digits to their value by merging adjacent lanes:
+     * pairs (x10), quads (x100) and halves (x10000).
+     *
+     * @param word 8 ASCII digits, first digit in the lowest byte
+     * @return the value, from 0 to 99,999,999
+     */
+    static long eightDigits(long word) {
+        long value = word & LOW_NIBBLES;
+        value = (value * (10 << 8) + value) >>> 8 & EVEN_BYTES;
+        value = (value * (100 << 16) + value) >>> 16 & 0x0000FFFF0000FFFFL;
+        return (value * (10000L << 32) + value) >>> 32;
+    }
+
+    /**
+     * Weighted RUC sum of the 8 digits of a word (weights 5, 4, 3, 2, 7, 6, 5, 4).
+     * Digits are split into even and odd 16-bit lanes so that one multiplication
+     * per half accumulates the dot product in the top lane without carries.
+     *
+     * @param word 8 ASCII digits, first digit in the lowest byte
+     * @return the weighted sum
+     */
+    static int weightedSum(long word) {
+        long digits = word & LOW_NIBBLES;
+        long even = digits & EVEN_BYTES;
+        long odd = digits >>> 8 & EVEN_BYTES;
+        return (int) ((even * EVEN_WEIGHTS >>> 48) + (odd * ODD_WEIGHTS >>> 48));
+    }
+
+    private static long ruc(long head, long tail) {
+        if (!isEightDigits(head) || !isEightDigits(tail)) return DoiKeys.NO_KEY;
+        return eightDigits(head) * 1000 + eightDigits(tail & TAIL_MASK | TAIL_ZEROS);
+    }
+
+    private static boolean isRUCValid(long head, long tail) {
+        if (!isEightDigits(head) || !isEightDigits(tail)) return false;
+        int prefix = (int) (head & 0x0F) * 10 + (int) (head >>> 8 & 0x0F);
+        if (!RUCUtils.isValidPrefix(prefix)) return false;
+        // digits 8, 9 and 10 are bytes 5, 6 and 7 of the tail word
+        int sum = weightedSum(head) + (int) (tail >>> 40 & 0x0F) * 3 + (int) (tail >>> 48 & 0x0F) * 2;
+        return RUCUtils.checkDigitOf(sum) == (char) (tail >>> 56);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+/**
+ * Utility class producing correction candidates for one-keystroke typos in
+ * RUC and DNI numbers.<br>
+ * <br>
+ * Two kinds of typos are covered:<br>
+ * - A single wrong digit (substitution).<br>
+ * - Two adjacent digits swapped (transposition).<br>
+ * <br>
+ * Candidates are generated on packed numeric values (see {@link DoiKeys}):
+ * each variant is obtained by adding a multiple of a power of ten, and for RUC
+ * the modulo-11 weighted sum is updated by the difference of the changed
+ * positions instead of being recomputed. No strings are built except by the
+ * convenience {@code suggest*} methods.<br>
+ * <br>
+ * RUC candidates must pass {@link RUCUtils#isRUCValid(String)}. A DNI has no
+ * check digit, so every variant is structurally valid; DNI candidates are
+ * therefore always filtered by a caller-supplied membership predicate.<br>
+ * <br>
+ * This class is a pure utility holder and is not intended to be instantiated or extended.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class TypoCorrector {
+
+    /**
+     * Upper bound of the number of candidates for a single RUC or DNI:
+     * 10 x 9 substitutions of the first 10 RUC digits, one check-digit
+     * substitution and 10 transpositions.
+     */
+    public static final int MAX_CANDIDATES = 101;
+
+    private static final int RUC_WIDTH = 11;
+    private static final int DNI_WIDTH = 8;
+
+    /**
+     * Private constructor to prevent instantiation.<br>
+     * This class only exposes static utility methods.
+     */
+    private TypoCorrector() {
+        // utility class
+    }
+
+    /**
+     * Writes every single-substitution and adjacent-transposition variant of
+     * {@code ruc} that is a valid RUC into {@code out}.<br>
+     * <br>
+     * The input itself is never reported. Candidates are written by position:
+     * substitutions first, then transpositions. This method does not allocate.
+     *
+     * @param ruc   packed 11-digit RUC, from 0 to 99999999999
+     * @param known optional membership filter (e.g. a known-RUC set); {@code null} accepts all
+     * @param out   destination of at least {@link #MAX_CANDIDATES} elements
+     * @return number of candidates written
+     * @throws IllegalArgumentException if {@code ruc} is out of range or {@code out} is too small
+     */
+    public static int rucCandidates(long ruc, LongPredicate known, long[] out) {
+        checkArguments(ruc, RUC_WIDTH, out);
+
+        int sum = 0;
+        for (int p = 0; p < 10; p++) {
+            sum += DoiKeys.digitAt(ruc, RUC_WIDTH, p) * RUCUtils.weightAt(p);
+        }
+        int d0 = DoiKeys.digitAt(ruc, RUC_WIDTH, 0);
+        int d1 = DoiKeys.digitAt(ruc, RUC_WIDTH, 1);
+        int check = DoiKeys.digitAt(ruc, RUC_WIDTH, 10);
+        int count = 0;
+
+        // Substitutions of the 10 weighted digits.
+        for (int p = 0; p < 10; p++) {
+            int current = DoiKeys.digitAt(ruc, RUC_WIDTH, p);
+            long scale = DoiKeys.POW10[RUC_WIDTH - 1 - p];
+            int weight = RUCUtils.weightAt(p);
+            for (int d = 0; d < 10; d++) {
+                if (d == current) continue;
+                int prefix = p == 0 ? d * 10 + d1 : p == 1 ? d0 * 10 + d : d0 * 10 + d1;
+                if (!RUCUtils.isValidPrefix(prefix)) continue;
+                if (RUCUtils.checkDigitOf(sum + (d - current) * weight) - '0' != check) continue;
+                count = emit(ruc + (d - current) * scale, known, out, count);
+            }
+        }
+
+        // Substitution of the check digit itself.
+        int expected = RUCUtils.checkDigitOf(sum) - '0';
+        if (expected != check && RUCUtils.isValidPrefix(d0 * 10 + d1)) {
+            count = emit(ruc + expected - check, known, out, count);
+        }
+
+        // Transpositions of two adjacent weighted digits.
+        for (int p = 0; p < 9; p++) {
+            int a = DoiKeys.digitAt(ruc, RUC_WIDTH, p);
+            int b = DoiKeys.digitAt(ruc, RUC_WIDTH, p + 1);
+            if (a == b) continue;
+            int prefix = p == 0 ? b * 10 + a : p == 1 ? d0 * 10 + b : d0 * 10 + d1;
+            if (!RUCUtils.isValidPrefix(prefix)) continue;
+            int swapped = sum + (b - a) * RUCUtils.weightAt(p) + (a - b) * RUCUtils.weightAt(p + 1);
+            if (RUCUtils.checkDigitOf(swapped) - '0' != check) continue;
+            long scale = DoiKeys.POW10[RUC_WIDTH - 2 - p];
+            count = emit(ruc + (b - a) * scale * 10 + (a - b) * scale, known, out, count);
+        }
+
+        // Transposition of the last weighted digit with the check digit.
+        int last = DoiKeys.digitAt(ruc, RUC_WIDTH, 9);
+        if (last != check && RUCUtils.isValidPrefix(d0 * 10 + d1)
+                && RUCUtils.checkDigitOf(sum + (check - last) * RUCUtils.weightAt(9)) - '0' == last) {
+            count = emit(ruc + (check - last) * 10L + (last - check), known, out, count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns every single-substitution and adjacent-transposition variant of
+     * {@code ruc} that is a valid RUC.
+     *
+     * @param ruc   packed 11-digit RUC, from 0 to 99999999999
+     * @param known optional membership filter; {@code null} accepts all
+     * @return packed candidates; never {@code null}
+     * @throws IllegalArgumentException if {@code ruc} is out of range
+     */
+    public static long[] rucCandidates(long ruc, LongPredicate known) {
+        var out = new long[MAX_CANDIDATES];
+        return Arrays.copyOf(out, rucCandidates(ruc, known, out));
+    }
+
+    /**
+     * Writes every single-substitution and adjacent-transposition variant of
+     * {@code dni} accepted by {@code known} into {@code out}.<br>
+     * <br>
+     * Since any 8-digit value is a structurally valid DNI, the membership
+     * predicate is mandatory. This method does not allocate.
+     *
+     * @param dni   packed 8-digit DNI, from 0 to 99999999
+     * @param known membership filter (e.g. a set of issued DNIs); must not be null
+     * @param out   destination of at least {@link #MAX_CANDIDATES} elements
+     * @return number of candidates written
+     * @throws NullPointerException     if {@code known} is null
+     * @throws IllegalArgumentException if {@code dni} is out of range or {@code out} is too small
+     */
+    public static int dniCandidates(long dni, LongPredicate known, long[] out) {
+        Objects.requireNonNull(known, "A membership predicate is required to correct DNI typos.");
+        checkArguments(dni, DNI_WIDTH, out);
+
+        int count = 0;
+        for (int p = 0; p < DNI_WIDTH; p++) {
+            int current = DoiKeys.digitAt(dni, DNI_WIDTH, p);
+            long scale = DoiKeys.POW10[DNI_WIDTH - 1 - p];
+            for (int d = 0; d < 10; d++) {
+                if (d != current) count = emit(dni + (d - current) * scale, known, out, count);
+            }
+        }
+        for (int p = 0; p < DNI_WIDTH - 1; p++) {
+            int a = DoiKeys.digitAt(dni, DNI_WIDTH, p);
+            int b = DoiKeys.digitAt(dni, DNI_WIDTH, p + 1);
+            if (a == b) continue;
+            long scale = DoiKeys.POW10[DNI_WIDTH - 2 - p];
+            count = emit(dni + (b - a) * scale * 10 + (a - b) * scale, known, out, count);
+        }
+        return count;
+    }
+
+    /**
+     * Suggests valid RUC numbers one keystroke away from a rejected value.<br>
+     * <br>
+     * If {@code strict} is {@code false}, the value is sanitized through
+     * {@link DoiType#RUC} first. Values that do not consist of exactly 11
+     * digits yield no suggestions.
+     *
+     * @param raw    the rejected RUC
+     * @param strict whether sanitization should be disabled
+     * @param known  optional membership filter; {@code null} accepts all
+     * @return 11-digit suggestions; never {@code null}
+     */
+    public static List<String> suggestRUC(String raw, boolean strict, LongPredicate known) {
+        return suggest(raw == null || strict ? raw : DoiType.RUC.sanitize(raw), RUC_WIDTH, known, true);
+    }
+
+    /**
+     * Suggests known DNI numbers one keystroke away from a rejected or unknown value.<br>
+     * <br>
+     * If {@code strict} is {@code false}, the value is sanitized through
+     * {@link DoiType#DNI} first. Values that do not consist of exactly 8
+     * digits yield no suggestions.
+     *
+     * @param raw    the rejected DNI
+     * @param strict whether sanitization should be disabled
+     * @param known  membership filter; must not be null
+     * @return 8-digit suggestions; never {@code null}
+     * @throws NullPointerException if {@code known} is null
+     */
+    public static List<String> suggestDNI(String raw, boolean strict, LongPredicate known) {
+        Objects.requireNonNull(known, "A membership predicate is required to correct DNI typos.");
+        return suggest(raw == null || strict ? raw : DoiType.DNI.sanitize(raw), DNI_WIDTH, known, false);
+    }
+
+    private static List<String> suggest(String value, int width, LongPredicate known, boolean ruc) {
+        if (value == null || value.length() != width) return List.of();
+        long key = DoiKeys.parseDigits(value);
+        if (key == DoiKeys.NO_KEY) return List.of();
+
+        var out = new long[MAX_CANDIDATES];
+        int count = ruc ? rucCandidates(key, known, out) : dniCandidates(key, known, out);
+        var result = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(DoiKeys.format(out[i], width));
+        }
+        return result;
+    }
+
+    private static int emit(long candidate, LongPredicate known, long[] out, int count) {
+        if (known != null && !known.test(candidate)) return count;
+        out[count] = candidate;
+        return count + 1;
+    }
+
+    private static void checkArguments(long value, int width, long[] out) {
+        if (value < 0 || value >= DoiKeys.POW10[width]) {
+            throw new IllegalArgumentException(
+                    String.format("Packed value %d is not a %d-digit number.", value, width));
+        }
+        if (out == null || out.length < MAX_CANDIDATES) {
+            throw new IllegalArgumentException(
+                    String.format("Candidate buffer must hold at least %d elements.", MAX_CANDIDATES));
+        }
+    }
+}
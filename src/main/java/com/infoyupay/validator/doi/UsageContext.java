@@ -106,5 +106,78 @@ public enum UsageContext {
                 .filter(dt -> dt.isSuitableFor(this))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Decodes a DOI type code expressed in this context's own code space
+     * (e.g. PLE {@code "6"} or PLAME {@code "06"} for RUC).<br>
+     * <br>
+     * Codes follow the catalog currently published (see {@link DoiCatalog#current()}).
+     * Codes of one or two digits, which cover every official code, are resolved
+     * through a direct-indexed table without hashing or allocation. When several
+     * DOI types share a code in this context (e.g. PLE {@code "0"}, or FV-3800
+     * {@code "01"} for DNI and TIN), the first declared {@link DoiType} wins; use
+     * {@link #decodeAll(CharSequence)} to validate records carrying such codes.
+     * Catalog rules for types unknown to this library version are not returned.
+     *
+     * @param code the context code; may be {@code null}
+     * @return the matching DOI type, or {@code null} if the code is unknown in this context
+     */
+    public DoiType decode(CharSequence code) {
+        DoiType[] candidates = candidates(code);
+        return candidates.length == 0 ? null : candidates[0];
+    }
+
+    /**
+     * Decodes a DOI type code expressed in this context's own code space into every
+     * DOI type that uses it, in declaration order.<br>
+     * <br>
+     * Most codes name a single type, but PLE {@code "0"} covers OTHERS, TIN and several
+     * foreign documents, and FV-3800 {@code "01"} covers both DNI and TIN. A record
+     * carrying a shared code cannot tell which of those types it holds, so its number
+     * is valid if it passes any of them.
+     *
+     * @param code the context code; may be {@code null}
+     * @return an unmodifiable list of the matching DOI types, empty if the code is unknown
+     * in this context
+     */
+    public List<DoiType> decodeAll(CharSequence code) {
+        return List.of(candidates(code));
+    }
+
+    /**
+     * Like {@link #decodeAll(CharSequence)}, but returns the shared table entry for
+     * one and two-digit codes so callers on hot paths do not allocate. The array
+     * must not be modified.
+     */
+    DoiType[] candidates(CharSequence code) {
+        return DoiCatalog.current().types(this, code);
+    }
+
+    /**
+     * Slot layout of the direct-indexed decoding tables for one and two-digit
+     * context codes, built per catalog by {@link DoiCatalog} and {@link CodeTranslator}.
+     */
+    static final class CodeTable {
+        /**
+         * Number of slots: 10 one-digit codes followed by 100 two-digit codes.
+         */
+        static final int SIZE = 110;
+
+        /**
+         * Maps {@code "0"}–{@code "9"} to 0–9 and {@code "00"}–{@code "99"} to 10–109.
+         *
+         * @return the table slot, or -1 for any other code
+         */
+        static int key(CharSequence code) {
+            int length = code.length();
+            if (length == 0 || length > 2) return -1;
+            int first = code.charAt(0) - '0';
+            if (first < 0 || first > 9) return -1;
+            if (length == 1) return first;
+            int second = code.charAt(1) - '0';
+            if (second < 0 || second > 9) return -1;
+            return 10 + first * 10 + second;
+        }
+    }
 }
 
@@ -0,0 +1,219 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation-budget regression tests for the hot-path methods.<br>
+ * <br>
+ * Each probe is warmed up and then measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} over
+ * {@value #CALLS} calls; the bytes per call must stay within the declared budget.
+ * The budget is zero for validating clean input, so reintroducing a regex
+ * match, a stream or a substring on those paths fails the {@code test} task.<br>
+ * <br>
+ * Tests are skipped when the JVM does not support thread allocation accounting.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class AllocationBudgetTest {
+
+    private static final int WARM_UP = 50_000;
+    private static final int CALLS = 20_000;
+    /**
+     * Bytes tolerated per measurement for the probe itself, not per call.
+     */
+    private static final long SLACK = 1024;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static int sink;
+
+    /**
+     * Operation under measurement; the result is consumed to keep the call alive.
+     */
+    @FunctionalInterface
+    interface Probe {
+        int run();
+    }
+
+    @BeforeAll
+    static void enableAccounting() {
+        var bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "no allocation accounting");
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "no allocation accounting");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    static Stream<Arguments> budgets() {
+        var validator = new IncrementalValidator(DoiType.RUC, true);
+        var candidates = new long[TypoCorrector.MAX_CANDIDATES];
+        var keySet = new DoiKeySet(1024, true, true);
+        var keyMap = new DoiKeyMap(1024);
+        var sorted = new long[1024];
+        for (long key = 0; key < 1024; key++) {
+            keySet.add(20_000_000_000L + key);
+            keyMap.put(key, key);
+            sorted[(int) key] = 20_000_000_000L + 7 * key;
+        }
+        var eliasFano = DoiEliasFanoSet.of(sorted);
+        var ndjson = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.PLE, DoiCatalog.builtIn(), false);
+        var ndjsonLines = ByteBuffer.wrap(("{\"tipoDoc\":\"6\",\"numDoc\":\"20-60785424-7\"}\n"
+                + "{\"tipoDoc\":\"1\",\"numDoc\":45678901,\"meta\":{\"a\":[1]}}\n").getBytes(StandardCharsets.UTF_8));
+        var ndjsonSummary = new NdjsonDoiScanner.Summary();
+        var fieldEncoder = new DoiFieldEncoder(UsageContext.PLE, '|', false);
+        var fieldChars = new StringBuilder(64);
+        var fieldBytes = ByteBuffer.allocateDirect(64);
+        var dniRegistry = new DniRegistry();
+        dniRegistry.add(45_678_901);
+        var shapeSketch = new DoiShapeSketch(4);
+        shapeSketch.add(DoiType.RUC, "20-123.456.789-1", DoiFailure.INVALID_CHARACTER);
+        return Stream.of(
+                Arguments.of("DNI.validateNumber(clean, strict)", 0,
+                        (Probe) () -> b(DoiType.DNI.validateNumber("45678901", true))),
+                Arguments.of("RUC.validateNumber(clean, strict)", 0,
+                        (Probe) () -> b(DoiType.RUC.validateNumber("20607854247", true))),
+                Arguments.of("PASSPORT.validateNumber(clean, strict)", 0,
+                        (Probe) () -> b(DoiType.PASSPORT.validateNumber("AB1234567", true))),
+                Arguments.of("DNI.validateNumber(clean, lenient)", 0,
+                        (Probe) () -> b(DoiType.DNI.validateNumber("45678901", false))),
+                Arguments.of("RUC.validateNumber(clean, lenient)", 0,
+                        (Probe) () -> b(DoiType.RUC.validateNumber("20607854247", false))),
+                Arguments.of("DNI.validateNumber(invalid, strict)", 0,
+                        (Probe) () -> b(DoiType.DNI.validateNumber("4567890X", true))),
+                Arguments.of("DNI.sanitize(clean)", 0,
+                        (Probe) () -> DoiType.DNI.sanitize("45678901").length()),
+                Arguments.of("RUC.sanitize(formatted)", 128,
+                        (Probe) () -> DoiType.RUC.sanitize("20-60785424-7").length()),
+                Arguments.of("RUCUtils.isRUCValid(clean)", 0,
+                        (Probe) () -> b(RUCUtils.isRUCValid("20607854247"))),
+                Arguments.of("RUCUtils.isRUCValid(clean, lenient)", 0,
+                        (Probe) () -> b(RUCUtils.isRUCValid("20607854247", false))),
+                Arguments.of("RUCUtils.computeCheckDigit(clean)", 0,
+                        (Probe) () -> RUCUtils.computeCheckDigit("2060785424")),
+                Arguments.of("DoiFailure.of(clean, strict)", 0,
+                        (Probe) () -> DoiFailure.of(DoiType.RUC, "20607854247", true) == null ? 1 : 0),
+                Arguments.of("IncrementalValidator.append/backspace", 0,
+                        (Probe) () -> {
+                            validator.append('7');
+                            int status = validator.status().ordinal();
+                            validator.backspace();
+                            return status;
+                        }),
+                Arguments.of("TypoCorrector.rucCandidates(long, out)", 0,
+                        (Probe) () -> TypoCorrector.rucCandidates(20607854241L, null, candidates)),
+                Arguments.of("DoiKeySet.contains(off-heap, concurrent)", 0,
+                        (Probe) () -> b(keySet.contains(20_000_000_512L))),
+                Arguments.of("DoiCatalog.current().validateNumber(RUC, clean, strict)", 0,
+                        (Probe) () -> b(DoiCatalog.current().validateNumber(DoiType.RUC, "20607854247", true))),
+                Arguments.of("CodeTranslator.translate(code)", 0,
+                        (Probe) () -> CodeTranslator.of(UsageContext.PLE, UsageContext.PLAME).translate("6").length()),
+                Arguments.of("DoiKeyMap.get/addTo(existing key)", 0,
+                        (Probe) () -> (int) (keyMap.get(512L, 0) + keyMap.addTo(7L, 1))),
+                Arguments.of("DoiEliasFanoSet.contains/rank/select", 0,
+                        (Probe) () -> b(eliasFano.contains(20_000_003_584L))
+                                + eliasFano.rank(20_000_003_585L) + (int) eliasFano.select(512)),
+                Arguments.of("NdjsonDoiScanner.scan(buffer, 2 ASCII lines)", 96,
+                        (Probe) () -> ndjson.scan(ndjsonLines.rewind(), true, ndjsonSummary, null)),
+                Arguments.of("DoiFieldEncoder.encode(formatted, StringBuilder)", 0,
+                        (Probe) () -> {
+                            fieldChars.setLength(0);
+                            return fieldEncoder.encode(DoiType.RUC, "20-60785424-7", fieldChars).ordinal();
+                        }),
+                Arguments.of("DoiFieldEncoder.encode(clean, ByteBuffer)", 0,
+                        (Probe) () -> fieldEncoder.encode(DoiType.DNI, "45678901", fieldBytes.clear()).ordinal()),
+                Arguments.of("DniRegistry.contains/rank", 0,
+                        (Probe) () -> b(dniRegistry.contains(45_678_901)) + dniRegistry.rank(45_678_902)),
+                Arguments.of("DoiShapeSketch.add(tracked shape)", 0,
+                        (Probe) () -> {
+                            shapeSketch.add(DoiType.RUC, "20-987.654.321-0", DoiFailure.INVALID_CHARACTER);
+                            return 0;
+                        })
+        );
+    }
+
+    /**
+     * Every hot-path probe stays within its per-call allocation budget.
+     *
+     * @param name   probe description
+     * @param budget maximum bytes allocated per call
+     * @param probe  operation under measurement
+     */
+    @ParameterizedTest(name = "{0}: <= {1} bytes/call")
+    @MethodSource("budgets")
+    @DisplayName("Hot paths: allocated bytes per call within budget")
+    void testAllocationBudget(String name, int budget, Probe probe) {
+        for (int i = 0; i < WARM_UP; i++) sink += probe.run();
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < CALLS; i++) sink += probe.run();
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(allocated)
+                .as("%s allocated %.1f bytes/call", name, allocated / (double) CALLS)
+                .isLessThanOrEqualTo(budget * (long) CALLS + SLACK);
+    }
+
+    /**
+     * The allocation-free structural check must agree with the type's regex.
+     */
+    @Test
+    @DisplayName("validateNumber(): identical to matching the type's regex")
+    void testMatchesRegex() {
+        var random = new Random(32);
+        var alphabet = "0123456789AZaz-. \u00f1\u0661";
+        for (DoiType type : DoiType.values()) {
+            if (type == DoiType.RUC) continue;
+            for (int n = 0; n < 20_000; n++) {
+                var sb = new StringBuilder();
+                int length = random.nextInt(18);
+                for (int i = 0; i < length; i++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                var value = sb.toString();
+                assertThat(type.validateNumber(value, true))
+                        .as("%s %s", type, value)
+                        .isEqualTo(!value.isBlank() && value.matches(type.getRegex()));
+            }
+        }
+    }
+
+    private static int b(boolean value) {
+        return value ? 1 : 0;
+    }
+}
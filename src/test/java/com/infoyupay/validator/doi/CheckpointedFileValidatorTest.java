@@ -0,0 +1,184 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CheckpointedFileValidator}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class CheckpointedFileValidatorTest {
+
+    private static final ReportFileValidator PLE = new ReportFileValidator(UsageContext.PLE, '|', 2, 3, true);
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Appended batches are validated alone, and the cumulative counters and
+     * absolute error lines equal a full pass over the final file.
+     *
+     * @throws IOException if the files cannot be written or read
+     */
+    @Test
+    @DisplayName("validate(): appended bytes only, same result as a full pass")
+    void testIncremental() throws IOException {
+        Path file = tempDir.resolve("export.txt");
+        Path checkpoint = tempDir.resolve("export.txt.checkpoint");
+        var validator = new CheckpointedFileValidator(PLE);
+        var errors = new ArrayList<String>();
+        ReportFileValidator.Listener listener = (line, column, reason, value) -> errors.add(line + ":" + reason);
+
+        append(file, batch(0, 500));
+        var first = validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, listener);
+        assertThat(first.getScan()).isEqualTo(CheckpointedFileValidator.Scan.FULL);
+        assertThat(first.getEndOffset()).isEqualTo(Files.size(file));
+
+        for (int day = 1; day <= 3; day++) {
+            long before = Files.size(file);
+            append(file, batch(day * 500, 500));
+            var result = validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, listener);
+            assertThat(result.getScan()).isEqualTo(CheckpointedFileValidator.Scan.INCREMENTAL);
+            assertThat(result.getStartOffset()).isEqualTo(before);
+            assertThat(result.getBytesScanned()).isEqualTo(Files.size(file) - before);
+        }
+        var unchanged = validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, listener);
+        assertThat(unchanged.getBytesScanned()).isZero();
+
+        var fullErrors = new ArrayList<String>();
+        var full = PLE.validate(file, StandardCharsets.ISO_8859_1,
+                (line, column, reason, value) -> fullErrors.add(line + ":" + reason));
+        assertThat(unchanged.getSummary().toString()).isEqualTo(full.toString());
+        assertThat(errors).isEqualTo(fullErrors);
+    }
+
+    /**
+     * A trailing line without newline waits for the next call.
+     *
+     * @throws IOException if the files cannot be written or read
+     */
+    @Test
+    @DisplayName("validate(): an unterminated last line is deferred")
+    void testPartialLine() throws IOException {
+        Path file = tempDir.resolve("export.txt");
+        Path checkpoint = tempDir.resolve("export.checkpoint");
+        var validator = new CheckpointedFileValidator(PLE);
+
+        append(file, "20251100|M001|6|20607854247|1.00\n20251100|M002|1|456");
+        var result = validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null);
+        assertThat(result.getSummary().getRecords()).isEqualTo(1);
+
+        append(file, "78901|2.00\n");
+        result = validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null);
+        assertThat(result.getScan()).isEqualTo(CheckpointedFileValidator.Scan.INCREMENTAL);
+        assertThat(result.getSummary().getRecords()).isEqualTo(2);
+        assertThat(result.getSummary().getValid()).isEqualTo(2);
+    }
+
+    /**
+     * Truncation, rewrites, another configuration and a damaged checkpoint force a full scan.
+     *
+     * @throws IOException if the files cannot be written or read
+     */
+    @Test
+    @DisplayName("validate(): truncation, rewrite, new layout or bad checkpoint fall back to full scan")
+    void testFallback() throws IOException {
+        Path file = tempDir.resolve("export.txt");
+        Path checkpoint = tempDir.resolve("export.checkpoint");
+        var validator = new CheckpointedFileValidator(PLE);
+        String content = batch(0, 200);
+        append(file, content);
+        validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null);
+
+        Files.writeString(file, content.substring(0, content.indexOf('\n') + 1), StandardCharsets.ISO_8859_1);
+        assertFull(validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null), 1);
+
+        Files.writeString(file, content, StandardCharsets.ISO_8859_1);
+        validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null);
+        Files.writeString(file, content.replace("|M199|", "|X199|") + batch(200, 10), StandardCharsets.ISO_8859_1);
+        assertFull(validator.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null), 210);
+
+        var lenient = new CheckpointedFileValidator(new ReportFileValidator(UsageContext.PLE, '|', 2, 3, false));
+        assertFull(lenient.validate(file, checkpoint, StandardCharsets.ISO_8859_1, null), 210);
+        assertFull(lenient.validate(file, checkpoint, StandardCharsets.UTF_8, null), 210);
+
+        Files.writeString(checkpoint, "version=1\noffset=oops\n");
+        assertFull(lenient.validate(file, checkpoint, StandardCharsets.UTF_8, null), 210);
+        assertThat(lenient.validate(file, checkpoint, StandardCharsets.UTF_8, null).getScan())
+                .isEqualTo(CheckpointedFileValidator.Scan.INCREMENTAL);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    private static void assertFull(CheckpointedFileValidator.Result result, long records) {
+        assertThat(result.getScan()).isEqualTo(CheckpointedFileValidator.Scan.FULL);
+        assertThat(result.getStartOffset()).isZero();
+        assertThat(result.getSummary().getRecords()).isEqualTo(records);
+    }
+
+    /**
+     * PLE lines with a mix of valid, invalid, unknown-code and skipped records.
+     */
+    private static String batch(int from, int count) {
+        var out = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            String prefix = "20251100|M" + String.format("%03d", i % 1000) + "|";
+            switch (i % 5) {
+                case 0:
+                    out.append(prefix).append("6|20607854247|1.00\r\n");
+                    break;
+                case 1:
+                    out.append(prefix).append("1|4567890|1.00\n");
+                    break;
+                case 2:
+                    out.append(prefix).append("9|12345678|1.00\n");
+                    break;
+                case 3:
+                    out.append(prefix).append("||0.00\n");
+                    break;
+                default:
+                    out.append(prefix).append("1|45678901|1.00\n");
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.ISO_8859_1,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
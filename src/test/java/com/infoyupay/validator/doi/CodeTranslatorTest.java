@@ -0,0 +1,117 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CodeTranslator}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class CodeTranslatorTest {
+
+    /**
+     * Every (source, target) table agrees with decoding the source code and
+     * reading the target identifier of the decoded types, which must all agree.
+     */
+    @Test
+    @DisplayName("translate(): agrees with decodeAll() + getId() for every context pair")
+    void testAgreesWithDecode() {
+        for (UsageContext source : UsageContext.values()) {
+            for (UsageContext target : UsageContext.values()) {
+                var translator = CodeTranslator.of(source, target);
+                assertThat(translator).isSameAs(CodeTranslator.of(source, target));
+                for (int key = 0; key < 110; key++) {
+                    String code = CodeTranslator.codeOf(key);
+                    Set<String> ids = new HashSet<>();
+                    for (DoiType type : source.decodeAll(code)) {
+                        ids.add(type.isSuitableFor(target) ? type.getId(target) : CodeTranslator.UNSUITABLE);
+                    }
+                    String expected = ids.isEmpty() ? null
+                            : ids.size() > 1 ? CodeTranslator.AMBIGUOUS : ids.iterator().next();
+                    assertThat(translator.translate(code)).as("%s %s->%s", code, source, target).isEqualTo(expected);
+                    assertThat(translator.translate(code.getBytes(StandardCharsets.US_ASCII), 0, code.length()))
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * Known translations, sentinels and column variants.
+     */
+    @Test
+    @DisplayName("translate(): PLE to PLAME/AFP Net examples and columns")
+    void testExamplesAndColumns() {
+        var pleToPlame = CodeTranslator.of(UsageContext.PLE, UsageContext.PLAME);
+        assertThat(pleToPlame.translate("6")).isEqualTo("06");
+        assertThat(pleToPlame.translate("1")).isEqualTo("01");
+        assertThat(pleToPlame.translate("X")).isNull();
+        assertThat(pleToPlame.translate((CharSequence) null)).isNull();
+
+        var pleToAfp = CodeTranslator.of(UsageContext.PLE, UsageContext.AFP_NET);
+        assertThat(pleToAfp.translate("6")).isSameAs(CodeTranslator.UNSUITABLE);
+
+        String[] column = {"1", "6", "7", null, "5"};
+        String[] out = new String[column.length];
+        assertThat(pleToAfp.translate(column, out, 0, column.length)).isEqualTo(2);
+        assertThat(out).containsExactly("0", CodeTranslator.UNSUITABLE, "4", null, null);
+
+        byte[] keys = {(byte) CodeTranslator.keyOf("1"), (byte) CodeTranslator.keyOf("6"), 120, -1};
+        assertThat(pleToAfp.translateKeys(keys, keys, 0, keys.length)).isEqualTo(1);
+        assertThat(keys).containsExactly((byte) CodeTranslator.keyOf("0"), (byte) CodeTranslator.UNSUITABLE_KEY,
+                (byte) CodeTranslator.UNKNOWN_KEY, (byte) CodeTranslator.UNKNOWN_KEY);
+        assertThat(CodeTranslator.codeOf(CodeTranslator.keyOf("06"))).isEqualTo("06");
+        assertThat(pleToPlame.translateKey(CodeTranslator.keyOf("6"))).isEqualTo(CodeTranslator.keyOf("06"));
+    }
+
+    /**
+     * Shared source codes translate only when every type sharing them agrees on the target.
+     */
+    @Test
+    @DisplayName("translate(): shared codes are ambiguous unless all their types agree")
+    void testSharedCodes() {
+        var fvToPlame = CodeTranslator.of(UsageContext.FV_3800, UsageContext.PLAME);
+        assertThat(fvToPlame.translate("01")).isSameAs(CodeTranslator.AMBIGUOUS);
+        assertThat(fvToPlame.translateKey(CodeTranslator.keyOf("01"))).isEqualTo(CodeTranslator.AMBIGUOUS_KEY);
+        assertThat(fvToPlame.translate("06")).isEqualTo("06");
+
+        var pleToPlame = CodeTranslator.of(UsageContext.PLE, UsageContext.PLAME);
+        assertThat(pleToPlame.translate("0")).isSameAs(CodeTranslator.AMBIGUOUS);
+        String[] column = {"0", "6"};
+        assertThat(pleToPlame.translate(column, new String[2], 0, 2)).isEqualTo(1);
+        byte[] keys = {(byte) CodeTranslator.keyOf("0"), (byte) CodeTranslator.keyOf("6")};
+        assertThat(pleToPlame.translateKeys(keys, keys, 0, 2)).isEqualTo(1);
+        assertThat(keys[0]).isEqualTo((byte) CodeTranslator.AMBIGUOUS_KEY);
+
+        assertThat(CodeTranslator.of(UsageContext.PLE, UsageContext.PLE).translate("0")).isEqualTo("0");
+        assertThat(CodeTranslator.of(UsageContext.FV_3800, UsageContext.FV_3800).translate("01")).isEqualTo("01");
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link DniRegistry}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DniRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Single updates, membership and bounds.
+     */
+    @Test
+    @DisplayName("add()/remove()/contains(): single DNIs and bounds")
+    void testSingle() {
+        var registry = new DniRegistry();
+        assertThat(registry.isEmpty()).isTrue();
+        assertThat(registry.add(45_678_901)).isTrue();
+        assertThat(registry.add(45_678_901)).isFalse();
+        assertThat(registry.add(0)).isTrue();
+        assertThat(registry.add(DniRegistry.CAPACITY - 1)).isTrue();
+
+        assertThat(registry.contains(45_678_901)).isTrue();
+        assertThat(registry.contains(45_678_902)).isFalse();
+        assertThat(registry.contains(-1)).isFalse();
+        assertThat(registry.contains(DniRegistry.CAPACITY)).isFalse();
+        assertThat(registry.contains("45.678.901", false)).isTrue();
+        assertThat(registry.contains("45.678.901", true)).isFalse();
+        assertThat(registry.contains("00000000", true)).isTrue();
+        assertThat(registry.contains(null, false)).isFalse();
+        assertThat(registry.size()).isEqualTo(3);
+
+        assertThat(registry.remove(45_678_901)).isTrue();
+        assertThat(registry.remove(45_678_901)).isFalse();
+        assertThat(registry.remove(-5)).isFalse();
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.sizeInBytes()).isLessThan(13_000_000L);
+        assertThatThrownBy(() -> registry.add(DniRegistry.CAPACITY)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.addAll(new long[]{1, -1}, 0, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.contains(1)).isFalse();
+    }
+
+    /**
+     * Bulk updates, rank, count and iteration agree with a sorted array.
+     */
+    @Test
+    @DisplayName("addAll()/removeAll()/rank()/count(): agree with a sorted array")
+    void testBulkAndRank() {
+        var random = new Random(45);
+        var keys = new long[200_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i % 3 == 0 ? 45_000_000 + random.nextInt(100_000) : (long) (random.nextDouble() * DniRegistry.CAPACITY);
+        }
+        var registry = new DniRegistry();
+        int added = registry.addAll(keys, 0, keys.length / 2);
+        Arrays.sort(keys, keys.length / 2, keys.length);
+        added += registry.addAll(keys, keys.length / 2, keys.length);
+        var removed = new long[]{keys[0], keys[1], -3, keys[2], DniRegistry.CAPACITY + 1, keys[0]};
+        int removedCount = registry.removeAll(removed, 0, removed.length);
+
+        long[] expected = LongStream.of(keys).filter(k -> k != keys[0] && k != keys[1] && k != keys[2])
+                .sorted().distinct().toArray();
+        assertThat(added).isEqualTo(LongStream.of(keys).distinct().count());
+        assertThat(removedCount).isEqualTo(LongStream.of(keys[0], keys[1], keys[2]).distinct().count());
+        assertThat(registry.size()).isEqualTo(expected.length);
+
+        var iterated = LongStream.builder();
+        registry.forEach(iterated::add);
+        assertThat(iterated.build().toArray()).isEqualTo(expected);
+
+        for (int n = 0; n < 5000; n++) {
+            long key = n < 100 ? n * 1_000_000L - 50 : (long) (random.nextDouble() * DniRegistry.CAPACITY);
+            int position = Arrays.binarySearch(expected, key);
+            int rank = position >= 0 ? position : -position - 1;
+            assertThat(registry.rank(key)).as("rank(%d)", key).isEqualTo(rank);
+            assertThat(registry.contains(key)).isEqualTo(position >= 0);
+        }
+        assertThat(registry.rank(DniRegistry.CAPACITY + 5)).isEqualTo(expected.length);
+        assertThat(registry.count(45_000_000, 45_100_000))
+                .isEqualTo(LongStream.of(expected).filter(k -> k >= 45_000_000 && k < 45_100_000).count());
+        assertThat(registry.count(10, 5)).isZero();
+    }
+
+    /**
+     * A line-oriented file is validated and registered in one pass.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    @DisplayName("addAll(Reader): streaming build from a file")
+    void testStreamingBuild() throws IOException {
+        var file = tempDir.resolve("dni.txt");
+        Files.writeString(file, "45678901\n45.678.901\n\n1234\n00000001\nABCDEFGH\n");
+        var registry = new DniRegistry();
+        DniRegistry.Summary summary;
+        try (var reader = Files.newBufferedReader(file)) {
+            summary = registry.addAll(reader, false);
+        }
+        assertThat(summary.getRecords()).isEqualTo(6);
+        assertThat(summary.getInvalid()).isEqualTo(3);
+        assertThat(summary.getAdded()).isEqualTo(2);
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.addAll(new StringReader("45.678.901"), true).getInvalid()).isEqualTo(1);
+    }
+
+    /**
+     * A written registry maps back with the same content; changes to an
+     * updatable mapping stay private, and foreign files are rejected.
+     *
+     * @throws IOException if the file cannot be written or mapped
+     */
+    @Test
+    @DisplayName("write()/map(): round trip, private updates and invalid files")
+    void testPersistence() throws IOException {
+        var registry = new DniRegistry();
+        registry.addAll(new long[]{0, 63, 64, 45_678_901, DniRegistry.CAPACITY - 1}, 0, 5);
+        var file = tempDir.resolve("dni.bitmap");
+        registry.write(file);
+
+        var mapped = DniRegistry.map(file, true);
+        assertThat(mapped.size()).isEqualTo(5);
+        assertThat(mapped.rank(45_678_901)).isEqualTo(3);
+        assertThat(mapped.contains(DniRegistry.CAPACITY - 1)).isTrue();
+        assertThat(mapped.add(12_345_678)).isTrue();
+        assertThat(mapped.remove(0)).isTrue();
+        assertThat(mapped.size()).isEqualTo(5);
+        assertThat(DniRegistry.map(file).contains(12_345_678)).isFalse();
+        assertThat(DniRegistry.map(file).contains(0)).isTrue();
+
+        var truncated = tempDir.resolve("truncated.bitmap");
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(file), 4096));
+        assertThatThrownBy(() -> DniRegistry.map(truncated)).isInstanceOf(IOException.class);
+        var foreign = tempDir.resolve("foreign.bitmap");
+        var bytes = Files.readAllBytes(file);
+        bytes[0] ^= 1;
+        Files.write(foreign, bytes);
+        assertThatThrownBy(() -> DniRegistry.map(foreign)).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * A read-only file maps read-only: reads work and updates are rejected
+     * without disturbing later reads.
+     *
+     * @throws IOException if the file cannot be written or mapped
+     */
+    @Test
+    @DisplayName("map(): read-only files and rejected updates")
+    void testReadOnlyMap() throws IOException {
+        var registry = new DniRegistry();
+        registry.addAll(new long[]{7, 45_678_901}, 0, 2);
+        var file = tempDir.resolve("deployed.bitmap");
+        registry.write(file);
+        assertThat(file.toFile().setWritable(false)).isTrue();
+
+        var mapped = DniRegistry.map(file);
+        assertThat(mapped.size()).isEqualTo(2);
+        assertThat(mapped.contains("45.678.901", false)).isTrue();
+        assertThat(mapped.rank(45_678_901)).isEqualTo(1);
+        assertThatThrownBy(() -> mapped.add(12_345_678)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> mapped.remove(7)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> mapped.addAll(new long[]{1, 2}, 0, 2))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(mapped.contains(12_345_678)).isFalse();
+        assertThat(mapped.count(0, DniRegistry.CAPACITY)).isEqualTo(2);
+        if (!Files.isWritable(file)) {
+            assertThatThrownBy(() -> DniRegistry.map(file, true)).isInstanceOf(IOException.class);
+        }
+    }
+
+    /**
+     * Concurrent bulk writers sharing bitmap words never lose updates.
+     *
+     * @throws InterruptedException if interrupted while joining the writers
+     */
+    @Test
+    @DisplayName("Concurrent addAll(): interleaved writers lose no bits")
+    void testConcurrentWriters() throws InterruptedException {
+        var registry = new DniRegistry();
+        var writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int offset = w;
+            writers[w] = new Thread(() -> {
+                var batch = new long[256];
+                for (int start = 0; start < 409_600; start += batch.length * writers.length) {
+                    for (int i = 0; i < batch.length; i++) batch[i] = start + (long) i * writers.length + offset;
+                    registry.addAll(batch, 0, batch.length);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) writer.join();
+
+        assertThat(registry.size()).isEqualTo(409_600);
+        assertThat(registry.count(0, 409_600)).isEqualTo(409_600);
+        assertThat(registry.contains(409_600)).isFalse();
+    }
+
+    /**
+     * A reader running alongside a bulk writer sees every batch whole: the size
+     * and the counts only ever move by complete batches, and the last key of a
+     * batch is registered whenever its first one is.
+     *
+     * @throws InterruptedException if interrupted while joining the writer
+     */
+    @Test
+    @DisplayName("Concurrent addAll(): readers see whole batches")
+    void testAtomicBatches() throws InterruptedException {
+        var registry = new DniRegistry();
+        int batches = 2000;
+        int batchSize = 64;
+        long stride = DniRegistry.CAPACITY / batchSize;
+        var writer = new Thread(() -> {
+            var batch = new long[batchSize];
+            for (int b = 0; b < batches; b++) {
+                for (int i = 0; i < batchSize; i++) batch[i] = i * stride + b;
+                registry.addAll(batch, 0, batch.length);
+            }
+        });
+        writer.start();
+        int torn = 0;
+        while (writer.isAlive()) {
+            if (registry.size() % batchSize != 0) torn++;
+            if (registry.count(1, DniRegistry.CAPACITY) % batchSize != 0 && !registry.contains(0)) torn++;
+            int size = registry.size();
+            int b = size / batchSize;
+            if (b < batches && registry.contains(b) && !registry.contains((batchSize - 1) * stride + b)) torn++;
+        }
+        writer.join();
+
+        assertThat(torn).isZero();
+        assertThat(registry.size()).isEqualTo(batches * batchSize);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the data-driven rules catalog {@link DoiCatalog}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiCatalogTest {
+
+    private static final String REVISED = "version=2030.1\n"
+            + "types=DNI,RUC,CPP\n"
+            + "DNI.code.PLE=1\n"
+            + "DNI.code.PLAME=01\n"
+            + "DNI.length=8\n"
+            + "DNI.charset=digits\n"
+            + "RUC.code.PLE=6\n"
+            + "RUC.code.PLAME=06\n"
+            + "RUC.length=11\n"
+            + "RUC.charset=digits\n"
+            + "RUC.prefixes=10,20\n"
+            + "RUC.checkDigit=mod11\n"
+            + "CPP.shortName=C. PP\n"
+            + "CPP.code.PLAME=27\n"
+            + "CPP.code.PLE=B\n"
+            + "CPP.length=9\n"
+            + "CPP.charset=alnum\n"
+            + "CPP.regex=[A-Z]{2}\\\\d{7}\n"
+            + "CPP.foreign=true\n";
+
+    @AfterEach
+    void resetCatalog() {
+        DoiCatalog.reset();
+    }
+
+    /**
+     * The built-in catalog validates and decodes exactly like the enum.
+     */
+    @Test
+    @DisplayName("builtIn(): same validation, regexes and decoding as DoiType")
+    void testBuiltInMatchesEnum() {
+        var catalog = DoiCatalog.builtIn();
+        assertThat(DoiCatalog.current()).isSameAs(catalog);
+        var random = new Random(35);
+        var alphabet = "0123456789012345678901234567890AZaz-. ";
+        for (DoiType type : DoiType.values()) {
+            DoiRule rule = catalog.getRule(type);
+            assertThat(rule.getRegex()).isEqualTo(type.getRegex());
+            for (UsageContext context : UsageContext.values()) {
+                assertThat(rule.getId(context)).isEqualTo(type.getId(context));
+            }
+            for (int n = 0; n < 20_000; n++) {
+                var sb = new StringBuilder(type == DoiType.RUC && n % 2 == 0 ? "20" : "");
+                int length = random.nextInt(16);
+                for (int i = 0; i < length; i++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                var value = sb.toString();
+                assertThat(rule.validateNumber(value, true)).as("%s %s", type, value)
+                        .isEqualTo(type.validateNumber(value, true));
+                assertThat(rule.validateNumber(value, false)).as("%s %s", type, value)
+                        .isEqualTo(type.validateNumber(value, false));
+            }
+        }
+        for (UsageContext context : UsageContext.values()) {
+            for (int key = 0; key < 110; key++) {
+                String code = CodeTranslator.codeOf(key);
+                DoiRule rule = catalog.decode(context, code);
+                assertThat(rule == null ? null : rule.getType()).isEqualTo(context.decode(code));
+                assertThat(catalog.decodeAll(context, code)).extracting(DoiRule::getType)
+                        .isEqualTo(context.decodeAll(code));
+            }
+        }
+    }
+
+    /**
+     * A revised catalog compiles new codes, prefixes, extra regexes and unknown types,
+     * and survives a store/load round trip.
+     *
+     * @throws Exception if the catalog cannot be read or written
+     */
+    @Test
+    @DisplayName("load(): revised catalog with a new type and a store/load round trip")
+    void testLoadRevisedCatalog() throws Exception {
+        var catalog = DoiCatalog.load(new StringReader(REVISED));
+        assertThat(catalog.getVersion()).isEqualTo("2030.1");
+        assertThat(catalog.validateNumber(DoiType.RUC, "20607854247", true)).isTrue();
+        assertThat(catalog.validateNumber(DoiType.RUC, "10456789019", true)).isTrue();
+        assertThat(catalog.validateNumber(DoiType.RUC, "15456789011", true)).isFalse();
+        assertThat(catalog.validateNumber(DoiType.PASSPORT, "AB123", true)).isFalse();
+
+        DoiRule cpp = catalog.decode(UsageContext.PLAME, "27");
+        assertThat(cpp.getName()).isEqualTo("CPP");
+        assertThat(cpp.getType()).isNull();
+        assertThat(cpp.isForeign()).isTrue();
+        assertThat(cpp.validateNumber("AB1234567", true)).isTrue();
+        assertThat(cpp.validateNumber("1234567AB", true)).isFalse();
+        assertThat(catalog.decode(UsageContext.PLE, "B")).isSameAs(cpp);
+        assertThat(catalog.listSuitable(UsageContext.AFP_NET)).isEmpty();
+
+        var out = new StringWriter();
+        catalog.store(out);
+        var reloaded = DoiCatalog.load(new StringReader(out.toString()));
+        var again = new StringWriter();
+        reloaded.store(again);
+        assertThat(again.toString()).isEqualTo(out.toString());
+
+        var builtIn = new StringWriter();
+        DoiCatalog.builtIn().store(builtIn);
+        assertThat(DoiCatalog.load(new StringReader(builtIn.toString())).getRule(DoiType.RUC).getRegex())
+                .isEqualTo(DoiType.RUC.getRegex());
+    }
+
+    /**
+     * Publication swaps the process-wide snapshot atomically.
+     *
+     * @throws Exception if the catalog cannot be read
+     */
+    @Test
+    @DisplayName("publish(): atomic snapshot replacement and reset")
+    void testPublish() throws Exception {
+        var revised = DoiCatalog.load(new StringReader(REVISED));
+        var snapshot = DoiCatalog.current();
+        assertThat(DoiCatalog.publish(revised)).isSameAs(DoiCatalog.builtIn());
+        assertThat(DoiCatalog.current()).isSameAs(revised);
+        assertThat(snapshot.validateNumber(DoiType.RUC, "15456789011", true)).isTrue();
+        assertThat(DoiCatalog.publish(snapshot, DoiCatalog.builtIn())).isFalse();
+        assertThat(DoiCatalog.publish(revised, DoiCatalog.builtIn())).isTrue();
+        assertThat(DoiCatalog.current()).isSameAs(DoiCatalog.builtIn());
+    }
+
+    /**
+     * The enum, context decoding and code translation follow the published catalog,
+     * and return to the built-in tables on reset.
+     *
+     * @throws Exception if the catalog cannot be read
+     */
+    @Test
+    @DisplayName("publish(): DoiType, UsageContext and CodeTranslator follow the current catalog")
+    void testEnumFollowsPublished() throws Exception {
+        DoiCatalog.publish(DoiCatalog.load(new StringReader(REVISED)));
+        assertThat(DoiType.RUC.validateNumber("15456789011", true)).isFalse();
+        assertThat(DoiType.RUC.validateNumber("20607854247", true)).isTrue();
+        assertThat(DoiType.PASSPORT.validateNumber("AB123", true)).isFalse();
+        assertThat(DoiType.PASSPORT.isSuitableFor(UsageContext.PLE)).isFalse();
+        assertThat(DoiType.RUC.isSuitableFor(UsageContext.FV_3800)).isFalse();
+        assertThat(DoiType.RUC.getPlameId()).isEqualTo("06");
+        assertThat(UsageContext.PLE.decode("7")).isNull();
+        assertThat(UsageContext.PLE.decodeAll("6")).containsExactly(DoiType.RUC);
+        assertThat(UsageContext.PLE.decode("B")).isNull();
+        assertThat(UsageContext.PLAME.listSuitableDoi()).containsExactly(DoiType.DNI, DoiType.RUC);
+        assertThat(CodeTranslator.of(UsageContext.PLAME, UsageContext.PLE).translate("27")).isEqualTo("B");
+        assertThat(CodeTranslator.of(UsageContext.PLE, UsageContext.FV_3800).translate("6"))
+                .isSameAs(CodeTranslator.UNSUITABLE);
+        var validator = new ReportFileValidator(UsageContext.PLE, '|', 0, 1, true);
+        assertThat(validator.validate(new StringReader("6|15456789011\n7|AB123\n"), null).getValid()).isZero();
+
+        DoiCatalog.reset();
+        assertThat(DoiType.RUC.validateNumber("15456789011", true)).isTrue();
+        assertThat(UsageContext.PLE.decode("7")).isEqualTo(DoiType.PASSPORT);
+        assertThat(CodeTranslator.of(UsageContext.PLAME, UsageContext.PLE).translate("27")).isNull();
+    }
+
+    /**
+     * Malformed catalogs are rejected with a descriptive error.
+     */
+    @Test
+    @DisplayName("load(): malformed catalogs are rejected")
+    void testMalformed() {
+        assertThatThrownBy(() -> DoiCatalog.load(new StringReader("types=DNI\n")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("version");
+        assertThatThrownBy(() -> DoiCatalog.load(new StringReader(REVISED + "DNI.lenght=8\n")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("DNI.lenght");
+        assertThatThrownBy(() -> DoiCatalog.load(new StringReader(REVISED.replace("RUC.length=11", "RUC.length=10"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("mod11");
+        assertThatThrownBy(() -> DoiCatalog.load(new StringReader(REVISED.replace("digits", "hex"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("charset");
+    }
+}
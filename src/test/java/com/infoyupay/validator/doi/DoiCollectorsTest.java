@@ -0,0 +1,105 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for DOI statistics collectors, ensuring parallel and sequential
+ * streams produce the same counts.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiCollectorsTest {
+
+    /**
+     * Minimal entity holding a DOI type and number.
+     */
+    private static final class Entity {
+        final DoiType type;
+        final String number;
+
+        Entity(DoiType type, String number) {
+            this.type = type;
+            this.number = number;
+        }
+    }
+
+    /**
+     * Failure reasons explain rejected values and are null for valid ones.
+     */
+    @Test
+    @DisplayName("DoiFailure.of(): classifies the first failing rule")
+    void testFailureReasons() {
+        assertThat(DoiFailure.of(DoiType.RUC, "20607854247", true)).isNull();
+        assertThat(DoiFailure.of(null, "20607854247", true)).isEqualTo(DoiFailure.MISSING_TYPE);
+        assertThat(DoiFailure.of(DoiType.RUC, " ", true)).isEqualTo(DoiFailure.BLANK);
+        assertThat(DoiFailure.of(DoiType.RUC, "20-60785424-7", true)).isEqualTo(DoiFailure.INVALID_CHARACTER);
+        assertThat(DoiFailure.of(DoiType.RUC, "2060785424", true)).isEqualTo(DoiFailure.TOO_SHORT);
+        assertThat(DoiFailure.of(DoiType.DNI, "123456789", true)).isEqualTo(DoiFailure.TOO_LONG);
+        assertThat(DoiFailure.of(DoiType.RUC, "30607854247", true)).isEqualTo(DoiFailure.INVALID_PREFIX);
+        assertThat(DoiFailure.of(DoiType.RUC, "20607854241", true)).isEqualTo(DoiFailure.CHECK_DIGIT_MISMATCH);
+    }
+
+    /**
+     * Parallel collection must match sequential collection.
+     */
+    @Test
+    @DisplayName("Collectors: parallel results equal sequential results")
+    void testParallelMatchesSequential() {
+        var random = new Random(29L);
+        var samples = new String[]{"20607854247", "20607854241", "12345678", "1234567", "AB-1234", "", null};
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            DoiType type = random.nextInt(20) == 0 ? null : DoiType.values()[random.nextInt(DoiType.values().length)];
+            entities.add(new Entity(type, samples[random.nextInt(samples.length)]));
+        }
+
+        Map<DoiFailure, Long> sequential = entities.stream()
+                .collect(DoiCollectors.countingByFailure(e -> e.type, e -> e.number, false));
+        Map<DoiFailure, Long> parallel = entities.parallelStream()
+                .collect(DoiCollectors.countingByFailure(e -> e.type, e -> e.number, false));
+        assertThat(parallel).isEqualTo(sequential);
+
+        var statistics = entities.parallelStream()
+                .collect(DoiCollectors.summarizing(e -> e.type, e -> e.number, false));
+        var partition = entities.parallelStream()
+                .collect(DoiCollectors.partitioningByValidity(e -> e.type, e -> e.number, false));
+        assertThat(statistics.getCount()).isEqualTo(entities.size());
+        assertThat(statistics.getValid()).isEqualTo(partition.get(true).size());
+        assertThat(statistics.getInvalid()).isEqualTo(sequential.values().stream().mapToLong(Long::longValue).sum());
+
+        Map<DoiType, Long> byType = entities.parallelStream()
+                .filter(e -> e.type != null)
+                .collect(DoiCollectors.countingByType(e -> e.type));
+        for (DoiType type : DoiType.values()) {
+            assertThat(byType.getOrDefault(type, 0L)).isEqualTo(statistics.getCount(type));
+        }
+    }
+}
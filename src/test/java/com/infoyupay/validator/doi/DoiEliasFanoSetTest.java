@@ -0,0 +1,176 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link DoiEliasFanoSet}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiEliasFanoSetTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Membership, rank, select and iteration agree with binary search over the
+     * sorted source array, for sparse and dense sets, on the heap and mapped.
+     *
+     * @param count   number of keys
+     * @param spacing average gap between keys
+     * @throws IOException if the set cannot be written or mapped
+     */
+    @ParameterizedTest
+    @CsvSource({"1, 1", "2, 1000", "1000, 1", "50000, 3", "50000, 1000", "20000, 100000000"})
+    @DisplayName("contains/rank/select/iterator: agree with binary search, heap and mapped")
+    void testQueries(int count, long spacing) throws IOException {
+        var random = new Random(count * 31L + spacing);
+        long[] keys = new long[count];
+        long key = 10_000_000_000L + random.nextInt(1000);
+        for (int i = 0; i < count; i++) {
+            keys[i] = key;
+            key += 1 + (long) (random.nextDouble() * 2 * spacing);
+        }
+        var heap = DoiEliasFanoSet.of(keys);
+        Path file = tempDir.resolve("set.ef");
+        heap.write(file);
+        var mapped = DoiEliasFanoSet.map(file);
+        assertThat(Files.size(file)).isEqualTo(heap.sizeInBytes() + 72);
+
+        for (DoiEliasFanoSet set : new DoiEliasFanoSet[]{heap, mapped}) {
+            assertThat(set.size()).isEqualTo(count);
+            long[] iterated = new long[count];
+            var iterator = set.iterator();
+            for (int i = 0; i < count; i++) iterated[i] = iterator.nextLong();
+            assertThat(iterator.hasNext()).isFalse();
+            assertThat(iterated).isEqualTo(keys);
+
+            for (int i = 0; i < count; i++) {
+                assertThat(set.select(i)).isEqualTo(keys[i]);
+                assertThat(set.contains(keys[i])).isTrue();
+                assertThat(set.rank(keys[i])).isEqualTo(i);
+            }
+            for (int n = 0; n < 20_000; n++) {
+                long probe = keys[0] - 5 + (long) (random.nextDouble() * (keys[count - 1] - keys[0] + 10));
+                int search = Arrays.binarySearch(keys, probe);
+                assertThat(set.contains(probe)).isEqualTo(search >= 0);
+                assertThat(set.rank(probe)).isEqualTo(search >= 0 ? search : -search - 1);
+            }
+        }
+    }
+
+    /**
+     * A dense RUC-10 range costs a couple of bytes per key.
+     */
+    @Test
+    @DisplayName("sizeInBytes(): dense RUC-10 range takes under 3 bytes per key")
+    void testCompression() {
+        var builder = new DoiEliasFanoSet.Builder(100_000, RUCUtils.deriveRUC10(40_000_000L),
+                RUCUtils.deriveRUC10(40_000_000L + 199_998));
+        for (long dni = 40_000_000L; dni < 40_000_000L + 200_000; dni += 2) {
+            builder.accept(RUCUtils.deriveRUC10(dni));
+        }
+        var set = builder.build();
+        assertThat(set.sizeInBytes()).isLessThan(3L * set.size());
+        assertThat(set.contains(RUCUtils.deriveRUC10(40_000_100L))).isTrue();
+        assertThat(set.contains(RUCUtils.deriveRUC10(40_000_101L))).isFalse();
+    }
+
+    /**
+     * The empty set answers every query and round-trips through a file.
+     *
+     * @throws IOException if the set cannot be written or mapped
+     */
+    @Test
+    @DisplayName("empty set: queries and file round-trip")
+    void testEmpty() throws IOException {
+        Path file = tempDir.resolve("empty.ef");
+        DoiEliasFanoSet.of().write(file);
+        var set = DoiEliasFanoSet.map(file);
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.rank(Long.MAX_VALUE)).isZero();
+        assertThat(set.iterator().hasNext()).isFalse();
+        assertThatThrownBy(() -> set.select(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    /**
+     * Unsorted input, miscounted builders and foreign files are rejected.
+     *
+     * @throws IOException if the test file cannot be written
+     */
+    @Test
+    @DisplayName("builder and map(): reject invalid input")
+    void testInvalid() throws IOException {
+        assertThatThrownBy(() -> DoiEliasFanoSet.of(3, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DoiEliasFanoSet.of(2, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DoiEliasFanoSet.of(-1, 2)).isInstanceOf(IllegalArgumentException.class);
+        var builder = new DoiEliasFanoSet.Builder(2, 0, 10);
+        builder.accept(1);
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> builder.accept(11)).isInstanceOf(IllegalArgumentException.class);
+        builder.accept(10);
+        assertThatThrownBy(() -> builder.accept(10)).isInstanceOf(IllegalStateException.class);
+
+        Path file = tempDir.resolve("set.ef");
+        DoiEliasFanoSet.of(1, 5, 9).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThatThrownBy(() -> DoiEliasFanoSet.map(file)).isInstanceOf(IOException.class);
+        bytes[0] ^= 1;
+        Files.write(file, bytes);
+        assertThatThrownBy(() -> DoiEliasFanoSet.map(file)).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * The in-word select finds every set bit.
+     */
+    @Test
+    @DisplayName("selectInWord(): finds the k-th set bit")
+    void testSelectInWord() {
+        var random = new Random(39);
+        for (int n = 0; n < 10_000; n++) {
+            long word = random.nextLong() & random.nextLong();
+            int rank = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if ((word & (1L << bit)) != 0) {
+                    assertThat(DoiEliasFanoSet.selectInWord(word, rank++)).isEqualTo(bit);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests for {@link DoiExternalSorter}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiExternalSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * The radix sort agrees with {@code TreeSet} ordering and removes duplicates.
+     */
+    @Test
+    @DisplayName("sortUnique(): sorted and deduplicated like a TreeSet")
+    void testSortUnique() {
+        var random = new Random(38);
+        for (int size : new int[]{0, 1, 2, 100, 10_000}) {
+            long[] keys = new long[size];
+            var expected = new TreeSet<Long>();
+            for (int i = 0; i < size; i++) {
+                keys[i] = i % 7 == 0 ? 42L : random.nextLong() >>> (1 + random.nextInt(63));
+                expected.add(keys[i]);
+            }
+            int unique = DoiExternalSorter.sortUnique(keys, new long[size], size);
+            var actual = new ArrayList<Long>();
+            for (int i = 0; i < unique; i++) actual.add(keys[i]);
+            assertThat(actual).isEqualTo(new ArrayList<>(expected));
+        }
+    }
+
+    /**
+     * Sorting through spilled runs and multi-pass merges yields the same keys
+     * and counters as a {@code TreeSet} of the valid sanitized records.
+     *
+     * @param type        DOI type of the generated records
+     * @param records     number of generated records
+     * @param memoryKeys  memory budget in keys
+     * @param parallelism sorting threads
+     * @throws IOException if spilling fails
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "DNI, 1000, 8192, 1",
+            "DNI, 200000, 2048, 1",
+            "RUC, 200000, 8192, 2",
+            "RUC, 50000, 16384, 4"
+    })
+    @DisplayName("sort(): spilled runs merge to the TreeSet of valid keys")
+    void testSort(DoiType type, int records, int memoryKeys, int parallelism) throws IOException {
+        var random = new Random(records);
+        var input = new ArrayList<String>(records);
+        var expected = new TreeSet<Long>();
+        long invalid = 0;
+        for (int i = 0; i < records; i++) {
+            String value = record(type, random);
+            input.add(value);
+            String clean = type.sanitize(value);
+            if (type.validateNumber(clean, true)) expected.add(DoiKeys.parseDigits(clean));
+            else invalid++;
+        }
+
+        var sorter = new DoiExternalSorter(type, false, memoryKeys, tempDir, parallelism);
+        var actual = new ArrayList<Long>();
+        var summary = sorter.sort(input.iterator(), actual::add);
+
+        assertThat(actual).isEqualTo(new ArrayList<>(expected));
+        assertThat(summary.getRecords()).isEqualTo(records);
+        assertThat(summary.getInvalid()).isEqualTo(invalid);
+        assertThat(summary.getUnique()).isEqualTo(expected.size());
+        if (records - invalid > memoryKeys / (2 * parallelism)) assertThat(summary.getRuns()).isPositive();
+        else assertThat(summary.getRuns()).isZero();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    /**
+     * Text input and output: one zero-padded number per line, in strict and lenient mode.
+     *
+     * @throws IOException if reading or writing fails
+     */
+    @Test
+    @DisplayName("sort(Reader, Writer/Path): zero-padded lines, strict rejects formatting")
+    void testText() throws IOException {
+        var input = "00456789\n45.678.901\n00456789\n12345678\nabc\n\n";
+        var lenient = new StringWriter();
+        var summary = new DoiExternalSorter(DoiType.DNI, false, 4096, tempDir, 1)
+                .sort(new StringReader(input), lenient);
+        assertThat(lenient.toString()).isEqualTo("00456789\n12345678\n45678901\n");
+        assertThat(summary.getRecords()).isEqualTo(6);
+        assertThat(summary.getInvalid()).isEqualTo(2);
+
+        Path output = tempDir.resolve("out.txt");
+        summary = new DoiExternalSorter(DoiType.DNI, true, 4096, tempDir, 1).sort(new StringReader(input), output);
+        assertThat(Files.readAllLines(output)).isEqualTo(List.of("00456789", "12345678"));
+        assertThat(summary.getInvalid()).isEqualTo(3);
+    }
+
+    /**
+     * Invalid configurations are rejected.
+     */
+    @Test
+    @DisplayName("constructor: rejects non-numeric types and tiny budgets")
+    void testConfiguration() {
+        assertThatThrownBy(() -> new DoiExternalSorter(DoiType.CE, false, 1 << 20, null, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DoiExternalSorter(DoiType.DNI, false, 4096, null, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DoiExternalSorter(DoiType.DNI, false, 1 << 20, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DoiExternalSorter(null, false, 1 << 20, null, 1))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * A spill failing on a worker thread surfaces as the sort failure instead of leaving the
+     * reader waiting for a buffer that never comes back.
+     */
+    @ParameterizedTest(name = "parallelism {0}")
+    @CsvSource({"1", "2", "4"})
+    @DisplayName("sort: a failed spill fails the sort without hanging")
+    void testFailedSpill(int parallelism) {
+        var opened = new AtomicInteger();
+        var sorter = new DoiExternalSorter(DoiType.DNI, true, 2048 * parallelism, tempDir, parallelism, run -> {
+            if (opened.incrementAndGet() > 1) throw new IOException("No space left on device");
+            return Files.newOutputStream(run);
+        });
+        var input = Stream.iterate(0, i -> i + 1).map(i -> DoiKeys.format(i, 8)).limit(100_000).iterator();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+                assertThatThrownBy(() -> sorter.sort(input, key -> {
+                }))
+                        .isInstanceOf(IOException.class)
+                        .hasMessage("No space left on device"));
+        assertThat(opened.get()).isLessThan(2 + 2 * parallelism);
+    }
+
+    /**
+     * Generates a record with duplicates, formatting and some invalid values.
+     */
+    private static String record(DoiType type, Random random) {
+        int pick = random.nextInt(20);
+        if (pick == 0) return "x" + random.nextInt(1000);
+        if (type == DoiType.DNI) {
+            String dni = DoiKeys.format(random.nextInt(pick < 10 ? 50_000 : 100_000_000), 8);
+            return pick == 1 ? dni.substring(0, 2) + "." + dni.substring(2) : dni;
+        }
+        long dni = random.nextInt(pick < 10 ? 50_000 : 100_000_000);
+        String ruc = DoiKeys.format(RUCUtils.deriveRUC10(dni), 11);
+        if (pick == 2) ruc = ruc.substring(0, 10) + (char) ('0' + (ruc.charAt(10) - '0' + 1) % 10);
+        return pick == 1 ? ruc.substring(0, 2) + "-" + ruc.substring(2) : ruc;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link DoiFieldEncoder}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiFieldEncoderTest {
+
+    /**
+     * Valid fields are written as code, separator and sanitized number; the
+     * others write nothing and report why.
+     */
+    @Test
+    @DisplayName("encode(): statuses and written fields")
+    void testEncode() {
+        var encoder = new DoiFieldEncoder(UsageContext.PLE, '|', false);
+        var out = new StringBuilder();
+        assertThat(encoder.encode(DoiType.RUC, "20-60785424-7", out)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        assertThat(encoder.encode(DoiType.DNI, "45678901", out)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        assertThat(encoder.encode(DoiType.DNI, "1234567890", out)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        assertThat(out.toString()).isEqualTo("6|206078542471|456789011|34567890");
+
+        out.setLength(0);
+        assertThat(encoder.encode(DoiType.RUC, "20607854241", out)).isEqualTo(DoiFieldEncoder.Status.INVALID_NUMBER);
+        assertThat(encoder.encode(DoiType.RUC, "30607854247", out)).isEqualTo(DoiFieldEncoder.Status.INVALID_NUMBER);
+        assertThat(encoder.encode(DoiType.DNI, "4567", out)).isEqualTo(DoiFieldEncoder.Status.INVALID_NUMBER);
+        assertThat(encoder.encode(DoiType.DNI, null, out)).isEqualTo(DoiFieldEncoder.Status.INVALID_NUMBER);
+        assertThat(encoder.encode(null, "45678901", out)).isEqualTo(DoiFieldEncoder.Status.MISSING_TYPE);
+        assertThat(out).isEmpty();
+
+        var afp = new DoiFieldEncoder(UsageContext.AFP_NET, ',', true);
+        assertThat(afp.encode(DoiType.RUC, "20607854247", out)).isEqualTo(DoiFieldEncoder.Status.UNSUITABLE_TYPE);
+        assertThat(afp.encode(DoiType.DNI, "45.678.901", out)).isEqualTo(DoiFieldEncoder.Status.INVALID_NUMBER);
+        assertThat(afp.check(DoiType.DNI, "45678901")).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        assertThat(out).isEmpty();
+    }
+
+    /**
+     * Status and output agree with calling the separate DoiType methods, for
+     * every type and context, strict and lenient.
+     */
+    @Test
+    @DisplayName("encode(): agrees with isSuitableFor, sanitize, validateNumber and getId")
+    void testAgreement() {
+        var random = new Random(44);
+        var alphabet = "0123456789012345678901AZaz-. \u00f1";
+        var out = new StringBuilder();
+        for (UsageContext context : UsageContext.values()) {
+            for (boolean strict : new boolean[]{false, true}) {
+                var encoder = new DoiFieldEncoder(context, ';', strict);
+                for (DoiType type : DoiType.values()) {
+                    for (int n = 0; n < 2000; n++) {
+                        var sb = new StringBuilder();
+                        int length = random.nextInt(20);
+                        for (int i = 0; i < length; i++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                        if (n % 4 == 0) sb.setLength(0);
+                        if (n % 4 == 0) sb.append(type == DoiType.RUC ? "20-60785424-7" : "00000000".substring(n % 8));
+                        var number = sb.toString();
+
+                        DoiFieldEncoder.Status expected;
+                        if (!type.isSuitableFor(context)) expected = DoiFieldEncoder.Status.UNSUITABLE_TYPE;
+                        else if (!type.validateNumber(number, strict)) expected = DoiFieldEncoder.Status.INVALID_NUMBER;
+                        else expected = DoiFieldEncoder.Status.WRITTEN;
+
+                        out.setLength(0);
+                        assertThat(encoder.encode(type, number, out)).as("%s %s %s", context, type, number)
+                                .isEqualTo(expected);
+                        assertThat(encoder.check(type, number)).isEqualTo(expected);
+                        if (expected == DoiFieldEncoder.Status.WRITTEN) {
+                            var field = type.getId(context) + ";" + (strict ? number : type.sanitize(number));
+                            assertThat(out.toString()).isEqualTo(field);
+                            var bytes = ByteBuffer.allocate(32);
+                            assertThat(encoder.encode(type, number, bytes)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+                            assertThat(new String(bytes.array(), 0, bytes.position(), StandardCharsets.US_ASCII))
+                                    .isEqualTo(field);
+                        } else {
+                            assertThat(out).isEmpty();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Byte buffers that cannot hold the field are left untouched; writers
+     * receive the same characters as builders.
+     */
+    @Test
+    @DisplayName("encode(): buffer overflow and writers")
+    void testOutputs() throws Exception {
+        var encoder = new DoiFieldEncoder(UsageContext.PLAME, '|', false);
+        var buffer = ByteBuffer.allocateDirect(16);
+        assertThat(encoder.encode(DoiType.RUC, " 2060785424-7 ", buffer)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        assertThat(buffer.position()).isEqualTo(14);
+        assertThat(encoder.encode(DoiType.DNI, "45678901", buffer)).isEqualTo(DoiFieldEncoder.Status.BUFFER_OVERFLOW);
+        assertThat(buffer.position()).isEqualTo(14);
+
+        var writer = new StringWriter();
+        assertThat(encoder.encode(DoiType.RUC, " 2060785424-7 ", writer)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        writer.append('\n');
+        assertThat(encoder.encode(DoiType.DNI, "45678901", writer)).isEqualTo(DoiFieldEncoder.Status.WRITTEN);
+        assertThat(writer.toString()).isEqualTo("06|20607854247\n01|45678901");
+
+        assertThatThrownBy(() -> new DoiFieldEncoder(UsageContext.PLE, '\u00a6', false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DoiFieldEncoder(null, '|', false)).isInstanceOf(NullPointerException.class);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the primitive open-addressing structures {@link DoiKeySet} and {@link DoiKeyMap}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiKeySetTest {
+
+    /**
+     * The set behaves like a {@code HashSet<Long>} through growth, on and off heap.
+     *
+     * @param offHeap whether the table lives in native memory
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @DisplayName("DoiKeySet: same membership as HashSet through growth")
+    void testSetMatchesHashSet(boolean offHeap) {
+        var random = new Random(33);
+        var set = new DoiKeySet(0, offHeap, false);
+        Set<Long> reference = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = 20_000_000_000L + random.nextInt(80_000);
+            assertThat(set.add(key)).isEqualTo(reference.add(key));
+        }
+        assertThat(set.size()).isEqualTo(reference.size());
+        for (long key = 20_000_000_000L - 10; key < 20_000_090_000L; key++) {
+            assertThat(set.contains(key)).isEqualTo(reference.contains(key));
+        }
+
+        Set<Long> visited = new HashSet<>();
+        set.forEach(visited::add);
+        assertThat(visited).isEqualTo(reference);
+        var iterator = set.iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertThat(reference.contains(iterator.nextLong())).isTrue();
+            count++;
+        }
+        assertThat(count).isEqualTo(reference.size());
+        assertThat(set.toArray()).hasSize(reference.size());
+
+        set.clear();
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.contains(20_000_000_000L)).isFalse();
+    }
+
+    /**
+     * Bulk insert counts only new keys and rejects negative keys.
+     */
+    @Test
+    @DisplayName("DoiKeySet.addAll(): counts new keys, rejects negatives")
+    void testBulkInsert() {
+        var set = new DoiKeySet();
+        long[] keys = {45678901L, 10456789013L, 45678901L, 0L};
+        assertThat(set.addAll(keys, 0, keys.length)).isEqualTo(3);
+        assertThat(set.addAll(keys, 0, 2)).isZero();
+        assertThat(set.contains(0L)).isTrue();
+        assertThat(set.contains(DoiKeys.NO_KEY)).isFalse();
+        assertThatThrownBy(() -> set.add(-5L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * The map supports replacement, counting and boxing-free traversal.
+     *
+     * @param offHeap whether the tables live in native memory
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @DisplayName("DoiKeyMap: put, addTo and forEach match HashMap")
+    void testMapMatchesHashMap(boolean offHeap) {
+        var random = new Random(34);
+        var map = new DoiKeyMap(0, offHeap, false);
+        Map<Long, Long> reference = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(30_000);
+            if (random.nextBoolean()) {
+                assertThat(map.put(key, i)).isEqualTo(reference.put(key, (long) i) == null);
+            } else {
+                assertThat(map.addTo(key, 3)).isEqualTo(reference.merge(key, 3L, Long::sum));
+            }
+        }
+        assertThat(map.size()).isEqualTo(reference.size());
+        reference.forEach((key, value) -> assertThat(map.get(key, -1)).isEqualTo(value));
+        assertThat(map.get(99_999L, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(-1L)).isFalse();
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(reference);
+
+        long[] keys = {1L, 2L, 1L};
+        long[] values = {10L, 20L, 30L};
+        var bulk = new DoiKeyMap();
+        assertThat(bulk.putAll(keys, values, 0, 3)).isEqualTo(2);
+        assertThat(bulk.get(1L, 0)).isEqualTo(30L);
+    }
+
+    /**
+     * In concurrent mode, readers never miss a key that was added before their
+     * lookup started, even while the writer keeps growing the table.
+     *
+     * @throws InterruptedException if interrupted while joining the readers
+     */
+    @Test
+    @DisplayName("Concurrent mode: lock-free readers see published keys during growth")
+    void testConcurrentReaders() throws InterruptedException {
+        var set = new DoiKeySet(0, false, true);
+        var map = new DoiKeyMap(0, true, true);
+        var published = new AtomicLong(-1);
+        var failure = new AtomicReference<String>();
+        var readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                var random = new Random();
+                while (published.get() < 199_999 && failure.get() == null) {
+                    long last = published.get();
+                    if (last < 0) continue;
+                    long key = (long) (random.nextDouble() * (last + 1));
+                    if (!set.contains(key)) failure.set("set missed " + key);
+                    if (map.get(key, -1) != key * 2) failure.set("map missed " + key);
+                }
+            });
+            readers[r].start();
+        }
+        for (long key = 0; key < 200_000; key++) {
+            set.add(key);
+            map.put(key, key * 2);
+            published.set(key);
+        }
+        for (Thread reader : readers) reader.join();
+
+        assertThat(failure.get()).isNull();
+        assertThat(set.size()).isEqualTo(200_000);
+        assertThat(map.size()).isEqualTo(200_000);
+    }
+
+    /**
+     * At the capacity limit, inserting a new key throws before storing it:
+     * size, membership and existing entries are unchanged.
+     */
+    @Test
+    @DisplayName("Capacity limit: a rejected insert leaves the structure unchanged")
+    void testCapacityLimit() {
+        var set = new DoiKeySet(0, false, false, 16);
+        var map = new DoiKeyMap(0, true, true, 16);
+        for (long key = 0; key < 12; key++) {
+            set.add(key);
+            map.put(key, key);
+        }
+        assertThatThrownBy(() -> set.add(100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.put(100, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.addTo(100, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> set.addAll(new long[]{5, 101}, 0, 2)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(set.size()).isEqualTo(12);
+        assertThat(map.size()).isEqualTo(12);
+        assertThat(set.contains(100)).isFalse();
+        assertThat(set.contains(101)).isFalse();
+        assertThat(map.containsKey(100)).isFalse();
+        assertThat(set.add(5)).isFalse();
+        assertThat(map.put(5, 50)).isFalse();
+        assertThat(map.addTo(5, 1)).isEqualTo(51);
+        assertThat(set.toArray()).hasSize(12);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for {@link DoiPipeline}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiPipelineTest {
+
+    private static final String ALPHABET = "0123456789-. /ABCxyz\u00f1\u0660";
+
+    /**
+     * Records arrive at the sink in order, sanitized and validated exactly as
+     * {@link DoiType#sanitize(String)} and {@link DoiType#validateNumber(String, boolean)} do.
+     *
+     * @param ringSize  ring capacity
+     * @param batchSize stage batch size
+     * @param wait      wait strategy
+     * @param strict    whether sanitization is disabled
+     * @throws IOException never, parser and sink are in memory
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "2, 1, YIELD, false",
+            "8, 3, PARK, false",
+            "1024, 64, YIELD, true",
+            "64, 64, BUSY_SPIN, true"
+    })
+    @DisplayName("run(): in-order records agree with sanitize/validateNumber")
+    void testRun(int ringSize, int batchSize, DoiPipeline.WaitStrategy wait, boolean strict) throws IOException {
+        assumeTrue(wait != DoiPipeline.WaitStrategy.BUSY_SPIN || Runtime.getRuntime().availableProcessors() >= 4,
+                "busy spinning needs a core per stage");
+        int count = 20_000;
+        var random = new Random(ringSize * 31L + batchSize);
+        var types = new DoiType[count];
+        var numbers = new String[count];
+        var types0 = DoiType.values();
+        for (int i = 0; i < count; i++) {
+            types[i] = random.nextInt(20) == 0 ? null : types0[random.nextInt(types0.length)];
+            numbers[i] = number(types[i], random);
+        }
+
+        var pipeline = new DoiPipeline(ringSize, batchSize, wait, strict);
+        int[] next = {0};
+        long[] expectedSequence = {0};
+        long[] valid = {0};
+        var summary = pipeline.run(record -> {
+            if (next[0] == count) return false;
+            record.setType(types[next[0]]);
+            record.setNumber(numbers[next[0]]);
+            record.setTag(next[0]++);
+            return true;
+        }, record -> {
+            int i = (int) record.getTag();
+            assertThat(record.getSequence()).isEqualTo(expectedSequence[0]++);
+            assertThat(i).isEqualTo(record.getSequence());
+            DoiType type = types[i];
+            boolean expected = type != null && type.validateNumber(numbers[i], strict);
+            assertThat(record.isValid()).as("%s '%s'", type, numbers[i]).isEqualTo(expected);
+            if (type != null) {
+                String clean = strict ? numbers[i] : type.sanitize(numbers[i]);
+                assertThat(record.getSanitized().toString()).isEqualTo(clean);
+                assertThat(record.getKey()).isEqualTo(expected && type.isNumeric()
+                        ? DoiKeys.parseDigits(clean) : DoiKeys.NO_KEY);
+            }
+            if (expected) valid[0]++;
+        });
+
+        assertThat(summary.getRecords()).isEqualTo(count);
+        assertThat(summary.getValid()).isEqualTo(valid[0]);
+        assertThat(expectedSequence[0]).isEqualTo(count);
+        for (DoiPipeline.Stage stage : DoiPipeline.Stage.values()) {
+            assertThat(pipeline.getProcessed(stage)).isEqualTo(count);
+            assertThat(summary.getBatches(stage)).isBetween((long) count / batchSize, (long) count);
+        }
+    }
+
+    /**
+     * The ring can be reused, including with empty input.
+     *
+     * @throws IOException never, parser and sink are in memory
+     */
+    @Test
+    @DisplayName("run(): empty input and reuse")
+    void testEmptyAndReuse() throws IOException {
+        var pipeline = new DoiPipeline(16, 4, DoiPipeline.WaitStrategy.YIELD, false);
+        assertThat(pipeline.run(record -> false, record -> {
+            throw new AssertionError("no records expected");
+        }).getRecords()).isZero();
+        int[] left = {100};
+        var summary = pipeline.run(record -> {
+            record.setType(DoiType.DNI);
+            record.setNumber("45678901");
+            return left[0]-- > 0;
+        }, record -> assertThat(record.getKey()).isEqualTo(45678901L));
+        assertThat(summary.getRecords()).isEqualTo(100);
+        assertThat(summary.getValid()).isEqualTo(100);
+    }
+
+    /**
+     * Exceptions from the parser or the sink stop every stage and are rethrown.
+     */
+    @Test
+    @DisplayName("run(): parser and sink failures propagate")
+    void testFailure() {
+        var pipeline = new DoiPipeline(8, 2, DoiPipeline.WaitStrategy.PARK, false);
+        assertThatThrownBy(() -> pipeline.run(record -> {
+            record.setType(DoiType.RUC);
+            return true;
+        }, record -> {
+            if (record.getSequence() == 1000) throw new IOException("disk full");
+        })).isInstanceOf(IOException.class).hasMessage("disk full");
+
+        long[] n = {0};
+        assertThatThrownBy(() -> pipeline.run(record -> {
+            if (n[0]++ == 50) throw new IllegalStateException("bad input");
+            return true;
+        }, record -> {
+        })).isInstanceOf(IllegalStateException.class).hasMessage("bad input");
+        assertThatThrownBy(() -> new DoiPipeline(8, 9, DoiPipeline.WaitStrategy.PARK, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Once warm, the parse, sanitize and validate threads do not allocate.
+     *
+     * @throws IOException never, parser and sink are in memory
+     */
+    @Test
+    @DisplayName("run(): no steady-state allocation in the pipeline stages")
+    void testNoGarbage() throws IOException {
+        var bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "no allocation accounting");
+        var threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "no allocation accounting");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        String[] numbers = {"20607854247", "20-60785424-7", "45678901", "4567890X"};
+        DoiType[] types = {DoiType.RUC, DoiType.RUC, DoiType.DNI, DoiType.DNI};
+        int count = 2_000_000;
+        long[] ids = new long[3];
+        long[] before = new long[3];
+        long[] after = new long[3];
+        long[] parsed = {0};
+        var pipeline = new DoiPipeline(1024, 128, DoiPipeline.WaitStrategy.YIELD, false);
+        long parseThread = Thread.currentThread().getId();
+        pipeline.run(record -> {
+            int i = (int) (parsed[0] & 3);
+            record.setType(types[i]);
+            record.setNumber(numbers[i]);
+            return parsed[0]++ < count;
+        }, record -> {
+            if (record.getSequence() == count / 2) {
+                ids[0] = parseThread;
+                int n = 1;
+                for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                    String name = thread.getName();
+                    if (name.equals("doi-pipeline-sanitize") || name.equals("doi-pipeline-validate")) {
+                        ids[n++] = thread.getId();
+                    }
+                }
+                assertThat(n).isEqualTo(3);
+                for (int t = 0; t < 3; t++) before[t] = threads.getThreadAllocatedBytes(ids[t]);
+            } else if (record.getSequence() == count - 4096) {
+                // Upstream stages run at most one ring ahead of the sink, so they are still alive.
+                for (int t = 0; t < 3; t++) after[t] = threads.getThreadAllocatedBytes(ids[t]);
+            }
+        });
+        for (int t = 0; t < 3; t++) {
+            assertThat(before[t]).isNotNegative();
+            assertThat(after[t]).isNotNegative();
+            assertThat(after[t] - before[t]).as("thread %d", t).isLessThan(4096);
+        }
+    }
+
+    private static String number(DoiType type, Random random) {
+        if (type == DoiType.RUC && random.nextBoolean()) {
+            String ruc = DoiKeys.format(RUCUtils.deriveRUC10(random.nextInt(100_000_000)), 11);
+            return random.nextBoolean() ? ruc : ruc.substring(0, 2) + "-" + ruc.substring(2);
+        }
+        if (type == DoiType.DNI && random.nextBoolean()) {
+            return DoiKeys.format(random.nextInt(100_000_000), 8);
+        }
+        var out = new StringBuilder();
+        int length = random.nextInt(20);
+        for (int i = 0; i < length; i++) out.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return out.toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests for the DNI/RUC-10 helpers of {@link RUCUtils} and the bulk join of {@link DoiReconciler}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiReconcilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * RUC-10 derivation agrees with the string check digit and round-trips through extraction.
+     */
+    @Test
+    @DisplayName("deriveRUC10()/extractDNI(): agree with computeCheckDigit and round-trip")
+    void testDeriveAndExtract() {
+        assertThat(RUCUtils.deriveRUC10(45678901L)).isEqualTo(10456789019L);
+        assertThat(RUCUtils.extractDNI(10456789019L)).isEqualTo(45678901L);
+        assertThat(RUCUtils.extractDNI(10456789013L)).isEqualTo(DoiKeys.NO_KEY);
+        assertThat(RUCUtils.extractDNI(20607854247L)).isEqualTo(DoiKeys.NO_KEY);
+        assertThat(RUCUtils.deriveRUC10(100_000_000L)).isEqualTo(DoiKeys.NO_KEY);
+        assertThat(RUCUtils.deriveRUC10(-1L)).isEqualTo(DoiKeys.NO_KEY);
+
+        var random = new Random(37);
+        for (int n = 0; n < 10_000; n++) {
+            long dni = random.nextInt(100_000_000);
+            long ruc = RUCUtils.deriveRUC10(dni);
+            var text = DoiKeys.format(ruc, 11);
+            assertThat(text).startsWith("10" + DoiKeys.format(dni, 8));
+            assertThat(RUCUtils.isRUCValid(text)).isTrue();
+            assertThat(RUCUtils.extractDNI(ruc)).isEqualTo(dni);
+        }
+    }
+
+    /**
+     * Every strategy reports the same matched and unmatched entries as a
+     * reference join built with a {@code HashMap}, including duplicates, keyless entries and spilled partitions.
+     *
+     * @param strategy      join algorithm
+     * @param memoryEntries memory budget
+     * @throws Exception if a partition file fails
+     */
+    @ParameterizedTest
+    @CsvSource({"HASH, 1000000", "HASH, 1024", "SORT_MERGE, 1024"})
+    @DisplayName("join(): matches a reference join for every strategy")
+    void testJoinMatchesReference(DoiReconciler.Strategy strategy, int memoryEntries) throws Exception {
+        var random = new Random(37);
+        long[] dnis = new long[20_000];
+        long[] rucs = new long[30_000];
+        for (int i = 0; i < dnis.length; i++) dnis[i] = random.nextInt(40_000);
+        for (int i = 0; i < rucs.length; i++) {
+            rucs[i] = i % 10 == 0 ? 20607854247L : RUCUtils.deriveRUC10(random.nextInt(40_000));
+        }
+        if (strategy == DoiReconciler.Strategy.SORT_MERGE) {
+            Arrays.sort(dnis);
+            Arrays.sort(rucs);
+        }
+
+        Map<Long, List<Integer>> index = new HashMap<>();
+        for (int r = 0; r < rucs.length; r++) {
+            if (RUCUtils.extractDNI(rucs[r]) != DoiKeys.NO_KEY) {
+                index.computeIfAbsent(rucs[r], k -> new ArrayList<>()).add(r);
+            }
+        }
+        var expected = new ArrayList<String>();
+        boolean[] rightMatched = new boolean[rucs.length];
+        for (int l = 0; l < dnis.length; l++) {
+            long key = RUCUtils.deriveRUC10(dnis[l]);
+            List<Integer> matches = index.getOrDefault(key, List.of());
+            for (int r : matches) {
+                expected.add("M " + key + " " + l + " " + r);
+                rightMatched[r] = true;
+            }
+            if (matches.isEmpty()) expected.add("L " + key + " " + l);
+        }
+        for (int r = 0; r < rucs.length; r++) {
+            long key = RUCUtils.extractDNI(rucs[r]) == DoiKeys.NO_KEY ? DoiKeys.NO_KEY : rucs[r];
+            if (!rightMatched[r]) expected.add("R " + key + " " + r);
+        }
+
+        List<String> actual = new ArrayList<>();
+        var reconciler = new DoiReconciler(strategy, memoryEntries, tempDir);
+        var summary = reconciler.join(
+                DoiReconciler.Cursor.of(dnis).mapKeys(RUCUtils::deriveRUC10),
+                DoiReconciler.Cursor.of(rucs).mapKeys(ruc -> RUCUtils.extractDNI(ruc) == DoiKeys.NO_KEY
+                        ? DoiKeys.NO_KEY : ruc),
+                new DoiReconciler.Listener() {
+                    @Override
+                    public void matched(long key, long leftRef, long rightRef) {
+                        actual.add("M " + key + " " + leftRef + " " + rightRef);
+                    }
+
+                    @Override
+                    public void leftOnly(long key, long leftRef) {
+                        actual.add("L " + key + " " + leftRef);
+                    }
+
+                    @Override
+                    public void rightOnly(long key, long rightRef) {
+                        actual.add("R " + key + " " + rightRef);
+                    }
+                });
+
+        actual.sort(null);
+        expected.sort(null);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(summary.getMatched() + summary.getLeftOnly() + summary.getRightOnly()).isEqualTo(expected.size());
+        assertThat(summary.getPartitions() > 0).isEqualTo(memoryEntries < rucs.length
+                && strategy == DoiReconciler.Strategy.HASH);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    /**
+     * Sort-merge rejects unsorted input.
+     */
+    @Test
+    @DisplayName("join(SORT_MERGE): unsorted input is rejected")
+    void testUnsortedInput() {
+        var reconciler = new DoiReconciler(DoiReconciler.Strategy.SORT_MERGE, 1024, tempDir);
+        assertThatThrownBy(() -> reconciler.join(DoiReconciler.Cursor.of(new long[]{3, 1}),
+                DoiReconciler.Cursor.of(new long[]{1, 2}), new DoiReconciler.Listener() {
+                }))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("left");
+    }
+
+    /**
+     * A spilled hash join of a million keys per side runs in about the time of
+     * the in-memory join: partitions must not select keys that crowd one region
+     * of the in-memory table, which would make its linear probing quadratic.
+     *
+     * @throws Exception if a partition file fails
+     */
+    @Test
+    @DisplayName("join(HASH): spilled million-key join stays linear")
+    void testSpilledJoinScales() throws Exception {
+        var random = new Random(37);
+        long[] dnis = new long[1_000_000];
+        long[] rucs = new long[1_000_000];
+        for (int i = 0; i < dnis.length; i++) {
+            dnis[i] = RUCUtils.deriveRUC10(random.nextInt(100_000_000));
+            rucs[i] = i % 2 == 0 ? dnis[i] : RUCUtils.deriveRUC10(random.nextInt(100_000_000));
+        }
+        var reconciler = new DoiReconciler(DoiReconciler.Strategy.HASH, 1 << 17, tempDir);
+        var summary = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> reconciler.join(
+                DoiReconciler.Cursor.of(dnis), DoiReconciler.Cursor.of(rucs), new DoiReconciler.Listener() {
+                }));
+
+        assertThat(summary.getPartitions()).isEqualTo(16);
+        assertThat(summary.getMatched()).isGreaterThanOrEqualTo(500_000);
+        assertThat(summary.getMatched() + summary.getLeftOnly()).isGreaterThanOrEqualTo(dnis.length);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link DoiShapeSketch}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class DoiShapeSketchTest {
+
+    /**
+     * Signatures collapse character classes into runs.
+     */
+    @Test
+    @DisplayName("signature(): character-class runs")
+    void testSignature() {
+        assertThat(DoiShapeSketch.signature("20-123.456.789-1")).isEqualTo("N2-N3.N3.N3-N");
+        assertThat(DoiShapeSketch.signature("DNI 4567890")).isEqualTo("A3 N7");
+        assertThat(DoiShapeSketch.signature("206078542471")).isEqualTo("N12");
+        assertThat(DoiShapeSketch.signature("\u00d1\t\u20ac")).isEqualTo("A ?");
+        assertThat(DoiShapeSketch.signature("")).isEmpty();
+        assertThat(DoiShapeSketch.signature(null)).isEmpty();
+        assertThat(DoiShapeSketch.signature("1-".repeat(20))).isEqualTo("N-".repeat(8) + "~");
+    }
+
+    /**
+     * Below capacity, counts are exact and keyed by signature, type and failure;
+     * valid numbers are not recorded.
+     */
+    @Test
+    @DisplayName("record(): exact counts below capacity, valid values ignored")
+    void testRecord() {
+        var sketch = new DoiShapeSketch();
+        assertThat(sketch.record(DoiType.RUC, "20607854247", true)).isNull();
+        assertThat(sketch.record(DoiType.RUC, "20-123.456.789-1", true)).isEqualTo(DoiFailure.INVALID_CHARACTER);
+        sketch.record(DoiType.RUC, "20-987.654.321-0", true);
+        sketch.record(DoiType.RUC, "206078542471", true);
+        sketch.record(DoiType.DNI, "206078542471", true);
+        sketch.record(null, "1", true);
+
+        List<DoiShapeSketch.Shape> top = sketch.top(10);
+        assertThat(sketch.getTotal()).isEqualTo(5);
+        assertThat(top).hasSize(4);
+        assertThat(top.get(0).getSignature()).isEqualTo("N2-N3.N3.N3-N");
+        assertThat(top.get(0).getCount()).isEqualTo(2);
+        assertThat(top.get(0).getError()).isZero();
+        assertThat(top.get(0).getType()).isEqualTo(DoiType.RUC);
+        assertThat(top.get(0).getFailure()).isEqualTo(DoiFailure.INVALID_CHARACTER);
+        assertThat(sketch.top(1)).hasSize(1);
+        long twelveDigits = top.stream().filter(shape -> shape.getSignature().equals("N12")).count();
+        assertThat(twelveDigits).isEqualTo(2);
+    }
+
+    /**
+     * With many rare shapes, the heavy hitters are still reported, with counts
+     * bounded by their true counts plus the error.
+     */
+    @Test
+    @DisplayName("top(): heavy hitters survive a long tail of rare shapes")
+    void testHeavyHitters() {
+        var sketch = new DoiShapeSketch(32);
+        var random = new Random(40);
+        var truth = new HashMap<String, Long>();
+        for (int i = 0; i < 100_000; i++) {
+            String value;
+            int pick = random.nextInt(10);
+            if (pick < 3) value = "20-123.456.789-1";
+            else if (pick < 5) value = "DNI 4567890";
+            else value = "x".repeat(1 + random.nextInt(500)) + "1";
+            sketch.add(DoiType.RUC, value, DoiFailure.INVALID_CHARACTER);
+            truth.merge(DoiShapeSketch.signature(value), 1L, Long::sum);
+        }
+        var top = sketch.top(2);
+        assertThat(top.get(0).getSignature()).isEqualTo("N2-N3.N3.N3-N");
+        assertThat(top.get(1).getSignature()).isEqualTo("A3 N7");
+        for (DoiShapeSketch.Shape shape : sketch.top(32)) {
+            long actual = truth.get(shape.getSignature());
+            assertThat(shape.getCount()).isGreaterThanOrEqualTo(actual);
+            assertThat(shape.getCount() - shape.getError()).isLessThanOrEqualTo(actual);
+        }
+    }
+
+    /**
+     * Per-thread sketches merge into the same counts as a shared sketch, and a
+     * shared sketch loses no updates under contention.
+     *
+     * @throws InterruptedException if interrupted while joining workers
+     */
+    @Test
+    @DisplayName("merge() and concurrent add(): no lost counts")
+    void testMergeAndConcurrency() throws InterruptedException {
+        var shared = new DoiShapeSketch(64);
+        var workers = new ArrayList<DoiShapeSketch>();
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            var own = new DoiShapeSketch(64);
+            workers.add(own);
+            int seed = t;
+            var thread = new Thread(() -> {
+                var random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    String value = "1".repeat(1 + random.nextInt(20));
+                    shared.add(DoiType.DNI, value, DoiFailure.TOO_SHORT);
+                    own.add(DoiType.DNI, value, DoiFailure.TOO_SHORT);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        var merged = new DoiShapeSketch(64);
+        for (DoiShapeSketch worker : workers) merged.merge(worker);
+        assertThat(shared.getTotal()).isEqualTo(80_000);
+        assertThat(merged.getTotal()).isEqualTo(80_000);
+        Map<String, Long> expected = new HashMap<>();
+        for (DoiShapeSketch.Shape shape : shared.top(64)) expected.put(shape.getSignature(), shape.getCount());
+        Map<String, Long> actual = new HashMap<>();
+        for (DoiShapeSketch.Shape shape : merged.top(64)) {
+            actual.put(shape.getSignature(), shape.getCount());
+            assertThat(shape.getError()).isZero();
+        }
+        assertThat(actual).isEqualTo(expected);
+        assertThatThrownBy(() -> merged.merge(merged)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Merging full sketches keeps the capacity and charges missing shapes as error.
+     */
+    @Test
+    @DisplayName("merge(): full sketches stay bounded with upper-bound counts")
+    void testMergeFull() {
+        var left = new DoiShapeSketch(2);
+        var right = new DoiShapeSketch(2);
+        for (int i = 0; i < 5; i++) left.add(DoiType.DNI, "1", DoiFailure.TOO_SHORT);
+        left.add(DoiType.DNI, "A", DoiFailure.INVALID_CHARACTER);
+        for (int i = 0; i < 3; i++) right.add(DoiType.DNI, "1-1", DoiFailure.INVALID_CHARACTER);
+        right.add(DoiType.DNI, "A", DoiFailure.INVALID_CHARACTER);
+
+        left.merge(right);
+        var top = left.top(5);
+        assertThat(top).hasSize(2);
+        assertThat(left.getTotal()).isEqualTo(10);
+        assertThat(top.get(0).getSignature()).isEqualTo("N");
+        assertThat(top.get(0).getCount()).isEqualTo(6);
+        assertThat(top.get(0).getError()).isEqualTo(1);
+        assertThat(top.get(1).getCount()).isGreaterThanOrEqualTo(3);
+    }
+
+    /**
+     * A flood of distinct shapes keeps evicting the minimum through the heap and the
+     * fingerprint index: the sketch stays full, counts add up to the total, and the
+     * surviving shapes keep valid bounds and can still be found and incremented.
+     */
+    @Test
+    @DisplayName("add(): eviction under a flood of distinct shapes")
+    void testEvictionFlood() {
+        var sketch = new DoiShapeSketch(16);
+        var truth = new HashMap<String, Long>();
+        var random = new Random(41);
+        for (int i = 0; i < 200_000; i++) {
+            String value = i % 4 == 0 ? "DNI 4567890" : "1-".repeat(1 + random.nextInt(3)) + "A".repeat(1 + random.nextInt(2000));
+            sketch.add(DoiType.DNI, value, DoiFailure.INVALID_CHARACTER);
+            truth.merge(DoiShapeSketch.signature(value), 1L, Long::sum);
+        }
+        var top = sketch.top(100);
+        assertThat(top).hasSize(16);
+        assertThat(top.get(0).getSignature()).isEqualTo("A3 N7");
+        assertThat(top.stream().mapToLong(DoiShapeSketch.Shape::getCount).sum()).isEqualTo(sketch.getTotal());
+        for (DoiShapeSketch.Shape shape : top) {
+            long actual = truth.get(shape.getSignature());
+            assertThat(shape.getCount()).isGreaterThanOrEqualTo(actual);
+            assertThat(shape.getCount() - shape.getError()).isLessThanOrEqualTo(actual);
+        }
+        for (DoiShapeSketch.Shape shape : top) {
+            sketch.add(DoiType.DNI, sample(shape.getSignature()), DoiFailure.INVALID_CHARACTER);
+        }
+        var after = sketch.top(100);
+        assertThat(after).hasSize(16);
+        for (int i = 0; i < top.size(); i++) {
+            String signature = top.get(i).getSignature();
+            long before = top.get(i).getCount();
+            assertThat(after).anyMatch(shape -> shape.getSignature().equals(signature)
+                    && shape.getCount() == before + 1);
+        }
+        sketch.clear();
+        assertThat(sketch.top(1)).isEmpty();
+        assertThatThrownBy(() -> new DoiShapeSketch(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Rebuilds a value with the given signature, for the classes used in these tests.
+     */
+    private static String sample(String signature) {
+        var out = new StringBuilder();
+        for (int i = 0; i < signature.length(); ) {
+            char kind = signature.charAt(i++);
+            int start = i;
+            while (i < signature.length() && Character.isDigit(signature.charAt(i))) i++;
+            int count = start == i ? 1 : Integer.parseInt(signature.substring(start, i));
+            char c = kind == 'N' ? '1' : kind == 'A' ? 'A' : kind;
+            out.append(String.valueOf(c).repeat(count));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for per-keystroke validation state, ensuring it reports progress while
+ * typing and always agrees with {@link DoiType#validateNumber(String, boolean)}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class IncrementalValidatorTest {
+
+    /**
+     * Types the InfoYupay RUC digit by digit and checks the reported status.
+     */
+    @Test
+    @DisplayName("RUC typing: incomplete, invalid prefix, check digit mismatch and valid")
+    void testRucTyping() {
+        var validator = new IncrementalValidator(DoiType.RUC, true);
+        assertThat(validator.status()).isEqualTo(IncrementalValidator.Status.EMPTY);
+
+        validator.set("2060785424");
+        assertThat(validator.status()).isEqualTo(IncrementalValidator.Status.INCOMPLETE);
+        assertThat(validator.missingCharacters()).isEqualTo(1);
+        assertThat(validator.expectedCheckDigit()).isEqualTo('7');
+
+        validator.append('1');
+        assertThat(validator.status()).isEqualTo(IncrementalValidator.Status.CHECK_DIGIT_MISMATCH);
+
+        validator.backspace();
+        validator.append('7');
+        assertThat(validator.isValid()).isTrue();
+
+        validator.delete(0);
+        assertThat(validator.status()).isEqualTo(IncrementalValidator.Status.INVALID_PREFIX);
+        validator.insert(0, '2');
+        assertThat(validator.isValid()).isTrue();
+    }
+
+    /**
+     * Lenient mode ignores separators the same way sanitization does.
+     */
+    @Test
+    @DisplayName("DNI lenient typing: separators are ignored while counting digits")
+    void testDniLenient() {
+        var validator = new IncrementalValidator(DoiType.DNI, false);
+        validator.set("45.678-9");
+        assertThat(validator.status()).isEqualTo(IncrementalValidator.Status.INCOMPLETE);
+        assertThat(validator.missingCharacters()).isEqualTo(2);
+        validator.append('0');
+        validator.append('1');
+        assertThat(validator.isValid()).isTrue();
+    }
+
+    /**
+     * Random edit sequences must always agree with the non-incremental validation.
+     */
+    @Test
+    @DisplayName("Random edits: isValid() must agree with validateNumber()")
+    void testAgreesWithValidateNumber() {
+        var random = new Random(20251127L);
+        var alphabet = "0123456789012345678901234567890123456789AbZz-. \u00f1";
+        for (DoiType type : DoiType.values()) {
+            for (boolean strict : new boolean[]{true, false}) {
+                var validator = new IncrementalValidator(type, strict);
+                for (int step = 0; step < 2_000; step++) {
+                    int op = random.nextInt(10);
+                    if (op < 6 || validator.length() == 0) {
+                        validator.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                    } else if (op < 8) {
+                        validator.backspace();
+                    } else if (op < 9) {
+                        validator.delete(random.nextInt(validator.length()));
+                    } else {
+                        validator.insert(random.nextInt(validator.length() + 1),
+                                alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                    if (validator.length() > 20) validator.clear();
+                    assertThat(validator.isValid())
+                            .as("%s strict=%s '%s'", type, strict, validator.text())
+                            .isEqualTo(type.validateNumber(validator.text(), strict));
+                }
+            }
+        }
+    }
+}
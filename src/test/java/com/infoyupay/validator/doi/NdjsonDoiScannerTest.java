@@ -0,0 +1,231 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link NdjsonDoiScanner}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class NdjsonDoiScannerTest {
+
+    private static final String[] CODES = {"1", "4", "6", "7", "0", "A", "99", "", "01"};
+    private static final String[] NUMBERS = {"45678901", "4567890", "45.678.901", "20607854247",
+            "20-60785424-7", "20607854241", "10456789013", "AB12345", "001234567", " 45678901 ", "", "  "};
+
+    /**
+     * One verdict per non-blank line, with line numbers counting blank lines.
+     */
+    @Test
+    @DisplayName("scan(): verdicts per line")
+    void testVerdicts() {
+        var scanner = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.PLE, DoiCatalog.builtIn(), false);
+        var input = "{\"tipoDoc\":\"6\",\"numDoc\":\"20607854247\"}\n"
+                + "{\"tipoDoc\":\"6\",\"numDoc\":\"20607854241\"}\n"
+                + "\n"
+                + "{\"tipoDoc\":\"XYZ\",\"numDoc\":\"1\"}\n"
+                + "{\"numDoc\":\"45678901\"}\n"
+                + "{\"tipoDoc\":\"1\",\"numDoc\":null}\n"
+                + "not json\n"
+                + "{\"tipoDoc\":\"1\",\"numDoc\":\"45678901\"\n"
+                + "  { \"tipoDoc\" : 1 , \"numDoc\" : 45678901 }  \r\n";
+        List<String> lines = new ArrayList<>();
+        var summary = scan(scanner, input, lines);
+
+        assertThat(lines).containsExactly(
+                "1 VALID 20607854247", "2 INVALID_NUMBER -1", "4 UNKNOWN_TYPE -1",
+                "5 MISSING_FIELD -1", "6 MISSING_FIELD -1", "7 MALFORMED -1", "8 MALFORMED -1",
+                "9 VALID 45678901");
+        assertThat(summary.getLines()).isEqualTo(9);
+        assertThat(summary.getValid()).isEqualTo(2);
+        assertThat(summary.getCount(NdjsonDoiScanner.Verdict.MALFORMED)).isEqualTo(2);
+    }
+
+    /**
+     * Escaped keys and values, non-ASCII bytes, nested members, extra members
+     * and duplicate keys are handled.
+     */
+    @Test
+    @DisplayName("scan(): escapes, nesting and duplicates")
+    void testStructure() {
+        var scanner = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.PLE, DoiCatalog.builtIn(), false);
+        var input = "{\"tipo\\u0044oc\":\"\\u0036\",\"numDoc\":\"20\\/60785424\\\"7\"}\n"
+                + "{\"meta\":{\"numDoc\":\"x\",\"a\":[1,{\"b\":\"}\"}]},\"tipoDoc\":\"1\",\"numDoc\":\"45678901\"}\n"
+                + "{\"nombre\":\"Pe\u00f1a\",\"tipoDoc\":\"1\",\"numDoc\":\"4567\u00f1890\"}\n"
+                + "{\"tipoDoc\":\"1\",\"numDoc\":\"1\",\"numDoc\":\"45678901\",\"ok\":true}\n"
+                + "{\"tipoDoc\":\"1\",\"numDoc\":[\"45678901\"]}\n";
+        List<String> lines = new ArrayList<>();
+        scan(scanner, input, lines);
+
+        assertThat(lines).containsExactly("1 VALID 20607854247", "2 VALID 45678901", "3 INVALID_NUMBER -1",
+                "4 VALID 45678901", "5 MISSING_FIELD -1");
+    }
+
+    /**
+     * Verdicts and keys agree with decoding and validating through strings, where a
+     * shared code is valid if any of its rules accepts the number.
+     */
+    @ParameterizedTest
+    @EnumSource(value = UsageContext.class, names = {"PLE", "FV_3800"})
+    @DisplayName("scan(): agrees with DoiCatalog.decodeAll and DoiRule.validateNumber")
+    void testAgreement(UsageContext context) {
+        var catalog = DoiCatalog.builtIn();
+        var random = new Random(43);
+        for (boolean strict : new boolean[]{false, true}) {
+            var scanner = new NdjsonDoiScanner("t", "n", context, catalog, strict);
+            var input = new StringBuilder();
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String code = CODES[random.nextInt(CODES.length)];
+                String number = NUMBERS[random.nextInt(NUMBERS.length)];
+                input.append("{\"t\":\"").append(code).append("\",\"n\":\"").append(number).append("\"}\n");
+                List<DoiRule> rules = catalog.decodeAll(context, code);
+                String verdict = rules.isEmpty() ? "UNKNOWN_TYPE" : "INVALID_NUMBER";
+                long key = DoiKeys.NO_KEY;
+                for (DoiRule rule : rules) {
+                    if (rule.validateNumber(number, strict)) {
+                        verdict = "VALID";
+                        if (rule.isNumeric()) key = DoiKeys.parseDigits(strict ? number : rule.sanitize(number));
+                        break;
+                    }
+                }
+                expected.add((i + 1) + " " + verdict + " " + key);
+            }
+            List<String> lines = new ArrayList<>();
+            scan(scanner, input.toString(), lines);
+            assertThat(lines).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * FV-3800 "01" names both DNI and TIN: TINs are valid and reported with the TIN rule.
+     * The scanner keeps the catalog it was built with after another one is published.
+     *
+     * @throws Exception if the revised catalog cannot be read
+     */
+    @Test
+    @DisplayName("scan(): shared codes and catalog snapshot")
+    void testSharedCodesAndSnapshot() throws Exception {
+        var scanner = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.FV_3800, DoiCatalog.current(), true);
+        var input = "{\"tipoDoc\":\"01\",\"numDoc\":\"45678901\"}\n"
+                + "{\"tipoDoc\":\"01\",\"numDoc\":\"GB123456789\"}\n"
+                + "{\"tipoDoc\":\"01\",\"numDoc\":\"12-3456789\"}\n";
+        var bytes = input.getBytes(StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        NdjsonDoiScanner.Listener listener = (n, start, end, verdict, rule, key) ->
+                lines.add(n + " " + verdict + " " + rule.getName() + " " + key);
+        scanner.scan(bytes, 0, bytes.length, listener);
+        assertThat(lines).containsExactly("1 VALID DNI 45678901", "2 VALID TIN -1", "3 INVALID_NUMBER DNI -1");
+
+        var revised = DoiCatalog.load(new StringReader("version=r\ntypes=RUC\nRUC.code.FV_3800=06\n"
+                + "RUC.length=11\nRUC.charset=digits\n"));
+        DoiCatalog.publish(revised);
+        try {
+            lines.clear();
+            scanner.scan(bytes, 0, bytes.length, listener);
+            assertThat(lines).startsWith("1 VALID DNI 45678901");
+            var fresh = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.FV_3800, DoiCatalog.current(), true);
+            assertThat(fresh.scan(bytes, 0, bytes.length, null).getCount(NdjsonDoiScanner.Verdict.UNKNOWN_TYPE))
+                    .isEqualTo(3);
+        } finally {
+            DoiCatalog.reset();
+        }
+    }
+
+    /**
+     * Buffers split at any point keep the partial line for the next call, and
+     * streams yield the same verdicts as arrays, also past the buffer size.
+     */
+    @Test
+    @DisplayName("scan(): split buffers and streams")
+    void testSplit() throws Exception {
+        var scanner = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.PLE, DoiCatalog.builtIn(), false);
+        var line = "{\"tipoDoc\":\"6\",\"numDoc\":\"20607854247\"}\n{\"tipoDoc\":\"1\",\"numDoc\":\"123\"}";
+        var bytes = line.getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= bytes.length; split++) {
+            var buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes, 0, split).flip();
+            var summary = new NdjsonDoiScanner.Summary();
+            List<NdjsonDoiScanner.Verdict> verdicts = new ArrayList<>();
+            NdjsonDoiScanner.Listener listener = (n, start, end, verdict, rule, key) -> verdicts.add(verdict);
+            scanner.scan(buffer, false, summary, listener);
+            buffer.compact().put(bytes, split, bytes.length - split).flip();
+            scanner.scan(buffer, true, summary, listener);
+
+            assertThat(buffer.hasRemaining()).isFalse();
+            assertThat(summary.getLines()).isEqualTo(2);
+            assertThat(verdicts).containsExactly(NdjsonDoiScanner.Verdict.VALID,
+                    NdjsonDoiScanner.Verdict.INVALID_NUMBER);
+        }
+
+        var big = new StringBuilder();
+        big.append("{\"pad\":\"").append("x".repeat(100_000)).append("\",\"tipoDoc\":\"1\",\"numDoc\":\"45678901\"}\n");
+        for (int i = 0; i < 5000; i++) big.append(line).append('\n');
+        var data = big.toString().getBytes(StandardCharsets.UTF_8);
+        var fromArray = scanner.scan(data, 0, data.length, null);
+        var fromStream = scanner.scan(new ByteArrayInputStream(data), null);
+        assertThat(fromStream.getLines()).isEqualTo(fromArray.getLines()).isEqualTo(10_001);
+        assertThat(fromStream.getValid()).isEqualTo(fromArray.getValid()).isEqualTo(5001);
+    }
+
+    /**
+     * Listener offsets delimit each line without its line break.
+     */
+    @Test
+    @DisplayName("scan(): listener offsets and argument checks")
+    void testOffsetsAndArguments() {
+        var scanner = new NdjsonDoiScanner("tipoDoc", "numDoc", UsageContext.PLE, DoiCatalog.builtIn(), true);
+        var bytes = "xx{\"tipoDoc\":\"1\",\"numDoc\":\"45678901\"}\n{}".getBytes(StandardCharsets.UTF_8);
+        List<int[]> ranges = new ArrayList<>();
+        scanner.scan(bytes, 2, bytes.length - 2, (n, start, end, verdict, rule, key) -> ranges.add(new int[]{start, end}));
+        assertThat(ranges).hasSize(2);
+        assertThat(ranges.get(0)).containsExactly(2, bytes.length - 3);
+        assertThat(ranges.get(1)).containsExactly(bytes.length - 2, bytes.length);
+
+        assertThatThrownBy(() -> new NdjsonDoiScanner("a", "a", UsageContext.PLE, DoiCatalog.builtIn(), true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new NdjsonDoiScanner(null, "a", UsageContext.PLE, DoiCatalog.builtIn(), true))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    private static NdjsonDoiScanner.Summary scan(NdjsonDoiScanner scanner, String input, List<String> lines) {
+        var bytes = input.getBytes(StandardCharsets.UTF_8);
+        return scanner.scan(bytes, 0, bytes.length,
+                (n, start, end, verdict, rule, key) -> lines.add(n + " " + verdict + " " + key));
+    }
+}
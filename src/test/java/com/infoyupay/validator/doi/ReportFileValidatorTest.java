@@ -0,0 +1,147 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for streaming validation of PLE/PLAME/AFPNet/FV-3800 text files.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class ReportFileValidatorTest {
+
+    /**
+     * A PLE-like file reports each rejected record with its line, column and reason.
+     *
+     * @throws IOException never, the input is in memory
+     */
+    @Test
+    @DisplayName("validate(): PLE codes are decoded and errors located by line and column")
+    void testPleFile() throws IOException {
+        var file = "20251100|M001|6|20607854247|100.00\r\n"
+                + "20251100|M002|1|4567890|50.00\r\n"
+                + "20251100|M003|9|12345678|10.00\r\n"
+                + "20251100|M004|||0.00\r\n"
+                + "20251100|M005\r\n"
+                + "20251100|M006|1|45678901|50.00\r\n";
+        var errors = new ArrayList<String>();
+        var validator = new ReportFileValidator(UsageContext.PLE, '|', 2, 3, true);
+
+        var summary = validator.validate(new StringReader(file),
+                (line, column, reason, value) -> errors.add(line + ":" + column + ":" + reason + ":" + value));
+
+        assertThat(errors).containsExactly(
+                "2:17:INVALID_NUMBER:4567890",
+                "3:15:UNKNOWN_TYPE_CODE:9",
+                "5:14:MISSING_FIELD:");
+        assertThat(summary.getRecords()).isEqualTo(6);
+        assertThat(summary.getSkipped()).isEqualTo(1);
+        assertThat(summary.getValid()).isEqualTo(2);
+        assertThat(summary.getErrors(ReportFileValidator.Reason.INVALID_NUMBER)).isEqualTo(1);
+    }
+
+    /**
+     * PLAME uses two-digit codes, so the PLE code "6" is unknown there.
+     *
+     * @throws IOException never, the input is in memory
+     */
+    @Test
+    @DisplayName("validate(): PLAME layout uses its own two-digit code space")
+    void testPlameCodes() throws IOException {
+        var validator = new ReportFileValidator(UsageContext.PLAME, '|', 0, 1, false);
+        var summary = validator.validate(new StringReader("06|20-60785424-7|\n6|20607854247|"), null);
+        assertThat(summary.getValid()).isEqualTo(1);
+        assertThat(summary.getErrors(ReportFileValidator.Reason.UNKNOWN_TYPE_CODE)).isEqualTo(1);
+    }
+
+    /**
+     * FV-3800 uses "01" for both DNI and TIN, so a foreign TIN is valid under that code
+     * and only numbers that fit neither type are rejected.
+     *
+     * @throws IOException never, the input is in memory
+     */
+    @Test
+    @DisplayName("validate(): FV-3800 code 01 accepts both DNI and TIN numbers")
+    void testFv3800SharedCode() throws IOException {
+        var file = "1|01|45678901\n"
+                + "2|01|GB123456789\n"
+                + "3|01|12-3456789\n"
+                + "4|06|20607854247\n"
+                + "5|02|X12345\n"
+                + "6|09|AB123\n";
+        var errors = new ArrayList<String>();
+        var validator = new ReportFileValidator(UsageContext.FV_3800, '|', 1, 2, true);
+
+        var summary = validator.validate(new StringReader(file),
+                (line, column, reason, value) -> errors.add(line + ":" + reason + ":" + value));
+
+        assertThat(errors).containsExactly("3:INVALID_NUMBER:12-3456789", "6:UNKNOWN_TYPE_CODE:09");
+        assertThat(summary.getValid()).isEqualTo(4);
+    }
+
+    /**
+     * AFPNet has its own one and two-digit codes and does not accept RUC.
+     *
+     * @throws IOException never, the input is in memory
+     */
+    @Test
+    @DisplayName("validate(): AFPNet layout uses its own code space")
+    void testAfpNetCodes() throws IOException {
+        var file = "0,45678901\n"
+                + "0,4567890\n"
+                + "1,CE1234567\n"
+                + "10,PTP123\n"
+                + "06,20607854247\n";
+        var errors = new ArrayList<String>();
+        var validator = new ReportFileValidator(UsageContext.AFP_NET, ',', 0, 1, true);
+
+        var summary = validator.validate(new StringReader(file),
+                (line, column, reason, value) -> errors.add(line + ":" + reason + ":" + value));
+
+        assertThat(errors).containsExactly("2:INVALID_NUMBER:4567890", "5:UNKNOWN_TYPE_CODE:06");
+        assertThat(summary.getValid()).isEqualTo(3);
+    }
+
+    /**
+     * decodeAll() lists every type sharing a code, while decode() keeps the first declared.
+     */
+    @Test
+    @DisplayName("decodeAll(): lists every DOI type sharing a context code")
+    void testDecodeAll() {
+        assertThat(UsageContext.FV_3800.decodeAll("01")).containsExactly(DoiType.DNI, DoiType.TIN);
+        assertThat(UsageContext.FV_3800.decode("01")).isEqualTo(DoiType.DNI);
+        assertThat(UsageContext.PLE.decodeAll("0")).containsExactly(DoiType.OTHERS, DoiType.PNP,
+                DoiType.REFUGEE, DoiType.DIPLOMATIC, DoiType.PTP, DoiType.ID, DoiType.ID_PTP, DoiType.TIN);
+        assertThat(UsageContext.PLAME.decodeAll("06")).isEqualTo(List.of(DoiType.RUC));
+        assertThat(UsageContext.AFP_NET.decodeAll("06")).isEmpty();
+        assertThat(UsageContext.PLE.decodeAll("ABC")).isEmpty();
+        assertThat(UsageContext.PLE.decodeAll(null)).isEmpty();
+    }
+}
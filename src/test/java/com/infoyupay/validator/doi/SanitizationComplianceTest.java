@@ -22,6 +22,8 @@ package com.infoyupay.validator.doi;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -54,4 +56,55 @@ public class SanitizationComplianceTest {
         var sanitized = SanitizationUtils.digits(raw, 6);
         assertThat(sanitized).isEqualTo("567890");
     }
+
+    /**
+     * Clean values within the maximum length are returned without copying.
+     */
+    @Test
+    @DisplayName("alnum()/digits(): clean input returns the same instance")
+    void testIdentityFastPath() {
+        var dni = "45678901";
+        var passport = "AB1234567";
+        assertThat(SanitizationUtils.digits(dni, 8)).isSameAs(dni);
+        assertThat(SanitizationUtils.alnum(passport, 12)).isSameAs(passport);
+        assertThat(SanitizationUtils.digits(dni, 0)).isSameAs(dni);
+        assertThat(SanitizationUtils.digits("123456789", 8)).isEqualTo("23456789");
+    }
+
+    /**
+     * The table-driven implementation must match the original per-char
+     * {@link Character} filtering for every BMP char and for mixed strings.
+     */
+    @Test
+    @DisplayName("alnum()/digits(): identical to Character-based filtering")
+    void testMatchesCharacterFiltering() {
+        for (char c = 0; c < Character.MAX_VALUE; c++) {
+            var value = "1" + c + "A";
+            assertThat(SanitizationUtils.alnum(value, 0)).isEqualTo(reference(value, 0, false));
+            assertThat(SanitizationUtils.digits(value, 0)).isEqualTo(reference(value, 0, true));
+        }
+
+        var random = new Random(30L);
+        var alphabet = "0123456789AZaz -./_\u00aa\u00b5\u00c0\u00f1\u00d7\u0661\u4e2d\ud83d\ude00";
+        for (int n = 0; n < 10_000; n++) {
+            var builder = new StringBuilder();
+            for (int i = random.nextInt(25); i > 0; i--) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            var value = builder.toString();
+            int maxLength = random.nextInt(17) - 1;
+            assertThat(SanitizationUtils.alnum(value, maxLength)).isEqualTo(reference(value, maxLength, false));
+            assertThat(SanitizationUtils.digits(value, maxLength)).isEqualTo(reference(value, maxLength, true));
+        }
+    }
+
+    private static String reference(String rawNumber, int maxLength, boolean digits) {
+        var builder = new StringBuilder();
+        for (int i = 0; i < rawNumber.length(); i++) {
+            char c = rawNumber.charAt(i);
+            if (digits ? Character.isDigit(c) : Character.isLetterOrDigit(c)) builder.append(c);
+        }
+        int length = builder.length();
+        return maxLength > 0 && length > maxLength ? builder.substring(length - maxLength) : builder.toString();
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Micro-benchmark of {@link SwarDigits} against the per-character loops of
+ * {@link RUCUtils}, {@link DoiKeys} and {@link DoiType}.<br>
+ * <br>
+ * Not a test: run with {@code ./gradlew benchmark}. Each kernel processes a
+ * fixed-width byte column of one million records (90% valid) for several
+ * rounds; the best round is reported in nanoseconds per record. Numbers are
+ * indicative only; use a JMH harness for publication-grade results.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public final class SwarDigitsBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+    private static final int ROUNDS = 15;
+    private static long sink;
+
+    private SwarDigitsBenchmark() {
+        // entry point holder
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args) {
+        var random = new Random(36);
+        byte[] rucs = new byte[RECORDS * SwarDigits.RUC_WIDTH];
+        byte[] dnis = new byte[RECORDS * SwarDigits.DNI_WIDTH];
+        for (int i = 0; i < RECORDS; i++) {
+            var base = "20" + DoiKeys.format(random.nextInt(100_000_000), 8);
+            var ruc = base + RUCUtils.computeCheckDigit(base);
+            if (i % 10 == 0) ruc = ruc.substring(0, 10) + (char) ('0' + (ruc.charAt(10) - '0' + 1) % 10);
+            System.arraycopy(ruc.getBytes(StandardCharsets.US_ASCII), 0, rucs, i * 11, 11);
+            System.arraycopy(ruc.getBytes(StandardCharsets.US_ASCII), 3, dnis, i * 8, 8);
+        }
+
+        System.out.printf(Locale.ROOT, "%-40s %10s%n", "kernel", "ns/record");
+        run("RUC valid, String + RUCUtils.isRUCValid", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) {
+                if (RUCUtils.isRUCValid(new String(rucs, i * 11, 11, StandardCharsets.ISO_8859_1))) acc++;
+            }
+            return acc;
+        });
+        run("RUC valid, scalar byte loop", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) if (scalarRucValid(rucs, i * 11)) acc++;
+            return acc;
+        });
+        run("RUC valid, SwarDigits.isRUCValid", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) if (SwarDigits.isRUCValid(rucs, i * 11)) acc++;
+            return acc;
+        });
+        run("DNI pack, String + DoiKeys.parseDigits", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) {
+                acc += DoiKeys.parseDigits(new String(dnis, i * 8, 8, StandardCharsets.ISO_8859_1));
+            }
+            return acc;
+        });
+        run("DNI pack, scalar byte loop", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) acc += scalarParse(dnis, i * 8, 8);
+            return acc;
+        });
+        run("DNI pack, SwarDigits.parseDni", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) acc += SwarDigits.parseDni(dnis, i * 8);
+            return acc;
+        });
+        run("RUC pack, scalar byte loop", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) acc += scalarParse(rucs, i * 11, 11);
+            return acc;
+        });
+        run("RUC pack, SwarDigits.parseRuc", () -> {
+            long acc = 0;
+            for (int i = 0; i < RECORDS; i++) acc += SwarDigits.parseRuc(rucs, i * 11);
+            return acc;
+        });
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    /**
+     * Kernel under measurement: processes the whole column in its own loop, so
+     * that each kernel call site stays monomorphic.
+     */
+    @FunctionalInterface
+    interface Column {
+        long process();
+    }
+
+    private static void run(String name, Column kernel) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += kernel.process();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf(Locale.ROOT, "%-40s %10.2f%n", name, best / (double) RECORDS);
+    }
+
+    private static long scalarParse(byte[] bytes, int offset, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            int d = bytes[offset + i] - '0';
+            if (d < 0 || d > 9) return DoiKeys.NO_KEY;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static boolean scalarRucValid(byte[] bytes, int offset) {
+        int sum = 0;
+        for (int i = 0; i < 11; i++) {
+            int d = bytes[offset + i] - '0';
+            if (d < 0 || d > 9) return false;
+            if (i < 10) sum += d * RUCUtils.weightAt(i);
+        }
+        int prefix = (bytes[offset] - '0') * 10 + bytes[offset + 1] - '0';
+        return RUCUtils.isValidPrefix(prefix) && RUCUtils.checkDigitOf(sum) == bytes[offset + 10];
+    }
+}
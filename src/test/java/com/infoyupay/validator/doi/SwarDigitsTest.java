@@ -0,0 +1,98 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the SWAR digit kernels of {@link SwarDigits}.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class SwarDigitsTest {
+
+    /**
+     * The all-digits check accepts exactly the bytes {@code '0'}–{@code '9'} in every position.
+     */
+    @Test
+    @DisplayName("isEightDigits(): exhaustive per byte position")
+    void testEightDigitsCheck() {
+        long digits = 0x3736353433323130L; // "01234567"
+        for (int position = 0; position < 8; position++) {
+            for (int b = 0; b < 256; b++) {
+                long word = digits & ~(0xFFL << 8 * position) | (long) b << 8 * position;
+                assertThat(SwarDigits.isEightDigits(word)).as("byte %d at %d", b, position)
+                        .isEqualTo(b >= '0' && b <= '9');
+            }
+        }
+    }
+
+    /**
+     * Random fields, valid and corrupted, agree with the scalar String-based code,
+     * from arrays, heap buffers and direct buffers at unaligned offsets.
+     */
+    @Test
+    @DisplayName("parseDni/parseRuc/isRUCValid: agree with DoiKeys and RUCUtils")
+    void testAgreesWithScalar() {
+        var random = new Random(36);
+        var bytes = new byte[32];
+        var direct = ByteBuffer.allocateDirect(bytes.length);
+        for (int n = 0; n < 200_000; n++) {
+            int offset = random.nextInt(bytes.length - SwarDigits.RUC_WIDTH + 1);
+            long value = (long) (random.nextDouble() * 1e11);
+            var digits = DoiKeys.format(value, 11);
+            if (n % 3 == 0) {
+                digits = digits.substring(0, 10) + RUCUtils.computeCheckDigit("20" + digits.substring(2, 10));
+                digits = "20" + digits.substring(2);
+            }
+            var field = digits.getBytes(StandardCharsets.US_ASCII);
+            if (n % 5 == 0) field[random.nextInt(11)] = (byte) random.nextInt(256);
+            System.arraycopy(field, 0, bytes, offset, field.length);
+            direct.clear();
+            direct.put(bytes);
+
+            var text = new String(bytes, offset, 11, StandardCharsets.ISO_8859_1);
+            boolean ascii = text.chars().allMatch(c -> c >= '0' && c <= '9');
+            long expectedRuc = DoiKeys.parseDigits(text);
+            long expectedDni = DoiKeys.parseDigits(text.substring(0, 8));
+            boolean expectedValid = ascii && RUCUtils.isRUCValid(text);
+
+            assertThat(SwarDigits.parseRuc(bytes, offset)).as(text).isEqualTo(expectedRuc);
+            assertThat(SwarDigits.parseRuc(direct, offset)).as(text).isEqualTo(expectedRuc);
+            assertThat(SwarDigits.parseDni(bytes, offset)).as(text).isEqualTo(expectedDni);
+            assertThat(SwarDigits.parseDni(ByteBuffer.wrap(bytes), offset)).as(text).isEqualTo(expectedDni);
+            assertThat(SwarDigits.isRUCValid(bytes, offset)).as(text).isEqualTo(expectedValid);
+            assertThat(SwarDigits.isRUCValid(direct, offset)).as(text).isEqualTo(expectedValid);
+        }
+        assertThat(SwarDigits.isRUCValid("20607854247".getBytes(StandardCharsets.US_ASCII), 0)).isTrue();
+        assertThatThrownBy(() -> SwarDigits.parseRuc(new byte[10], 0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
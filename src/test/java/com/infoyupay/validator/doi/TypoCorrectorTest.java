@@ -0,0 +1,103 @@
+/*
+ * pe.validator.doi
+ * COPYLEFT 2025
+ * Ingenieria Informatica Yupay SACS
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ *  with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.infoyupay.validator.doi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for one-keystroke typo correction of RUC and DNI numbers.
+ *
+ * @author David Vidal
+ * @version 1.0
+ */
+public class TypoCorrectorTest {
+
+    /**
+     * A wrong digit and a swapped pair in the InfoYupay RUC must both suggest the original.
+     */
+    @Test
+    @DisplayName("suggestRUC(): substitution and transposition typos recover the original RUC")
+    void testRecoversOriginal() {
+        assertThat(TypoCorrector.suggestRUC("20607954247", true, null)).contains("20607854247");
+        assertThat(TypoCorrector.suggestRUC("20-67085424-7", false, null)).contains("20607854247");
+        assertThat(TypoCorrector.suggestRUC("20607954247", true, k -> k == 20607854247L))
+                .containsExactly("20607854247");
+    }
+
+    /**
+     * Packed candidate generation must match a naive string-based enumeration.
+     */
+    @Test
+    @DisplayName("rucCandidates(): matches string-based enumeration of valid variants")
+    void testMatchesNaiveEnumeration() {
+        var random = new Random(11L);
+        for (int n = 0; n < 500; n++) {
+            long ruc = (random.nextInt(3) == 0 ? 10_000_000_000L : 20_000_000_000L)
+                    + (long) (random.nextDouble() * 1_000_000_000L);
+            var raw = DoiKeys.format(ruc, 11);
+
+            Set<String> expected = new HashSet<>();
+            for (int p = 0; p < 11; p++) {
+                for (char d = '0'; d <= '9'; d++) {
+                    var chars = raw.toCharArray();
+                    if (chars[p] == d) continue;
+                    chars[p] = d;
+                    addIfValid(expected, new String(chars));
+                }
+                if (p < 10 && raw.charAt(p) != raw.charAt(p + 1)) {
+                    var chars = raw.toCharArray();
+                    chars[p] = raw.charAt(p + 1);
+                    chars[p + 1] = raw.charAt(p);
+                    addIfValid(expected, new String(chars));
+                }
+            }
+
+            Set<String> actual = new HashSet<>();
+            for (long candidate : TypoCorrector.rucCandidates(ruc, null)) {
+                actual.add(DoiKeys.format(candidate, 11));
+            }
+            assertThat(actual).as(raw).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * DNI candidates are limited to the supplied membership predicate.
+     */
+    @Test
+    @DisplayName("suggestDNI(): only known DNIs are suggested")
+    void testDniKnownOnly() {
+        Set<Long> known = Set.of(45678901L, 45679801L, 99999999L);
+        assertThat(TypoCorrector.suggestDNI("45678991", true, known::contains))
+                .containsExactly("45678901");
+        assertThat(TypoCorrector.suggestDNI("45.67.89.01", false, known::contains))
+                .containsExactlyInAnyOrder("45679801");
+    }
+
+    private static void addIfValid(Set<String> set, String ruc) {
+        if (RUCUtils.isRUCValid(ruc)) set.add(ruc);
+    }
+}